@@ -0,0 +1,276 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.djunits.unit.SpeedUnit;
+import org.djunits.value.vdouble.scalar.Speed;
+
+import nl.tudelft.simulation.simport.ndw.SiteMetadata;
+import nl.tudelft.simulation.simport.network.Centroid;
+import nl.tudelft.simulation.simport.network.RoadLink;
+import nl.tudelft.simulation.simport.network.RoadNetwork;
+import nl.tudelft.simulation.simport.network.RoadNode;
+
+/**
+ * BenchmarkData generates synthetic input data for the benchmarks: a grid road network, an O/D csv file, a dbf file, and an NDW
+ * zip file with measurement site metadata.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public final class BenchmarkData
+{
+    /** */
+    private BenchmarkData()
+    {
+        // utility class
+    }
+
+    /**
+     * Create a square grid network around Rotterdam with links in both directions, and centroids on a subset of the grid
+     * points. The centroids get an eid equal to their id.
+     * @param model the benchmark model, for which the network is set
+     * @param size the number of nodes along each side of the grid
+     * @param nrCentroids the number of centroids
+     * @return the road network
+     */
+    public static RoadNetwork gridNetwork(final BenchmarkModel model, final int size, final int nrCentroids)
+    {
+        RoadNetwork network = new RoadNetwork(model.getModel());
+        model.setRoadNetwork(network);
+        Random random = new Random(1L);
+        RoadNode[][] nodes = new RoadNode[size][size];
+        for (int i = 0; i < size; i++)
+        {
+            for (int j = 0; j < size; j++)
+            {
+                nodes[i][j] = new RoadNode(4.0 + 0.01 * i, 51.8 + 0.01 * j);
+                network.getRoadNodeMap().put(nodes[i][j], nodes[i][j]);
+            }
+        }
+        Speed[] speeds = new Speed[] {new Speed(50.0, SpeedUnit.KM_PER_HOUR), new Speed(80.0, SpeedUnit.KM_PER_HOUR),
+                new Speed(100.0, SpeedUnit.KM_PER_HOUR)};
+        int linkNr = 0;
+        for (int i = 0; i < size; i++)
+        {
+            for (int j = 0; j < size; j++)
+            {
+                if (i + 1 < size)
+                {
+                    addLink(network, "L" + linkNr++, nodes[i][j], nodes[i + 1][j], speeds[random.nextInt(3)]);
+                    addLink(network, "L" + linkNr++, nodes[i + 1][j], nodes[i][j], speeds[random.nextInt(3)]);
+                }
+                if (j + 1 < size)
+                {
+                    addLink(network, "L" + linkNr++, nodes[i][j], nodes[i][j + 1], speeds[random.nextInt(3)]);
+                    addLink(network, "L" + linkNr++, nodes[i][j + 1], nodes[i][j], speeds[random.nextInt(3)]);
+                }
+            }
+        }
+        for (int c = 0; c < nrCentroids; c++)
+        {
+            Centroid centroid = new Centroid("C" + c, 4.0 + 0.01 * (size - 1) * random.nextDouble(),
+                    51.8 + 0.01 * (size - 1) * random.nextDouble());
+            centroid.setEid("C" + c);
+            network.addCentroid(centroid.getEid(), centroid);
+        }
+        return network;
+    }
+
+    /**
+     * Add a link to the network.
+     * @param network the network
+     * @param id the link id
+     * @param from the from node
+     * @param to the to node
+     * @param speed the maximum speed
+     */
+    private static void addLink(final RoadNetwork network, final String id, final RoadNode from, final RoadNode to,
+            final Speed speed)
+    {
+        RoadLink link = new RoadLink(id, from, to);
+        link.setMaxSpeed(speed);
+        network.addRoadLink(link);
+    }
+
+    /**
+     * Write a square O/D csv file with a header row and a header column, and random volumes.
+     * @param path the file to write
+     * @param size the number of origins and destinations
+     * @return the labels of the origins and destinations
+     * @throws IOException on write error
+     */
+    public static List<String> writeOdCsv(final Path path, final int size) throws IOException
+    {
+        Random random = new Random(2L);
+        List<String> labels = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+            labels.add("zone " + i);
+        try (Writer w = Files.newBufferedWriter(path, StandardCharsets.UTF_8))
+        {
+            w.write("od");
+            for (String label : labels)
+                w.write("," + label);
+            w.write("\n");
+            for (String label : labels)
+            {
+                w.write(label);
+                for (int j = 0; j < size; j++)
+                    w.write("," + (random.nextInt(10) < 3 ? "0" : String.format("%.2f", 100.0 * random.nextDouble())));
+                w.write("\n");
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Write a dBase III file with character columns "id", "name", "type" and numeric columns "speed" and "lanes".
+     * @param path the file to write
+     * @param nrRecords the number of records
+     * @throws IOException on write error
+     */
+    public static void writeDbf(final Path path, final int nrRecords) throws IOException
+    {
+        String[] names = new String[] {"id", "name", "type", "speed", "lanes"};
+        char[] types = new char[] {'C', 'C', 'C', 'N', 'N'};
+        int[] lengths = new int[] {10, 40, 12, 8, 4};
+        int recordLength = 1;
+        for (int l : lengths)
+            recordLength += l;
+        int headerLength = 33 + 32 * names.length;
+        ByteBuffer bb = ByteBuffer.allocate(headerLength + nrRecords * recordLength + 1).order(ByteOrder.LITTLE_ENDIAN);
+        bb.put(0, (byte) 3);
+        bb.putInt(4, nrRecords);
+        bb.putShort(8, (short) headerLength);
+        bb.putShort(10, (short) recordLength);
+        for (int c = 0; c < names.length; c++)
+        {
+            int d = 32 + 32 * c;
+            byte[] name = names[c].getBytes(StandardCharsets.US_ASCII);
+            for (int k = 0; k < name.length; k++)
+                bb.put(d + k, name[k]);
+            bb.put(d + 11, (byte) types[c]);
+            bb.put(d + 16, (byte) lengths[c]);
+        }
+        bb.put(headerLength - 1, (byte) 0x0D);
+        Random random = new Random(3L);
+        String[] roadTypes = new String[] {"motorway", "primary", "secondary", "residential"};
+        for (int r = 0; r < nrRecords; r++)
+        {
+            int pos = headerLength + r * recordLength;
+            bb.put(pos++, (byte) ' ');
+            String[] values = new String[] {String.valueOf(r), "road section " + r, roadTypes[random.nextInt(4)],
+                    String.format("%.1f", 30.0 + 10.0 * random.nextInt(8)), String.valueOf(1 + random.nextInt(4))};
+            for (int c = 0; c < names.length; c++)
+            {
+                String v = String.format(types[c] == 'N' ? "%" + lengths[c] + "s" : "%-" + lengths[c] + "s", values[c]);
+                byte[] b = v.getBytes(StandardCharsets.US_ASCII);
+                for (int k = 0; k < lengths[c]; k++)
+                    bb.put(pos + k, b[k]);
+                pos += lengths[c];
+            }
+        }
+        bb.put(headerLength + nrRecords * recordLength, (byte) 0x1A);
+        Files.write(path, bb.array());
+    }
+
+    /**
+     * Create the metadata of synthetic NDW measurement sites near Rotterdam, with measured value indexes 1-3 for the flows and
+     * 4-6 for the speeds of three vehicle length bands.
+     * @param nrSites the number of measurement sites
+     * @return the metadata per site id
+     */
+    public static Map<String, SiteMetadata> ndwMetadata(final int nrSites)
+    {
+        SiteMetadata.VehicleLengthBand[] bands = new SiteMetadata.VehicleLengthBand[] {
+                new SiteMetadata.VehicleLengthBand(null, 5.6, "vehicleLength"),
+                new SiteMetadata.VehicleLengthBand(5.6, 12.2, "vehicleLength"),
+                new SiteMetadata.VehicleLengthBand(12.2, null, "vehicleLength")};
+        Map<String, SiteMetadata> metadata = new HashMap<>();
+        for (int s = 0; s < nrSites; s++)
+        {
+            Map<Integer, SiteMetadata.VehicleLengthBand> indexToBand = new HashMap<>();
+            for (int i = 1; i <= 6; i++)
+                indexToBand.put(i, bands[(i - 1) % 3]);
+            String id = ndwSiteId(s);
+            metadata.put(id, new SiteMetadata(id, "A" + (s % 40), s % 2 == 0 ? "L" : "R", 51.8 + 1E-5 * s, 4.0 + 1.3E-5 * s, 3,
+                    "site " + s, 0.1 * (s % 500), indexToBand));
+        }
+        return metadata;
+    }
+
+    /**
+     * Write a zip file with one gzipped DATEX II XML entry per minute, as in the NDW trafficspeed files, with 3 flows and 3
+     * speeds for each of the sites of ndwMetadata().
+     * @param path the file to write
+     * @param nrEntries the number of entries (minutes)
+     * @param nrSites the number of measurement sites
+     * @return the number of measured values in the file
+     * @throws IOException on write error
+     */
+    public static long writeNdwZip(final Path path, final int nrEntries, final int nrSites) throws IOException
+    {
+        Random random = new Random(4L);
+        long nrValues = 0;
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(path)))
+        {
+            for (int m = 0; m < nrEntries; m++)
+            {
+                String time = String.format("2024-01-08T%02d:%02d:00Z", m / 60, m % 60);
+                zip.putNextEntry(new ZipEntry(String.format("2024-01-08_%02d_%02d_00_trafficspeed.xml.gz", m / 60, m % 60)));
+                GZIPOutputStream gzip = new GZIPOutputStream(zip, 1 << 16);
+                Writer w = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 1 << 16);
+                w.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<d2LogicalModel xmlns=\"http://datex2.eu/schema/2/2_0\" "
+                        + "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"><payloadPublication>\n");
+                for (int s = 0; s < nrSites; s++)
+                {
+                    w.write("<siteMeasurements><measurementSiteReference id=\"" + ndwSiteId(s)
+                            + "\" version=\"1\"/><measurementTimeDefault>" + time + "</measurementTimeDefault>\n");
+                    for (int i = 1; i <= 3; i++)
+                        w.write("<measuredValue index=\"" + i + "\"><basicData xsi:type=\"TrafficFlow\"><vehicleFlow>"
+                                + "<vehicleFlowRate>" + random.nextInt(3000) + "</vehicleFlowRate></vehicleFlow></basicData>"
+                                + "</measuredValue>\n");
+                    for (int i = 4; i <= 6; i++)
+                        w.write("<measuredValue index=\"" + i + "\"><basicData xsi:type=\"TrafficSpeed\"><averageVehicleSpeed>"
+                                + "<speed>" + (random.nextInt(10) == 0 ? "-1" : String.valueOf(20 + random.nextInt(110)))
+                                + "</speed></averageVehicleSpeed></basicData></measuredValue>\n");
+                    w.write("</siteMeasurements>\n");
+                    nrValues += 6;
+                }
+                w.write("</payloadPublication></d2LogicalModel>\n");
+                w.flush();
+                gzip.finish();
+                zip.closeEntry();
+            }
+        }
+        return nrValues;
+    }
+
+    /**
+     * @param s the number of the site
+     * @return the NDW id of the site
+     */
+    private static String ndwSiteId(final int s)
+    {
+        return String.format("RWS01_MONIBAS_%07d", s);
+    }
+
+}
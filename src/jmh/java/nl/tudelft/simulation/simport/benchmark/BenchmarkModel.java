@@ -0,0 +1,245 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.djunits.value.vdouble.scalar.Duration;
+
+import nl.tudelft.simulation.dsol.experiment.Replication;
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.dsol.simulators.clock.ClockDevsSimulatorInterface;
+import nl.tudelft.simulation.dsol.simulators.clock.ClockTime;
+import nl.tudelft.simulation.jstats.distributions.DistUniform;
+import nl.tudelft.simulation.jstats.streams.MersenneTwister;
+import nl.tudelft.simulation.jstats.streams.StreamInterface;
+import nl.tudelft.simulation.simport.model.ModelParameters;
+import nl.tudelft.simulation.simport.model.PortModel;
+import nl.tudelft.simulation.simport.network.Centroid;
+import nl.tudelft.simulation.simport.network.RoadNetwork;
+import nl.tudelft.simulation.simport.terminal.ContainerFacility;
+
+/**
+ * BenchmarkModel provides a minimal PortModel and simulator for the benchmarks, as dynamic proxies. The simulator does not
+ * execute events: scheduled events are ignored, and the simulator time stays at the start time of a replication of a year.
+ * Input parameters are taken from a map; boolean parameters default to true, and the other parameters that are compiled into
+ * the ModelParameters have a default value that a benchmark can override.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class BenchmarkModel implements InvocationHandler
+{
+    /** the start time of the simulation. */
+    private final ClockTime startTime = ClockTime.ofLocalDateTime(LocalDateTime.of(2025, 1, 6, 0, 0));
+
+    /** the input parameters. */
+    private final Map<String, Object> parameters = new HashMap<>();
+
+    /** the terminal centroids. */
+    private final Set<Centroid> terminalCentroids = new LinkedHashSet<>();
+
+    /** the random stream. */
+    private final StreamInterface stream = new MersenneTwister(10L);
+
+    /** the standard uniform distribution. */
+    private final DistUniform u01 = new DistUniform(this.stream, 0.0, 1.0);
+
+    /** the replication, with a run length of a year. */
+    private final Replication<Duration> replication =
+            new SingleReplication<>("benchmark", Duration.ZERO, Duration.ZERO, Duration.ofSI(365.0 * 86400.0));
+
+    /** unique number counter. */
+    private final AtomicInteger uniqueNr = new AtomicInteger(0);
+
+    /** the compiled input parameters, null when they have to be compiled again. */
+    private ModelParameters modelParameters;
+
+    /** the road network, can be null. */
+    private RoadNetwork roadNetwork;
+
+    /** the model proxy. */
+    private final PortModel model;
+
+    /** the simulator proxy. */
+    private final ClockDevsSimulatorInterface simulator;
+
+    /**
+     * Create a benchmark model.
+     */
+    public BenchmarkModel()
+    {
+        this.model = (PortModel) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PortModel.class}, this);
+        this.simulator = (ClockDevsSimulatorInterface) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {ClockDevsSimulatorInterface.class}, this::invokeSimulator);
+        setParameter("terminal.CutoffTransloadingDeepsea", "3day").setParameter("terminal.CutoffTransloadingFeeder", "2day")
+                .setParameter("terminal.TransloadingBufferTime", "2day").setParameter("terminal.TransloadingMatchInterval", "1day")
+                .setParameter("terminal.MaxDeepseaTransloadFraction", 0.3).setParameter("terminal.GenerateDeepsea", "14day")
+                .setParameter("terminal.GenerateFeeder", "7day").setParameter("truck.FractionSaturday", 0.5)
+                .setParameter("truck.FractionSunday", 0.2)
+                .setParameter("truck.HourWeights", "1,1,1,1,1,2,4,6,8,8,8,8,8,8,8,8,6,4,2,2,1,1,1,1");
+    }
+
+    /**
+     * Set an input parameter.
+     * @param key the key, e.g., "truck.FractionSaturday"
+     * @param value the value
+     * @return the benchmark model for method chaining
+     */
+    public BenchmarkModel setParameter(final String key, final Object value)
+    {
+        this.parameters.put(key, value);
+        this.modelParameters = null;
+        return this;
+    }
+
+    /**
+     * Set the road network.
+     * @param network the road network
+     */
+    public void setRoadNetwork(final RoadNetwork network)
+    {
+        this.roadNetwork = network;
+    }
+
+    /** @return the terminal centroids (modifiable) */
+    public Set<Centroid> getTerminalCentroids()
+    {
+        return this.terminalCentroids;
+    }
+
+    /** @return the model proxy */
+    public PortModel getModel()
+    {
+        return this.model;
+    }
+
+    /** @return the simulator proxy */
+    public ClockDevsSimulatorInterface getSimulator()
+    {
+        return this.simulator;
+    }
+
+    /**
+     * Create a container facility proxy that only has an id.
+     * @param id the id of the facility
+     * @return a container facility proxy
+     */
+    public ContainerFacility facility(final String id)
+    {
+        return (ContainerFacility) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {ContainerFacility.class}, (proxy, method, args) -> switch (method.getName())
+                {
+                    case "getId", "toString" -> id;
+                    case "getModel" -> this.model;
+                    case "getSimulator" -> this.simulator;
+                    default -> defaultValue(method);
+                });
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable
+    {
+        return switch (method.getName())
+        {
+            case "getSimulator" -> this.simulator;
+            case "getInputParameterBoolean" -> this.parameters.getOrDefault(args[0], Boolean.TRUE);
+            case "getInputParameterDouble", "getInputParameterString", "getInputParameterInteger" -> param(args[0]);
+            case "getModelParameters" -> modelParameters();
+            case "getU01" -> this.u01;
+            case "getRandomStream", "getDefaultStream" -> this.stream;
+            case "getRoadNetwork" -> this.roadNetwork;
+            case "getTargetCombinedOneTerminalFraction" -> param("model.TargetCombinedOneTerminalFraction");
+            case "getTargetCombinedTwoTerminalFraction" -> param("model.TargetCombinedTwoTerminalFraction");
+            case "getTerminalCentroids" -> this.terminalCentroids;
+            case "getVesselMap", "getTerminalMap" -> new LinkedHashMap<>();
+            case "uniqueContainerNr", "uniqueBookingNr", "uniqueVesselNr", "uniqueTruckNr", "uniqueTransportOrderNr" -> this.uniqueNr
+                    .incrementAndGet();
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "BenchmarkModel";
+            default -> defaultValue(method);
+        };
+    }
+
+    /**
+     * Handle a call on the simulator proxy.
+     * @param proxy the proxy
+     * @param method the method
+     * @param args the arguments
+     * @return the result
+     */
+    private Object invokeSimulator(final Object proxy, final Method method, final Object[] args)
+    {
+        return switch (method.getName())
+        {
+            case "getSimulatorClockTime" -> this.startTime;
+            case "getSimulatorTime" -> Duration.ZERO;
+            case "getStartTime" -> this.startTime;
+            case "getReplication" -> this.replication;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "BenchmarkSimulator";
+            default -> defaultValue(method);
+        };
+    }
+
+    /**
+     * @return the compiled input parameters, compiled again when a parameter has been set
+     */
+    private ModelParameters modelParameters()
+    {
+        if (this.modelParameters == null)
+            this.modelParameters = ModelParameters.compile(this.model);
+        return this.modelParameters;
+    }
+
+    /**
+     * @param key the parameter key
+     * @return the parameter value
+     * @throws IllegalArgumentException when the parameter has not been set
+     */
+    private Object param(final Object key)
+    {
+        Object value = this.parameters.get(key);
+        if (value == null)
+            throw new IllegalArgumentException("benchmark parameter " + key + " not set");
+        return value;
+    }
+
+    /**
+     * @param method the method
+     * @return the default value for the return type of the method
+     */
+    private static Object defaultValue(final Method method)
+    {
+        Class<?> c = method.getReturnType();
+        if (!c.isPrimitive() || c == void.class)
+            return null;
+        if (c == boolean.class)
+            return Boolean.TRUE;
+        if (c == double.class)
+            return 0.0;
+        if (c == float.class)
+            return 0.0f;
+        if (c == long.class)
+            return 0L;
+        if (c == char.class)
+            return '\0';
+        if (c == byte.class)
+            return (byte) 0;
+        if (c == short.class)
+            return (short) 0;
+        return 0;
+    }
+
+}
@@ -0,0 +1,45 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * BenchmarkRunner runs the benchmarks of the simulation hot paths, and writes the results in JSON to
+ * target/jmh-result-&lt;version&gt;.json, so the results of successive releases can be compared. Standard JMH command line
+ * options can be given, e.g., a regular expression to select benchmarks, or -f 1 -wi 2 -i 3 for a quick run.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public final class BenchmarkRunner
+{
+    /** */
+    private BenchmarkRunner()
+    {
+        // utility class
+    }
+
+    /**
+     * @param args JMH command line options
+     * @throws RunnerException on benchmark error
+     * @throws CommandLineOptionException on illegal command line options
+     */
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException
+    {
+        String version = BenchmarkRunner.class.getPackage().getImplementationVersion();
+        String result = "target/jmh-result-" + (version == null ? "dev" : version) + ".json";
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLine).resultFormat(ResultFormatType.JSON).result(result);
+        if (commandLine.getIncludes().isEmpty())
+            builder.include(BenchmarkRunner.class.getPackageName() + ".*Benchmark");
+        new Runner(builder.build()).run();
+    }
+
+}
@@ -0,0 +1,164 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.tudelft.simulation.dsol.simulators.clock.ClockTime;
+import nl.tudelft.simulation.simport.Location;
+import nl.tudelft.simulation.simport.container.Booking;
+import nl.tudelft.simulation.simport.container.Container;
+import nl.tudelft.simulation.simport.model.PortModel;
+import nl.tudelft.simulation.simport.terminal.Terminal;
+import nl.tudelft.simulation.simport.vessel.Vessel;
+import nl.tudelft.simulation.simport.vessel.VesselType;
+
+/**
+ * BookingAllocationBenchmark measures the matching of transshipment bookings between feeders and deepsea vessels, and the
+ * allocation of the remaining bookings to a mode of transport after the cutoff. The drawing of the mode of transport is
+ * replaced by a counter, so the benchmark measures the administration of the bookings.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class BookingAllocationBenchmark
+{
+    /** the number of vessels; every third vessel is a deepsea vessel. */
+    @Param({"200"})
+    private int nrVessels;
+
+    /** the number of bookings per vessel, half of them for loading and half of them for unloading. */
+    @Param({"5000"})
+    private int nrBookings;
+
+    /** the benchmark model. */
+    private BenchmarkModel model;
+
+    /** the terminal for the next invocation. */
+    private CountingTerminal terminal;
+
+    /** Set the parameters for the allocation. */
+    @Setup(Level.Trial)
+    public void setupTrial()
+    {
+        this.model = new BenchmarkModel();
+        this.model.setParameter("terminal.CutoffTransloadingDeepsea", "3day")
+                .setParameter("terminal.CutoffTransloadingFeeder", "2day")
+                .setParameter("terminal.TransloadingBufferTime", "2day")
+                .setParameter("terminal.MaxDeepseaTransloadFraction", 0.3)
+                .setParameter("terminal.TransloadingMatchInterval", "1day");
+    }
+
+    /** Create a terminal with vessels that arrive in the next 3 weeks, and add their bookings. */
+    @Setup(Level.Invocation)
+    public void setupInvocation()
+    {
+        PortModel portModel = this.model.getModel();
+        this.terminal = new CountingTerminal(portModel);
+        this.terminal.setTransshipmentFractionImport(0.4);
+        this.terminal.setTransshipmentFractionExport(0.4);
+        Random random = new Random(9L);
+        ClockTime start = this.model.getSimulator().getSimulatorClockTime();
+        int bookingNr = 0;
+        for (int v = 0; v < this.nrVessels; v++)
+        {
+            VesselType type = v % 3 == 0 ? VesselType.DEEPSEA : VesselType.FEEDER;
+            ClockTime eta = new ClockTime(start.plus(new Duration(21.0 * random.nextDouble(), DurationUnit.DAY)));
+            ClockTime etd = new ClockTime(eta.plus(new Duration(1.0, DurationUnit.DAY)));
+            Vessel vessel = new Vessel(type, portModel, eta, etd, this.terminal);
+            List<Booking> loadList = new ArrayList<>();
+            List<Booking> unloadList = new ArrayList<>();
+            for (int b = 0; b < this.nrBookings; b++)
+            {
+                int size = random.nextInt(3) == 0 ? 20 : 40;
+                boolean empty = random.nextInt(5) == 0;
+                boolean reefer = random.nextInt(10) == 0;
+                boolean loading = b % 2 == 0;
+                Booking booking = new Booking(vessel, loading, bookingNr++, size, empty, reefer);
+                if (loading)
+                    loadList.add(booking);
+                else
+                {
+                    booking.setContainer(new Container(booking.getNr(), size, empty, reefer,
+                            type.isDeepSea() ? Location.DEEPSEA : Location.FEEDER));
+                    unloadList.add(booking);
+                }
+            }
+            vessel.setLoadList(loadList);
+            this.terminal.addToUnallocatedExportMap(vessel);
+            vessel.setUnloadList(unloadList);
+            this.terminal.addToUnallocatedImportMap(vessel);
+        }
+    }
+
+    /**
+     * @return the number of allocated bookings
+     */
+    @Benchmark
+    public long allocateBookings()
+    {
+        return this.terminal.allocate();
+    }
+
+    /**
+     * Terminal that counts the bookings that are allocated to a mode of transport instead of planning their transport.
+     */
+    public static class CountingTerminal extends Terminal
+    {
+        /** the number of allocated bookings. */
+        private long nrAllocated = 0;
+
+        /**
+         * @param model the model
+         */
+        public CountingTerminal(final PortModel model)
+        {
+            super("T", "Terminal", model, 51.9, 4.1);
+        }
+
+        @Override
+        protected void drawExportMode(final Vessel vessel, final Booking booking)
+        {
+            this.nrAllocated++;
+        }
+
+        @Override
+        protected void drawImportMode(final Vessel vessel, final Booking booking)
+        {
+            this.nrAllocated++;
+        }
+
+        /**
+         * Run the allocation once.
+         * @return the number of allocated bookings
+         */
+        public long allocate()
+        {
+            allocateBookings();
+            return this.nrAllocated;
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nl.tudelft.simulation.simport.gis.DbfReader;
+
+/**
+ * DbfReaderBenchmark measures reading all records of a dbf file row by row, all at once, and with the forward cursor.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DbfReaderBenchmark
+{
+    /** the number of records. */
+    @Param({"100000"})
+    private int nrRecords;
+
+    /** the dbf file. */
+    private Path dbf;
+
+    /** the reader. */
+    private DbfReader reader;
+
+    /**
+     * Write the dbf file and open the reader.
+     * @throws IOException on i/o error
+     */
+    @Setup
+    public void setup() throws IOException
+    {
+        this.dbf = Files.createTempFile("bench", ".dbf");
+        BenchmarkData.writeDbf(this.dbf, this.nrRecords);
+        this.reader = new DbfReader(this.dbf.toUri().toURL());
+    }
+
+    /**
+     * @throws IOException on i/o error
+     */
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        this.reader = null;
+        Files.deleteIfExists(this.dbf);
+    }
+
+    /**
+     * @param bh the blackhole
+     * @throws IOException on i/o error
+     */
+    @Benchmark
+    public void getRow(final Blackhole bh) throws IOException
+    {
+        for (int r = 0; r < this.nrRecords; r++)
+            bh.consume(this.reader.getRow(r));
+    }
+
+    /**
+     * @param bh the blackhole
+     * @throws IOException on i/o error
+     */
+    @Benchmark
+    public void getRows(final Blackhole bh) throws IOException
+    {
+        bh.consume(this.reader.getRows());
+    }
+
+    /**
+     * @param bh the blackhole
+     * @throws IOException on i/o error
+     */
+    @Benchmark
+    public void cursor(final Blackhole bh) throws IOException
+    {
+        int idCol = this.reader.getColumnIndex("id");
+        int speedCol = this.reader.getColumnIndex("speed");
+        int lanesCol = this.reader.getColumnIndex("lanes");
+        this.reader.reset();
+        while (this.reader.next())
+        {
+            bh.consume(this.reader.getString(idCol));
+            bh.consume(this.reader.getDouble(speedCol));
+            bh.consume(this.reader.getInt(lanesCol));
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import nl.tudelft.simulation.jstats.streams.MersenneTwister;
+import nl.tudelft.simulation.jstats.streams.StreamInterface;
+import nl.tudelft.simulation.simport.util.AliasTable;
+
+/**
+ * DiscreteSamplerBenchmark compares a draw from a cumulative NavigableMap with ceilingEntry() to a draw from an AliasTable with
+ * the same weights, for the 24 hours of the day and for the number of centroids in an O/D matrix.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DiscreteSamplerBenchmark
+{
+    /** the number of values. */
+    @Param({"24", "1000", "10000"})
+    private int size;
+
+    /** the random stream. */
+    private final StreamInterface stream = new MersenneTwister(5L);
+
+    /** the cumulative map. */
+    private NavigableMap<Double, Integer> map;
+
+    /** the alias table. */
+    private AliasTable<Integer> alias;
+
+    /**
+     * Create the map and the alias table with random weights.
+     */
+    @Setup
+    public void setup()
+    {
+        double[] weights = new double[this.size];
+        List<Integer> values = new ArrayList<>(this.size);
+        double total = 0.0;
+        for (int i = 0; i < this.size; i++)
+        {
+            weights[i] = this.stream.nextDouble() < 0.3 ? 0.0 : 100.0 * this.stream.nextDouble();
+            total += weights[i];
+            values.add(i);
+        }
+        this.map = new TreeMap<>();
+        double cumulative = 0.0;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (weights[i] == 0.0)
+                continue;
+            cumulative += weights[i];
+            this.map.put(cumulative / total, i);
+        }
+        this.alias = new AliasTable<>(values, weights);
+    }
+
+    /** @return the drawn value */
+    @Benchmark
+    public Integer navigableMap()
+    {
+        return this.map.ceilingEntry(this.stream.nextDouble()).getValue();
+    }
+
+    /** @return the drawn value */
+    @Benchmark
+    public Integer aliasTable()
+    {
+        return this.alias.sample(this.stream.nextDouble());
+    }
+
+    /** @return the drawn index */
+    @Benchmark
+    public int aliasTableIndex()
+    {
+        return this.alias.sampleIndex(this.stream.nextDouble());
+    }
+
+}
@@ -0,0 +1,50 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nl.tudelft.simulation.jstats.streams.MersenneTwister;
+import nl.tudelft.simulation.jstats.streams.StreamInterface;
+import nl.tudelft.simulation.simport.util.DistributionParser;
+
+/**
+ * DistributionParserBenchmark measures the parsing of distributions from the input parameters.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DistributionParserBenchmark
+{
+    /** the distribution to parse. */
+    @Param({"uniform(1.0, 5.0)", "triangular(2.0, 4.0, 10.0)",
+            "empirical(0.0,0, 0.0247,1, 0.141,482, 0.3393,1204, 0.5135,1926, 0.6406,2649, 0.7256,3371, 0.7813,4093, "
+                    + "0.8185,4816, 0.844,5538, 0.8628,6260, 0.8805,6983, 0.9035,7705, 0.9327,8427, 0.9611,9150, "
+                    + "0.9808,9872, 0.9908,10594, 1,11798)"})
+    private String distribution;
+
+    /** the random stream. */
+    private final StreamInterface stream = new MersenneTwister(100L);
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void parseDistContinuous(final Blackhole bh)
+    {
+        bh.consume(DistributionParser.parseDistContinuous(this.distribution, this.stream));
+    }
+
+}
@@ -0,0 +1,119 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import nl.tudelft.simulation.simport.ndw.DailyDataProcessor;
+import nl.tudelft.simulation.simport.ndw.SiteMetadata;
+
+/**
+ * NdwPipelineBenchmark measures the throughput in measured values per second of processing a synthetic NDW zip file with the
+ * parallel, the ordered (barrier per bucket) and the pipelined (watermark per bucket) processing of DailyDataProcessor, for a
+ * number of parser threads.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NdwPipelineBenchmark
+{
+    /** the number of entries (minutes) in the zip file. */
+    private static final int NR_ENTRIES = 30;
+
+    /** the number of measurement sites. */
+    private static final int NR_SITES = 5000;
+
+    /** the number of measured values in the zip file: 6 per site per entry. */
+    private static final int NR_VALUES = NR_ENTRIES * NR_SITES * 6;
+
+    /** the number of parser threads. */
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    /** the processing method. */
+    @Param({"parallel", "ordered", "pipelined"})
+    private String method;
+
+    /** the zip file. */
+    private Path zipFile;
+
+    /** the site metadata. */
+    private Map<String, SiteMetadata> metadata;
+
+    /** the standard output, which is silenced during the benchmark. */
+    private PrintStream stdout;
+
+    /**
+     * Write the zip file.
+     * @throws IOException on i/o error
+     */
+    @Setup
+    public void setup() throws IOException
+    {
+        this.zipFile = Files.createTempFile("ndw", ".zip");
+        BenchmarkData.writeNdwZip(this.zipFile, NR_ENTRIES, NR_SITES);
+        this.metadata = BenchmarkData.ndwMetadata(NR_SITES);
+        this.stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Remove the zip file.
+     * @throws IOException on i/o error
+     */
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        System.setOut(this.stdout);
+        Files.deleteIfExists(this.zipFile);
+    }
+
+    /**
+     * Process the zip file into 5-minute buckets.
+     * @throws Exception on processing error
+     */
+    @Benchmark
+    @OperationsPerInvocation(NR_VALUES)
+    public void process() throws Exception
+    {
+        DailyDataProcessor processor = new DailyDataProcessor(this.metadata, 300_000L,
+                new DailyDataProcessor.BoundingBox(50.0, 3.0, 54.0, 8.0), true);
+        File file = this.zipFile.toFile();
+        Writer out = Writer.nullWriter();
+        switch (this.method)
+        {
+            case "parallel":
+                processor.processZipParallel(file, this.threads, out);
+                break;
+            case "ordered":
+                processor.processZipParallelOrderedAndStreamCsv(file, this.threads, out, true);
+                break;
+            default:
+                processor.processZipPipelined(file, this.threads, out);
+                break;
+        }
+    }
+
+}
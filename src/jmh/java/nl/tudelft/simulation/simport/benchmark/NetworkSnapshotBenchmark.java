@@ -0,0 +1,110 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.tudelft.simulation.simport.network.NetworkSnapshot;
+import nl.tudelft.simulation.simport.network.RoadNetwork;
+
+/**
+ * NetworkSnapshotBenchmark compares reading the O/D matrix from its CSV file, which is part of a cold start of the model, with
+ * reading a complete network snapshot of a grid network with an O/D matrix, which is a warm start. The shape files of the
+ * Dutch network are not part of the repository, so the cold start of the shape files is reported by RoadNetwork.readNetwork()
+ * when the model is run.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class NetworkSnapshotBenchmark
+{
+    /** the number of nodes along each side of the grid; 160 gives about 100,000 links. */
+    @Param({"160"})
+    private int gridSize;
+
+    /** the number of origins and destinations of the O/D matrix. */
+    @Param({"1500"})
+    private int odSize;
+
+    /** the benchmark model. */
+    private BenchmarkModel model;
+
+    /** the O/D csv file. */
+    private Path csv;
+
+    /** the snapshot file. */
+    private Path snapshot;
+
+    /** the content hash for the snapshot. */
+    private final byte[] hash = new byte[32];
+
+    /**
+     * Create the network, read the O/D file, and write the snapshot.
+     * @throws IOException on i/o error
+     */
+    @Setup
+    public void setup() throws IOException
+    {
+        this.model = new BenchmarkModel();
+        RoadNetwork network = BenchmarkData.gridNetwork(this.model, this.gridSize, 1000);
+        this.csv = Files.createTempFile("od", ".csv");
+        BenchmarkData.writeOdCsv(this.csv, this.odSize);
+        network.readOd(this.csv);
+        this.snapshot = Files.createTempFile("network", ".snapshot");
+        NetworkSnapshot.write(network, this.snapshot, this.hash);
+    }
+
+    /**
+     * @throws IOException on i/o error
+     */
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(this.csv);
+        Files.deleteIfExists(this.snapshot);
+    }
+
+    /**
+     * @return the network with only the O/D matrix read from the CSV file
+     */
+    @Benchmark
+    public RoadNetwork readOdCsv()
+    {
+        RoadNetwork network = new RoadNetwork(this.model.getModel());
+        network.readOd(this.csv);
+        return network;
+    }
+
+    /**
+     * @return the network read from the snapshot
+     */
+    @Benchmark
+    public RoadNetwork readSnapshot()
+    {
+        RoadNetwork network = new RoadNetwork(this.model.getModel());
+        if (!NetworkSnapshot.read(network, this.snapshot, this.hash))
+            throw new IllegalStateException("snapshot could not be read");
+        return network;
+    }
+
+}
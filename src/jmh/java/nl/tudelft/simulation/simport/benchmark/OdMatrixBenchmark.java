@@ -0,0 +1,152 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nl.tudelft.simulation.simport.network.OdMatrix;
+
+/**
+ * OdMatrixBenchmark measures reading an O/D matrix from csv, single cell lookups by label and by index, the retrieval of a row
+ * as a map and as a view, and drawing a destination for an origin.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OdMatrixBenchmark
+{
+    /** the number of origins and destinations. */
+    @Param({"100", "1000"})
+    private int size;
+
+    /** the csv file. */
+    private Path csv;
+
+    /** the labels. */
+    private String[] labels;
+
+    /** the matrix. */
+    private OdMatrix matrix;
+
+    /** the index of the next lookup. */
+    private int next = 0;
+
+    /**
+     * Write the csv file and read the matrix.
+     * @throws IOException on i/o error
+     */
+    @Setup
+    public void setup() throws IOException
+    {
+        this.csv = Files.createTempFile("od", ".csv");
+        List<String> list = BenchmarkData.writeOdCsv(this.csv, this.size);
+        this.labels = list.toArray(new String[0]);
+        this.matrix = OdMatrix.fromCsv(this.csv, ',', StandardCharsets.UTF_8, false, true, true);
+    }
+
+    /**
+     * @throws IOException on i/o error
+     */
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(this.csv);
+    }
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void get(final Blackhole bh)
+    {
+        int i = this.next++;
+        bh.consume(this.matrix.get(this.labels[i % this.size], this.labels[(i * 31) % this.size]));
+    }
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void getAllDestinationsForOrigin(final Blackhole bh)
+    {
+        bh.consume(this.matrix.getAllDestinationsForOrigin(this.labels[this.next++ % this.size]));
+    }
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void getByIndex(final Blackhole bh)
+    {
+        int i = this.next++;
+        bh.consume(this.matrix.get(i % this.size, (i * 31) % this.size));
+    }
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void sumRowView(final Blackhole bh)
+    {
+        DoubleBuffer row = this.matrix.getRow(this.next++ % this.size);
+        double sum = 0.0;
+        for (int c = 0; c < row.limit(); c++)
+            sum += row.get(c);
+        bh.consume(sum);
+    }
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void sumRowByIndex(final Blackhole bh)
+    {
+        int r = this.next++ % this.size;
+        double sum = 0.0;
+        for (int c = 0; c < this.size; c++)
+            sum += this.matrix.get(r, c);
+        bh.consume(sum);
+    }
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void sampleDestination(final Blackhole bh)
+    {
+        int i = this.next++;
+        bh.consume(this.matrix.sampleDestination(i % this.size, (i * 0.618034) % 1.0));
+    }
+
+    /**
+     * @param bh the blackhole
+     * @throws IOException on i/o error
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void fromCsv(final Blackhole bh) throws IOException
+    {
+        bh.consume(OdMatrix.fromCsv(this.csv, ',', StandardCharsets.UTF_8, false, true, true));
+    }
+
+}
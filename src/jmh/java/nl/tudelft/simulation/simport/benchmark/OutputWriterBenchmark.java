@@ -0,0 +1,140 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.djutils.event.Event;
+import org.djutils.logger.CategoryLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import nl.tudelft.simulation.dsol.experiment.Replication;
+import nl.tudelft.simulation.simport.Location;
+import nl.tudelft.simulation.simport.TransportMode;
+import nl.tudelft.simulation.simport.container.Container;
+import nl.tudelft.simulation.simport.model.PortModel;
+import nl.tudelft.simulation.simport.output.OutputWriter;
+import nl.tudelft.simulation.simport.terminal.TerminalStatistics;
+
+/**
+ * OutputWriterBenchmark measures the time that the simulation thread spends in OutputWriter.notify() for container, terminal
+ * and terminal queue events, with the output written on the simulation thread (sync) or by the writer thread (async), and
+ * with the container file written as gzip CSV or as a columnar file. The size of the container file is logged at teardown.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OutputWriterBenchmark
+{
+    /** whether the output is written by a separate writer thread. */
+    @Param({"false", "true"})
+    private boolean async;
+
+    /** the file format of the container file. */
+    @Param({"csv", "columnar"})
+    private String fileFormat;
+
+    /** the output directory. */
+    private Path outputDir;
+
+    /** the writer. */
+    private OutputWriter writer;
+
+    /** container events. */
+    private Event[] containerEvents;
+
+    /** a terminal statistics event. */
+    private Event terminalEvent;
+
+    /** a terminal queue event. */
+    private Event queueEvent;
+
+    /** the index of the next container event. */
+    private int next = 0;
+
+    /**
+     * Create the writer and the events.
+     * @throws IOException on i/o error
+     */
+    @Setup
+    public void setup() throws IOException
+    {
+        BenchmarkModel model = new BenchmarkModel().setParameter("output.FileFormat", this.fileFormat);
+        this.outputDir = Files.createTempDirectory("output");
+        this.writer = new OutputWriter(model.getModel(), this.outputDir.toString(), this.async);
+        Random random = new Random(5L);
+        this.containerEvents = new Event[1024];
+        for (int i = 0; i < this.containerEvents.length; i++)
+        {
+            Container c = new Container(i, random.nextBoolean() ? 20 : 40, random.nextDouble() < 0.3,
+                    random.nextDouble() < 0.1, Location.DEEPSEA);
+            c.addLocation(Location.TERMINAL);
+            c.addLocation(random.nextBoolean() ? Location.TRUCK : Location.BARGE);
+            c.addLocation(Location.HINTERLAND);
+            this.containerEvents[i] = new Event(PortModel.CONTAINER_EVENT, c);
+        }
+        TerminalStatistics statistics = new TerminalStatistics(model.facility("T1"), model.getSimulator());
+        for (Event e : this.containerEvents)
+            statistics.addContainerYard((Container) e.getContent(), TransportMode.DEEPSEA);
+        this.terminalEvent = new Event(PortModel.DAILY_TERMINAL_EVENT, statistics);
+        this.queueEvent = new Event(PortModel.TERMINAL_QUEUE_EVENT, new Object[] {"T1", 12});
+    }
+
+    /**
+     * Close the writer and remove the output.
+     * @throws IOException on i/o error
+     */
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        this.writer.notify(new Event(Replication.END_REPLICATION_EVENT, null));
+        try (Stream<Path> files = Files.walk(this.outputDir))
+        {
+            files.filter(p -> p.getFileName().toString().startsWith("container."))
+                    .forEach(p -> CategoryLogger.always().info("{}: {} bytes", p.getFileName(), p.toFile().length()));
+        }
+        try (Stream<Path> files = Files.walk(this.outputDir))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /** Write a container line. */
+    @Benchmark
+    public void containerEvent()
+    {
+        this.writer.notify(this.containerEvents[this.next++ & 1023]);
+    }
+
+    /** Write a terminal statistics line. */
+    @Benchmark
+    public void terminalEvent()
+    {
+        this.writer.notify(this.terminalEvent);
+    }
+
+    /** Write a terminal queue line. */
+    @Benchmark
+    public void terminalQueueEvent()
+    {
+        this.writer.notify(this.queueEvent);
+    }
+
+}
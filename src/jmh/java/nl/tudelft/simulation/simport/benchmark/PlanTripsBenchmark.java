@@ -0,0 +1,222 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.tudelft.simulation.dsol.simulators.clock.ClockTime;
+import nl.tudelft.simulation.simport.Location;
+import nl.tudelft.simulation.simport.container.Container;
+import nl.tudelft.simulation.simport.model.PortModel;
+import nl.tudelft.simulation.simport.network.Centroid;
+import nl.tudelft.simulation.simport.network.RoadNetwork;
+import nl.tudelft.simulation.simport.truck.OrderMatchIndex;
+import nl.tudelft.simulation.simport.truck.TransportOrder;
+import nl.tudelft.simulation.simport.truck.TruckingCompany;
+
+/**
+ * PlanTripsBenchmark measures the daily trip planning of a trucking company for a synthetic set of transport orders between
+ * terminal and hinterland centroids. The planning of the individual trips is replaced by a counter, so the benchmark measures
+ * the selection and matching of the orders. The "indexed" matcher is the OrderMatchIndex of the trucking company; the
+ * "pairwise" matcher is the earlier search that compares an order with all other orders to plan.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class PlanTripsBenchmark
+{
+    /** the number of transport orders. */
+    @Param({"10000", "100000", "1000000"})
+    private int nrOrders;
+
+    /** the target fraction of combined trips, one and two terminals. */
+    @Param({"0.3"})
+    private double combinedFraction;
+
+    /** the matcher for combined trips. */
+    @Param({"indexed", "pairwise"})
+    private String matcher;
+
+    /** the benchmark model. */
+    private BenchmarkModel model;
+
+    /** the orders. */
+    private List<TransportOrder> orders;
+
+    /** the trucking company for the next invocation. */
+    private CountingTruckingCompany company;
+
+    /** Create the network, centroids and orders. */
+    @Setup(Level.Trial)
+    public void setupTrial()
+    {
+        this.model = new BenchmarkModel();
+        this.model.setParameter("truck.FractionSaturday", 0.5).setParameter("truck.FractionSunday", 0.2)
+                .setParameter("truck.HourWeights", "1,1,1,1,1,2,4,6,8,8,8,8,8,8,8,8,6,4,2,2,1,1,1,1")
+                .setParameter("model.TargetCombinedOneTerminalFraction", this.combinedFraction)
+                .setParameter("model.TargetCombinedTwoTerminalFraction", this.combinedFraction);
+        RoadNetwork network = BenchmarkData.gridNetwork(this.model, 2, 210);
+        List<Centroid> centroids = new ArrayList<>(network.getCentroidMap().values());
+        List<Centroid> terminals = centroids.subList(0, 10);
+        List<Centroid> hinterland = centroids.subList(10, centroids.size());
+        this.model.getTerminalCentroids().addAll(terminals);
+        network.setFarCentroids("C10,C11,C12,C13,C14");
+
+        Random random = new Random(6L);
+        ClockTime start = this.model.getSimulator().getSimulatorClockTime();
+        Duration margin = new Duration(48.0, DurationUnit.HOUR);
+        this.orders = new ArrayList<>(this.nrOrders);
+        for (int i = 0; i < this.nrOrders; i++)
+        {
+            Centroid terminal = terminals.get(random.nextInt(terminals.size()));
+            Centroid other = hinterland.get(random.nextInt(hinterland.size()));
+            boolean importOrder = random.nextBoolean();
+            Container container = new Container(i, random.nextBoolean() ? 20 : 40, false, false, Location.TERMINAL);
+            ClockTime targetTime = new ClockTime(start.plus(new Duration(25.0 + 10.0 * random.nextDouble(), DurationUnit.HOUR)));
+            this.orders.add(new TransportOrder(i, null, container, importOrder ? terminal : other, null,
+                    importOrder ? other : terminal, null, targetTime, margin, margin));
+        }
+    }
+
+    /** Book all orders with a fresh trucking company. */
+    @Setup(Level.Invocation)
+    public void setupInvocation()
+    {
+        this.company = this.matcher.equals("pairwise") ? new PairwiseTruckingCompany(this.model.getModel())
+                : new CountingTruckingCompany(this.model.getModel());
+        for (TransportOrder order : this.orders)
+            this.company.bookTrip(order);
+    }
+
+    /**
+     * @return the number of planned trips
+     */
+    @Benchmark
+    public long planTrips()
+    {
+        return this.company.plan();
+    }
+
+    /**
+     * TruckingCompany that counts the trips instead of generating trucks for them.
+     */
+    public static class CountingTruckingCompany extends TruckingCompany
+    {
+        /** the number of planned trips. */
+        private long nrTrips = 0;
+
+        /**
+         * @param model the model
+         */
+        public CountingTruckingCompany(final PortModel model)
+        {
+            super("TC", model, 0);
+        }
+
+        @Override
+        protected void planSingleTrip(final TransportOrder transportOrder)
+        {
+            this.nrTrips++;
+        }
+
+        /**
+         * Run the planning.
+         * @return the number of planned trips
+         */
+        public long plan()
+        {
+            planTrips();
+            return this.nrTrips;
+        }
+    }
+
+    /**
+     * TruckingCompany that matches the orders for combined trips by comparing each order with all other orders to plan, as
+     * the planning did before the introduction of the {@link OrderMatchIndex}.
+     */
+    public static class PairwiseTruckingCompany extends CountingTruckingCompany
+    {
+        /**
+         * @param model the model
+         */
+        public PairwiseTruckingCompany(final PortModel model)
+        {
+            super(model);
+        }
+
+        @Override
+        protected void planOrders(final List<TransportOrder> planList)
+        {
+            RoadNetwork roadNetwork = getModel().getRoadNetwork();
+            Set<TransportOrder> planSet = new LinkedHashSet<>(planList);
+            int nrTotal = planSet.size();
+            int nrCombinedOneTerminal = 0;
+            int nrCombinedTwoTerminals = 0;
+            while (!planSet.isEmpty())
+            {
+                var transportOrder = planSet.iterator().next();
+                planSet.remove(transportOrder);
+                if (isFarTrip(roadNetwork, transportOrder))
+                {
+                    planSingleTrip(transportOrder);
+                    continue;
+                }
+                boolean oneTerminal = 1.0 * nrCombinedOneTerminal / nrTotal < getModel().getTargetCombinedOneTerminalFraction();
+                boolean twoTerminals =
+                        1.0 * nrCombinedTwoTerminals / nrTotal < getModel().getTargetCombinedTwoTerminalFraction();
+                boolean planned = false;
+                if (oneTerminal || twoTerminals)
+                {
+                    for (var it2 = planSet.iterator(); it2.hasNext();)
+                    {
+                        var transportOrder2 = it2.next();
+                        if (transportOrder == transportOrder2)
+                            continue;
+                        if ((transportOrder.unloadCentroid().equals(transportOrder2.loadCentroid())
+                                && getModel().getTerminalCentroids().contains(transportOrder.unloadCentroid()))
+                                || (transportOrder2.unloadCentroid().equals(transportOrder.loadCentroid())
+                                        && getModel().getTerminalCentroids().contains(transportOrder2.unloadCentroid())))
+                        {
+                            planSingleTrip(transportOrder);
+                            planSingleTrip(transportOrder2);
+                            it2.remove();
+                            planned = true;
+                            if (oneTerminal)
+                                nrCombinedOneTerminal++;
+                            else
+                                nrCombinedTwoTerminals++;
+                            break;
+                        }
+                    }
+                }
+                if (!planned)
+                    planSingleTrip(transportOrder);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.djunits.unit.SpeedUnit;
+import org.djunits.value.vdouble.scalar.Speed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nl.tudelft.simulation.simport.network.Centroid;
+import nl.tudelft.simulation.simport.network.RoadNetwork;
+
+/**
+ * RoadNetworkBenchmark measures the great-circle distance and the centroid-to-centroid driving time lookup.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoadNetworkBenchmark
+{
+    /** the number of nodes along each side of the grid network. */
+    @Param({"40"})
+    private int gridSize;
+
+    /** the number of centroids. */
+    @Param({"200"})
+    private int nrCentroids;
+
+    /** the network. */
+    private RoadNetwork network;
+
+    /** the centroids. */
+    private Centroid[] centroids;
+
+    /** the index of the next O/D pair. */
+    private int next = 0;
+
+    /** the speed for straight-line driving. */
+    private final Speed speed = new Speed(50.0, SpeedUnit.KM_PER_HOUR);
+
+    /** Build the network and the travel time matrix. */
+    @Setup
+    public void setup()
+    {
+        BenchmarkModel model = new BenchmarkModel();
+        this.network = BenchmarkData.gridNetwork(model, this.gridSize, this.nrCentroids);
+        this.network.buildTravelTimeMatrix();
+        List<Centroid> list = new ArrayList<>(this.network.getCentroidMap().values());
+        this.centroids = list.toArray(new Centroid[0]);
+    }
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void haversine(final Blackhole bh)
+    {
+        Centroid a = this.centroids[this.next++ % this.centroids.length];
+        Centroid b = this.centroids[(this.next * 7) % this.centroids.length];
+        bh.consume(RoadNetwork.haversine(a.getY(), a.getX(), b.getY(), b.getX()));
+    }
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void haversineSI(final Blackhole bh)
+    {
+        Centroid a = this.centroids[this.next++ % this.centroids.length];
+        Centroid b = this.centroids[(this.next * 7) % this.centroids.length];
+        bh.consume(RoadNetwork.haversineSI(a.getY(), a.getX(), b.getY(), b.getX()));
+    }
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void drivingTime(final Blackhole bh)
+    {
+        Centroid a = this.centroids[this.next++ % this.centroids.length];
+        Centroid b = this.centroids[(this.next * 7) % this.centroids.length];
+        bh.consume(this.network.drivingTime(a, b, this.speed));
+    }
+
+}
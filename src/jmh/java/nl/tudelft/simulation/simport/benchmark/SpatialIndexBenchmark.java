@@ -0,0 +1,119 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nl.tudelft.simulation.simport.network.RoadLink;
+import nl.tudelft.simulation.simport.network.RoadNetwork;
+import nl.tudelft.simulation.simport.network.SpatialIndex;
+
+/**
+ * SpatialIndexBenchmark measures map-matching a point onto the nearest link of a grid network with the packed R-tree of the
+ * SpatialIndex, compared to a linear scan over all links, and the bounding box search of the index.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpatialIndexBenchmark
+{
+    /** the number of query points. */
+    private static final int NR_POINTS = 1024;
+
+    /** the maximum distance between a point and its link in meters. */
+    private static final double MAX_DISTANCE_SI = 250.0;
+
+    /** the number of nodes along each side of the grid network. */
+    @Param({"40", "160"})
+    private int gridSize;
+
+    /** the spatial index. */
+    private SpatialIndex index;
+
+    /** the links, for the linear scan. */
+    private RoadLink[] links;
+
+    /** the longitudes of the query points. */
+    private final double[] xs = new double[NR_POINTS];
+
+    /** the latitudes of the query points. */
+    private final double[] ys = new double[NR_POINTS];
+
+    /** the index of the next query point. */
+    private int next = 0;
+
+    /** Build the network, the index and the query points. */
+    @Setup
+    public void setup()
+    {
+        BenchmarkModel model = new BenchmarkModel();
+        RoadNetwork network = BenchmarkData.gridNetwork(model, this.gridSize, 0);
+        this.index = network.getSpatialIndex();
+        List<RoadLink> list = new ArrayList<>(network.getRoadLinkMap().values());
+        this.links = list.toArray(new RoadLink[0]);
+        Random random = new Random(1L);
+        for (int i = 0; i < NR_POINTS; i++)
+        {
+            this.xs[i] = 4.0 + 0.01 * (this.gridSize - 1) * random.nextDouble();
+            this.ys[i] = 51.8 + 0.01 * (this.gridSize - 1) * random.nextDouble();
+        }
+    }
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void nearestLinkTree(final Blackhole bh)
+    {
+        int i = this.next++ & (NR_POINTS - 1);
+        bh.consume(this.index.nearestLink(this.xs[i], this.ys[i], MAX_DISTANCE_SI));
+    }
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void nearestLinkLinear(final Blackhole bh)
+    {
+        int i = this.next++ & (NR_POINTS - 1);
+        RoadLink best = null;
+        double bestDistance = MAX_DISTANCE_SI;
+        for (RoadLink link : this.links)
+        {
+            double d = SpatialIndex.distanceSI(link, this.xs[i], this.ys[i]);
+            if (d <= bestDistance)
+            {
+                bestDistance = d;
+                best = link;
+            }
+        }
+        bh.consume(best);
+    }
+
+    /**
+     * @param bh the blackhole
+     */
+    @Benchmark
+    public void linksInBox(final Blackhole bh)
+    {
+        int i = this.next++ & (NR_POINTS - 1);
+        bh.consume(this.index.links(this.xs[i], this.ys[i], this.xs[i] + 0.02, this.ys[i] + 0.02));
+    }
+
+}
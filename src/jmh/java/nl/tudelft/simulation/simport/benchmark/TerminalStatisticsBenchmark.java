@@ -0,0 +1,75 @@
+package nl.tudelft.simulation.simport.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import nl.tudelft.simulation.simport.Location;
+import nl.tudelft.simulation.simport.TransportMode;
+import nl.tudelft.simulation.simport.container.Container;
+import nl.tudelft.simulation.simport.terminal.TerminalStatistics;
+
+/**
+ * TerminalStatisticsBenchmark measures the statistics updates when containers enter and leave the yard.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TerminalStatisticsBenchmark
+{
+    /** the statistics. */
+    private TerminalStatistics statistics;
+
+    /** a mix of containers. */
+    private Container[] containers;
+
+    /** the transport modes. */
+    private final TransportMode[] modes = TransportMode.values();
+
+    /** the index of the next container. */
+    private int next = 0;
+
+    /** Create the statistics and the containers. */
+    @Setup
+    public void setup()
+    {
+        BenchmarkModel model = new BenchmarkModel();
+        this.statistics = new TerminalStatistics(model.facility("T1"), model.getSimulator());
+        Random random = new Random(4L);
+        this.containers = new Container[1024];
+        for (int i = 0; i < this.containers.length; i++)
+            this.containers[i] = new Container(i, random.nextBoolean() ? 20 : 40, random.nextDouble() < 0.3,
+                    random.nextDouble() < 0.1, Location.TERMINAL);
+    }
+
+    /** Add a container to and remove a container from the yard. */
+    @Benchmark
+    public void addRemoveContainer()
+    {
+        int i = this.next++;
+        Container c = this.containers[i & 1023];
+        TransportMode mode = this.modes[i % this.modes.length];
+        this.statistics.addContainerYard(c, mode);
+        this.statistics.removeContainerYard(c, mode);
+    }
+
+    /** Count a truck visit. */
+    @Benchmark
+    public void incTruckVisit()
+    {
+        this.statistics.incTruckVisitDual();
+    }
+
+}
@@ -40,6 +40,9 @@ public enum Location
     /** truck = 9. */
     PORT;
 
+    /** cached values, since values() creates a new array on every call. */
+    private static final Location[] VALUES = values();
+
     public byte asByte()
     {
         return (byte) (this.ordinal());
@@ -47,7 +50,7 @@ public enum Location
 
     public static Location of(final byte locationByte)
     {
-        return values()[locationByte];
+        return VALUES[locationByte];
     }
 
     public boolean isUnused()
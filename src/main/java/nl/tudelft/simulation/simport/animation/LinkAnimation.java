@@ -13,6 +13,7 @@ import org.djutils.draw.bounds.Bounds2d;
 import nl.tudelft.simulation.dsol.animation.SimRenderable2d;
 import nl.tudelft.simulation.dsol.animation.d2.RenderableScale;
 import nl.tudelft.simulation.dsol.simulators.SimulatorInterface;
+import nl.tudelft.simulation.simport.network.PackedRTree;
 import nl.tudelft.simulation.simport.network.RoadLink;
 
 /**
@@ -38,7 +39,14 @@ public class LinkAnimation extends SimRenderable2d<RoadLink>
     public boolean contains(final Point2D pointScreenCoordinates, final Bounds2d extent, final Dimension screenSize,
             final RenderableScale scale, final double worldMargin, final double pixelMargin)
     {
-        return super.contains(pointScreenCoordinates, extent, screenSize, scale, 0.0, 5.0);
+        // the bounding box of a diagonal link is much larger than the link itself, so test the distance to the line as well
+        if (!super.contains(pointScreenCoordinates, extent, screenSize, scale, 0.0, 5.0))
+            return false;
+        RoadLink link = getSource();
+        Point2D a = scale.getScreenCoordinates(link.getNodeFrom().getLocation(), extent, screenSize);
+        Point2D b = scale.getScreenCoordinates(link.getNodeTo().getLocation(), extent, screenSize);
+        return PackedRTree.segmentDistance(pointScreenCoordinates.getX(), pointScreenCoordinates.getY(), a.getX(), a.getY(),
+                b.getX(), b.getY(), 1.0, 1.0) <= 5.0;
     }
 
     @Override
@@ -74,6 +74,25 @@ public class Container extends Shipment
         return Location.of(this.locations[this.currentIndex]);
     }
 
+    /**
+     * Return the number of locations that the container has visited, including the current location.
+     * @return the number of locations of the container
+     */
+    public int getNrLocations()
+    {
+        return this.currentIndex + 1;
+    }
+
+    /**
+     * Return a location of the container as a byte, without creating a list.
+     * @param index the index of the location, between 0 and getNrLocations() - 1
+     * @return the location as a byte, see {@link Location#of(byte)}
+     */
+    public byte getLocationByte(final int index)
+    {
+        return this.locations[index];
+    }
+
     /**
      * Get a list of locations for the container.
      * @return a list of locations for the container
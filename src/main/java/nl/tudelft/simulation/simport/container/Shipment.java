@@ -73,6 +73,15 @@ public abstract class Shipment implements Identifiable
         return size + "G1";
     }
 
+    /**
+     * Return an index for the combination of size, full/empty and reefer, e.g., to keep shipments of the same type together.
+     * @return the type index (0-15), with the bits of the status
+     */
+    public int getTypeIndex()
+    {
+        return this.status & 0x0F;
+    }
+
     /** return true if 20ft, false if not */
     public boolean is20ft()
     {
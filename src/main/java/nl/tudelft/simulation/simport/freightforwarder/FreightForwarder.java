@@ -76,7 +76,7 @@ public class FreightForwarder extends LocalEventProducer implements Identifiable
         this.id = id;
         this.model = model;
         this.simulator = model.getSimulator();
-        this.truckingCompany = new TruckingCompany("FF-TR", model, 5000);
+        this.truckingCompany = new TruckingCompany("FF-TR", model, 5000, model.getModelParameters().truck());
     }
 
     private String containerType(final boolean reefer, final boolean empty)
@@ -151,8 +151,7 @@ public class FreightForwarder extends LocalEventProducer implements Identifiable
     public void planExportContainerTruck(final Terminal terminal, final Vessel vessel, final Container container)
     {
         // select centroid.
-        var loadCentroid =
-                terminal.getOriginProbabilities().ceilingEntry(getModel().getDefaultStream().nextDouble()).getValue();
+        var loadCentroid = terminal.drawOriginCentroid(getModel().getDefaultStream().nextDouble());
 
         // select trucking company, for now the 'collective' company
         var truckingCompany = this.truckingCompany;
@@ -165,8 +164,8 @@ public class FreightForwarder extends LocalEventProducer implements Identifiable
         Duration marginAfter = new Duration(1.0, DurationUnit.DAY);
 
         // hand over to TruckingCompany
-        truckingCompany.bookTrip(new TransportOrder(vessel, container, loadCentroid, null, terminal.getCentroid(), terminal,
-                targetTime, marginBefore, marginAfter));
+        truckingCompany.bookTrip(new TransportOrder(getModel().uniqueTransportOrderNr(), vessel, container, loadCentroid, null,
+                terminal.getCentroid(), terminal, targetTime, marginBefore, marginAfter));
     }
 
     /**
@@ -178,8 +177,7 @@ public class FreightForwarder extends LocalEventProducer implements Identifiable
     public void planImportContainerTruck(final Terminal terminal, final Vessel vessel, final Container container)
     {
         // select centroid.
-        var unloadCentroid =
-                terminal.getDestinationProbabilities().ceilingEntry(getModel().getDefaultStream().nextDouble()).getValue();
+        var unloadCentroid = terminal.drawDestinationCentroid(getModel().getDefaultStream().nextDouble());
 
         // select trucking company, for now the 'collective' company
         var truckingCompany = this.truckingCompany;
@@ -192,8 +190,8 @@ public class FreightForwarder extends LocalEventProducer implements Identifiable
         Duration marginAfter = new Duration(4.0, DurationUnit.DAY);
 
         // hand over to TruckingCompany
-        truckingCompany.bookTrip(new TransportOrder(vessel, container, terminal.getCentroid(), terminal, unloadCentroid, null,
-                targetTime, marginBefore, marginAfter));
+        truckingCompany.bookTrip(new TransportOrder(getModel().uniqueTransportOrderNr(), vessel, container,
+                terminal.getCentroid(), terminal, unloadCentroid, null, targetTime, marginBefore, marginAfter));
     }
 
     ///////////////////////////////////////////////// BARGE /////////////////////////////////////////////////
@@ -1,15 +1,26 @@
 package nl.tudelft.simulation.simport.gis;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-import nl.tudelft.simulation.dsol.animation.gis.io.Endianness;
-import nl.tudelft.simulation.dsol.animation.gis.io.ObjectEndianInputStream;
+import gnu.trove.list.array.TIntArrayList;
 
 /**
- * This class reads a dbf file (in dBase III format), as used in ESRI ShapeFiles.
+ * This class reads a dbf file (in dBase III format), as used in ESRI ShapeFiles. The header is parsed once; the records are
+ * accessed in place in a memory-mapped buffer (or in a heap buffer when the URL does not point to a file), and fields are only
+ * decoded when they are requested. Records can be read with random access through {@link #getRow(int)}, or sequentially with
+ * the forward cursor {@link #next()}, {@link #getString(int)}, {@link #getDouble(int)} and {@link #getInt(int)}.
  * <p>
  * Copyright (c) 2020-2025 Delft University of Technology, Jaffalaan 5, 2628 BX Delft, the Netherlands. All rights reserved. See
  * for project information <a href="https://simulation.tudelft.nl/dsol/manual/" target="_blank">DSOL Manual</a>. The DSOL
@@ -27,12 +38,22 @@ public class DbfReader implements Serializable
     /** */
     private static final long serialVersionUID = 20201223L;
 
+    /** powers of ten that are exactly representable as a double. */
+    private static final double[] POW10 =
+            {1E0, 1E1, 1E2, 1E3, 1E4, 1E5, 1E6, 1E7, 1E8, 1E9, 1E10, 1E11, 1E12, 1E13, 1E14, 1E15};
+
     /** the DBF File. */
     private URL dbfFile;
 
+    /** the buffer with the contents of the file; transient since it is (re)mapped on demand. */
+    private transient ByteBuffer buffer;
+
     /** the numberofColumns. */
     private int[] columnLength;
 
+    /** the offset of each column within a record, including the deletion flag byte. */
+    private int[] columnOffset;
+
     /** the names of the columns. */
     private String[] columnNames;
 
@@ -48,6 +69,12 @@ public class DbfReader implements Serializable
     /** the length of the records. */
     private int recordLength = 0;
 
+    /** the current record of the forward cursor; -1 before the first call to next(). */
+    private int cursor = -1;
+
+    /** the indexes of column value to row numbers, built on demand per column. */
+    private final Map<Integer, Map<String, int[]>> columnIndexes = new LinkedHashMap<>();
+
     /**
      * Construct a DbfReader.
      * @param dbfFile the URL of the dbfFile
@@ -56,49 +83,72 @@ public class DbfReader implements Serializable
     public DbfReader(final URL dbfFile) throws IOException
     {
         this.dbfFile = dbfFile;
-        ObjectEndianInputStream dbfInput = new ObjectEndianInputStream(dbfFile.openStream());
-        if (dbfInput.readByte() != 3)
+        ByteBuffer header = buffer();
+        if (header.get(0) != 3)
         {
             throw new IOException("dbf file does not seem to be a Dbase III file");
         }
 
-        dbfInput.skipBytes(3);
-        dbfInput.setEndianness(Endianness.LITTLE_ENDIAN);
-
-        this.numRecords = dbfInput.readInt();
-        this.headerLength = dbfInput.readShort();
+        this.numRecords = header.getInt(4);
+        this.headerLength = header.getShort(8) & 0xFFFF;
         this.numColumns = (this.headerLength - 33) / 32;
-        this.recordLength = dbfInput.readShort();
+        this.recordLength = header.getShort(10) & 0xFFFF;
 
         this.columnLength = new int[this.numColumns];
+        this.columnOffset = new int[this.numColumns];
         this.columnNames = new String[this.numColumns];
 
-        dbfInput.skipBytes(20);
+        int offset = 1; // deletion flag
         for (int i = 0; i < this.numColumns; i++)
         {
-            StringBuffer buffer = new StringBuffer();
+            int descriptor = 32 + 32 * i;
+            StringBuffer name = new StringBuffer();
             for (int j = 0; j < 10; j++)
             {
-                byte b = dbfInput.readByte();
+                byte b = header.get(descriptor + j);
                 if (b > 31)
                 {
-                    buffer.append((char) b);
+                    name.append((char) b);
                 }
             }
-            this.columnNames[i] = buffer.toString();
-            dbfInput.setEndianness(Endianness.BIG_ENDIAN);
-            dbfInput.readChar();
-
-            dbfInput.skipBytes(4);
+            this.columnNames[i] = name.toString();
+            this.columnLength[i] = header.get(descriptor + 16) & 0xFF;
+            this.columnOffset[i] = offset;
+            offset += this.columnLength[i];
+        }
+    }
 
-            this.columnLength[i] = dbfInput.readByte();
-            if (this.columnLength[i] < 0)
+    /**
+     * Return the buffer with the file contents, mapping the file when this has not yet been done. A file URL is memory-mapped;
+     * other URLs (e.g., resources in a jar) are read into a heap buffer once.
+     * @return the buffer with the file contents in little-endian order
+     * @throws IOException on read failure
+     */
+    private ByteBuffer buffer() throws IOException
+    {
+        if (this.buffer == null)
+        {
+            if ("file".equals(this.dbfFile.getProtocol()))
+            {
+                try (FileChannel channel = FileChannel.open(Path.of(this.dbfFile.toURI()), StandardOpenOption.READ))
+                {
+                    this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+                catch (URISyntaxException exception)
+                {
+                    throw new IOException(exception);
+                }
+            }
+            else
             {
-                this.columnLength[i] += 256;
+                try (InputStream stream = this.dbfFile.openStream())
+                {
+                    this.buffer = ByteBuffer.wrap(stream.readAllBytes());
+                }
             }
-            dbfInput.skipBytes(15);
+            this.buffer.order(ByteOrder.LITTLE_ENDIAN);
         }
-        dbfInput.close();
+        return this.buffer;
     }
 
     /**
@@ -110,6 +160,54 @@ public class DbfReader implements Serializable
         return this.columnNames;
     }
 
+    /**
+     * Return the index of a column.
+     * @param columnName the name of the column
+     * @return the index of the column, or -1 when the column does not exist
+     */
+    public int getColumnIndex(final String columnName)
+    {
+        for (int col = 0; col < this.numColumns; col++)
+        {
+            if (this.columnNames[col].equals(columnName))
+                return col;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of records in the file
+     */
+    public int getNumRecords()
+    {
+        return this.numRecords;
+    }
+
+    /**
+     * Decode a field as a String.
+     * @param row the row number
+     * @param col the column number
+     * @return the field as a String (including padding)
+     * @throws IOException on read failure
+     */
+    private String decodeString(final int row, final int col) throws IOException
+    {
+        byte[] bytes = new byte[this.columnLength[col]];
+        buffer().get(fieldPosition(row, col), bytes);
+        return new String(bytes, Charset.defaultCharset());
+    }
+
+    /**
+     * Return the position of a field in the buffer.
+     * @param row the row number
+     * @param col the column number
+     * @return the position of the field in the buffer
+     */
+    private int fieldPosition(final int row, final int col)
+    {
+        return this.headerLength + row * this.recordLength + this.columnOffset[col];
+    }
+
     /**
      * returns the row.
      * @param rowNumber the rowNumber
@@ -123,20 +221,11 @@ public class DbfReader implements Serializable
         {
             throw new IndexOutOfBoundsException("dbfFile : rowNumber > numRecords");
         }
-
-        // Either we may not cache of the cache is still empty
         String[] row = new String[this.numColumns];
-
-        ObjectEndianInputStream dbfInput = new ObjectEndianInputStream(this.dbfFile.openStream());
-        dbfInput.skipBytes(this.headerLength + 1);
-        dbfInput.skipBytes(rowNumber * this.recordLength);
         for (int i = 0; i < this.numColumns; i++)
         {
-            byte[] bytes = new byte[this.columnLength[i]];
-            dbfInput.read(bytes);
-            row[i] = new String(bytes);
+            row[i] = decodeString(rowNumber, i);
         }
-        dbfInput.close();
         return row;
     }
 
@@ -147,28 +236,17 @@ public class DbfReader implements Serializable
      */
     public String[][] getRows() throws IOException
     {
-        String[][] result = new String[this.numRecords][this.numColumns];
-        ObjectEndianInputStream dbfInput = new ObjectEndianInputStream(this.dbfFile.openStream());
-        dbfInput.skipBytes(this.headerLength + 1);
+        String[][] result = new String[this.numRecords][];
         for (int row = 0; row < this.numRecords; row++)
         {
-            for (int col = 0; col < this.numColumns; col++)
-            {
-                byte[] bytes = new byte[this.columnLength[col]];
-                dbfInput.read(bytes);
-                result[row][col] = new String(bytes);
-                if (col == this.numColumns - 1)
-                {
-                    dbfInput.skipBytes(1);
-                }
-            }
+            result[row] = getRow(row);
         }
-        dbfInput.close();
         return result;
     }
 
     /**
-     * returns the array of rowNumbers belonging to a attribute/column pair.
+     * returns the array of rowNumbers belonging to a attribute/column pair. The first call for a column builds an index of all
+     * values in that column in one pass; later calls for the same column are a lookup in this index.
      * @param attribute the attribute value
      * @param columnName the name of the column
      * @return int[] the array of shape numbers.
@@ -176,27 +254,189 @@ public class DbfReader implements Serializable
      */
     public int[] getRowNumbers(final String attribute, final String columnName) throws IOException
     {
-        ArrayList<Integer> result = new ArrayList<>();
-        String[][] rows = this.getRows();
-        for (int col = 0; col < this.numColumns; col++)
+        int col = getColumnIndex(columnName);
+        if (col < 0)
         {
-            if (this.columnNames[col].equals(columnName))
+            return new int[0];
+        }
+        int[] rows = getValueIndex(col).get(attribute);
+        return rows == null ? new int[0] : rows.clone();
+    }
+
+    /**
+     * Return the index of column value to row numbers for a column, building it in one pass over the records when needed.
+     * @param col the column number
+     * @return the map of column value to the row numbers with that value, in increasing order
+     * @throws IOException on read failure
+     */
+    public Map<String, int[]> getValueIndex(final int col) throws IOException
+    {
+        Map<String, int[]> index = this.columnIndexes.get(col);
+        if (index == null)
+        {
+            Map<String, TIntArrayList> rowLists = new LinkedHashMap<>();
+            for (int row = 0; row < this.numRecords; row++)
             {
-                for (int row = 0; row < this.numRecords; row++)
-                {
-                    if (rows[row][col].equals(attribute))
-                    {
-                        result.add(Integer.valueOf(row));
-                    }
-                }
+                rowLists.computeIfAbsent(decodeString(row, col), (k) -> new TIntArrayList()).add(row);
+            }
+            index = new LinkedHashMap<>(rowLists.size() * 2);
+            for (var entry : rowLists.entrySet())
+            {
+                index.put(entry.getKey(), entry.getValue().toArray());
             }
+            this.columnIndexes.put(col, index);
         }
-        int[] array = new int[result.size()];
-        for (int i = 0; i < array.length; i++)
+        return index;
+    }
+
+    /////////////////////////////////////////// FORWARD CURSOR ////////////////////////////////////////////
+
+    /**
+     * Move the forward cursor to the next record.
+     * @return whether there is a next record; false when the end of the file has been reached
+     */
+    public boolean next()
+    {
+        if (this.cursor < this.numRecords)
+            this.cursor++;
+        return this.cursor < this.numRecords;
+    }
+
+    /**
+     * Move the forward cursor before the first record.
+     */
+    public void reset()
+    {
+        this.cursor = -1;
+    }
+
+    /**
+     * @return the row number of the forward cursor
+     */
+    public int getCursor()
+    {
+        return this.cursor;
+    }
+
+    /**
+     * Check that the cursor points to a record.
+     * @throws IndexOutOfBoundsException when the cursor does not point to a record
+     */
+    private void checkCursor()
+    {
+        if (this.cursor < 0 || this.cursor >= this.numRecords)
         {
-            array[i] = result.get(i).intValue();
+            throw new IndexOutOfBoundsException("dbfFile : cursor not on a record; call next() first");
+        }
+    }
+
+    /**
+     * Return a field of the current record of the cursor as a String, with leading and trailing spaces stripped.
+     * @param col the column number
+     * @return the stripped field value
+     * @throws IOException on read failure
+     */
+    public String getString(final int col) throws IOException
+    {
+        checkCursor();
+        return decodeString(this.cursor, col).strip();
+    }
+
+    /**
+     * Return a field of the current record of the cursor as a double, parsed directly from the bytes in the buffer. Plain
+     * decimal numbers with at most 15 digits are parsed exactly; other fields are parsed by Double.parseDouble.
+     * @param col the column number
+     * @return the field value as a double
+     * @throws IOException on read failure
+     * @throws NumberFormatException when the field is not a number
+     */
+    public double getDouble(final int col) throws IOException
+    {
+        checkCursor();
+        ByteBuffer buf = buffer();
+        int pos = fieldPosition(this.cursor, col);
+        int end = pos + this.columnLength[col];
+        while (pos < end && buf.get(pos) == ' ')
+            pos++;
+        while (end > pos && (buf.get(end - 1) == ' ' || buf.get(end - 1) == 0))
+            end--;
+        boolean negative = false;
+        if (pos < end && (buf.get(pos) == '-' || buf.get(pos) == '+'))
+        {
+            negative = buf.get(pos) == '-';
+            pos++;
+        }
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean fraction = false;
+        for (int i = pos; i < end; i++)
+        {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9' && digits < 15)
+            {
+                mantissa = 10 * mantissa + (b - '0');
+                digits++;
+                if (fraction)
+                    scale++;
+            }
+            else if (b == '.' && !fraction)
+            {
+                fraction = true;
+            }
+            else
+            {
+                // exponent, more than 15 digits, or illegal character: use the standard parser
+                return Double.parseDouble(getString(col));
+            }
+        }
+        if (digits == 0)
+        {
+            throw new NumberFormatException("dbfFile : empty or non-numeric field in column " + this.columnNames[col]);
+        }
+        // at most 15 digits: the mantissa and the power of ten are exact doubles, so the division rounds correctly
+        double value = scale == 0 ? mantissa : mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Return a field of the current record of the cursor as an int, parsed directly from the bytes in the buffer.
+     * @param col the column number
+     * @return the field value as an int
+     * @throws IOException on read failure
+     * @throws NumberFormatException when the field is not an integer
+     */
+    public int getInt(final int col) throws IOException
+    {
+        checkCursor();
+        ByteBuffer buf = buffer();
+        int pos = fieldPosition(this.cursor, col);
+        int end = pos + this.columnLength[col];
+        while (pos < end && buf.get(pos) == ' ')
+            pos++;
+        while (end > pos && (buf.get(end - 1) == ' ' || buf.get(end - 1) == 0))
+            end--;
+        boolean negative = false;
+        if (pos < end && (buf.get(pos) == '-' || buf.get(pos) == '+'))
+        {
+            negative = buf.get(pos) == '-';
+            pos++;
+        }
+        if (pos == end || end - pos > 9)
+        {
+            return Integer.parseInt(getString(col));
+        }
+        int value = 0;
+        for (int i = pos; i < end; i++)
+        {
+            byte b = buf.get(i);
+            if (b < '0' || b > '9')
+            {
+                return Integer.parseInt(getString(col));
+            }
+            value = 10 * value + (b - '0');
         }
-        return array;
+        return negative ? -value : value;
     }
 
 }
@@ -0,0 +1,276 @@
+package nl.tudelft.simulation.simport.model;
+
+import java.util.Arrays;
+
+import org.djunits.value.vdouble.scalar.Duration;
+
+import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
+
+/**
+ * ModelParameters is an immutable, typed snapshot of the input parameters that the model uses during the run. The snapshot is
+ * compiled once after the input parameters have been read with ReadInputParameters, so durations are parsed and checked at
+ * startup, and the model reads fields instead of looking up and parsing strings in the input parameter map for every vessel
+ * or every allocation cycle. A missing or mistyped parameter makes the compilation fail with a message that names the key.
+ * <p>
+ * The model compiles the snapshot with compile(this) at the start of constructModel(), so input parameters that were edited
+ * between runs, e.g., in the user interface, are used by the next run, and keeps it in a field that getModelParameters()
+ * returns. The terminals, vessel generators and trucking companies get their part of the snapshot when they are constructed.
+ * Keys in the properties file or on the command line that are not in the input parameter map are already rejected by
+ * ReadInputParameters.
+ * </p>
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ * @param terminal the terminal parameters
+ * @param truck the truck parameters
+ * @param output the output parameters
+ */
+public record ModelParameters(TerminalParameters terminal, TruckParameters truck, OutputParameters output)
+{
+    /**
+     * Compile the input parameters of the model into a typed snapshot. The model calls this method at the start of
+     * constructModel(), after the input parameters have been read or changed.
+     * @param model the model with the input parameters that have been read
+     * @return the typed snapshot of the input parameters
+     * @throws SimPortRuntimeException when a parameter is missing or has an illegal value
+     */
+    public static ModelParameters compile(final PortModel model)
+    {
+        TerminalParameters terminal = new TerminalParameters(duration(model, "terminal.CutoffTransloadingDeepsea"),
+                duration(model, "terminal.CutoffTransloadingFeeder"), duration(model, "terminal.TransloadingBufferTime"),
+                duration(model, "terminal.TransloadingMatchInterval"), fraction(model, "terminal.MaxDeepseaTransloadFraction"),
+                duration(model, "terminal.GenerateDeepsea"), duration(model, "terminal.GenerateFeeder"));
+        TruckParameters truck = new TruckParameters(fraction(model, "truck.FractionSaturday"),
+                fraction(model, "truck.FractionSunday"), hourWeights(model, "truck.HourWeights"));
+        OutputParameters output = new OutputParameters(bool(model, "output.WriteOutput"),
+                bool(model, "output.WriteContainerFile"), bool(model, "output.WriteTruckFile"),
+                fileFormat(model, "output.FileFormat"));
+        return new ModelParameters(terminal, truck, output);
+    }
+
+    /**
+     * Parse a Duration parameter that is stored as a String, e.g., "2day".
+     * @param model the model
+     * @param key the key of the parameter
+     * @return the parsed duration
+     * @throws SimPortRuntimeException when the parameter is missing or cannot be parsed
+     */
+    private static Duration duration(final PortModel model, final String key)
+    {
+        try
+        {
+            return Duration.valueOf(model.getInputParameterString(key));
+        }
+        catch (RuntimeException e)
+        {
+            throw new SimPortRuntimeException("Input parameter " + key + " is missing or not a duration", e);
+        }
+    }
+
+    /**
+     * Read a fraction parameter.
+     * @param model the model
+     * @param key the key of the parameter
+     * @return the fraction
+     * @throws SimPortRuntimeException when the parameter is missing, not a double, or not between 0 and 1
+     */
+    private static double fraction(final PortModel model, final String key)
+    {
+        double value;
+        try
+        {
+            value = model.getInputParameterDouble(key);
+        }
+        catch (RuntimeException e)
+        {
+            throw new SimPortRuntimeException("Input parameter " + key + " is missing or not a double", e);
+        }
+        if (!(value >= 0.0 && value <= 1.0))
+            throw new SimPortRuntimeException("Input parameter " + key + " is not a fraction between 0 and 1: " + value);
+        return value;
+    }
+
+    /**
+     * Read a boolean parameter.
+     * @param model the model
+     * @param key the key of the parameter
+     * @return the boolean value
+     * @throws SimPortRuntimeException when the parameter is missing or not a boolean
+     */
+    private static boolean bool(final PortModel model, final String key)
+    {
+        try
+        {
+            return model.getInputParameterBoolean(key);
+        }
+        catch (RuntimeException e)
+        {
+            throw new SimPortRuntimeException("Input parameter " + key + " is missing or not a boolean", e);
+        }
+    }
+
+    /**
+     * Read the optional file format parameter for the container and truck files; when it is missing, CSV is used.
+     * @param model the model
+     * @param key the key of the parameter
+     * @return the file format
+     * @throws SimPortRuntimeException when the parameter is not "csv" or "columnar"
+     */
+    private static FileFormat fileFormat(final PortModel model, final String key)
+    {
+        String value;
+        try
+        {
+            value = model.getInputParameterString(key);
+        }
+        catch (RuntimeException e)
+        {
+            return FileFormat.CSV;
+        }
+        try
+        {
+            return FileFormat.valueOf(value.strip().toUpperCase());
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new SimPortRuntimeException("Input parameter " + key + " is not csv or columnar: " + value, e);
+        }
+    }
+
+    /**
+     * Parse the 24 comma-separated weights for the hours of the day.
+     * @param model the model
+     * @param key the key of the parameter
+     * @return the weights per hour of the day
+     * @throws SimPortRuntimeException when the parameter is missing, or does not contain 24 non-negative numbers
+     */
+    private static double[] hourWeights(final PortModel model, final String key)
+    {
+        String[] stringWeights;
+        try
+        {
+            stringWeights = model.getInputParameterString(key).split(",");
+        }
+        catch (RuntimeException e)
+        {
+            throw new SimPortRuntimeException("Input parameter " + key + " is missing or not a string", e);
+        }
+        if (stringWeights.length != 24)
+            throw new SimPortRuntimeException("Input parameter " + key + " does not have 24 entries");
+        double[] weights = new double[24];
+        for (int hour = 0; hour < 24; hour++)
+        {
+            try
+            {
+                weights[hour] = Double.parseDouble(stringWeights[hour].trim());
+            }
+            catch (NumberFormatException e)
+            {
+                throw new SimPortRuntimeException("Input parameter " + key + " has an illegal weight for hour " + hour, e);
+            }
+            if (!(weights[hour] >= 0.0))
+                throw new SimPortRuntimeException("Input parameter " + key + " has a negative weight for hour " + hour);
+        }
+        return weights;
+    }
+
+    /**
+     * The parameters for the terminals and the vessel generators.
+     * @param cutoffTransloadingDeepsea the time before the ETA of a deepsea vessel after which its bookings are allocated
+     * @param cutoffTransloadingFeeder the time before the ETA of a feeder after which its bookings are allocated
+     * @param transloadingBufferTime the minimum time between the arrival and departure of a transshipped container
+     * @param transloadingMatchInterval the interval between two allocation cycles
+     * @param maxDeepseaTransloadFraction the maximum fraction of the bookings of a deepsea vessel that can be transshipped
+     * @param generateDeepsea the time before its ETA that a deepsea vessel is generated
+     * @param generateFeeder the time before its ETA that a feeder is generated
+     */
+    public record TerminalParameters(Duration cutoffTransloadingDeepsea, Duration cutoffTransloadingFeeder,
+            Duration transloadingBufferTime, Duration transloadingMatchInterval, double maxDeepseaTransloadFraction,
+            Duration generateDeepsea, Duration generateFeeder)
+    {
+        /**
+         * Return the time before its ETA that a vessel of the given kind is generated.
+         * @param deepsea whether the vessel is a deepsea vessel or a feeder
+         * @return the time before its ETA that the vessel is generated
+         */
+        public Duration generateAdvance(final boolean deepsea)
+        {
+            return deepsea ? this.generateDeepsea : this.generateFeeder;
+        }
+    }
+
+    /**
+     * The parameters for the trucking companies.
+     * @param fractionSaturday fraction of the trips planned on Saturday that take place on Saturday
+     * @param fractionSunday fraction of the trips planned on Sunday that take place on Sunday
+     * @param hourWeights the weights for the 24 hours of the day
+     */
+    public record TruckParameters(double fractionSaturday, double fractionSunday, double[] hourWeights)
+    {
+        /**
+         * Create the truck parameters with a private copy of the hour weights.
+         * @param fractionSaturday fraction of the trips planned on Saturday that take place on Saturday
+         * @param fractionSunday fraction of the trips planned on Sunday that take place on Sunday
+         * @param hourWeights the weights for the 24 hours of the day
+         */
+        public TruckParameters
+        {
+            hourWeights = hourWeights.clone();
+        }
+
+        /** @return a copy of the weights for the 24 hours of the day */
+        @Override
+        public double[] hourWeights()
+        {
+            return this.hourWeights.clone();
+        }
+
+        @Override
+        public boolean equals(final Object obj)
+        {
+            return obj instanceof TruckParameters other && this.fractionSaturday == other.fractionSaturday
+                    && this.fractionSunday == other.fractionSunday && Arrays.equals(this.hourWeights, other.hourWeights);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * (31 * Double.hashCode(this.fractionSaturday) + Double.hashCode(this.fractionSunday))
+                    + Arrays.hashCode(this.hourWeights);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "TruckParameters[fractionSaturday=" + this.fractionSaturday + ", fractionSunday=" + this.fractionSunday
+                    + ", hourWeights=" + Arrays.toString(this.hourWeights) + "]";
+        }
+    }
+
+    /**
+     * The parameters for the output files.
+     * @param writeOutput whether output is written at all
+     * @param writeContainerFile whether the container file is written
+     * @param writeTruckFile whether the truck file is written
+     * @param fileFormat the file format of the container and truck files
+     */
+    public record OutputParameters(boolean writeOutput, boolean writeContainerFile, boolean writeTruckFile,
+            FileFormat fileFormat)
+    {
+    }
+
+    /**
+     * The file format of the large container and truck files.
+     */
+    public enum FileFormat
+    {
+        /** gzip-compressed CSV text. */
+        CSV,
+
+        /** columnar binary file, see ColumnarWriter. */
+        COLUMNAR;
+    }
+
+}
@@ -1,16 +1,22 @@
 package nl.tudelft.simulation.simport.model;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.djunits.value.vdouble.scalar.Duration;
+import org.djutils.event.Event;
+import org.djutils.event.EventListener;
 import org.djutils.event.EventProducer;
 import org.djutils.event.EventType;
+import org.djutils.event.reference.Reference;
 
 import nl.tudelft.simulation.dsol.model.DsolModel;
 import nl.tudelft.simulation.dsol.simulators.clock.ClockDevsSimulatorInterface;
 import nl.tudelft.simulation.jstats.distributions.DistUniform;
 import nl.tudelft.simulation.jstats.streams.StreamInterface;
+import nl.tudelft.simulation.simport.container.Container;
 import nl.tudelft.simulation.simport.freightforwarder.FreightForwarder;
 import nl.tudelft.simulation.simport.network.Centroid;
 import nl.tudelft.simulation.simport.network.RoadNetwork;
@@ -31,9 +37,20 @@ public interface PortModel extends DsolModel<Duration, ClockDevsSimulatorInterfa
     /** A vessel has been loaded and is about to leave the model. */
     static EventType VESSEL_EVENT = new EventType("VESSEL_EVENT");
 
-    /** A container has been delivered and is about to leave the model. */
+    /**
+     * A container has been delivered and is about to leave the model. The content is the Container. Containers that leave
+     * the model in a batch are also sent one by one with this event, to the listeners that did not register for the
+     * CONTAINER_BATCH_EVENT.
+     */
     static EventType CONTAINER_EVENT = new EventType("CONTAINER_EVENT");
 
+    /**
+     * A batch of containers, e.g., on a departing vessel, is about to leave the model. The content is a Container[]. A
+     * listener that registers for this event and for the CONTAINER_EVENT receives the containers of a batch only once, in
+     * this event.
+     */
+    static EventType CONTAINER_BATCH_EVENT = new EventType("CONTAINER_BATCH_EVENT");
+
     /** A truck has been completed a trip and is about to dropoff the container. */
     static EventType TRUCK_EVENT = new EventType("TRUCK_EVENT");
 
@@ -85,6 +102,12 @@ public interface PortModel extends DsolModel<Duration, ClockDevsSimulatorInterfa
      */
     int uniqueTruckNr();
 
+    /**
+     * Get a unique transport order number.
+     * @return a unique transport order number
+     */
+    int uniqueTransportOrderNr();
+
     /**
      * Return whether the simulation is interactive or not.
      * @return whether the simulation is interactive or not
@@ -166,4 +189,43 @@ public interface PortModel extends DsolModel<Duration, ClockDevsSimulatorInterfa
      */
     TruckingStatistics getTruckingStatistics();
 
+    /**
+     * Fire the events for a batch of containers that leaves the model. The listeners for the CONTAINER_BATCH_EVENT receive
+     * one event with all containers; the listeners for the CONTAINER_EVENT that are not also listening for the
+     * CONTAINER_BATCH_EVENT receive one CONTAINER_EVENT per container, as before the batch event existed.
+     * @param containers the containers that leave the model
+     */
+    default void fireContainerBatch(final Container[] containers)
+    {
+        if (containers.length == 0)
+            return;
+        fireEvent(CONTAINER_BATCH_EVENT, containers);
+        if (numberOfListeners(CONTAINER_EVENT) == 0)
+            return;
+        List<EventListener> batchListeners = new ArrayList<>();
+        for (Reference<EventListener> reference : getListenerReferences(CONTAINER_BATCH_EVENT))
+            batchListeners.add(reference.get());
+        List<EventListener> singleListeners = new ArrayList<>();
+        for (Reference<EventListener> reference : getListenerReferences(CONTAINER_EVENT))
+        {
+            EventListener listener = reference.get();
+            if (listener != null && batchListeners.stream().noneMatch(l -> l == listener))
+                singleListeners.add(listener);
+        }
+        for (Container container : containers)
+        {
+            Event event = new Event(CONTAINER_EVENT, container);
+            for (EventListener listener : singleListeners)
+                listener.notify(event);
+        }
+    }
+
+    /**
+     * Return the typed snapshot of the input parameters. The model compiles the snapshot with ModelParameters.compile(this) at
+     * the start of constructModel(), before it creates the terminals and trucking companies, and keeps it in a field; a missing
+     * or illegal parameter is reported at that moment.
+     * @return the typed snapshot of the input parameters of the current run
+     */
+    ModelParameters getModelParameters();
+
 }
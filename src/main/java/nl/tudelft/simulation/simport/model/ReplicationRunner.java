@@ -0,0 +1,403 @@
+package nl.tudelft.simulation.simport.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.djunits.value.vdouble.scalar.Duration;
+import org.djutils.exceptions.Throw;
+import org.djutils.logger.CategoryLogger;
+import org.djutils.stats.summarizers.Tally;
+
+import nl.tudelft.simulation.dsol.experiment.Replication;
+import nl.tudelft.simulation.dsol.experiment.SingleReplication;
+import nl.tudelft.simulation.dsol.experiment.StreamInformation;
+import nl.tudelft.simulation.dsol.simulators.ErrorStrategy;
+import nl.tudelft.simulation.dsol.simulators.RunState;
+import nl.tudelft.simulation.dsol.simulators.clock.ClockDevsSimulator;
+import nl.tudelft.simulation.dsol.simulators.clock.ClockDevsSimulatorInterface;
+import nl.tudelft.simulation.dsol.simulators.clock.ClockTime;
+import nl.tudelft.simulation.jstats.streams.MersenneTwister;
+import nl.tudelft.simulation.simport.truck.TruckingStatistics;
+import nl.tudelft.simulation.simport.util.CsvTokenizer;
+import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
+
+/**
+ * ReplicationRunner runs a number of replications of a port model headless and in parallel, one replication per seed. Each
+ * replication gets its own simulator, model instance, random stream, and output directory; the model is created by a
+ * ModelFactory that passes the output directory to its OutputWriter. The replications are executed on a ForkJoinPool with a
+ * configurable parallelism. When all replications have finished, the terminal_total.csv files and the trucking statistics of
+ * the replications are summarized per metric with the mean, the standard deviation, and a 95% confidence interval for the
+ * mean, in the files summary_terminal_total.csv and summary_trucking.csv in the output directory.
+ * <p>
+ * A replication in which the model throws an exception is ended by the simulator (ErrorStrategy.WARN_AND_END) without an
+ * END_REPLICATION_EVENT. Such a replication is reported as failed in its result, and left out of the summaries; the other
+ * replications continue.
+ * </p>
+ * <p>
+ * Models that run in parallel should not share mutable state; all unique numbers, including the transport order numbers,
+ * are drawn from the model.
+ * </p>
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ReplicationRunner
+{
+    /** Student t values for a two-sided 95% interval, for 1..30 degrees of freedom. */
+    private static final double[] T_975 = {12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228, 2.201, 2.179,
+            2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086, 2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045,
+            2.042};
+
+    /** the interval in ms at which a waiting pool thread checks whether the simulator has stopped without ending. */
+    private static final long POLL_MS = 1000L;
+
+    /** the factory for the model of a replication. */
+    private final ModelFactory modelFactory;
+
+    /** the start time of the simulation. */
+    private final ClockTime startTime;
+
+    /** the warmup period. */
+    private final Duration warmupPeriod;
+
+    /** the run length, including the warmup period. */
+    private final Duration runLength;
+
+    /** the directory in which the replication directories and the summary are written. */
+    private final Path outputDirectory;
+
+    /** the number of replications that run at the same time. */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Create a replication runner.
+     * @param modelFactory the factory for the model of a replication
+     * @param startTime the start time of the simulation
+     * @param warmupPeriod the warmup period
+     * @param runLength the run length, including the warmup period
+     * @param outputDirectory the directory in which the replication directories and the summary are written
+     */
+    public ReplicationRunner(final ModelFactory modelFactory, final ClockTime startTime, final Duration warmupPeriod,
+            final Duration runLength, final Path outputDirectory)
+    {
+        Throw.whenNull(modelFactory, "modelFactory");
+        Throw.whenNull(startTime, "startTime");
+        Throw.whenNull(warmupPeriod, "warmupPeriod");
+        Throw.whenNull(runLength, "runLength");
+        Throw.whenNull(outputDirectory, "outputDirectory");
+        this.modelFactory = modelFactory;
+        this.startTime = startTime;
+        this.warmupPeriod = warmupPeriod;
+        this.runLength = runLength;
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Set the number of replications that run at the same time. The default is the number of available processors.
+     * @param parallelism the number of replications that run at the same time
+     * @return the runner for method chaining
+     */
+    public ReplicationRunner setParallelism(final int parallelism)
+    {
+        Throw.when(parallelism < 1, IllegalArgumentException.class, "parallelism should be at least 1");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /** @return the number of replications that run at the same time */
+    public int getParallelism()
+    {
+        return this.parallelism;
+    }
+
+    /**
+     * Run one replication per seed, and write the summary of the replications.
+     * @param seeds the seeds of the replications
+     * @return the results of the replications, in the order of the seeds; failed replications have a failure message
+     * @throws SimPortRuntimeException when the output cannot be written
+     */
+    public List<ReplicationResult> run(final long... seeds)
+    {
+        Throw.when(seeds.length == 0, IllegalArgumentException.class, "no seeds for the replications");
+        try
+        {
+            Files.createDirectories(this.outputDirectory);
+        }
+        catch (IOException ioe)
+        {
+            throw new SimPortRuntimeException(ioe);
+        }
+        long t0 = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(Math.min(this.parallelism, seeds.length));
+        List<ReplicationResult> results = new ArrayList<>(seeds.length);
+        try
+        {
+            List<ForkJoinTask<ReplicationResult>> tasks = new ArrayList<>(seeds.length);
+            for (int i = 0; i < seeds.length; i++)
+            {
+                final int replicationNr = i + 1;
+                final long seed = seeds[i];
+                tasks.add(pool.submit(() -> runReplication(replicationNr, seed)));
+            }
+            for (ForkJoinTask<ReplicationResult> task : tasks)
+                results.add(task.join());
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+        long failed = results.stream().filter(ReplicationResult::failed).count();
+        CategoryLogger.always().info("{} replications finished in {} s with parallelism {}; {} failed", seeds.length,
+                (System.currentTimeMillis() - t0) / 1000.0, Math.min(this.parallelism, seeds.length), failed);
+        try
+        {
+            writeTerminalSummary(results);
+            writeTruckingSummary(results);
+        }
+        catch (IOException ioe)
+        {
+            throw new SimPortRuntimeException(ioe);
+        }
+        return results;
+    }
+
+    /**
+     * Run one replication, and wait until it has ended. The simulator executes the replication on its own worker thread; the
+     * calling pool thread waits, so the parallelism of the pool limits the number of replications that run at the same time.
+     * The wait ends on the END_REPLICATION_EVENT, or when the model throws an exception: with ErrorStrategy.WARN_AND_END the
+     * simulator cleans up without ending the replication, so the exception is caught in handleSimulationException, and the
+     * run state is polled as well in case the simulator is cleaned up in another way.
+     * @param replicationNr the 1-based number of the replication
+     * @param seed the seed of the replication
+     * @return the result of the replication, with a failure message when the replication did not end normally
+     * @throws SimPortRuntimeException when the replication is interrupted
+     */
+    protected ReplicationResult runReplication(final int replicationNr, final long seed)
+    {
+        String id = String.format("rep-%03d-seed-%d", replicationNr, seed);
+        Path directory = this.outputDirectory.resolve(id);
+        long t0 = System.currentTimeMillis();
+        CountDownLatch ended = new CountDownLatch(1);
+        AtomicReference<String> failure = new AtomicReference<>();
+        ClockDevsSimulator simulator = new ClockDevsSimulator(id, this.startTime)
+        {
+            /** */
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void handleSimulationException(final Exception exception)
+            {
+                failure.compareAndSet(null, String.valueOf(exception.getMessage()));
+                try
+                {
+                    super.handleSimulationException(exception);
+                }
+                finally
+                {
+                    ended.countDown();
+                }
+            }
+        };
+        simulator.setErrorStrategy(ErrorStrategy.WARN_AND_END);
+        PortModel model = null;
+        try
+        {
+            model = this.modelFactory.create(simulator, new StreamInformation(new MersenneTwister(seed)),
+                    directory.toString());
+            SingleReplication<Duration> replication =
+                    new SingleReplication<>(id, Duration.ZERO, this.warmupPeriod, this.runLength);
+            simulator.initialize(model, replication);
+            // registered after initialize(), so the OutputWriter of the model has closed its files when the latch opens
+            simulator.addListener(event -> ended.countDown(), Replication.END_REPLICATION_EVENT);
+            simulator.start();
+            while (!ended.await(POLL_MS, TimeUnit.MILLISECONDS))
+            {
+                // only cleanUp() resets the run state; a normal end keeps the state until the event has been fired
+                if (simulator.getRunState() == RunState.NOT_INITIALIZED)
+                {
+                    failure.compareAndSet(null, "simulator stopped without ending the replication");
+                    break;
+                }
+            }
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new SimPortRuntimeException("Replication " + id + " interrupted");
+        }
+        catch (RuntimeException exception)
+        {
+            failure.compareAndSet(null, String.valueOf(exception.getMessage()));
+        }
+        finally
+        {
+            simulator.cleanUp();
+        }
+        long runtime = System.currentTimeMillis() - t0;
+        if (failure.get() != null)
+        {
+            CategoryLogger.always().error("Replication {} failed after {} s: {}", id, runtime / 1000.0, failure.get());
+            return new ReplicationResult(replicationNr, seed, directory, null, runtime, failure.get());
+        }
+        CategoryLogger.always().info("Replication {} finished in {} s", id, runtime / 1000.0);
+        return new ReplicationResult(replicationNr, seed, directory, model.getTruckingStatistics(), runtime, null);
+    }
+
+    /**
+     * Summarize the terminal_total.csv files of the replications per terminal and metric. Failed replications and replications
+     * without the file (e.g., because output.WriteOutput is false) are skipped.
+     * @param results the results of the replications
+     * @throws IOException on read or write error
+     */
+    protected void writeTerminalSummary(final List<ReplicationResult> results) throws IOException
+    {
+        // terminal -> metric -> tally; the first column (date) is skipped, the second column is the terminal
+        Map<String, Map<String, Tally>> summary = new LinkedHashMap<>();
+        for (ReplicationResult result : results)
+        {
+            Path file = result.outputDirectory().resolve("terminal_total.csv");
+            if (result.failed() || !Files.exists(file))
+                continue;
+            try (CsvTokenizer csv = new CsvTokenizer(Files.newBufferedReader(file, StandardCharsets.UTF_8), ','))
+            {
+                if (!csv.nextRow())
+                    continue;
+                List<String> header = new ArrayList<>();
+                while (csv.nextField())
+                    header.add(csv.getString(true, false));
+                while (csv.nextRow())
+                {
+                    if (!csv.nextField() || !csv.nextField())
+                        continue;
+                    String terminal = csv.getString(true, false);
+                    Map<String, Tally> metrics = summary.computeIfAbsent(terminal, t -> new LinkedHashMap<>());
+                    for (int column = 2; column < header.size() && csv.nextField(); column++)
+                        metrics.computeIfAbsent(header.get(column), m -> new Tally(m)).register(csv.getDouble(false));
+                }
+            }
+        }
+        if (summary.isEmpty())
+            return;
+        try (Writer w = Files.newBufferedWriter(this.outputDirectory.resolve("summary_terminal_total.csv")))
+        {
+            w.write("\"terminal\",\"metric\",\"n\",\"mean\",\"stdev\",\"ci95_low\",\"ci95_high\"" + System.lineSeparator());
+            for (var terminal : summary.entrySet())
+            {
+                for (Tally tally : terminal.getValue().values())
+                    w.write("\"" + terminal.getKey() + "\"," + summaryLine(tally));
+            }
+        }
+    }
+
+    /**
+     * Summarize the trucking statistics of the replications per metric. Failed replications are skipped.
+     * @param results the results of the replications
+     * @throws IOException on write error
+     */
+    protected void writeTruckingSummary(final List<ReplicationResult> results) throws IOException
+    {
+        Tally[] tallies = new Tally[] {new Tally("total_trips"), new Tally("import_trips"), new Tally("export_trips"),
+                new Tally("combined_trips_1_terminal"), new Tally("combined_trips_2_terminals"), new Tally("waiting_trips")};
+        for (ReplicationResult result : results)
+        {
+            TruckingStatistics ts = result.truckingStatistics();
+            if (result.failed() || ts == null)
+                continue;
+            tallies[0].register(ts.getTotalTrips());
+            tallies[1].register(ts.getImportTrips());
+            tallies[2].register(ts.getExportTrips());
+            tallies[3].register(ts.getCombinedTrips1Terminal());
+            tallies[4].register(ts.getCombinedTrips2Terminals());
+            tallies[5].register(ts.getWaitingTrips());
+        }
+        try (Writer w = Files.newBufferedWriter(this.outputDirectory.resolve("summary_trucking.csv")))
+        {
+            w.write("\"metric\",\"n\",\"mean\",\"stdev\",\"ci95_low\",\"ci95_high\"" + System.lineSeparator());
+            for (Tally tally : tallies)
+                w.write(summaryLine(tally));
+        }
+    }
+
+    /**
+     * Make the summary line for a metric: metric, n, mean, standard deviation, and the 95% confidence interval of the mean,
+     * based on the Student t distribution. With one replication, the standard deviation and the interval are empty.
+     * @param tally the tally with the values of the replications
+     * @return the line for the metric
+     */
+    private static String summaryLine(final Tally tally)
+    {
+        long n = tally.getN();
+        double mean = tally.getSampleMean();
+        if (n < 2)
+            return String.format("\"%s\",%d,%s,,,%n", tally.getDescription(), n, mean);
+        double sd = tally.getSampleStDev();
+        double halfWidth = tValue((int) n - 1) * sd / Math.sqrt(n);
+        return String.format("\"%s\",%d,%s,%s,%s,%s%n", tally.getDescription(), n, mean, sd, mean - halfWidth,
+                mean + halfWidth);
+    }
+
+    /**
+     * Return the t value for a two-sided 95% confidence interval. Above 30 degrees of freedom, a series expansion around the
+     * normal quantile is used.
+     * @param df the degrees of freedom
+     * @return the t value
+     */
+    static double tValue(final int df)
+    {
+        if (df <= T_975.length)
+            return T_975[df - 1];
+        double z = 1.959964;
+        return z + (z * z * z + z) / (4.0 * df);
+    }
+
+    /**
+     * ModelFactory creates the model for one replication.
+     */
+    @FunctionalInterface
+    public interface ModelFactory
+    {
+        /**
+         * Create the model for a replication. The model should use the stream information for all its random streams, and
+         * write its output to the given directory.
+         * @param simulator the simulator of the replication
+         * @param streamInformation the random streams of the replication
+         * @param outputPath the output directory of the replication
+         * @return the model for the replication
+         */
+        PortModel create(ClockDevsSimulatorInterface simulator, StreamInformation streamInformation, String outputPath);
+    }
+
+    /**
+     * The result of one replication.
+     * @param replicationNr the 1-based number of the replication
+     * @param seed the seed of the replication
+     * @param outputDirectory the output directory of the replication
+     * @param truckingStatistics the trucking statistics of the model at the end of the replication; null when it failed
+     * @param runtimeMs the wall clock time of the replication in ms
+     * @param failure the message of the exception that ended the replication, or null when the replication ended normally
+     */
+    public record ReplicationResult(int replicationNr, long seed, Path outputDirectory, TruckingStatistics truckingStatistics,
+            long runtimeMs, String failure)
+    {
+        /** @return whether the replication failed */
+        public boolean failed()
+        {
+            return this.failure != null;
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package nl.tudelft.simulation.simport.ndw;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.djutils.exceptions.Throw;
+import org.djutils.logger.CategoryLogger;
+
+import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
+
+/**
+ * AggregateImport imports the NDW data zip files of a directory into an AggregateStore, and skips the days that the store
+ * already contains, so the import can be repeated when new days are downloaded. A day with an entry that cannot be read or
+ * parsed is logged and not stored, so the next import tries it again. The data zip files are named like
+ * NDW-2024-01-08-data.zip; the site metadata of a day is read from NDW-2024-01-08-config.zip in the same directory.
+ * <p>
+ * Usage: AggregateImport &lt;ndw directory&gt; &lt;store directory&gt; [bucket minutes, default 15] [threads, default all
+ * processors]
+ * </p>
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public final class AggregateImport
+{
+    /** */
+    private AggregateImport()
+    {
+        // utility class
+    }
+
+    /**
+     * @param args the ndw directory, the store directory, and optionally the bucket size in minutes and the number of threads
+     * @throws Exception when a file cannot be read or written
+     */
+    public static void main(final String[] args) throws Exception
+    {
+        Throw.when(args.length < 2, IllegalArgumentException.class,
+                "Usage: AggregateImport <ndw directory> <store directory> [bucket minutes] [threads]");
+        File ndwDirectory = new File(args[0]);
+        AggregateStore store = new AggregateStore(Path.of(args[1]));
+        long bucketSizeMillis = 60_000L * (args.length > 2 ? Integer.parseInt(args[2]) : 15);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        File[] dataFiles = ndwDirectory.listFiles((dir, name) -> name.endsWith("-data.zip"));
+        Throw.when(dataFiles == null, IllegalArgumentException.class, "%s is not a directory", ndwDirectory);
+        Arrays.sort(dataFiles);
+        int imported = 0;
+        int skipped = 0;
+        int failed = 0;
+        for (File dataFile : dataFiles)
+        {
+            LocalDate day = AggregateStore.dateOf(dataFile);
+            if (day == null || store.contains(day))
+            {
+                skipped++;
+                continue;
+            }
+            File config = new File(dataFile.getParentFile(), dataFile.getName().replace("-data.zip", "-config.zip"));
+            if (!config.exists())
+            {
+                CategoryLogger.always().warn("No site metadata {} for {}; day skipped", config.getName(), dataFile.getName());
+                skipped++;
+                continue;
+            }
+            long t0 = System.currentTimeMillis();
+            Map<String, SiteMetadata> metadata = MeasurementSiteTableParser.parse(config);
+            try
+            {
+                store.importDay(day, dataFile, metadata, bucketSizeMillis, threads);
+            }
+            catch (SimPortRuntimeException e)
+            {
+                CategoryLogger.always().error(e, "Import of {} failed; day not stored", dataFile.getName());
+                failed++;
+                continue;
+            }
+            CategoryLogger.always().info("Imported {} in {} s", day, (System.currentTimeMillis() - t0) / 1000.0);
+            imported++;
+        }
+        CategoryLogger.always().info("{} days imported, {} days skipped, {} days failed", imported, skipped, failed);
+        store.logContents();
+    }
+
+}
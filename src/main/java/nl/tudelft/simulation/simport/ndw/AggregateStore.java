@@ -0,0 +1,804 @@
+package nl.tudelft.simulation.simport.ndw;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.djutils.exceptions.Throw;
+import org.djutils.logger.CategoryLogger;
+
+import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
+
+/**
+ * AggregateStore is a local cache of aggregated NDW data, with one file per day, so experiments and calibrations do not have to
+ * parse the XML of the raw NDW zip files again. A day file contains, per measurement site, the average speed (float), the
+ * flow (int) and the number of flow samples as coverage (short) for every vehicle class and time bucket of the day, from
+ * midnight to midnight in the time zone of the Netherlands.
+ * <p>
+ * A day file starts with MAGIC, VERSION, the bucket size and the first bucket in milliseconds since the epoch, the number of
+ * buckets, and the vehicle class labels. Then follows a block per site with three columns: the speeds, the flows and the
+ * coverages, each ordered by vehicle class and bucket. The footer contains the site ids in sorted order with their latitude,
+ * longitude and the offset of their block, and the file ends with the offset of the footer and MAGIC. A reader only loads the
+ * footer, finds a site with a binary search and a bucket by its time, and reads the block of the site with one positional
+ * read.
+ * </p>
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class AggregateStore
+{
+    /** The magic number at the start and end of a day file ("SPAG"). */
+    private static final int MAGIC = 0x53504147;
+
+    /** The version of the day file format; increase when the format changes. */
+    private static final int VERSION = 1;
+
+    /** The extension of the day files. */
+    private static final String EXTENSION = ".agg";
+
+    /** The time zone of the days of the NDW files; a day runs from midnight to midnight in this zone. */
+    public static final ZoneId ZONE = ZoneId.of("Europe/Amsterdam");
+
+    /** The pattern of a date in a file name. */
+    private static final Pattern DATE = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})");
+
+    /** the directory of the store. */
+    private final Path directory;
+
+    /**
+     * Create or open a store in a directory. The directory is created when it does not exist.
+     * @param directory the directory of the store
+     * @throws IOException when the directory cannot be created
+     */
+    public AggregateStore(final Path directory) throws IOException
+    {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * @param day the day
+     * @return the path of the file of the day
+     */
+    public Path dayFile(final LocalDate day)
+    {
+        return this.directory.resolve("ndw-" + day + EXTENSION);
+    }
+
+    /**
+     * @param day the day
+     * @return whether the store contains the day
+     */
+    public boolean contains(final LocalDate day)
+    {
+        return Files.isRegularFile(dayFile(day));
+    }
+
+    /**
+     * @return the days in the store, sorted
+     * @throws IOException when the directory cannot be read
+     */
+    public List<LocalDate> days() throws IOException
+    {
+        List<LocalDate> days = new ArrayList<>();
+        try (Stream<Path> files = Files.list(this.directory))
+        {
+            files.map(p -> p.getFileName().toString()).filter(n -> n.startsWith("ndw-") && n.endsWith(EXTENSION))
+                    .forEach(n -> days.add(LocalDate.parse(n.substring(4, n.length() - EXTENSION.length()))));
+        }
+        Collections.sort(days);
+        return days;
+    }
+
+    /**
+     * Return the date in the name of an NDW file, such as NDW-2024-01-08-data.zip.
+     * @param file the file
+     * @return the date in the file name, or null when the name does not contain a date
+     */
+    public static LocalDate dateOf(final File file)
+    {
+        Matcher m = DATE.matcher(file.getName());
+        return m.find() ? LocalDate.parse(m.group(1)) : null;
+    }
+
+    /**
+     * Import the NDW data zip file of a day into the store, unless the store already contains the day. The zip file is
+     * processed by the staged pipeline of the DailyDataProcessor, and the day file is written to a temporary file first, so an
+     * interrupted import does not leave a partial day in the store. When an entry of the zip file cannot be read or parsed,
+     * the day is not written at all, since a later import would skip the day and keep the incomplete data forever.
+     * @param day the day
+     * @param dataZip the NDW data zip file of the day
+     * @param metadata the site metadata
+     * @param bucketSizeMillis the bucket size in milliseconds
+     * @param threads the number of parser threads
+     * @return whether the day was imported; false when the store already contained the day
+     * @throws SimPortRuntimeException when one or more entries of the zip file could not be read or parsed
+     * @throws Exception when the zip file cannot be processed or the day file cannot be written
+     */
+    public boolean importDay(final LocalDate day, final File dataZip, final Map<String, SiteMetadata> metadata,
+            final long bucketSizeMillis, final int threads) throws Exception
+    {
+        if (contains(day))
+            return false;
+        DayBuilder builder = new DayBuilder(metadata, bucketSizeMillis, day);
+        DailyDataProcessor processor = new DailyDataProcessor(metadata, bucketSizeMillis, null, true);
+        processor.processZipPipelined(dataZip, threads, 2 * Math.max(1, threads), builder::add);
+        if (builder.getNrDropped() > 0)
+            CategoryLogger.always().warn("Import of {}: dropped {} buckets outside the day", day, builder.getNrDropped());
+        Path tmp = Files.createTempFile(this.directory, "ndw-" + day, ".tmp");
+        try
+        {
+            builder.write(tmp);
+            Files.move(tmp, dayFile(day), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(tmp);
+        }
+        return true;
+    }
+
+    /**
+     * Write a day file from aggregated buckets. Buckets outside the day are dropped.
+     * @param day the day
+     * @param metadata the site metadata, for the coordinates of the sites
+     * @param bucketSizeMillis the bucket size in milliseconds
+     * @param buckets the aggregated buckets of the day
+     * @throws IOException when the file cannot be written
+     */
+    public void write(final LocalDate day, final Map<String, SiteMetadata> metadata, final long bucketSizeMillis,
+            final Collection<TrafficAggregator.AggregatedBucket> buckets) throws IOException
+    {
+        DayBuilder builder = new DayBuilder(metadata, bucketSizeMillis, day);
+        builder.add(buckets);
+        builder.write(dayFile(day));
+    }
+
+    /**
+     * Open the file of a day for reading.
+     * @param day the day
+     * @return the day file; close it after use
+     * @throws SimPortRuntimeException when the day is not in the store, or the file has another format
+     */
+    public Day open(final LocalDate day)
+    {
+        Throw.when(!contains(day), SimPortRuntimeException.class, "day %s is not in the aggregate store", day);
+        return new Day(dayFile(day));
+    }
+
+    /**
+     * Log the days in the store.
+     * @throws IOException when the directory cannot be read
+     */
+    public void logContents() throws IOException
+    {
+        List<LocalDate> days = days();
+        CategoryLogger.always().info("Aggregate store {} contains {} days{}", this.directory, days.size(),
+                days.isEmpty() ? "" : " from " + days.get(0) + " to " + days.get(days.size() - 1));
+    }
+
+    /**
+     * DayBuilder collects the aggregated buckets of a day in primitive arrays per site and vehicle class, indexed by bucket,
+     * and writes them as a day file. The grid covers the buckets from midnight to midnight of the day in the time zone ZONE;
+     * buckets outside the day are dropped. Buckets can be added in any order and in several batches: the builder keeps the
+     * sums of the flows, flow samples and speeds, so a bucket that arrives in two batches is merged, and the average speed is
+     * calculated when the day file is written. The arrays of a site and class are only allocated when a bucket of that site
+     * and class arrives, so the memory use grows with the sites that report data and not with all sites of the metadata; the
+     * sums are kept as float and int, like the values in the day file.
+     */
+    static final class DayBuilder
+    {
+        /** the site index per site id, in sorted order of the site ids. */
+        private final Map<String, Integer> siteIndex = new HashMap<>();
+
+        /** the site ids, sorted. */
+        private final String[] siteIds;
+
+        /** the latitude per site. */
+        private final double[] lat;
+
+        /** the longitude per site. */
+        private final double[] lon;
+
+        /** the bucket size in milliseconds. */
+        private final long bucketSizeMillis;
+
+        /** the first bucket of the day in milliseconds since the epoch. */
+        private final long firstBucket;
+
+        /** the number of buckets of the day. */
+        private final int nrBuckets;
+
+        /** the class index per vehicle class label. */
+        private final Map<String, Integer> classIndex = new HashMap<>();
+
+        /** the vehicle class labels. */
+        private final List<String> classLabels = new ArrayList<>();
+
+        /** the cells per site and class index; null for a site or class without buckets. */
+        private final Cells[][] cells;
+
+        /** the number of buckets that were dropped because they lie outside the day. */
+        private long nrDropped = 0;
+
+        /**
+         * Create a builder for the sites of the metadata and the buckets of a day.
+         * @param metadata the site metadata
+         * @param bucketSizeMillis the bucket size in milliseconds
+         * @param day the day
+         */
+        DayBuilder(final Map<String, SiteMetadata> metadata, final long bucketSizeMillis, final LocalDate day)
+        {
+            Throw.when(bucketSizeMillis <= 0, IllegalArgumentException.class, "bucket size %d <= 0", bucketSizeMillis);
+            this.siteIds = metadata.keySet().toArray(new String[0]);
+            Arrays.sort(this.siteIds);
+            this.lat = new double[this.siteIds.length];
+            this.lon = new double[this.siteIds.length];
+            this.cells = new Cells[this.siteIds.length][];
+            for (int i = 0; i < this.siteIds.length; i++)
+            {
+                this.siteIndex.put(this.siteIds[i], i);
+                this.lat[i] = metadata.get(this.siteIds[i]).lat();
+                this.lon[i] = metadata.get(this.siteIds[i]).lon();
+            }
+            this.bucketSizeMillis = bucketSizeMillis;
+            long start = day.atStartOfDay(ZONE).toInstant().toEpochMilli();
+            long end = day.plusDays(1).atStartOfDay(ZONE).toInstant().toEpochMilli();
+            this.firstBucket = Math.floorDiv(start, bucketSizeMillis) * bucketSizeMillis;
+            this.nrBuckets = (int) -Math.floorDiv(this.firstBucket - end, bucketSizeMillis);
+        }
+
+        /**
+         * Add aggregated buckets; buckets of sites that are not in the metadata are skipped, and buckets outside the day are
+         * dropped. A bucket that was added before is merged with the new bucket.
+         * @param buckets the aggregated buckets
+         */
+        void add(final Collection<TrafficAggregator.AggregatedBucket> buckets)
+        {
+            for (TrafficAggregator.AggregatedBucket b : buckets)
+            {
+                Integer site = this.siteIndex.get(b.siteId);
+                if (site == null)
+                    continue;
+                long bucket = Math.floorDiv(b.bucketId - this.firstBucket, this.bucketSizeMillis);
+                if (bucket < 0 || bucket >= this.nrBuckets)
+                {
+                    this.nrDropped++;
+                    continue;
+                }
+                cells(site, vehicleClass(b.classLabel)).add((int) bucket, b);
+            }
+        }
+
+        /**
+         * @return the number of buckets that were dropped because they lie outside the day
+         */
+        long getNrDropped()
+        {
+            return this.nrDropped;
+        }
+
+        /**
+         * @param label the vehicle class label
+         * @return the class index, which is added when the label is new
+         */
+        private int vehicleClass(final String label)
+        {
+            Integer cls = this.classIndex.get(label);
+            if (cls != null)
+                return cls;
+            this.classLabels.add(label);
+            this.classIndex.put(label, this.classLabels.size() - 1);
+            return this.classLabels.size() - 1;
+        }
+
+        /**
+         * Return the cells of a site and class, and allocate them when the site or class has no cells yet.
+         * @param site the site index
+         * @param cls the class index
+         * @return the cells of the site and class
+         */
+        private Cells cells(final int site, final int cls)
+        {
+            Cells[] siteCells = this.cells[site];
+            if (siteCells == null || cls >= siteCells.length)
+            {
+                siteCells = siteCells == null ? new Cells[this.classLabels.size()]
+                        : Arrays.copyOf(siteCells, this.classLabels.size());
+                this.cells[site] = siteCells;
+            }
+            if (siteCells[cls] == null)
+                siteCells[cls] = new Cells(this.nrBuckets);
+            return siteCells[cls];
+        }
+
+        /**
+         * @param site the site index
+         * @param cls the class index
+         * @return the cells of the site and class, or null when the site has no buckets of the class
+         */
+        private Cells cellsOrNull(final int site, final int cls)
+        {
+            Cells[] siteCells = this.cells[site];
+            return siteCells == null || cls >= siteCells.length ? null : siteCells[cls];
+        }
+
+        /**
+         * @param site the site index
+         * @return whether the site has a flow or speed in any class and bucket
+         */
+        private boolean hasData(final int site)
+        {
+            if (this.cells[site] == null)
+                return false;
+            for (Cells c : this.cells[site])
+            {
+                if (c == null)
+                    continue;
+                for (int b = 0; b < this.nrBuckets; b++)
+                {
+                    if (c.coverage[b] != 0 || c.speedWeight[b] > 0.0f || c.countSamplesSpeed[b] != 0)
+                        return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Write the day file. Sites without data are left out.
+         * @param path the path of the day file
+         * @throws IOException when the file cannot be written
+         */
+        void write(final Path path) throws IOException
+        {
+            int nrSites = this.siteIds.length;
+            int nrClasses = this.classLabels.size();
+            List<Integer> sites = new ArrayList<>();
+            List<Long> offsets = new ArrayList<>();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(this.bucketSizeMillis);
+                out.writeLong(this.firstBucket);
+                out.writeInt(this.nrBuckets);
+                out.writeInt(nrClasses);
+                for (String label : this.classLabels)
+                    out.writeUTF(label);
+                for (int site = 0; site < nrSites; site++)
+                {
+                    if (!hasData(site))
+                        continue;
+                    sites.add(site);
+                    offsets.add((long) out.size());
+                    for (int c = 0; c < nrClasses; c++)
+                    {
+                        Cells cells = cellsOrNull(site, c);
+                        for (int b = 0; b < this.nrBuckets; b++)
+                            out.writeFloat(cells == null ? Float.NaN : cells.avgSpeed(b));
+                    }
+                    for (int c = 0; c < nrClasses; c++)
+                    {
+                        Cells cells = cellsOrNull(site, c);
+                        for (int b = 0; b < this.nrBuckets; b++)
+                            out.writeInt(cells == null ? 0 : Math.round(cells.flow[b]));
+                    }
+                    for (int c = 0; c < nrClasses; c++)
+                    {
+                        Cells cells = cellsOrNull(site, c);
+                        for (int b = 0; b < this.nrBuckets; b++)
+                            out.writeShort(cells == null ? 0 : (short) Math.min(Short.MAX_VALUE, cells.coverage[b]));
+                    }
+                }
+                long footer = out.size();
+                out.writeInt(sites.size());
+                for (int i = 0; i < sites.size(); i++)
+                {
+                    out.writeUTF(this.siteIds[sites.get(i)]);
+                    out.writeDouble(this.lat[sites.get(i)]);
+                    out.writeDouble(this.lon[sites.get(i)]);
+                    out.writeLong(offsets.get(i));
+                }
+                out.writeLong(footer);
+                out.writeInt(MAGIC);
+            }
+        }
+    }
+
+    /**
+     * Cells holds the sums of the aggregated buckets of one site and vehicle class, per bucket of the day.
+     */
+    private static final class Cells
+    {
+        /** the sums of the flows. */
+        private final float[] flow;
+
+        /** the number of flow samples. */
+        private final int[] coverage;
+
+        /** the weighted sums of the speeds. */
+        private final float[] speedWeightedSum;
+
+        /** the sums of the speed weights. */
+        private final float[] speedWeight;
+
+        /** the unweighted sums of the speeds. */
+        private final float[] speedSimpleSum;
+
+        /** the number of speed samples. */
+        private final int[] countSamplesSpeed;
+
+        /**
+         * @param nrBuckets the number of buckets of the day
+         */
+        Cells(final int nrBuckets)
+        {
+            this.flow = new float[nrBuckets];
+            this.coverage = new int[nrBuckets];
+            this.speedWeightedSum = new float[nrBuckets];
+            this.speedWeight = new float[nrBuckets];
+            this.speedSimpleSum = new float[nrBuckets];
+            this.countSamplesSpeed = new int[nrBuckets];
+        }
+
+        /**
+         * Merge an aggregated bucket into a bucket of the day. The sample counts saturate instead of overflowing.
+         * @param bucket the bucket index
+         * @param b the aggregated bucket
+         */
+        void add(final int bucket, final TrafficAggregator.AggregatedBucket b)
+        {
+            this.flow[bucket] += (float) b.totalFlow;
+            this.coverage[bucket] = (int) Math.min(Integer.MAX_VALUE, this.coverage[bucket] + b.countSamplesFlow);
+            this.speedWeightedSum[bucket] += (float) b.speedWeightedSum;
+            this.speedWeight[bucket] += (float) b.speedWeight;
+            this.speedSimpleSum[bucket] += (float) b.speedSimpleSum;
+            this.countSamplesSpeed[bucket] =
+                    (int) Math.min(Integer.MAX_VALUE, this.countSamplesSpeed[bucket] + b.countSamplesSpeed);
+        }
+
+        /**
+         * Return the average speed of a bucket, with the same rule as AggregatedBucket.avgSpeed(): the weighted average when
+         * the speeds have weights, and the plain average otherwise.
+         * @param bucket the bucket index
+         * @return the average speed, or NaN when the bucket has no speeds
+         */
+        float avgSpeed(final int bucket)
+        {
+            if (this.speedWeight[bucket] > 0.0f)
+                return this.speedWeightedSum[bucket] / this.speedWeight[bucket];
+            if (this.countSamplesSpeed[bucket] > 0)
+                return this.speedSimpleSum[bucket] / this.countSamplesSpeed[bucket];
+            return Float.NaN;
+        }
+    }
+
+    /**
+     * Day is an open day file. The footer with the site index is loaded when the file is opened; the data of a site is read
+     * when it is requested.
+     */
+    public static final class Day implements AutoCloseable
+    {
+        /** the path of the file. */
+        private final Path path;
+
+        /** the channel for positional reads. */
+        private final FileChannel channel;
+
+        /** the bucket size in milliseconds. */
+        private final long bucketSizeMillis;
+
+        /** the first bucket in milliseconds since the epoch. */
+        private final long firstBucket;
+
+        /** the number of buckets. */
+        private final int nrBuckets;
+
+        /** the vehicle class labels. */
+        private final List<String> classLabels = new ArrayList<>();
+
+        /** the site ids, sorted. */
+        private final String[] siteIds;
+
+        /** the latitude per site. */
+        private final double[] lat;
+
+        /** the longitude per site. */
+        private final double[] lon;
+
+        /** the offset of the block per site. */
+        private final long[] offsets;
+
+        /**
+         * Open a day file.
+         * @param path the path of the day file
+         * @throws SimPortRuntimeException when the file cannot be read or has another format
+         */
+        Day(final Path path)
+        {
+            this.path = path;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+            {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                    throw new SimPortRuntimeException("Aggregate file " + path + " has an unknown format or version");
+                this.bucketSizeMillis = in.readLong();
+                this.firstBucket = in.readLong();
+                this.nrBuckets = in.readInt();
+                int nrClasses = in.readInt();
+                for (int c = 0; c < nrClasses; c++)
+                    this.classLabels.add(in.readUTF());
+            }
+            catch (IOException e)
+            {
+                throw new SimPortRuntimeException("Aggregate file " + path + " could not be read", e);
+            }
+            try
+            {
+                this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            }
+            catch (IOException e)
+            {
+                throw new SimPortRuntimeException("Aggregate file " + path + " could not be opened", e);
+            }
+            try
+            {
+                ByteBuffer trailer = ByteBuffer.allocate(12);
+                this.channel.read(trailer, this.channel.size() - 12);
+                trailer.flip();
+                long footer = trailer.getLong();
+                if (trailer.getInt() != MAGIC)
+                    throw new SimPortRuntimeException("Aggregate file " + path + " is incomplete");
+                // the stream is not closed, since that would close the channel
+                DataInputStream in =
+                        new DataInputStream(new BufferedInputStream(Channels.newInputStream(this.channel.position(footer))));
+                int nrSites = in.readInt();
+                this.siteIds = new String[nrSites];
+                this.lat = new double[nrSites];
+                this.lon = new double[nrSites];
+                this.offsets = new long[nrSites];
+                for (int i = 0; i < nrSites; i++)
+                {
+                    this.siteIds[i] = in.readUTF();
+                    this.lat[i] = in.readDouble();
+                    this.lon[i] = in.readDouble();
+                    this.offsets[i] = in.readLong();
+                }
+            }
+            catch (IOException | RuntimeException e)
+            {
+                try
+                {
+                    this.channel.close();
+                }
+                catch (IOException ce)
+                {
+                    e.addSuppressed(ce);
+                }
+                if (e instanceof SimPortRuntimeException)
+                    throw (SimPortRuntimeException) e;
+                throw new SimPortRuntimeException("Aggregate file " + path + " could not be read", e);
+            }
+        }
+
+        /**
+         * @return the number of sites with data
+         */
+        public int getNrSites()
+        {
+            return this.siteIds.length;
+        }
+
+        /**
+         * @param site the site index
+         * @return the NDW id of the site
+         */
+        public String getSiteId(final int site)
+        {
+            return this.siteIds[site];
+        }
+
+        /**
+         * @param site the site index
+         * @return the latitude of the site
+         */
+        public double getLat(final int site)
+        {
+            return this.lat[site];
+        }
+
+        /**
+         * @param site the site index
+         * @return the longitude of the site
+         */
+        public double getLon(final int site)
+        {
+            return this.lon[site];
+        }
+
+        /**
+         * @return the vehicle class labels
+         */
+        public List<String> getClassLabels()
+        {
+            return Collections.unmodifiableList(this.classLabels);
+        }
+
+        /**
+         * @return the number of buckets
+         */
+        public int getNrBuckets()
+        {
+            return this.nrBuckets;
+        }
+
+        /**
+         * @return the bucket size in milliseconds
+         */
+        public long getBucketSizeMillis()
+        {
+            return this.bucketSizeMillis;
+        }
+
+        /**
+         * @param bucket the bucket index
+         * @return the start of the bucket in milliseconds since the epoch
+         */
+        public long getBucketMillis(final int bucket)
+        {
+            return this.firstBucket + bucket * this.bucketSizeMillis;
+        }
+
+        /**
+         * @param siteId the NDW id of a site
+         * @return the site index, or -1 when the day has no data for the site
+         */
+        public int siteIndex(final String siteId)
+        {
+            int i = Arrays.binarySearch(this.siteIds, siteId);
+            return i < 0 ? -1 : i;
+        }
+
+        /**
+         * @param timeMillis a time in milliseconds since the epoch
+         * @return the index of the bucket that contains the time, or -1 when the time is outside the buckets of the day
+         */
+        public int bucketIndex(final long timeMillis)
+        {
+            if (this.nrBuckets == 0 || timeMillis < this.firstBucket)
+                return -1;
+            long b = (timeMillis - this.firstBucket) / this.bucketSizeMillis;
+            return b < this.nrBuckets ? (int) b : -1;
+        }
+
+        /**
+         * Read the data of a site.
+         * @param site the site index
+         * @return the speeds, flows and coverages of the site
+         * @throws SimPortRuntimeException when the file cannot be read
+         */
+        public SiteSeries readSite(final int site)
+        {
+            int n = this.classLabels.size() * this.nrBuckets;
+            ByteBuffer bb = ByteBuffer.allocate(10 * n);
+            try
+            {
+                long position = this.offsets[site];
+                while (bb.hasRemaining())
+                {
+                    int read = this.channel.read(bb, position);
+                    if (read < 0)
+                        throw new SimPortRuntimeException("Aggregate file " + this.path + " is truncated");
+                    position += read;
+                }
+            }
+            catch (IOException e)
+            {
+                throw new SimPortRuntimeException("Aggregate file " + this.path + " could not be read", e);
+            }
+            bb.flip();
+            float[] speed = new float[n];
+            int[] flow = new int[n];
+            short[] coverage = new short[n];
+            bb.asFloatBuffer().get(speed);
+            bb.position(4 * n);
+            bb.asIntBuffer().get(flow);
+            bb.position(8 * n);
+            bb.asShortBuffer().get(coverage);
+            return new SiteSeries(this.nrBuckets, speed, flow, coverage);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * SiteSeries contains the speeds, flows and coverages of a site for a day, indexed by vehicle class and bucket.
+     */
+    public static final class SiteSeries
+    {
+        /** the number of buckets. */
+        private final int nrBuckets;
+
+        /** the speeds in km/h; NaN when there is no speed. */
+        private final float[] speed;
+
+        /** the flows. */
+        private final int[] flow;
+
+        /** the number of flow samples. */
+        private final short[] coverage;
+
+        /**
+         * @param nrBuckets the number of buckets
+         * @param speed the speeds
+         * @param flow the flows
+         * @param coverage the number of flow samples
+         */
+        SiteSeries(final int nrBuckets, final float[] speed, final int[] flow, final short[] coverage)
+        {
+            this.nrBuckets = nrBuckets;
+            this.speed = speed;
+            this.flow = flow;
+            this.coverage = coverage;
+        }
+
+        /**
+         * @param vehicleClass the class index
+         * @param bucket the bucket index
+         * @return the average speed in km/h, or NaN when there is no speed
+         */
+        public float speed(final int vehicleClass, final int bucket)
+        {
+            return this.speed[vehicleClass * this.nrBuckets + bucket];
+        }
+
+        /**
+         * @param vehicleClass the class index
+         * @param bucket the bucket index
+         * @return the number of vehicles
+         */
+        public int flow(final int vehicleClass, final int bucket)
+        {
+            return this.flow[vehicleClass * this.nrBuckets + bucket];
+        }
+
+        /**
+         * @param vehicleClass the class index
+         * @param bucket the bucket index
+         * @return the number of flow samples
+         */
+        public int coverage(final int vehicleClass, final int bucket)
+        {
+            return this.coverage[vehicleClass * this.nrBuckets + bucket];
+        }
+    }
+
+}
@@ -1,22 +1,30 @@
 package nl.tudelft.simulation.simport.ndw;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
@@ -25,11 +33,15 @@ import java.util.zip.ZipFile;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
 import org.djutils.exceptions.Throw;
+import org.djutils.logger.CategoryLogger;
 
-import de.siegmar.fastcsv.writer.CsvWriter;
+import nl.tudelft.simulation.simport.network.SpatialIndex;
+import nl.tudelft.simulation.simport.output.CsvLineEncoder;
+import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
 
 /**
  * DailyDataProcessor.java.
@@ -67,26 +79,98 @@ public class DailyDataProcessor
         }
     }
 
+    /** the header line of the output. */
+    private static final byte[] HEADER =
+            CsvLineEncoder.bytes("timestamp,siteId,roadName,direction,lanes,lat,lon,hm,vehicleClass,vehicleCount,avgSpeed");
+
+    /** the line end of RFC 4180. */
+    private static final byte[] CRLF = CsvLineEncoder.bytes("\r\n");
+
     private final Map<String, SiteMetadata> metadataMap;
 
     private final TrafficAggregator aggregator;
 
-    private final BoundingBox bbox;
+    /** the aggregator cells per site id, for the sites that pass the site filter, e.g., the bounding box. */
+    private final Map<String, SiteCells> siteCells = new HashMap<>();
+
+    /** the class index of the "unknown" vehicle class in the aggregator. */
+    private final int unknownClass;
+
+    /** the encoder for the output lines; only used by the thread that writes the output. */
+    private final CsvLineEncoder line = new CsvLineEncoder();
 
     private final long bucketSizeMillis;
 
     public DailyDataProcessor(final Map<String, SiteMetadata> metadataMap, final long bucketSizeMillis)
     {
-        this(metadataMap, bucketSizeMillis, null, true);
+        this(metadataMap, bucketSizeMillis, (BoundingBox) null, true);
     }
 
     public DailyDataProcessor(final Map<String, SiteMetadata> metadataMap, final long bucketSizeMillis, final BoundingBox bbox,
             final boolean flowWeightedSpeed)
+    {
+        this(metadataMap, bucketSizeMillis, bbox == null ? null
+                : md -> !Double.isNaN(md.lat()) && !Double.isNaN(md.lon()) && bbox.contains(md.lat(), md.lon()),
+                flowWeightedSpeed);
+    }
+
+    /**
+     * Create a processor for the measurement sites that lie within a maximum distance of a link of the road network, e.g., to
+     * only aggregate the sites that TravelTimeCalibration can map onto the network.
+     * @param metadataMap the metadata of the measurement sites
+     * @param bucketSizeMillis the size of the time buckets in milliseconds
+     * @param spatialIndex the spatial index of the road network, see RoadNetwork.getSpatialIndex()
+     * @param maxDistanceSI the maximum distance in meters between a site and the nearest link
+     * @param flowWeightedSpeed whether the average speed is weighted with the flow
+     */
+    public DailyDataProcessor(final Map<String, SiteMetadata> metadataMap, final long bucketSizeMillis,
+            final SpatialIndex spatialIndex, final double maxDistanceSI, final boolean flowWeightedSpeed)
+    {
+        this(metadataMap, bucketSizeMillis, md -> !Double.isNaN(md.lat()) && !Double.isNaN(md.lon())
+                && spatialIndex.nearestLink(md.lon(), md.lat(), maxDistanceSI) != null, flowWeightedSpeed);
+    }
+
+    /**
+     * @param metadataMap the metadata of the measurement sites
+     * @param bucketSizeMillis the size of the time buckets in milliseconds
+     * @param siteFilter the filter for the sites that are aggregated; null to aggregate all sites
+     * @param flowWeightedSpeed whether the average speed is weighted with the flow
+     */
+    private DailyDataProcessor(final Map<String, SiteMetadata> metadataMap, final long bucketSizeMillis,
+            final Predicate<SiteMetadata> siteFilter, final boolean flowWeightedSpeed)
     {
         this.metadataMap = metadataMap;
-        this.bbox = bbox;
         this.bucketSizeMillis = bucketSizeMillis;
         this.aggregator = new TrafficAggregator(bucketSizeMillis, flowWeightedSpeed);
+        this.unknownClass = this.aggregator.classIndex("unknown");
+        Map<SiteMetadata.VehicleLengthBand, Integer> bandClassIndex = new HashMap<>();
+        for (Map.Entry<String, SiteMetadata> entry : metadataMap.entrySet())
+        {
+            SiteMetadata md = entry.getValue();
+            if (siteFilter != null && !siteFilter.test(md))
+                continue;
+            int site = this.aggregator.siteIndex(entry.getKey());
+            Map<Integer, SiteMetadata.VehicleLengthBand> bands = md.indexToBand() == null ? Map.of() : md.indexToBand();
+            int maxIndex = bands.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+            int[] cells = new int[maxIndex + 1];
+            Arrays.fill(cells, -1);
+            for (Map.Entry<Integer, SiteMetadata.VehicleLengthBand> band : bands.entrySet())
+            {
+                if (band.getKey() >= 0 && band.getValue() != null)
+                    cells[band.getKey()] = this.aggregator.cell(site,
+                            bandClassIndex.computeIfAbsent(band.getValue(), b -> this.aggregator.classIndex(b.label())));
+            }
+            this.siteCells.put(entry.getKey(), new SiteCells(site, cells));
+        }
+    }
+
+    /**
+     * SiteCells contains the aggregator cells of the measured values of a site, indexed by the index of the measured value.
+     * @param site the site index in the aggregator
+     * @param cells the aggregator cell per measured value index; -1 when the index has no vehicle length band
+     */
+    private record SiteCells(int site, int[] cells)
+    {
     }
 
     private static XMLInputFactory staxFactory()
@@ -119,8 +203,7 @@ public class DailyDataProcessor
     {
         System.out.println("\nReading data (sequential)");
         XMLInputFactory factory = staxFactory();
-        CsvWriter csv = CsvWriter.builder().build(out);
-        writeHeader(csv);
+        writeHeader(out, true);
 
         try (java.util.zip.ZipFile zip = new java.util.zip.ZipFile(zipFile))
         {
@@ -138,7 +221,7 @@ public class DailyDataProcessor
             }
         }
         // flush all remaining buckets
-        flushBuckets(csv, null, Long.MAX_VALUE);
+        flushBuckets(out, true, Long.MAX_VALUE);
         out.flush();
     }
 
@@ -151,8 +234,7 @@ public class DailyDataProcessor
         System.out.println("\nReading data (parallel)");
         ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
         XMLInputFactory factory = staxFactory();
-        CsvWriter csv = CsvWriter.builder().build(out);
-        writeHeader(csv);
+        writeHeader(out, true);
 
         try (ZipFile zf = new ZipFile(zipFile))
         {
@@ -194,7 +276,7 @@ public class DailyDataProcessor
             pool.shutdown();
         }
         // After all workers finished, flush everything in order
-        flushBuckets(csv, null, Long.MAX_VALUE);
+        flushBuckets(out, true, Long.MAX_VALUE);
         out.flush();
     }
 
@@ -207,35 +289,12 @@ public class DailyDataProcessor
         System.out.println("\nReading data (parallel, streamed)");
         ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
         XMLInputFactory factory = staxFactory();
-        CsvWriter csv = useFastCsv ? CsvWriter.builder().build(out) : null;
-        PrintWriter pw = useFastCsv ? null
-                : new PrintWriter(new BufferedWriter(out instanceof Writer ? (Writer) out : new StringWriter(), 1 << 20));
-        if (csv != null)
-            writeHeader(csv);
-        else
-            writeHeader(pw);
+        writeHeader(out, useFastCsv);
 
         try (ZipFile zf = new ZipFile(zipFile))
         {
-            // 1) Build index of entries with their bucket based on filename timestamp
-            record EntryMeta(ZipEntry ze, long bucket)
-            {
-            }
-            List<EntryMeta> list = new ArrayList<>();
-            Enumeration<? extends ZipEntry> en = zf.entries();
-            while (en.hasMoreElements())
-            {
-                ZipEntry ze = en.nextElement();
-                if (ze.isDirectory())
-                    continue;
-                long ts = parseEntryEpochMs(ze.getName());
-                if (ts <= 0)
-                    continue; // skip if filename unexpected
-                long bucket = (ts / this.bucketSizeMillis) * this.bucketSizeMillis;
-                list.add(new EntryMeta(ze, bucket));
-            }
-            // 2) Sort by bucket
-            list.sort(Comparator.comparingLong(EntryMeta::bucket));
+            // 1) Build index of entries with their bucket based on filename timestamp, sorted by bucket
+            List<EntryMeta> list = entriesByBucket(zf);
 
             // 3) Process per-bucket groups
             int i = 0;
@@ -271,16 +330,8 @@ public class DailyDataProcessor
                         Comparator.comparingLong((final TrafficAggregator.AggregatedBucket b) -> b.bucketId)
                                 .thenComparing(b -> b.siteId).thenComparing(b -> b.classLabel);
                 done.sort(cmp);
-                if (csv != null)
-                {
-                    for (var b : done)
-                        writeRow(csv, b);
-                }
-                else
-                {
-                    for (var b : done)
-                        writeRow(pw, b);
-                }
+                for (var b : done)
+                    writeRow(out, useFastCsv, b);
 
                 i = j;
             }
@@ -289,12 +340,8 @@ public class DailyDataProcessor
             List<TrafficAggregator.AggregatedBucket> leftovers =
                     new ArrayList<>(this.aggregator.drainUpToExclusive(Long.MAX_VALUE));
             leftovers.sort(Comparator.comparingLong((final TrafficAggregator.AggregatedBucket b) -> b.bucketId));
-            if (csv != null)
-                for (var b : leftovers)
-                    writeRow(csv, b);
-            else
-                for (var b : leftovers)
-                    writeRow(pw, b);
+            for (var b : leftovers)
+                writeRow(out, useFastCsv, b);
         }
         finally
         {
@@ -303,17 +350,265 @@ public class DailyDataProcessor
         out.flush();
     }
 
+    // ---------------------------------------------------------------
+    // Staged pipeline: reader -> work-stealing parsers -> ordered merge
+    // ---------------------------------------------------------------
+
+    /**
+     * Process a zip file with a staged pipeline, using 2 buffers per parser thread. See
+     * {@link #processZipPipelined(File, int, int, Writer)}.
+     * @param zipFile the zip file with the gzipped XML entries of a day
+     * @param threads the number of parser threads
+     * @param out the writer for the CSV output
+     * @throws Exception when the zip file cannot be read or the output cannot be written
+     */
+    public void processZipPipelined(final File zipFile, final int threads, final Writer out) throws Exception
+    {
+        processZipPipelined(zipFile, threads, 2 * Math.max(1, threads), out);
+    }
+
+    /**
+     * Process a zip file with a staged pipeline, and write the aggregated buckets in time order. A reader thread reads the
+     * gzipped entries, in the order of their filename timestamp, into a bounded pool of reusable byte buffers, so the memory
+     * use does not grow with the size of the zip file. Parser tasks on a work-stealing pool inflate and parse the buffers. The
+     * calling thread merges the results: a bucket is drained and written as soon as all entries up to and including the bucket
+     * have been parsed and the reader has moved on to a later bucket (the watermark), so a slow entry holds back the output of
+     * its bucket, but not the parsers.
+     * @param zipFile the zip file with the gzipped XML entries of a day
+     * @param threads the number of parser threads
+     * @param maxBuffers the maximum number of entries that are read but not yet parsed
+     * @param out the writer for the CSV output
+     * @throws Exception when the zip file cannot be read or the output cannot be written
+     */
+    public void processZipPipelined(final File zipFile, final int threads, final int maxBuffers, final Writer out)
+            throws Exception
+    {
+        writeHeader(out, true);
+        try
+        {
+            processZipPipelined(zipFile, threads, maxBuffers, buckets -> writeBuckets(out, true, buckets));
+        }
+        finally
+        {
+            out.flush();
+        }
+    }
+
+    /**
+     * Process a zip file with the staged pipeline of {@link #processZipPipelined(File, int, int, Writer)}, and hand the
+     * aggregated buckets to a sink instead of writing them as CSV. The sink is called on the calling thread, once per released
+     * bucket id in time order, and at the end with the buckets of measurements that had a timestamp in an earlier bucket than
+     * the filename of their entry. An entry that cannot be read or parsed is logged and skipped, so the other entries are
+     * still processed and handed to the sink; after the merge, an exception reports the failed entries, so the caller knows
+     * that the buckets it received are incomplete.
+     * @param zipFile the zip file with the gzipped XML entries of a day
+     * @param threads the number of parser threads
+     * @param maxBuffers the maximum number of entries that are read but not yet parsed
+     * @param sink the receiver of the aggregated buckets
+     * @throws SimPortRuntimeException when one or more entries could not be read or parsed
+     * @throws Exception when the zip file cannot be read or the sink fails
+     */
+    public void processZipPipelined(final File zipFile, final int threads, final int maxBuffers, final BucketSink sink)
+            throws Exception
+    {
+        Throw.when(maxBuffers < 1, IllegalArgumentException.class, "maxBuffers < 1");
+        CategoryLogger.always().info("Reading data (pipelined) from {}", zipFile);
+        XMLInputFactory factory = staxFactory();
+        BlockingQueue<EntryBuffer> freeBuffers = new ArrayBlockingQueue<>(maxBuffers);
+        for (int i = 0; i < maxBuffers; i++)
+            freeBuffers.add(new EntryBuffer());
+        BlockingQueue<PipelineEvent> events = new LinkedBlockingQueue<>();
+        ForkJoinPool parsers = new ForkJoinPool(Math.max(1, threads));
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        AtomicInteger nrFailed = new AtomicInteger();
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+
+        try (ZipFile zf = new ZipFile(zipFile))
+        {
+            // 1) reader stage: read the entries in bucket order into pooled buffers, and hand them to the parsers
+            List<EntryMeta> list = entriesByBucket(zf);
+            reader.submit(() ->
+            {
+                Throwable error = null;
+                try
+                {
+                    for (EntryMeta entry : list)
+                    {
+                        EntryBuffer buffer = freeBuffers.take();
+                        try
+                        {
+                            buffer.fill(zf, entry.ze());
+                        }
+                        catch (IOException e)
+                        {
+                            CategoryLogger.always().error(e, "Error reading entry {}", entry.ze().getName());
+                            nrFailed.incrementAndGet();
+                            firstFailure.compareAndSet(null, e);
+                            freeBuffers.add(buffer);
+                            continue;
+                        }
+                        events.put(new PipelineEvent(PipelineEvent.READ, entry.bucket(), null));
+
+                        // 2) parser stage: inflate and parse the buffer on the work-stealing pool
+                        parsers.execute(() ->
+                        {
+                            try (GZIPInputStream gzip = new GZIPInputStream(buffer.inputStream(), 1 << 15))
+                            {
+                                parseOne(factory, gzip);
+                            }
+                            catch (Exception e)
+                            {
+                                CategoryLogger.always().error(e, "Error parsing entry {}", entry.ze().getName());
+                                nrFailed.incrementAndGet();
+                                firstFailure.compareAndSet(null, e);
+                            }
+                            finally
+                            {
+                                freeBuffers.add(buffer);
+                                events.add(new PipelineEvent(PipelineEvent.PARSED, entry.bucket(), null));
+                            }
+                        });
+                    }
+                }
+                catch (Throwable t)
+                {
+                    error = t;
+                }
+                events.add(new PipelineEvent(PipelineEvent.DONE, 0L, error));
+            });
+
+            // 3) merge stage: release the buckets below the watermark in time order
+            TreeMap<Long, Integer> unparsed = new TreeMap<>();
+            long readerBucket = Long.MIN_VALUE;
+            boolean readerDone = false;
+            while (!readerDone || !unparsed.isEmpty())
+            {
+                PipelineEvent event = events.take();
+                if (event.type() == PipelineEvent.READ)
+                {
+                    unparsed.merge(event.bucket(), 1, Integer::sum);
+                    readerBucket = event.bucket();
+                }
+                else if (event.type() == PipelineEvent.PARSED)
+                    unparsed.merge(event.bucket(), -1, Integer::sum);
+                else
+                {
+                    readerDone = true;
+                    if (event.error() != null)
+                        throw new SimPortRuntimeException("Error reading " + zipFile, event.error());
+                }
+                while (!unparsed.isEmpty() && unparsed.firstEntry().getValue() == 0
+                        && (readerDone || unparsed.firstKey() < readerBucket))
+                    sink.accept(this.aggregator.drainBucket(unparsed.pollFirstEntry().getKey()));
+            }
+
+            // measurements with a timestamp in an earlier bucket than the filename of their entry
+            List<TrafficAggregator.AggregatedBucket> leftovers = this.aggregator.drainUpToExclusive(Long.MAX_VALUE);
+            if (!leftovers.isEmpty())
+                sink.accept(leftovers);
+            if (nrFailed.get() > 0)
+                throw new SimPortRuntimeException(nrFailed.get() + " of " + list.size() + " entries of " + zipFile
+                        + " could not be read or parsed", firstFailure.get());
+        }
+        finally
+        {
+            reader.shutdownNow();
+            parsers.shutdown();
+        }
+    }
+
+    /**
+     * BucketSink receives the aggregated buckets that the staged pipeline releases.
+     */
+    @FunctionalInterface
+    public interface BucketSink
+    {
+        /**
+         * Receive released buckets.
+         * @param buckets the aggregated buckets, in no particular order
+         * @throws IOException when the buckets cannot be stored or written
+         */
+        void accept(List<TrafficAggregator.AggregatedBucket> buckets) throws IOException;
+    }
+
+    /**
+     * PipelineEvent tells the merge stage that the reader has read an entry, that a parser has parsed an entry, or that the
+     * reader is done.
+     * @param type READ, PARSED or DONE
+     * @param bucket the bucket of the entry, based on the timestamp in its filename
+     * @param error the error that stopped the reader, or null
+     */
+    private record PipelineEvent(int type, long bucket, Throwable error)
+    {
+        /** the reader has read an entry into a buffer. */
+        static final int READ = 0;
+
+        /** a parser has parsed an entry. */
+        static final int PARSED = 1;
+
+        /** the reader has read all entries. */
+        static final int DONE = 2;
+    }
+
+    /**
+     * EntryBuffer is a reusable buffer with the bytes of a gzipped zip entry. The buffer grows to the size of the largest
+     * entry, and is reused for the next entries.
+     */
+    private static final class EntryBuffer
+    {
+        /** the bytes. */
+        private byte[] data = new byte[1 << 16];
+
+        /** the number of bytes of the entry. */
+        private int length = 0;
+
+        /**
+         * Read a zip entry into the buffer.
+         * @param zf the zip file
+         * @param ze the entry
+         * @throws IOException when the entry cannot be read
+         */
+        void fill(final ZipFile zf, final ZipEntry ze) throws IOException
+        {
+            this.length = 0;
+            if (ze.getSize() > this.data.length && ze.getSize() < Integer.MAX_VALUE - 8)
+                this.data = new byte[(int) ze.getSize()];
+            try (InputStream in = zf.getInputStream(ze))
+            {
+                while (true)
+                {
+                    if (this.length == this.data.length)
+                        this.data = Arrays.copyOf(this.data, 2 * this.data.length);
+                    int n = in.read(this.data, this.length, this.data.length - this.length);
+                    if (n < 0)
+                        return;
+                    this.length += n;
+                }
+            }
+        }
+
+        /**
+         * @return a stream that reads the bytes of the entry
+         */
+        InputStream inputStream()
+        {
+            return new ByteArrayInputStream(this.data, 0, this.length);
+        }
+    }
+
     // --------------------------------------------------
     // Core XML parse for one .gz entry (no writing here)
     // --------------------------------------------------
     private void parseOne(final XMLInputFactory factory, final InputStream in) throws Exception
     {
         XMLStreamReader reader = factory.createXMLStreamReader(in);
-        String currentSiteId = null;
+        ElementText text = new ElementText();
+        Iso8601Parser timeParser = new Iso8601Parser();
+        SiteCells currentSite = null;
         long currentTs = Long.MIN_VALUE;
-        Integer currentIndex = null;
+        int currentCell = -1;
         boolean dataErrorFlag = false;
-        Double pendingFlowForWeight = null;
+        double pendingFlowForWeight = Double.NaN;
 
         while (reader.hasNext())
         {
@@ -324,49 +619,43 @@ public class DailyDataProcessor
                 switch (name)
                 {
                     case "measurementSiteReference":
-                        currentSiteId = reader.getAttributeValue(null, "id");
+                        String siteId = reader.getAttributeValue(null, "id");
+                        currentSite = siteId == null ? null : this.siteCells.get(siteId); // unknown site → skip
                         break;
                     case "measurementTimeDefault":
-                        String ts = reader.getElementText();
-                        currentTs = java.time.Instant.parse(ts).toEpochMilli();
+                        text.read(reader);
+                        currentTs = timeParser.parseEpochMillis(text.chars, 0, text.length);
                         break;
                     case "measuredValue":
                         String idxAttr = reader.getAttributeValue(null, "index");
-                        currentIndex = idxAttr != null ? Integer.parseInt(idxAttr) : null;
+                        currentCell = vehicleClassCell(currentSite, idxAttr != null ? Integer.parseInt(idxAttr) : -1);
                         dataErrorFlag = false;
-                        pendingFlowForWeight = null;
+                        pendingFlowForWeight = Double.NaN;
                         break;
                     case "dataError":
-                        String v = reader.getElementText();
-                        if ("true".equalsIgnoreCase(v))
+                        text.read(reader);
+                        if (text.equalsIgnoreCase("true"))
                             dataErrorFlag = true;
                         break;
                     case "vehicleFlowRate":
-                        String flowTxt = reader.getElementText();
-                        if (!dataErrorFlag)
+                        text.read(reader);
+                        if (!dataErrorFlag && currentCell >= 0)
                         {
-                            double flow = safeParseDouble(flowTxt);
-                            String classLabel = vehicleClassLabel(currentSiteId, currentIndex);
-                            if (classLabel != null && !Double.isNaN(flow))
+                            double flow = text.parseDouble();
+                            if (!Double.isNaN(flow))
                             {
-                                this.aggregator.addFlow(currentSiteId, classLabel, currentTs, flow);
+                                this.aggregator.addFlow(currentCell, currentTs, flow);
                                 pendingFlowForWeight = flow;
                             }
                         }
                         break;
                     case "speed":
-                        String spTxt = reader.getElementText();
-                        if (!dataErrorFlag)
+                        text.read(reader);
+                        if (!dataErrorFlag && currentCell >= 0)
                         {
-                            double sp = safeParseDouble(spTxt);
+                            double sp = text.parseDouble();
                             if (sp >= 0)
-                            {
-                                String classLabel2 = vehicleClassLabel(currentSiteId, currentIndex);
-                                if (classLabel2 != null && !Double.isNaN(sp))
-                                {
-                                    this.aggregator.addSpeed(currentSiteId, classLabel2, currentTs, sp, pendingFlowForWeight);
-                                }
-                            }
+                                this.aggregator.addSpeed(currentCell, currentTs, sp, pendingFlowForWeight);
                         }
                         break;
                 }
@@ -374,6 +663,122 @@ public class DailyDataProcessor
         }
     }
 
+    /**
+     * ElementText collects the text of an element from the text buffer of the StAX reader into a reusable char array, and
+     * parses it without creating a String.
+     */
+    static final class ElementText
+    {
+        /** powers of ten that are exactly representable as a double. */
+        private static final double[] POW10 = {1E0, 1E1, 1E2, 1E3, 1E4, 1E5, 1E6, 1E7, 1E8, 1E9, 1E10, 1E11, 1E12, 1E13, 1E14,
+                1E15};
+
+        /** the characters of the text. */
+        private char[] chars = new char[64];
+
+        /** the number of characters of the text. */
+        private int length = 0;
+
+        /**
+         * Read the text of the current element up to and including its end tag, as XMLStreamReader.getElementText() does.
+         * @param reader the reader, positioned at the start tag of the element
+         * @throws XMLStreamException when the element contains other elements, or on a parse error
+         */
+        void read(final XMLStreamReader reader) throws XMLStreamException
+        {
+            this.length = 0;
+            while (true)
+            {
+                switch (reader.next())
+                {
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        int n = reader.getTextLength();
+                        if (this.length + n > this.chars.length)
+                            this.chars = Arrays.copyOf(this.chars, Math.max(2 * this.chars.length, this.length + n));
+                        System.arraycopy(reader.getTextCharacters(), reader.getTextStart(), this.chars, this.length, n);
+                        this.length += n;
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        return;
+                    default:
+                        throw new XMLStreamException("text-only element expected", reader.getLocation());
+                }
+            }
+        }
+
+        /**
+         * @param s a lowercase ASCII text
+         * @return whether the text of the element equals s, ignoring case
+         */
+        boolean equalsIgnoreCase(final String s)
+        {
+            if (this.length != s.length())
+                return false;
+            for (int i = 0; i < this.length; i++)
+            {
+                if (Character.toLowerCase(this.chars[i]) != s.charAt(i))
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Parse the text as a double. Plain decimal numbers with at most 15 digits, such as the flows and speeds in NDW data,
+         * are exactly a long divided by a power of ten, which the division rounds correctly; other texts are parsed by
+         * Double.parseDouble.
+         * @return the value, or NaN when the text is not a number
+         */
+        double parseDouble()
+        {
+            int s = 0;
+            int e = this.length;
+            while (s < e && Character.isWhitespace(this.chars[s]))
+                s++;
+            while (e > s && Character.isWhitespace(this.chars[e - 1]))
+                e--;
+            int i = s;
+            boolean negative = i < e && this.chars[i] == '-';
+            if (i < e && (this.chars[i] == '-' || this.chars[i] == '+'))
+                i++;
+            long mantissa = 0;
+            int nrDigits = 0;
+            int decimals = -1;
+            for (; i < e; i++)
+            {
+                char c = this.chars[i];
+                if (c >= '0' && c <= '9')
+                {
+                    mantissa = 10 * mantissa + (c - '0');
+                    nrDigits++;
+                    if (decimals >= 0)
+                        decimals++;
+                }
+                else if (c == '.' && decimals < 0)
+                    decimals = 0;
+                else
+                    break;
+            }
+            if (i == e && nrDigits > 0 && nrDigits <= 15)
+            {
+                double v = decimals > 0 ? mantissa / POW10[decimals] : mantissa;
+                return negative ? -v : v;
+            }
+            try
+            {
+                return Double.parseDouble(new String(this.chars, s, e - s));
+            }
+            catch (NumberFormatException ex)
+            {
+                return Double.NaN;
+            }
+        }
+    }
+
     // -------------------------
     // Helpers
     // -------------------------
@@ -394,91 +799,143 @@ public class DailyDataProcessor
         return java.time.ZonedDateTime.of(y, mo, d, h, mi, s, 0, java.time.ZoneOffset.UTC).toInstant().toEpochMilli();
     }
 
-    private void writeHeader(final CsvWriter csv)
+    /**
+     * An entry of the zip file with the bucket of the timestamp in its filename.
+     * @param ze the zip entry
+     * @param bucket the bucket id
+     */
+    private record EntryMeta(ZipEntry ze, long bucket)
+    {
+    }
+
+    /**
+     * Return the entries of a zip file that have a timestamp in their filename, sorted by bucket.
+     * @param zf the zip file
+     * @return the entries with their bucket, sorted by bucket
+     */
+    private List<EntryMeta> entriesByBucket(final ZipFile zf)
+    {
+        List<EntryMeta> list = new ArrayList<>();
+        Enumeration<? extends ZipEntry> en = zf.entries();
+        while (en.hasMoreElements())
+        {
+            ZipEntry ze = en.nextElement();
+            if (ze.isDirectory())
+                continue;
+            long ts = parseEntryEpochMs(ze.getName());
+            if (ts <= 0)
+                continue; // skip if filename unexpected
+            long bucket = (ts / this.bucketSizeMillis) * this.bucketSizeMillis;
+            list.add(new EntryMeta(ze, bucket));
+        }
+        list.sort(Comparator.comparingLong(EntryMeta::bucket));
+        return list;
+    }
+
+    /**
+     * Write the header line.
+     * @param out the writer
+     * @param rfc4180 whether the lines end with CRLF as in RFC 4180, or with the line separator of the platform
+     * @throws IOException when writing fails
+     */
+    private void writeHeader(final Writer out, final boolean rfc4180) throws IOException
     {
-        csv.writeRow("timestamp", "siteId", "roadName", "direction", "lanes", "lat", "lon", "hm", "vehicleClass",
-                "vehicleCount", "avgSpeed");
+        this.line.reset();
+        this.line.appendBytes(HEADER);
+        endLine(out, rfc4180);
     }
 
-    private void writeHeader(final PrintWriter pw)
+    private void flushBuckets(final Writer out, final boolean rfc4180, final long cutoffExclusive) throws IOException
     {
-        pw.println("timestamp,siteId,roadName,direction,lanes,lat,lon,hm,vehicleClass,vehicleCount,avgSpeed");
+        writeBuckets(out, rfc4180, this.aggregator.drainUpToExclusive(cutoffExclusive));
     }
 
-    private void flushBuckets(final CsvWriter csv, final PrintWriter pw, final long cutoffExclusive)
+    private void writeBuckets(final Writer out, final boolean rfc4180, final List<TrafficAggregator.AggregatedBucket> drained)
+            throws IOException
     {
-        List<TrafficAggregator.AggregatedBucket> drained = this.aggregator.drainUpToExclusive(cutoffExclusive);
         drained.sort(Comparator.comparingLong((final TrafficAggregator.AggregatedBucket b) -> b.bucketId)
                 .thenComparing(b -> b.siteId).thenComparing(b -> b.classLabel));
-        if (csv != null)
-            drained.forEach(b -> writeRow(csv, b));
-        if (pw != null)
-            drained.forEach(b -> writeRow(pw, b));
+        for (var b : drained)
+            writeRow(out, rfc4180, b);
     }
 
-    private void writeRow(final CsvWriter csv, final TrafficAggregator.AggregatedBucket b)
+    /**
+     * Write the line of an aggregated bucket. The line is encoded in a reusable buffer, without String.format or other
+     * Strings for the numbers. With rfc4180, texts are quoted when needed, missing coordinates are left empty, and the line
+     * ends with CRLF, as the fastcsv CsvWriter did; otherwise commas in texts are replaced by spaces, missing coordinates are
+     * written as NaN, and the line ends with the line separator of the platform, as the printf variant did.
+     * @param out the writer
+     * @param rfc4180 whether to write the line according to RFC 4180
+     * @param b the aggregated bucket
+     * @throws IOException when writing fails
+     */
+    private void writeRow(final Writer out, final boolean rfc4180, final TrafficAggregator.AggregatedBucket b)
+            throws IOException
     {
+        // only the sites that passed the site filter of the constructor have aggregated data
         SiteMetadata md = this.metadataMap.get(b.siteId);
-        if (this.bbox.contains(md.lat(), md.lon()))
-        {
-            String road = md != null ? md.roadName() : "";
-            String dir = md != null ? md.direction() : "";
-            String lanes = String.valueOf(md != null ? md.numberOfLanes() : 0);
-            String lat = md != null && !Double.isNaN(md.lat()) ? String.format(Locale.ROOT, "%.7f", md.lat()) : "";
-            String lon = md != null && !Double.isNaN(md.lon()) ? String.format(Locale.ROOT, "%.7f", md.lon()) : "";
-            String hm = (md != null && md.hm() != null) ? String.format(Locale.ROOT, "%.2f", md.hm()) : "";
-            String flow = String.format(Locale.ROOT, "%.0f", b.totalFlow);
-            String spd = String.format(Locale.ROOT, "%.3f", b.avgSpeed());
-            csv.writeRow(String.valueOf(b.bucketId), b.siteId, road, dir, lanes, lat, lon, hm, b.classLabel, flow, spd);
-        }
+        CsvLineEncoder l = this.line;
+        l.reset();
+        l.appendLong(b.bucketId).append(',');
+        appendRaw(b.siteId, rfc4180).append(',');
+        appendText(md != null ? md.roadName() : "", rfc4180).append(',');
+        appendText(md != null ? md.direction() : "", rfc4180).append(',');
+        l.appendLong(md != null ? md.numberOfLanes() : 0).append(',');
+        appendCoordinate(md != null ? md.lat() : Double.NaN, rfc4180).append(',');
+        appendCoordinate(md != null ? md.lon() : Double.NaN, rfc4180).append(',');
+        if (md != null && md.hm() != null)
+            l.appendFixed(md.hm(), 2);
+        l.append(',');
+        appendRaw(b.classLabel, rfc4180).append(',');
+        l.appendFixed(b.totalFlow, 0).append(',');
+        l.appendFixed(b.avgSpeed(), 3);
+        endLine(out, rfc4180);
     }
 
-    private void writeRow(final PrintWriter pw, final TrafficAggregator.AggregatedBucket b)
+    private CsvLineEncoder appendText(final String s, final boolean rfc4180)
     {
-        SiteMetadata md = this.metadataMap.get(b.siteId);
-        if (this.bbox.contains(md.lat(), md.lon()))
-        {
-            String road = md != null ? safeCsv(md.roadName()) : "";
-            String dir = md != null ? safeCsv(md.direction()) : "";
-            int lanes = md != null ? md.numberOfLanes() : 0;
-            double lat = md != null ? md.lat() : Double.NaN;
-            double lon = md != null ? md.lon() : Double.NaN;
-            String hm = (md != null && md.hm() != null) ? String.format(Locale.ROOT, "%.2f", md.hm()) : "";
-            pw.printf(Locale.ROOT, "%d,%s,%s,%s,%d,%.7f,%.7f,%s,%s,%.0f,%.3f%n", b.bucketId, b.siteId, road, dir, lanes, lat,
-                    lon, hm, b.classLabel, b.totalFlow, b.avgSpeed());
-        }
+        if (rfc4180)
+            return this.line.appendField(s == null ? "" : s);
+        return this.line.appendText(safeCsv(s));
     }
 
-    private static double safeParseDouble(final String s)
+    private CsvLineEncoder appendRaw(final String s, final boolean rfc4180)
     {
-        try
-        {
-            return Double.parseDouble(s);
-        }
-        catch (Exception e)
-        {
-            return Double.NaN;
-        }
+        if (rfc4180)
+            return this.line.appendField(s == null ? "" : s);
+        return this.line.appendText(s);
     }
 
-    private String vehicleClassLabel(final String siteId, final Integer index)
+    private CsvLineEncoder appendCoordinate(final double v, final boolean rfc4180)
     {
-        if (siteId == null || index == null)
-            return "unknown";
-        SiteMetadata md = this.metadataMap.get(siteId);
-        if (md == null)
-            return null; // unknown site → skip
-        if (this.bbox != null)
-        {
-            if (Double.isNaN(md.lat()) || Double.isNaN(md.lon()))
-                return null;
-            if (!this.bbox.contains(md.lat(), md.lon()))
-                return null;
-        }
-        SiteMetadata.VehicleLengthBand band = md.indexToBand().get(index);
-        if (band != null)
-            return band.label();
-        return "unknown";
+        if (rfc4180 && Double.isNaN(v))
+            return this.line;
+        return this.line.appendFixed(v, 7);
+    }
+
+    private void endLine(final Writer out, final boolean rfc4180) throws IOException
+    {
+        if (rfc4180)
+            this.line.appendBytes(CRLF);
+        else
+            this.line.appendLineSeparator();
+        this.line.writeTo(out);
+    }
+
+    /**
+     * Return the aggregator cell of a measured value of a site, or -1 when the value should be skipped because the site is
+     * unknown or outside the bounding box. A measured value without a vehicle length band is counted as "unknown".
+     * @param site the cells of the site, or null for an unknown site
+     * @param index the index of the measured value, -1 when the value has no index
+     * @return the cell in the aggregator, or -1 to skip the value
+     */
+    private int vehicleClassCell(final SiteCells site, final int index)
+    {
+        if (site == null)
+            return -1;
+        if (index >= 0 && index < site.cells().length && site.cells()[index] >= 0)
+            return site.cells()[index];
+        return this.aggregator.cell(site.site(), this.unknownClass);
     }
 
     private static String safeCsv(final String s)
@@ -0,0 +1,193 @@
+package nl.tudelft.simulation.simport.ndw;
+
+import java.time.Instant;
+
+/**
+ * Iso8601Parser parses ISO-8601 timestamps such as "2025-03-31T14:05:00Z" or "2025-03-31T16:05:00.000+02:00" from a char
+ * array, e.g., the text buffer of a StAX reader, without creating Strings or java.time objects. The epoch milliseconds of the
+ * last minute that was parsed are cached, so the many timestamps of the same minute in an NDW file only have their seconds
+ * parsed. Timestamps in another format are parsed by Instant.parse(), which gives the same result or exception as before.
+ * <p>
+ * An instance is not thread-safe; use one parser per thread or per parsed file.
+ * </p>
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class Iso8601Parser
+{
+    /** the length of the "yyyy-MM-ddTHH:mm" part of a timestamp. */
+    private static final int MINUTE_LENGTH = 16;
+
+    /** the "yyyy-MM-ddTHH:mm" part of the last parsed timestamp. */
+    private final char[] minute = new char[MINUTE_LENGTH];
+
+    /** whether the minute cache is filled. */
+    private boolean cached = false;
+
+    /** the epoch milliseconds of the cached minute, without the zone offset. */
+    private long minuteMillis;
+
+    /**
+     * Parse an ISO-8601 timestamp with a zone offset into milliseconds since the epoch. Whitespace around the timestamp is
+     * ignored.
+     * @param text the characters that contain the timestamp
+     * @param start the index of the first character
+     * @param length the number of characters
+     * @return the number of milliseconds since the epoch
+     * @throws java.time.format.DateTimeParseException when the text is not a valid timestamp
+     */
+    public long parseEpochMillis(final char[] text, final int start, final int length)
+    {
+        int s = start;
+        int e = start + length;
+        while (s < e && Character.isWhitespace(text[s]))
+            s++;
+        while (e > s && Character.isWhitespace(text[e - 1]))
+            e--;
+        long millis = parseFast(text, s, e);
+        if (millis == Long.MIN_VALUE)
+            return Instant.parse(new String(text, s, e - s)).toEpochMilli();
+        return millis;
+    }
+
+    /**
+     * Parse a timestamp of the form yyyy-MM-ddTHH:mm:ss[.fraction](Z|+HH:mm|-HH:mm).
+     * @param c the characters
+     * @param s the index of the first character
+     * @param e the index after the last character
+     * @return the number of milliseconds since the epoch, or Long.MIN_VALUE when the timestamp has another form
+     */
+    private long parseFast(final char[] c, final int s, final int e)
+    {
+        if (e - s < MINUTE_LENGTH + 4 || c[s + 16] != ':')
+            return Long.MIN_VALUE;
+        if (!this.cached || !sameMinute(c, s))
+        {
+            long m = parseMinute(c, s);
+            if (m == Long.MIN_VALUE)
+                return Long.MIN_VALUE;
+            System.arraycopy(c, s, this.minute, 0, MINUTE_LENGTH);
+            this.minuteMillis = m;
+            this.cached = true;
+        }
+        int second = digits(c, s + 17, 2);
+        if (second < 0 || second > 59)
+            return Long.MIN_VALUE;
+        long millis = this.minuteMillis + 1000L * second;
+
+        int i = s + 19;
+        if (i < e && c[i] == '.')
+        {
+            i++;
+            int nrDigits = 0;
+            int fraction = 0;
+            while (i < e && c[i] >= '0' && c[i] <= '9')
+            {
+                if (nrDigits < 3)
+                    fraction = 10 * fraction + (c[i] - '0');
+                nrDigits++;
+                i++;
+            }
+            if (nrDigits == 0 || nrDigits > 9)
+                return Long.MIN_VALUE;
+            for (int d = nrDigits; d < 3; d++)
+                fraction *= 10;
+            millis += fraction;
+        }
+
+        if (i == e - 1 && (c[i] == 'Z' || c[i] == 'z'))
+            return millis;
+        if (i == e - 6 && (c[i] == '+' || c[i] == '-') && c[i + 3] == ':')
+        {
+            int hours = digits(c, i + 1, 2);
+            int minutes = digits(c, i + 4, 2);
+            // ZoneOffset allows at most 18:00; larger offsets throw in Instant.parse()
+            if (hours < 0 || minutes < 0 || minutes > 59 || 60 * hours + minutes > 18 * 60)
+                return Long.MIN_VALUE;
+            long offset = 60_000L * (60 * hours + minutes);
+            return c[i] == '+' ? millis - offset : millis + offset;
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * @param c the characters
+     * @param s the index of the first character
+     * @return whether the first 16 characters are the same as those of the cached minute
+     */
+    private boolean sameMinute(final char[] c, final int s)
+    {
+        // compare from the end, where consecutive timestamps differ
+        for (int i = MINUTE_LENGTH - 1; i >= 0; i--)
+        {
+            if (c[s + i] != this.minute[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parse the yyyy-MM-ddTHH:mm part of a timestamp.
+     * @param c the characters
+     * @param s the index of the first character
+     * @return the epoch milliseconds of the minute in UTC, or Long.MIN_VALUE when the part is not valid
+     */
+    private static long parseMinute(final char[] c, final int s)
+    {
+        if (c[s + 4] != '-' || c[s + 7] != '-' || c[s + 10] != 'T' && c[s + 10] != 't' || c[s + 13] != ':')
+            return Long.MIN_VALUE;
+        int year = digits(c, s, 4);
+        int month = digits(c, s + 5, 2);
+        int day = digits(c, s + 8, 2);
+        int hour = digits(c, s + 11, 2);
+        int minute = digits(c, s + 14, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || hour < 0 || hour > 23
+                || minute < 0 || minute > 59)
+            return Long.MIN_VALUE;
+
+        // days since 1970-01-01 in the proleptic Gregorian calendar
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400L);
+        long yoe = y - era * 400L;
+        long doy = (153L * (month > 2 ? month - 3 : month + 9) + 2L) / 5L + day - 1L;
+        long doe = yoe * 365L + yoe / 4L - yoe / 100L + doy;
+        long epochDay = era * 146097L + doe - 719468L;
+        return (epochDay * 1440L + 60L * hour + minute) * 60_000L;
+    }
+
+    /**
+     * @param year the year
+     * @param month the month, 1-12
+     * @return the number of days in the month
+     */
+    private static int daysInMonth(final int year, final int month)
+    {
+        if (month == 2)
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+        return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
+
+    /**
+     * Parse a fixed number of decimal digits.
+     * @param c the characters
+     * @param s the index of the first digit
+     * @param n the number of digits
+     * @return the value, or -1 when one of the characters is not a digit
+     */
+    private static int digits(final char[] c, final int s, final int n)
+    {
+        int v = 0;
+        for (int i = s; i < s + n; i++)
+        {
+            int d = c[i] - '0';
+            if (d < 0 || d > 9)
+                return -1;
+            v = 10 * v + d;
+        }
+        return v;
+    }
+
+}
@@ -57,6 +57,12 @@ public class TestReadNdwData
             proc.processZipParallelOrderedAndStreamCsv(data, Runtime.getRuntime().availableProcessors(), out, true);
             proc.processZipParallel(data, Runtime.getRuntime().availableProcessors(), out);
         }
+
+        // 3) Staged pipeline (watermark per bucket, bounded memory)
+        // try (var out = new BufferedWriter(new FileWriter("E:/NDW/pipe.csv"), 1 << 20))
+        // {
+        // proc.processZipPipelined(data, Runtime.getRuntime().availableProcessors(), out);
+        // }
     }
 
 }
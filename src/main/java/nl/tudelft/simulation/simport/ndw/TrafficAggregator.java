@@ -1,7 +1,28 @@
 package nl.tudelft.simulation.simport.ndw;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.djutils.exceptions.Throw;
+
+import gnu.trove.map.hash.TLongIntHashMap;
+
 /**
- * TrafficAggregator.java.
+ * TrafficAggregator aggregates NDW flow and speed measurements per measurement site, vehicle class and time bucket. Site ids
+ * and vehicle class labels are interned to ints, and every (site, class) combination gets a dense cell index through a packed
+ * long key, so adding a measurement does not create strings or objects. Every thread that adds measurements has its own ring of
+ * time buckets with primitive accumulator arrays indexed by cell, so the parallel readers do not contend; the rings of all
+ * threads are merged when a bucket is drained, which costs O(threads &times; cells) instead of a scan over all entries.
+ * <p>
+ * Adding measurements and draining buckets are thread-safe. The ring of a thread is guarded by its own lock, which is only
+ * contended while a bucket is drained, so a bucket can be drained while the threads add measurements to later buckets.
+ * </p>
  * <p>
  * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
  * BSD-style license.
@@ -10,15 +31,51 @@ package nl.tudelft.simulation.simport.ndw;
  */
 public class TrafficAggregator
 {
+    /** the initial number of slots in the ring of buckets of a thread. */
+    private static final int INITIAL_RING_SIZE = 4;
+
+    /** the initial number of cells of a bucket. */
+    private static final int INITIAL_CELLS = 1024;
+
+    /** the bucket index of an empty slot. */
+    private static final long EMPTY = Long.MIN_VALUE;
+
     private final long bucketSizeMillis;
 
     private final boolean flowWeightedSpeed;
 
-    private final java.util.concurrent.ConcurrentHashMap<String, AggregatedBucket> active =
-            new java.util.concurrent.ConcurrentHashMap<>();
+    /** the site index per site id. */
+    private final Map<String, Integer> siteIndex = new ConcurrentHashMap<>();
+
+    /** the site ids, indexed by site index. */
+    private final List<String> siteIds = new CopyOnWriteArrayList<>();
+
+    /** the class index per vehicle class label. */
+    private final Map<String, Integer> classIndex = new ConcurrentHashMap<>();
+
+    /** the vehicle class labels, indexed by class index. */
+    private final List<String> classLabels = new CopyOnWriteArrayList<>();
+
+    /** the cell index per packed (site, class) key; guarded by itself. */
+    private final TLongIntHashMap cellIndex = new TLongIntHashMap(INITIAL_CELLS, 0.5f, -1L, -1);
+
+    /** the packed (site, class) key per cell index; guarded by cellIndex. */
+    private long[] cellKeys = new long[INITIAL_CELLS];
+
+    /** the accumulators of all threads that added measurements. */
+    private final List<Accumulator> accumulators = new CopyOnWriteArrayList<>();
+
+    /** the accumulator of the current thread. */
+    private final ThreadLocal<Accumulator> accumulator = ThreadLocal.withInitial(() ->
+    {
+        Accumulator acc = new Accumulator();
+        this.accumulators.add(acc);
+        return acc;
+    });
 
     public TrafficAggregator(final long bucketSizeMillis, final boolean flowWeightedSpeed)
     {
+        Throw.when(bucketSizeMillis <= 0, IllegalArgumentException.class, "bucketSizeMillis <= 0");
         this.bucketSizeMillis = bucketSizeMillis;
         this.flowWeightedSpeed = flowWeightedSpeed;
     }
@@ -28,83 +85,392 @@ public class TrafficAggregator
         return (ts / this.bucketSizeMillis) * this.bucketSizeMillis;
     }
 
-    private String key(final String siteId, final String classLabel, final long bucketId)
+    /**
+     * Return the interned index of a site id.
+     * @param siteId the NDW id of the measurement site
+     * @return the site index
+     */
+    public int siteIndex(final String siteId)
+    {
+        Integer index = this.siteIndex.get(siteId);
+        if (index != null)
+            return index;
+        synchronized (this.siteIds)
+        {
+            return this.siteIndex.computeIfAbsent(siteId, s ->
+            {
+                this.siteIds.add(s);
+                return this.siteIds.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Return the interned index of a vehicle class label.
+     * @param classLabel the vehicle class label
+     * @return the class index
+     */
+    public int classIndex(final String classLabel)
+    {
+        Integer index = this.classIndex.get(classLabel);
+        if (index != null)
+            return index;
+        synchronized (this.classLabels)
+        {
+            return this.classIndex.computeIfAbsent(classLabel, s ->
+            {
+                this.classLabels.add(s);
+                return this.classLabels.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Return the cell index of a combination of a site and a vehicle class. The cell index is looked up in a cache of the
+     * current thread first, and in the shared table when the combination has not been seen by the thread.
+     * @param site the site index
+     * @param vehicleClass the class index
+     * @return the cell index
+     */
+    public int cell(final int site, final int vehicleClass)
     {
-        return siteId + "#" + classLabel + "#" + bucketId;
+        long key = ((long) site << 32) | (vehicleClass & 0xFFFFFFFFL);
+        TLongIntHashMap cache = this.accumulator.get().cellCache;
+        int cell = cache.get(key);
+        if (cell >= 0)
+            return cell;
+        synchronized (this.cellIndex)
+        {
+            cell = this.cellIndex.get(key);
+            if (cell < 0)
+            {
+                cell = this.cellIndex.size();
+                if (cell == this.cellKeys.length)
+                    this.cellKeys = Arrays.copyOf(this.cellKeys, 2 * cell);
+                this.cellKeys[cell] = key;
+                this.cellIndex.put(key, cell);
+            }
+        }
+        cache.put(key, cell);
+        return cell;
     }
 
     public void addFlow(final String siteId, final String classLabel, final long timestamp, final double flow)
     {
-        long bucketId = bucketOf(timestamp);
-        this.active.compute(key(siteId, classLabel, bucketId), (k, b) ->
+        addFlow(cell(siteIndex(siteId), classIndex(classLabel)), timestamp, flow);
+    }
+
+    /**
+     * Add a flow measurement.
+     * @param cell the cell index of the site and vehicle class
+     * @param timestamp the time of the measurement in milliseconds since the epoch
+     * @param flow the flow
+     */
+    public void addFlow(final int cell, final long timestamp, final double flow)
+    {
+        Accumulator acc = this.accumulator.get();
+        synchronized (acc)
         {
-            if (b == null)
-                b = new AggregatedBucket(siteId, classLabel, bucketId);
-            b.totalFlow += flow;
-            b.countSamplesFlow++;
-            return b;
-        });
+            Bucket b = acc.bucket(Math.floorDiv(timestamp, this.bucketSizeMillis), cell);
+            b.totalFlow[cell] += flow;
+            b.countSamplesFlow[cell]++;
+        }
     }
 
     public void addSpeed(final String siteId, final String classLabel, final long timestamp, final double speed,
             final Double weightFlow)
     {
-        long bucketId = bucketOf(timestamp);
-        this.active.compute(key(siteId, classLabel, bucketId), (k, b) ->
+        addSpeed(cell(siteIndex(siteId), classIndex(classLabel)), timestamp, speed,
+                weightFlow == null ? Double.NaN : weightFlow.doubleValue());
+    }
+
+    /**
+     * Add a speed measurement.
+     * @param cell the cell index of the site and vehicle class
+     * @param timestamp the time of the measurement in milliseconds since the epoch
+     * @param speed the speed; NaN speeds are not aggregated
+     * @param weightFlow the flow to weigh the speed with when the speed is flow-weighted, or NaN when there is no flow
+     */
+    public void addSpeed(final int cell, final long timestamp, final double speed, final double weightFlow)
+    {
+        if (Double.isNaN(speed))
+            return;
+        Accumulator acc = this.accumulator.get();
+        synchronized (acc)
         {
-            if (b == null)
-                b = new AggregatedBucket(siteId, classLabel, bucketId);
-            if (this.flowWeightedSpeed && weightFlow != null && !Double.isNaN(speed))
+            Bucket b = acc.bucket(Math.floorDiv(timestamp, this.bucketSizeMillis), cell);
+            if (this.flowWeightedSpeed && !Double.isNaN(weightFlow))
             {
-                b.speedWeightedSum += speed * weightFlow;
-                b.speedWeight += weightFlow;
+                b.speedWeightedSum[cell] += speed * weightFlow;
+                b.speedWeight[cell] += weightFlow;
             }
-            else if (!Double.isNaN(speed))
+            else
             {
-                b.speedSimpleSum += speed;
-                b.countSamplesSpeed++;
+                b.speedSimpleSum[cell] += speed;
+                b.countSamplesSpeed[cell]++;
             }
-            return b;
-        });
+            float s = (float) speed;
+            if (!(b.minSpeed[cell] <= s))
+                b.minSpeed[cell] = s;
+            if (!(b.maxSpeed[cell] >= s))
+                b.maxSpeed[cell] = s;
+        }
     }
 
     /** Drain and remove exactly the given bucketId. */
-    public java.util.List<AggregatedBucket> drainBucket(final long bucketId)
+    public List<AggregatedBucket> drainBucket(final long bucketId)
+    {
+        return collect(Math.floorDiv(bucketId, this.bucketSizeMillis), true);
+    }
+
+    /** Drain and remove all buckets with bucketId < cutoffExclusive. */
+    public List<AggregatedBucket> drainUpToExclusive(final long cutoffExclusive)
+    {
+        List<AggregatedBucket> out = new ArrayList<>();
+        for (long bucketIndex : bucketIndexes())
+        {
+            if (bucketIndex * this.bucketSizeMillis < cutoffExclusive)
+                out.addAll(collect(bucketIndex, true));
+        }
+        return out;
+    }
+
+    public Collection<AggregatedBucket> results()
+    {
+        List<AggregatedBucket> out = new ArrayList<>();
+        for (long bucketIndex : bucketIndexes())
+            out.addAll(collect(bucketIndex, false));
+        return out;
+    }
+
+    /**
+     * @return the sorted indexes of the buckets that contain data in any of the threads
+     */
+    private TreeSet<Long> bucketIndexes()
     {
-        java.util.List<AggregatedBucket> out = new java.util.ArrayList<>();
-        java.util.Iterator<java.util.Map.Entry<String, AggregatedBucket>> it = this.active.entrySet().iterator();
-        while (it.hasNext())
+        TreeSet<Long> indexes = new TreeSet<>();
+        for (Accumulator acc : this.accumulators)
         {
-            var e = it.next();
-            if (e.getValue().bucketId == bucketId)
+            synchronized (acc)
             {
-                out.add(e.getValue());
-                it.remove();
+                for (Bucket b : acc.ring)
+                {
+                    if (b != null && b.bucketIndex != EMPTY)
+                        indexes.add(b.bucketIndex);
+                }
             }
         }
-        return out;
+        return indexes;
     }
 
-    /** Drain and remove all buckets with bucketId < cutoffExclusive. */
-    public java.util.List<AggregatedBucket> drainUpToExclusive(final long cutoffExclusive)
+    /**
+     * Merge the buckets with the given index of all threads into aggregated buckets per site and vehicle class.
+     * @param bucketIndex the bucket index
+     * @param remove whether to clear the buckets after merging
+     * @return the aggregated buckets of the cells with data, in cell order
+     */
+    private List<AggregatedBucket> collect(final long bucketIndex, final boolean remove)
     {
-        java.util.List<AggregatedBucket> out = new java.util.ArrayList<>();
-        java.util.Iterator<java.util.Map.Entry<String, AggregatedBucket>> it = this.active.entrySet().iterator();
-        while (it.hasNext())
+        AggregatedBucket[] merged = new AggregatedBucket[0];
+        long bucketId = bucketIndex * this.bucketSizeMillis;
+        for (Accumulator acc : this.accumulators)
         {
-            var e = it.next();
-            if (e.getValue().bucketId < cutoffExclusive)
+            synchronized (acc)
             {
-                out.add(e.getValue());
-                it.remove();
+                Bucket b = acc.find(bucketIndex);
+                if (b == null)
+                    continue;
+                if (merged.length < b.nrCells)
+                    merged = Arrays.copyOf(merged, b.nrCells);
+                long[] keys;
+                synchronized (this.cellIndex)
+                {
+                    keys = this.cellKeys;
+                }
+                for (int cell = 0; cell < b.nrCells; cell++)
+                {
+                    if (b.countSamplesFlow[cell] == 0 && b.countSamplesSpeed[cell] == 0 && b.speedWeight[cell] == 0.0
+                            && Float.isNaN(b.minSpeed[cell]))
+                        continue;
+                    AggregatedBucket ab = merged[cell];
+                    if (ab == null)
+                        ab = merged[cell] = new AggregatedBucket(this.siteIds.get((int) (keys[cell] >>> 32)),
+                                this.classLabels.get((int) keys[cell]), bucketId);
+                    ab.totalFlow += b.totalFlow[cell];
+                    ab.countSamplesFlow += b.countSamplesFlow[cell];
+                    ab.speedWeightedSum += b.speedWeightedSum[cell];
+                    ab.speedWeight += b.speedWeight[cell];
+                    ab.speedSimpleSum += b.speedSimpleSum[cell];
+                    ab.countSamplesSpeed += b.countSamplesSpeed[cell];
+                    if (!Float.isNaN(b.minSpeed[cell]))
+                    {
+                        ab.minSpeed =
+                                Double.isNaN(ab.minSpeed) ? b.minSpeed[cell] : Math.min(ab.minSpeed, b.minSpeed[cell]);
+                        ab.maxSpeed =
+                                Double.isNaN(ab.maxSpeed) ? b.maxSpeed[cell] : Math.max(ab.maxSpeed, b.maxSpeed[cell]);
+                    }
+                }
+                if (remove)
+                    b.clear();
             }
         }
+        List<AggregatedBucket> out = new ArrayList<>();
+        for (AggregatedBucket ab : merged)
+        {
+            if (ab != null)
+                out.add(ab);
+        }
         return out;
     }
 
-    public java.util.Collection<AggregatedBucket> results()
+    /**
+     * Accumulator holds the ring of buckets of one thread, and the cache of cell indexes of the thread.
+     */
+    private static class Accumulator
+    {
+        /** the buckets, at position bucketIndex mod ring.length. */
+        private Bucket[] ring = new Bucket[INITIAL_RING_SIZE];
+
+        /** the bucket of the last measurement. */
+        private Bucket last = null;
+
+        /** the cache of the cell index per packed (site, class) key. */
+        private final TLongIntHashMap cellCache = new TLongIntHashMap(INITIAL_CELLS, 0.5f, -1L, -1);
+
+        /**
+         * Return the bucket with the given index, with room for the given cell. When the slot of the bucket in the ring is in
+         * use by another bucket, the ring is doubled in size.
+         * @param bucketIndex the bucket index
+         * @param cell the cell that will be updated
+         * @return the bucket
+         */
+        Bucket bucket(final long bucketIndex, final int cell)
+        {
+            Bucket b = this.last;
+            if (b == null || b.bucketIndex != bucketIndex)
+            {
+                while (true)
+                {
+                    int slot = (int) Math.floorMod(bucketIndex, (long) this.ring.length);
+                    b = this.ring[slot];
+                    if (b == null)
+                        b = this.ring[slot] = new Bucket();
+                    if (b.bucketIndex == EMPTY)
+                        b.bucketIndex = bucketIndex;
+                    if (b.bucketIndex == bucketIndex)
+                        break;
+                    grow();
+                }
+                this.last = b;
+            }
+            if (cell >= b.nrCells)
+                b.ensure(cell);
+            return b;
+        }
+
+        /**
+         * Return the bucket with the given index when it is present.
+         * @param bucketIndex the bucket index
+         * @return the bucket, or null when the thread has no data for the bucket
+         */
+        Bucket find(final long bucketIndex)
+        {
+            Bucket b = this.ring[(int) Math.floorMod(bucketIndex, (long) this.ring.length)];
+            return b != null && b.bucketIndex == bucketIndex ? b : null;
+        }
+
+        /**
+         * Double the size of the ring, and place the buckets at their position in the new ring. Distinct bucket indexes that
+         * are in use fall in distinct slots once the ring is larger than the range of the indexes.
+         */
+        private void grow()
+        {
+            Bucket[] old = this.ring;
+            while (true)
+            {
+                Bucket[] ring = new Bucket[this.ring.length * 2];
+                boolean ok = true;
+                for (Bucket b : old)
+                {
+                    if (b == null || b.bucketIndex == EMPTY)
+                        continue;
+                    int slot = (int) Math.floorMod(b.bucketIndex, (long) ring.length);
+                    if (ring[slot] != null)
+                    {
+                        ok = false;
+                        break;
+                    }
+                    ring[slot] = b;
+                }
+                this.ring = ring;
+                if (ok)
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Bucket holds the primitive accumulators of one time bucket of one thread, indexed by cell.
+     */
+    private static class Bucket
     {
-        return this.active.values();
+        /** the bucket index, or EMPTY when the bucket is not in use. */
+        private long bucketIndex = EMPTY;
+
+        /** the number of cells for which the arrays have room. */
+        private int nrCells = 0;
+
+        private double[] totalFlow = new double[0];
+
+        private int[] countSamplesFlow = new int[0];
+
+        private double[] speedWeightedSum = new double[0];
+
+        private double[] speedWeight = new double[0];
+
+        private double[] speedSimpleSum = new double[0];
+
+        private int[] countSamplesSpeed = new int[0];
+
+        private float[] minSpeed = new float[0];
+
+        private float[] maxSpeed = new float[0];
+
+        /**
+         * Make room for the given cell.
+         * @param cell the cell index
+         */
+        void ensure(final int cell)
+        {
+            int n = Math.max(cell + 1, Math.max(INITIAL_CELLS, 2 * this.nrCells));
+            this.totalFlow = Arrays.copyOf(this.totalFlow, n);
+            this.countSamplesFlow = Arrays.copyOf(this.countSamplesFlow, n);
+            this.speedWeightedSum = Arrays.copyOf(this.speedWeightedSum, n);
+            this.speedWeight = Arrays.copyOf(this.speedWeight, n);
+            this.speedSimpleSum = Arrays.copyOf(this.speedSimpleSum, n);
+            this.countSamplesSpeed = Arrays.copyOf(this.countSamplesSpeed, n);
+            this.minSpeed = Arrays.copyOf(this.minSpeed, n);
+            this.maxSpeed = Arrays.copyOf(this.maxSpeed, n);
+            Arrays.fill(this.minSpeed, this.nrCells, n, Float.NaN);
+            Arrays.fill(this.maxSpeed, this.nrCells, n, Float.NaN);
+            this.nrCells = n;
+        }
+
+        /**
+         * Reset the accumulators, and mark the bucket as not in use.
+         */
+        void clear()
+        {
+            Arrays.fill(this.totalFlow, 0.0);
+            Arrays.fill(this.countSamplesFlow, 0);
+            Arrays.fill(this.speedWeightedSum, 0.0);
+            Arrays.fill(this.speedWeight, 0.0);
+            Arrays.fill(this.speedSimpleSum, 0.0);
+            Arrays.fill(this.countSamplesSpeed, 0);
+            Arrays.fill(this.minSpeed, Float.NaN);
+            Arrays.fill(this.maxSpeed, Float.NaN);
+            this.bucketIndex = EMPTY;
+        }
     }
 
     public static class AggregatedBucket
@@ -127,6 +493,12 @@ public class TrafficAggregator
 
         public long countSamplesSpeed = 0;
 
+        /** the lowest speed in the bucket, or NaN when there are no speeds. */
+        public double minSpeed = Double.NaN;
+
+        /** the highest speed in the bucket, or NaN when there are no speeds. */
+        public double maxSpeed = Double.NaN;
+
         public AggregatedBucket(final String siteId, final String classLabel, final long bucketId)
         {
             this.siteId = siteId;
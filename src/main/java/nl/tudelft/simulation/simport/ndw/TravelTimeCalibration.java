@@ -0,0 +1,255 @@
+package nl.tudelft.simulation.simport.ndw;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.djutils.exceptions.Throw;
+import org.djutils.logger.CategoryLogger;
+
+import de.siegmar.fastcsv.reader.NamedCsvReader;
+import de.siegmar.fastcsv.reader.NamedCsvRow;
+import nl.tudelft.simulation.simport.network.Detector;
+import nl.tudelft.simulation.simport.network.RoadLink;
+import nl.tudelft.simulation.simport.network.RoadNetwork;
+import nl.tudelft.simulation.simport.network.SpatialIndex;
+import nl.tudelft.simulation.simport.network.TravelTimeProfile;
+
+/**
+ * TravelTimeCalibration derives a TravelTimeProfile for the links of a road network from the speed and flow buckets that the
+ * DailyDataProcessor writes. Every NDW measurement site is mapped onto the closest link within a maximum distance, and becomes
+ * a Detector of the network. For every link with detectors, the flow-weighted average speed is calculated per quarter of an
+ * hour and day type over all days and vehicle classes. The free-flow speed of the link is the 85th percentile of these
+ * quarter-hour speeds, and the travel time factor of a quarter is the free-flow speed divided by the speed in that quarter.
+ * <p>
+ * The NDW timestamps are in UTC; they are converted to the local time of the Netherlands, which is the time of the simulator
+ * clock. The buckets of the DailyDataProcessor should be 15 minutes or shorter, so every quarter of an hour gets data.
+ * </p>
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class TravelTimeCalibration
+{
+    /** the time zone of the simulator clock. */
+    private static final ZoneId ZONE = ZoneId.of("Europe/Amsterdam");
+
+    /** the percentile of the quarter-hour speeds that is used as the free-flow speed of a link. */
+    private static final double FREE_FLOW_PERCENTILE = 0.85;
+
+    /** the number of cells per link and site: day types times quarters. */
+    private static final int NR_CELLS = TravelTimeProfile.NR_DAY_TYPES * TravelTimeProfile.NR_QUARTERS;
+
+    /** the road network. */
+    private final RoadNetwork network;
+
+    /** the maximum distance in meters between a measurement site and its link. */
+    private final double maxDistanceSI;
+
+    /** the sites with their accumulated speeds, in the order in which they were first seen. */
+    private final Map<String, Site> sites = new LinkedHashMap<>();
+
+    /**
+     * Create a calibration for the links of a road network.
+     * @param network the road network
+     * @param maxDistanceSI the maximum distance in meters between a measurement site and the link to which it is mapped
+     */
+    public TravelTimeCalibration(final RoadNetwork network, final double maxDistanceSI)
+    {
+        Throw.when(maxDistanceSI <= 0.0, IllegalArgumentException.class, "maxDistanceSI <= 0");
+        this.network = network;
+        this.maxDistanceSI = maxDistanceSI;
+    }
+
+    /**
+     * Read a CSV file with aggregated buckets that the DailyDataProcessor has written.
+     * @param csvPath the path of the CSV file
+     * @throws IOException when the file cannot be read
+     */
+    public void readAggregates(final Path csvPath) throws IOException
+    {
+        try (NamedCsvReader csvReader = NamedCsvReader.builder().build(csvPath))
+        {
+            for (NamedCsvRow row : csvReader)
+            {
+                String lat = row.getField("lat");
+                String lon = row.getField("lon");
+                if (lat.isEmpty() || lon.isEmpty())
+                    continue;
+                addAggregate(row.getField("siteId"), Double.parseDouble(lat), Double.parseDouble(lon),
+                        Long.parseLong(row.getField("timestamp")), Double.parseDouble(row.getField("vehicleCount")),
+                        Double.parseDouble(row.getField("avgSpeed")));
+            }
+        }
+    }
+
+    /**
+     * Read the aggregated buckets of a range of days from an aggregate store. Days in the range that are not in the store are
+     * skipped.
+     * @param store the aggregate store
+     * @param from the first day
+     * @param to the last day, inclusive
+     * @return the number of days that were read
+     * @throws IOException when the store cannot be read
+     */
+    public int readStore(final AggregateStore store, final LocalDate from, final LocalDate to) throws IOException
+    {
+        int nrDays = 0;
+        for (LocalDate day : store.days())
+        {
+            if (day.isBefore(from) || day.isAfter(to))
+                continue;
+            try (AggregateStore.Day data = store.open(day))
+            {
+                int nrClasses = data.getClassLabels().size();
+                for (int site = 0; site < data.getNrSites(); site++)
+                {
+                    double lat = data.getLat(site);
+                    double lon = data.getLon(site);
+                    if (Double.isNaN(lat) || Double.isNaN(lon))
+                        continue;
+                    AggregateStore.SiteSeries series = data.readSite(site);
+                    for (int c = 0; c < nrClasses; c++)
+                    {
+                        for (int b = 0; b < data.getNrBuckets(); b++)
+                        {
+                            float speed = series.speed(c, b);
+                            if (speed > 0.0f)
+                                addAggregate(data.getSiteId(site), lat, lon, data.getBucketMillis(b), series.flow(c, b),
+                                        speed);
+                        }
+                    }
+                }
+            }
+            nrDays++;
+        }
+        return nrDays;
+    }
+
+    /**
+     * Add an aggregated bucket of a measurement site. Buckets without a valid speed are skipped.
+     * @param siteId the NDW id of the measurement site
+     * @param lat the latitude of the site
+     * @param lon the longitude of the site
+     * @param bucketMillis the start of the bucket in milliseconds since the epoch (UTC)
+     * @param flow the number of vehicles in the bucket
+     * @param speedKmh the average speed in the bucket in km/h
+     */
+    public void addAggregate(final String siteId, final double lat, final double lon, final long bucketMillis,
+            final double flow, final double speedKmh)
+    {
+        if (!(speedKmh > 0.0) || Double.isInfinite(speedKmh))
+            return;
+        Site site = this.sites.computeIfAbsent(siteId, id -> new Site(id, lat, lon));
+        double localSeconds = LocalDateTime.ofInstant(Instant.ofEpochMilli(bucketMillis), ZONE).toEpochSecond(ZoneOffset.UTC);
+        int cell = TravelTimeProfile.dayType(localSeconds) * TravelTimeProfile.NR_QUARTERS
+                + TravelTimeProfile.quarter(localSeconds);
+        // a bucket with a speed has at least one vehicle
+        double weight = Math.max(1.0, flow);
+        site.speedWeightedSum[cell] += weight * speedKmh;
+        site.weight[cell] += weight;
+    }
+
+    /**
+     * Map the measurement sites onto the links of the network, add them as detectors to the network, and calculate the travel
+     * time profile of the links.
+     * @return the travel time profile for the links of the network
+     */
+    public TravelTimeProfile calibrate()
+    {
+        TravelTimeProfile profile = new TravelTimeProfile(this.network);
+        SpatialIndex index = this.network.getSpatialIndex();
+        Map<RoadLink, List<Site>> linkSites = new LinkedHashMap<>();
+        int unmapped = 0;
+        for (Site site : this.sites.values())
+        {
+            RoadLink link = index.nearestLink(site.lon, site.lat, this.maxDistanceSI);
+            if (link == null)
+            {
+                unmapped++;
+                continue;
+            }
+            this.network.addDetector(new Detector(site.id, site.lon, site.lat, link));
+            linkSites.computeIfAbsent(link, l -> new ArrayList<>()).add(site);
+        }
+
+        double[] speed = new double[NR_CELLS];
+        double[] sorted = new double[NR_CELLS];
+        for (Map.Entry<RoadLink, List<Site>> entry : linkSites.entrySet())
+        {
+            int n = 0;
+            for (int cell = 0; cell < NR_CELLS; cell++)
+            {
+                double sum = 0.0;
+                double weight = 0.0;
+                for (Site site : entry.getValue())
+                {
+                    sum += site.speedWeightedSum[cell];
+                    weight += site.weight[cell];
+                }
+                speed[cell] = weight > 0.0 ? sum / weight : Double.NaN;
+                if (weight > 0.0)
+                    sorted[n++] = speed[cell];
+            }
+            if (n == 0)
+                continue;
+            Arrays.sort(sorted, 0, n);
+            double freeFlowSpeed = sorted[Math.min(n - 1, (int) Math.floor(FREE_FLOW_PERCENTILE * n))];
+            for (int cell = 0; cell < NR_CELLS; cell++)
+            {
+                if (!Double.isNaN(speed[cell]))
+                    profile.setFactor(entry.getKey(), cell / TravelTimeProfile.NR_QUARTERS,
+                            cell % TravelTimeProfile.NR_QUARTERS, freeFlowSpeed / speed[cell]);
+            }
+        }
+        CategoryLogger.always().info(
+                "Travel time profile calibrated for {} links from {} measurement sites; {} sites not mapped", linkSites.size(),
+                this.sites.size() - unmapped, unmapped);
+        return profile;
+    }
+
+    /**
+     * Site holds the accumulated speeds of a measurement site per day type and quarter of an hour.
+     */
+    private static class Site
+    {
+        /** the NDW id of the site. */
+        private final String id;
+
+        /** the latitude. */
+        private final double lat;
+
+        /** the longitude. */
+        private final double lon;
+
+        /** the sum of flow times speed per cell. */
+        private final double[] speedWeightedSum = new double[NR_CELLS];
+
+        /** the sum of the flows per cell. */
+        private final double[] weight = new double[NR_CELLS];
+
+        /**
+         * @param id the NDW id of the site
+         * @param lat the latitude
+         * @param lon the longitude
+         */
+        Site(final String id, final double lat, final double lon)
+        {
+            this.id = id;
+            this.lat = lat;
+            this.lon = lon;
+        }
+    }
+
+}
@@ -26,6 +26,12 @@ public class Centroid implements Locatable, Identifiable
     /** y in WGS84. */
     private final double y;
 
+    /** the location, created once for the animation. */
+    private final Point2d location;
+
+    /** the relative bounds of the animation. */
+    private static final Bounds2d RELATIVE_BOUNDS = new Bounds2d(0.02, 0.02);
+
     private final String id;
 
     private String name;
@@ -34,6 +40,9 @@ public class Centroid implements Locatable, Identifiable
 
     private String type;
 
+    /** the index of the centroid in the travel time matrix, or -1 when not part of the matrix. */
+    private int index = -1;
+
     /**
      *
      */
@@ -42,6 +51,7 @@ public class Centroid implements Locatable, Identifiable
         this.id = id;
         this.x = x;
         this.y = y;
+        this.location = new Point2d(x, y);
     }
 
     @Override
@@ -98,6 +108,22 @@ public class Centroid implements Locatable, Identifiable
         this.type = type;
     }
 
+    /**
+     * @return index in the travel time matrix, or -1 when not part of the matrix
+     */
+    public int getIndex()
+    {
+        return this.index;
+    }
+
+    /**
+     * @param index set index in the travel time matrix
+     */
+    void setIndex(final int index)
+    {
+        this.index = index;
+    }
+
     /**
      * @return x
      */
@@ -117,13 +143,13 @@ public class Centroid implements Locatable, Identifiable
     @Override
     public Point<?> getLocation()
     {
-        return new Point2d(this.x, this.y);
+        return this.location;
     }
 
     @Override
     public Bounds<?, ?> getRelativeBounds()
     {
-        return new Bounds2d(0.02, 0.02);
+        return RELATIVE_BOUNDS;
     }
 
     @Override
@@ -1,21 +1,144 @@
 package nl.tudelft.simulation.simport.network;
 
+import org.djutils.base.Identifiable;
+import org.djutils.exceptions.Throw;
+
 /**
- * A CentroidArea is a geographic region in the model associated with the O/D matrix for transport frequency.
+ * A CentroidArea is a geographic region in the model associated with the O/D matrix for transport frequency. The region is a
+ * polygon in WGS84 coordinates; the polygon is closed implicitly from the last to the first point.
  * <p>
  * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
  * BSD-style license.
  * </p>
  * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
  */
-public class CentroidArea
+public class CentroidArea implements Identifiable
 {
+    /** the id of the area. */
+    private final String id;
+
+    /** the x-coordinates (longitude) of the polygon. */
+    private final double[] xs;
+
+    /** the y-coordinates (latitude) of the polygon. */
+    private final double[] ys;
+
+    /** the bounding box of the polygon: minX, minY, maxX, maxY. */
+    private final double[] bounds = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+            Double.NEGATIVE_INFINITY};
+
+    /**
+     * Create a centroid area.
+     * @param id the id of the area
+     * @param xs the x-coordinates (longitude) of the polygon
+     * @param ys the y-coordinates (latitude) of the polygon
+     * @throws IllegalArgumentException when the polygon has less than 3 points, or the arrays have a different length
+     */
+    public CentroidArea(final String id, final double[] xs, final double[] ys)
+    {
+        Throw.when(xs.length != ys.length, IllegalArgumentException.class, "CentroidArea %s: %d x and %d y coordinates", id,
+                xs.length, ys.length);
+        Throw.when(xs.length < 3, IllegalArgumentException.class, "CentroidArea %s has less than 3 points", id);
+        this.id = id;
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+        for (int i = 0; i < xs.length; i++)
+        {
+            this.bounds[0] = Math.min(this.bounds[0], xs[i]);
+            this.bounds[1] = Math.min(this.bounds[1], ys[i]);
+            this.bounds[2] = Math.max(this.bounds[2], xs[i]);
+            this.bounds[3] = Math.max(this.bounds[3], ys[i]);
+        }
+    }
+
+    @Override
+    public String getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * Return whether a point lies in the polygon, with the even-odd rule.
+     * @param x x in WGS84 (longitude)
+     * @param y y in WGS84 (latitude)
+     * @return whether the point lies in the polygon
+     */
+    public boolean contains(final double x, final double y)
+    {
+        if (x < this.bounds[0] || x > this.bounds[2] || y < this.bounds[1] || y > this.bounds[3])
+            return false;
+        boolean inside = false;
+        for (int i = 0, j = this.xs.length - 1; i < this.xs.length; j = i++)
+        {
+            if ((this.ys[i] > y) != (this.ys[j] > y)
+                    && x < (this.xs[j] - this.xs[i]) * (y - this.ys[i]) / (this.ys[j] - this.ys[i]) + this.xs[i])
+                inside = !inside;
+        }
+        return inside;
+    }
+
+    /**
+     * @return the number of points of the polygon
+     */
+    public int getNrPoints()
+    {
+        return this.xs.length;
+    }
+
+    /**
+     * @param i the index of the point
+     * @return the x-coordinate (longitude) of the point
+     */
+    public double getX(final int i)
+    {
+        return this.xs[i];
+    }
+
+    /**
+     * @param i the index of the point
+     * @return the y-coordinate (latitude) of the point
+     */
+    public double getY(final int i)
+    {
+        return this.ys[i];
+    }
 
     /**
-     *
+     * @return the minimum x of the polygon
      */
-    public CentroidArea()
+    public double getMinX()
+    {
+        return this.bounds[0];
+    }
+
+    /**
+     * @return the minimum y of the polygon
+     */
+    public double getMinY()
+    {
+        return this.bounds[1];
+    }
+
+    /**
+     * @return the maximum x of the polygon
+     */
+    public double getMaxX()
+    {
+        return this.bounds[2];
+    }
+
+    /**
+     * @return the maximum y of the polygon
+     */
+    public double getMaxY()
+    {
+        return this.bounds[3];
+    }
+
+    @Override
+    public String toString()
     {
+        return "CentroidArea [id=" + this.id + ", nrPoints=" + this.xs.length + "]";
     }
 
 }
@@ -1,21 +1,79 @@
 package nl.tudelft.simulation.simport.network;
 
+import org.djutils.base.Identifiable;
+
 /**
- * A Detector is a loop detector on the road, which is associated with the nearest Node on the network.
+ * A Detector is a loop detector on the road, e.g., an NDW measurement site, which is associated with the nearest RoadLink on
+ * the network.
  * <p>
  * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
  * BSD-style license.
  * </p>
  * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
  */
-public class Detector
+public class Detector implements Identifiable
 {
+    /** the id of the detector, e.g., the NDW measurement site id. */
+    private final String id;
+
+    /** x in WGS84. */
+    private final double x;
+
+    /** y in WGS84. */
+    private final double y;
+
+    /** the link on which the detector lies. */
+    private final RoadLink link;
 
     /**
-     *
+     * Create a detector.
+     * @param id the id of the detector, e.g., the NDW measurement site id
+     * @param x x in WGS84 (longitude)
+     * @param y y in WGS84 (latitude)
+     * @param link the link on which the detector lies
      */
-    public Detector()
+    public Detector(final String id, final double x, final double y, final RoadLink link)
+    {
+        this.id = id;
+        this.x = x;
+        this.y = y;
+        this.link = link;
+    }
+
+    @Override
+    public String getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * @return x
+     */
+    public double getX()
+    {
+        return this.x;
+    }
+
+    /**
+     * @return y
+     */
+    public double getY()
+    {
+        return this.y;
+    }
+
+    /**
+     * @return the link on which the detector lies
+     */
+    public RoadLink getLink()
+    {
+        return this.link;
+    }
+
+    @Override
+    public String toString()
     {
+        return "Detector [id=" + this.id + ", link=" + this.link.getId() + "]";
     }
 
 }
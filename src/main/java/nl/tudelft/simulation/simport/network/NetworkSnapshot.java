@@ -0,0 +1,433 @@
+package nl.tudelft.simulation.simport.network;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.djunits.unit.SpeedUnit;
+import org.djunits.value.vdouble.scalar.Length;
+import org.djunits.value.vdouble.scalar.Speed;
+import org.djutils.logger.CategoryLogger;
+
+import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
+
+/**
+ * NetworkSnapshot stores the elements of a RoadNetwork that are read from the shape files and the O/D file in one binary
+ * file, so later runs of the model do not have to parse the shape files, transform the coordinates, and parse the O/D CSV file
+ * again. The snapshot is stored in flat tables: the coordinates of the nodes, road nodes and centroids as arrays of doubles,
+ * the links and turns as arrays of node indices and lengths, and the O/D matrix as a row-major array of volumes. The snapshot
+ * contains a SHA-256 hash of the contents of the source files; a snapshot with another hash or another format version is not
+ * used. The snapshot is read through a memory-mapped buffer.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public final class NetworkSnapshot
+{
+    /** The magic number at the start of a snapshot file ("SPNS"). */
+    private static final int MAGIC = 0x53504E53;
+
+    /** The version of the snapshot format; increase when the format changes. */
+    private static final int VERSION = 1;
+
+    /** The length of the content hash in bytes. */
+    private static final int HASH_LENGTH = 32;
+
+    /** */
+    private NetworkSnapshot()
+    {
+        // utility class
+    }
+
+    /**
+     * Calculate the SHA-256 hash of the contents of the source files of a network. The order of the files is part of the
+     * hash. A null entry, e.g., for an O/D file that is not used, is hashed as an empty marker.
+     * @param sources the source files
+     * @return the content hash of the source files
+     * @throws SimPortRuntimeException when a source file cannot be read
+     */
+    public static byte[] contentHash(final URL... sources)
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[1 << 16];
+            for (URL source : sources)
+            {
+                digest.update((byte) (source == null ? 0 : 1));
+                if (source == null)
+                    continue;
+                try (InputStream stream = source.openStream())
+                {
+                    int n;
+                    while ((n = stream.read(buffer)) > 0)
+                        digest.update(buffer, 0, n);
+                }
+            }
+            return digest.digest();
+        }
+        catch (IOException | NoSuchAlgorithmException e)
+        {
+            throw new SimPortRuntimeException("Could not calculate the content hash of the network files", e);
+        }
+    }
+
+    /**
+     * Write the nodes, road nodes, links, turns, centroids and O/D matrix of the network to a snapshot file. The file is
+     * written to a unique temporary file first, and moved into place when it is complete, so a crash does not leave a partial
+     * snapshot behind, and models that write the same snapshot at the same time do not write into each other's file.
+     * @param network the network that has been read from the source files
+     * @param snapshotPath the path of the snapshot file
+     * @param hash the content hash of the source files
+     * @throws IOException when the snapshot cannot be written
+     */
+    public static void write(final RoadNetwork network, final Path snapshotPath, final byte[] hash) throws IOException
+    {
+        Path parent = snapshotPath.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, snapshotPath.getFileName().toString(), ".tmp");
+        try
+        {
+            writeContents(network, tmp, hash);
+            try
+            {
+                Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Write the contents of the snapshot to a file.
+     * @param network the network that has been read from the source files
+     * @param path the path of the file
+     * @param hash the content hash of the source files
+     * @throws IOException when the file cannot be written
+     */
+    private static void writeContents(final RoadNetwork network, final Path path, final byte[] hash) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(hash, 0, HASH_LENGTH);
+
+            // nodes
+            List<Node> nodes = network.getNodeList();
+            out.writeInt(nodes.size());
+            for (Node node : nodes)
+            {
+                out.writeDouble(node.getX());
+                out.writeDouble(node.getY());
+            }
+
+            // road nodes, in insertion order; links and turns refer to them by index
+            Map<RoadNode, RoadNode> roadNodeMap = network.getRoadNodeMap();
+            Map<RoadNode, Integer> roadNodeIndex = new HashMap<>(roadNodeMap.size() * 2);
+            out.writeInt(roadNodeMap.size());
+            for (RoadNode roadNode : roadNodeMap.keySet())
+            {
+                roadNodeIndex.put(roadNode, roadNodeIndex.size());
+                out.writeDouble(roadNode.getX());
+                out.writeDouble(roadNode.getY());
+            }
+
+            // links, as columns
+            List<RoadLink> links = new ArrayList<>(network.getRoadLinkMap().values());
+            out.writeInt(links.size());
+            for (RoadLink link : links)
+                out.writeInt(roadNodeIndex.get(link.getNodeFrom()));
+            for (RoadLink link : links)
+                out.writeInt(roadNodeIndex.get(link.getNodeTo()));
+            for (RoadLink link : links)
+                out.writeDouble(link.getLength().si);
+            for (RoadLink link : links)
+                out.writeDouble(link.getMaxSpeed().si);
+            for (RoadLink link : links)
+                out.writeInt(link.getNrLanes());
+            for (RoadLink link : links)
+            {
+                writeString(out, link.getId());
+                writeString(out, link.getName());
+            }
+
+            // turns, as columns
+            List<RoadTurn> turns = network.getTurnList();
+            out.writeInt(turns.size());
+            for (RoadTurn turn : turns)
+                out.writeInt(roadNodeIndex.get(turn.getNodeFrom()));
+            for (RoadTurn turn : turns)
+                out.writeInt(roadNodeIndex.get(turn.getNodeTo()));
+            for (RoadTurn turn : turns)
+                out.writeDouble(turn.getLength().si);
+
+            // centroids
+            List<Map.Entry<String, Centroid>> centroids = new ArrayList<>(network.getCentroidMap().entrySet());
+            out.writeInt(centroids.size());
+            for (Map.Entry<String, Centroid> entry : centroids)
+            {
+                out.writeDouble(entry.getValue().getX());
+                out.writeDouble(entry.getValue().getY());
+            }
+            for (Map.Entry<String, Centroid> entry : centroids)
+            {
+                Centroid centroid = entry.getValue();
+                writeString(out, entry.getKey());
+                writeString(out, centroid.getId());
+                writeString(out, centroid.getName());
+                writeString(out, centroid.getEid());
+                writeString(out, centroid.getType());
+            }
+
+            // O/D matrix
+            OdMatrix od = network.getOdMatrix();
+            out.writeBoolean(od != null);
+            if (od != null)
+            {
+                out.writeInt(od.getNrOrigins());
+                out.writeInt(od.getNrDestinations());
+                for (String label : od.getRowLabels())
+                    writeString(out, label);
+                for (String label : od.getColLabels())
+                    writeString(out, label);
+                for (int r = 0; r < od.getNrOrigins(); r++)
+                {
+                    for (int c = 0; c < od.getNrDestinations(); c++)
+                        out.writeDouble(od.get(r, c));
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a snapshot into an empty network, when the snapshot exists, has the current format version, and was made from
+     * source files with the given content hash. When the snapshot cannot be used, the network is not changed. Every count in
+     * the file is checked against the remaining bytes before an array is allocated, so a corrupt snapshot is rejected instead
+     * of causing a NegativeArraySizeException or an OutOfMemoryError.
+     * @param network the empty network to fill
+     * @param snapshotPath the path of the snapshot file
+     * @param hash the content hash of the current source files
+     * @return whether the network has been read from the snapshot
+     */
+    public static boolean read(final RoadNetwork network, final Path snapshotPath, final byte[] hash)
+    {
+        if (!Files.isRegularFile(snapshotPath))
+            return false;
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ))
+        {
+            ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.remaining() < 8 + HASH_LENGTH || buf.getInt() != MAGIC || buf.getInt() != VERSION)
+                return false;
+            byte[] storedHash = new byte[HASH_LENGTH];
+            buf.get(storedHash);
+            if (!Arrays.equals(storedHash, hash))
+                return false;
+
+            // read everything into local structures first, so a corrupt snapshot leaves the network unchanged
+            double[] nodeXy = readDoubles(buf, 2L * readCount(buf, 16));
+            double[] roadNodeXy = readDoubles(buf, 2L * readCount(buf, 16));
+            RoadNode[] roadNodes = new RoadNode[roadNodeXy.length / 2];
+            for (int i = 0; i < roadNodes.length; i++)
+                roadNodes[i] = new RoadNode(roadNodeXy[2 * i], roadNodeXy[2 * i + 1]);
+
+            // per link: from, to, length, speed, lanes, and the lengths of id and name
+            int nrLinks = readCount(buf, 36);
+            int[] linkFrom = readInts(buf, nrLinks);
+            int[] linkTo = readInts(buf, nrLinks);
+            double[] linkLength = readDoubles(buf, nrLinks);
+            double[] linkSpeed = readDoubles(buf, nrLinks);
+            int[] linkLanes = readInts(buf, nrLinks);
+            List<RoadLink> links = new ArrayList<>(nrLinks);
+            for (int i = 0; i < nrLinks; i++)
+            {
+                RoadLink link = new RoadLink(readString(buf), roadNodes[linkFrom[i]], roadNodes[linkTo[i]]);
+                link.setName(readString(buf));
+                link.setLength(Length.ofSI(linkLength[i]));
+                link.setMaxSpeed(new Speed(linkSpeed[i], SpeedUnit.SI));
+                link.setNrLanes(linkLanes[i]);
+                links.add(link);
+            }
+
+            int nrTurns = readCount(buf, 16);
+            int[] turnFrom = readInts(buf, nrTurns);
+            int[] turnTo = readInts(buf, nrTurns);
+            double[] turnLength = readDoubles(buf, nrTurns);
+            List<RoadTurn> turns = new ArrayList<>(nrTurns);
+            for (int i = 0; i < nrTurns; i++)
+            {
+                RoadTurn turn = new RoadTurn(roadNodes[turnFrom[i]], roadNodes[turnTo[i]]);
+                turn.setLength(Length.ofSI(turnLength[i]));
+                turns.add(turn);
+            }
+
+            // per centroid: x, y, and the lengths of key, id, name, eid and type
+            int nrCentroids = readCount(buf, 36);
+            double[] centroidXy = readDoubles(buf, 2L * nrCentroids);
+            String[] centroidKeys = new String[nrCentroids];
+            List<Centroid> centroids = new ArrayList<>(nrCentroids);
+            for (int i = 0; i < nrCentroids; i++)
+            {
+                centroidKeys[i] = readString(buf);
+                Centroid centroid = new Centroid(readString(buf), centroidXy[2 * i], centroidXy[2 * i + 1]);
+                centroid.setName(readString(buf));
+                centroid.setEid(readString(buf));
+                centroid.setType(readString(buf));
+                centroids.add(centroid);
+            }
+
+            OdMatrix od = null;
+            if (buf.get() != 0)
+            {
+                int nrRows = readCount(buf, 4);
+                int nrCols = readCount(buf, 4);
+                List<String> rowLabels = new ArrayList<>(nrRows);
+                for (int r = 0; r < nrRows; r++)
+                    rowLabels.add(readString(buf).intern());
+                List<String> colLabels = new ArrayList<>(nrCols);
+                for (int c = 0; c < nrCols; c++)
+                    colLabels.add(readString(buf).intern());
+                od = OdMatrix.fromValues(readDoubles(buf, (long) nrRows * nrCols), rowLabels, colLabels);
+            }
+
+            for (int i = 0; i < nodeXy.length / 2; i++)
+                network.getNodeList().add(new Node(nodeXy[2 * i], nodeXy[2 * i + 1]));
+            for (RoadNode roadNode : roadNodes)
+                network.getRoadNodeMap().put(roadNode, roadNode);
+            for (RoadLink link : links)
+                network.addRoadLink(link);
+            network.getTurnList().addAll(turns);
+            for (int i = 0; i < nrCentroids; i++)
+                network.addCentroid(centroidKeys[i], centroids.get(i));
+            network.setOdMatrix(od);
+            return true;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // a corrupt snapshot, e.g., a wrong count or index (BufferUnderflowException, IndexOutOfBoundsException,
+            // IllegalArgumentException), or a coordinate that is NaN (ArithmeticException): use the source files instead
+            CategoryLogger.always().warn("Network snapshot {} could not be read: {}", snapshotPath, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Write a string as its length in bytes followed by the UTF-8 bytes; null is written as length -1.
+     * @param out the output stream
+     * @param s the string, can be null
+     * @throws IOException on write error
+     */
+    private static void writeString(final DataOutputStream out, final String s) throws IOException
+    {
+        if (s == null)
+        {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a string that was written by writeString.
+     * @param buf the buffer
+     * @return the string, can be null
+     */
+    private static String readString(final ByteBuffer buf)
+    {
+        int length = buf.getInt();
+        if (length < 0)
+            return null;
+        checkRemaining(buf, length, 1);
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read a count of elements, and check that the rest of the buffer can hold that many elements.
+     * @param buf the buffer
+     * @param minBytes the minimum number of bytes per element in the rest of the file
+     * @return the count
+     * @throws IllegalArgumentException when the count is negative or larger than the rest of the buffer can hold
+     */
+    private static int readCount(final ByteBuffer buf, final int minBytes)
+    {
+        int n = buf.getInt();
+        checkRemaining(buf, n, minBytes);
+        return n;
+    }
+
+    /**
+     * Check that the rest of the buffer can hold a number of elements.
+     * @param buf the buffer
+     * @param n the number of elements
+     * @param bytes the number of bytes per element
+     * @throws IllegalArgumentException when n is negative or larger than the rest of the buffer can hold
+     */
+    private static void checkRemaining(final ByteBuffer buf, final long n, final int bytes)
+    {
+        if (n < 0 || n > buf.remaining() / bytes)
+            throw new IllegalArgumentException(
+                    "corrupt count " + n + " at position " + buf.position() + " with " + buf.remaining() + " bytes left");
+    }
+
+    /**
+     * Read an array of doubles in bulk.
+     * @param buf the buffer
+     * @param n the number of doubles
+     * @return the doubles
+     * @throws IllegalArgumentException when the buffer does not hold n doubles
+     */
+    private static double[] readDoubles(final ByteBuffer buf, final long n)
+    {
+        checkRemaining(buf, n, 8);
+        double[] result = new double[(int) n];
+        buf.asDoubleBuffer().get(result);
+        buf.position(buf.position() + 8 * (int) n);
+        return result;
+    }
+
+    /**
+     * Read an array of ints in bulk.
+     * @param buf the buffer
+     * @param n the number of ints
+     * @return the ints
+     * @throws IllegalArgumentException when the buffer does not hold n ints
+     */
+    private static int[] readInts(final ByteBuffer buf, final int n)
+    {
+        checkRemaining(buf, n, 4);
+        int[] result = new int[n];
+        buf.asIntBuffer().get(result);
+        buf.position(buf.position() + 4 * n);
+        return result;
+    }
+
+}
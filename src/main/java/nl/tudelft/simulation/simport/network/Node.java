@@ -23,6 +23,12 @@ public class Node implements Locatable
     /** y in WGS84. */
     private final double y;
 
+    /** the location, created once for the animation. */
+    private final Point2d location;
+
+    /** the relative bounds of the animation. */
+    private static final Bounds2d RELATIVE_BOUNDS = new Bounds2d(0.01, 0.01);
+
     /**
      *
      */
@@ -30,18 +36,35 @@ public class Node implements Locatable
     {
         this.x = x;
         this.y = y;
+        this.location = new Point2d(x, y);
+    }
+
+    /**
+     * @return x
+     */
+    public double getX()
+    {
+        return this.x;
+    }
+
+    /**
+     * @return y
+     */
+    public double getY()
+    {
+        return this.y;
     }
 
     @Override
     public Point<?> getLocation()
     {
-        return new Point2d(this.x, this.y);
+        return this.location;
     }
 
     @Override
     public Bounds<?, ?> getRelativeBounds()
     {
-        return new Bounds2d(0.01, 0.01);
+        return RELATIVE_BOUNDS;
     }
 
 }
@@ -1,17 +1,22 @@
 package nl.tudelft.simulation.simport.network;
 
 import java.io.IOException;
+import java.nio.DoubleBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
-import de.siegmar.fastcsv.reader.CsvReader;
-import de.siegmar.fastcsv.reader.CsvRow;
+import org.djutils.exceptions.Throw;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import nl.tudelft.simulation.simport.util.CsvTokenizer;
 
 /**
  * Reads an O/D CSV with: <br>
@@ -19,6 +24,13 @@ import de.siegmar.fastcsv.reader.CsvRow;
  * - First column of each row: row header (origin). <br>
  * - Remaining cells: numeric volumes (supports decimal comma and thousand separators).
  * <p>
+ * The volumes are stored row-major in one flat array. Labels are resolved once to an int index with getOriginIndex() and
+ * getDestinationIndex(); after that, cells are accessed without allocation with get(origin, destination), which reads the
+ * flat array at origin * getNrDestinations() + destination. Rows and columns are also available as cumulative (prefix-sum)
+ * arrays for sampling, which are calculated on first use and cached, and as read-only DoubleBuffer views for code that
+ * needs a buffer; a view is a new object on every call, so loops over many rows should use get(origin, destination).
+ * </p>
+ * <p>
  * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
  * BSD-style license.
  * </p>
@@ -26,255 +38,385 @@ import de.siegmar.fastcsv.reader.CsvRow;
  */
 public class OdMatrix
 {
-    private final double[][] values;
+    /** the volumes, row-major: the volume from origin r to destination c is stored at r * nrCols + c. */
+    private final double[] values;
+
+    /** the number of origins (rows). */
+    private final int nrRows;
+
+    /** the number of destinations (columns). */
+    private final int nrCols;
 
     private final List<String> rowLabels;
 
     private final List<String> colLabels;
 
-    private final Map<String, Integer> rowIndexByLabel;
+    /** origin label to row index; -1 when absent. */
+    private final TObjectIntHashMap<String> rowIndexByLabel;
+
+    /** destination label to column index; -1 when absent. */
+    private final TObjectIntHashMap<String> colIndexByLabel;
+
+    /** the volumes, column-major, calculated on first use of a column view. */
+    private double[] columnMajor;
+
+    /** the cumulative volumes per row, calculated on first use. */
+    private final double[][] rowPrefixSums;
 
-    private final Map<String, Integer> colIndexByLabel;
+    /** the cumulative volumes per column, calculated on first use. */
+    private final double[][] colPrefixSums;
 
-    private OdMatrix(final double[][] values, final List<String> rowLabels, final List<String> colLabels,
-            final Map<String, Integer> rowIndexByLabel, final Map<String, Integer> colIndexByLabel)
+    private OdMatrix(final double[] values, final List<String> rowLabels, final List<String> colLabels,
+            final TObjectIntHashMap<String> rowIndexByLabel, final TObjectIntHashMap<String> colIndexByLabel)
     {
         this.values = values;
-        this.rowLabels = rowLabels;
-        this.colLabels = colLabels;
+        this.nrRows = rowLabels.size();
+        this.nrCols = colLabels.size();
+        this.rowLabels = Collections.unmodifiableList(rowLabels);
+        this.colLabels = Collections.unmodifiableList(colLabels);
         this.rowIndexByLabel = rowIndexByLabel;
         this.colIndexByLabel = colIndexByLabel;
+        this.rowPrefixSums = new double[this.nrRows][];
+        this.colPrefixSums = new double[this.nrCols][];
     }
 
     public static OdMatrix fromCsv(final Path path, final char delimiter, final Charset charset, final boolean decimalComma,
             final boolean trimHeaders, final boolean normalizeNbsp) throws IOException
     {
-
-        CsvReader reader = CsvReader.builder().fieldSeparator(delimiter).quoteCharacter('"')
-                // .skipEmptyRows(true) // <- not available in all 2.x builds; we handle empties manually
-                .build(path, charset);
-
-        // ---- Stream rows and take the first as header ----
-        Iterator<CsvRow> it = reader.stream().iterator();
-        if (!it.hasNext())
+        try (CsvTokenizer csv = new CsvTokenizer(Files.newBufferedReader(path, charset), delimiter))
         {
-            throw new IllegalArgumentException("Empty CSV: " + path);
-        }
-
-        CsvRow headerRow = it.next();
-        List<String> headerFields = new ArrayList<>(headerRow.getFields());
-        if (headerFields.isEmpty())
-        {
-            throw new IllegalArgumentException("Header row has no fields: " + path);
-        }
-
-        // Column labels are header fields from index 1..end
-        int nCols = headerFields.size() - 1;
-        if (nCols <= 0)
-        {
-            throw new IllegalArgumentException("Expected at least one destination column in header");
-        }
-
-        List<String> colLabels = new ArrayList<>(nCols);
-        for (int c = 1; c < headerFields.size(); c++)
-        {
-            String lbl = headerFields.get(c);
-            if (lbl == null)
-                lbl = "";
-            if (normalizeNbsp)
-                lbl = lbl.replace('\u00A0', ' ');
-            if (trimHeaders)
-                lbl = lbl.trim();
-            colLabels.add(lbl);
-        }
-
-        // Build destination index map
-        Map<String, Integer> colIndex = new LinkedHashMap<>(nCols * 2);
-        for (int c = 0; c < nCols; c++)
-        {
-            String label = colLabels.get(c);
-            if (colIndex.put(label, c) != null)
+            // ---- The first row is the header ----
+            if (!csv.nextRow())
             {
-                System.err.println("Duplicate destination label in header: '" + label + "'");
+                throw new IllegalArgumentException("Empty CSV: " + path);
             }
-        }
-
-        // ---- Read remaining rows into dynamic buffers (no pre-count needed) ----
-        List<String> rowLabels = new ArrayList<>(1024);
-        Map<String, Integer> rowIndex = new LinkedHashMap<>(2048);
-        List<double[]> rowsValues = new ArrayList<>(1024);
-
-        while (it.hasNext())
-        {
-            CsvRow row = it.next();
 
-            // Handle "empty" rows manually
-            if (isEffectivelyEmpty(row))
+            // Column labels are header fields from index 1..end
+            csv.nextField();
+            List<String> colLabels = new ArrayList<>();
+            while (csv.nextField())
             {
-                continue;
+                colLabels.add(csv.getString(trimHeaders, normalizeNbsp).intern());
             }
-
-            int fieldCount = row.getFieldCount();
-            if (fieldCount < 1)
+            int nCols = colLabels.size();
+            if (nCols <= 0)
             {
-                continue;
+                throw new IllegalArgumentException("Expected at least one destination column in header");
             }
 
-            // Row label at column 0
-            String rowLabel = safeCell(row, 0, trimHeaders, normalizeNbsp);
-            if (rowLabel.isEmpty())
+            // Build destination index map
+            TObjectIntHashMap<String> colIndex = new TObjectIntHashMap<>(nCols * 2, 0.5f, -1);
+            for (int c = 0; c < nCols; c++)
             {
-                // You can choose to skip or fail here; we'll fail for data integrity
-                throw new IllegalArgumentException("Missing origin label in a data row (first column empty).");
+                String label = colLabels.get(c);
+                if (colIndex.put(label, c) != -1)
+                {
+                    System.err.println("Duplicate destination label in header: '" + label + "'");
+                }
             }
 
-            // Parse numeric cells
-            double[] vals = new double[nCols];
-            int maxDataCells = Math.min(nCols, Math.max(0, fieldCount - 1));
-            for (int c = 0; c < nCols; c++)
+            // ---- Read remaining rows into a growing flat array ----
+            List<String> rowLabels = new ArrayList<>(1024);
+            TObjectIntHashMap<String> rowIndex = new TObjectIntHashMap<>(2048, 0.5f, -1);
+            double[] values = new double[Math.max(nCols, 256 * nCols)];
+
+            while (csv.nextRow())
             {
-                double v;
-                if (c < maxDataCells)
+                // Row label at column 0; handle "empty" rows manually
+                csv.nextField();
+                String rowLabel = csv.getString(trimHeaders, normalizeNbsp);
+                if (rowLabel.isEmpty())
+                {
+                    boolean empty = csv.isBlank();
+                    while (empty && csv.nextField())
+                        empty = csv.isBlank();
+                    if (empty)
+                        continue;
+                    // You can choose to skip or fail here; we'll fail for data integrity
+                    throw new IllegalArgumentException("Missing origin label in a data row (first column empty).");
+                }
+
+                int rIndex = rowLabels.size();
+                int offset = rIndex * nCols;
+                if (offset + nCols > values.length)
                 {
-                    String raw = row.getField(c + 1);
-                    v = parseNumber(raw, decimalComma);
+                    values = Arrays.copyOf(values, 2 * values.length);
                 }
-                else
+
+                // Parse numeric cells; missing cells remain 0.0, extra cells are ignored
+                for (int c = 0; c < nCols && csv.nextField(); c++)
                 {
-                    v = 0.0; // or Double.NaN if you want to distinguish missing
+                    values[offset + c] = csv.getDouble(decimalComma);
+                }
+
+                // Store
+                rowLabel = rowLabel.intern();
+                rowLabels.add(rowLabel);
+                if (rowIndex.put(rowLabel, rIndex) != -1)
+                {
+                    System.err.println("Duplicate origin label: '" + rowLabel + "'");
                 }
-                vals[c] = v;
             }
 
-            // Store
-            int rIndex = rowLabels.size();
-            rowLabels.add(rowLabel);
-            if (rowIndex.put(rowLabel, rIndex) != null)
+            if (rowLabels.isEmpty())
             {
-                System.err.println("Duplicate origin label: '" + rowLabel + "'");
+                throw new IllegalArgumentException("No data rows found after header in " + path);
             }
-            rowsValues.add(vals);
-        }
 
-        if (rowLabels.isEmpty())
-        {
-            throw new IllegalArgumentException("No data rows found after header in " + path);
+            return new OdMatrix(Arrays.copyOf(values, rowLabels.size() * nCols), rowLabels, colLabels, rowIndex, colIndex);
         }
+    }
 
-        // Convert List<double[]> → double[][]
-        double[][] values = rowsValues.toArray(new double[0][]);
+    /**
+     * Create an O/D matrix from row-major volumes and labels, e.g., when it is restored from a network snapshot.
+     * @param values the volumes, row-major, with rowLabels.size() * colLabels.size() entries
+     * @param rowLabels the origin labels
+     * @param colLabels the destination labels
+     * @return the O/D matrix
+     */
+    static OdMatrix fromValues(final double[] values, final List<String> rowLabels, final List<String> colLabels)
+    {
+        Throw.when(values.length != rowLabels.size() * colLabels.size(), IllegalArgumentException.class,
+                "O/D matrix has %d values for %d rows and %d columns", values.length, rowLabels.size(), colLabels.size());
+        TObjectIntHashMap<String> rowIndex = new TObjectIntHashMap<>(Math.max(16, rowLabels.size() * 2), 0.5f, -1);
+        for (int r = 0; r < rowLabels.size(); r++)
+            rowIndex.put(rowLabels.get(r), r);
+        TObjectIntHashMap<String> colIndex = new TObjectIntHashMap<>(Math.max(16, colLabels.size() * 2), 0.5f, -1);
+        for (int c = 0; c < colLabels.size(); c++)
+            colIndex.put(colLabels.get(c), c);
+        return new OdMatrix(values, new ArrayList<>(rowLabels), new ArrayList<>(colLabels), rowIndex, colIndex);
+    }
 
-        return new OdMatrix(values, rowLabels, colLabels, rowIndex, colIndex);
+    // ----- Public API -----
+    public double get(final String origin, final String destination)
+    {
+        int ri = this.rowIndexByLabel.get(origin);
+        if (ri < 0)
+            throw new NoSuchElementException("Unknown origin: " + origin);
+        int ci = this.colIndexByLabel.get(destination);
+        if (ci < 0)
+            throw new NoSuchElementException("Unknown destination: " + destination);
+        return this.values[ri * this.nrCols + ci];
     }
 
-    private static boolean isEffectivelyEmpty(final CsvRow row)
+    /**
+     * Return the volume from an origin to a destination.
+     * @param origin the row index of the origin
+     * @param destination the column index of the destination
+     * @return the volume
+     */
+    public double get(final int origin, final int destination)
     {
-        if (row == null || row.getFieldCount() == 0)
-            return true;
-        for (int i = 0; i < row.getFieldCount(); i++)
-        {
-            String f = row.getField(i);
-            if (f != null && !f.trim().isEmpty())
-            {
-                return false;
-            }
-        }
-        return true;
+        return this.values[origin * this.nrCols + destination];
+    }
+
+    /**
+     * @param origin the origin label
+     * @return the row index of the origin, or -1 when the origin is unknown
+     */
+    public int getOriginIndex(final String origin)
+    {
+        return this.rowIndexByLabel.get(origin);
     }
 
-    private static String safeCell(final CsvRow row, final int idx, final boolean trim, final boolean normalizeNbsp)
+    /**
+     * @param destination the destination label
+     * @return the column index of the destination, or -1 when the destination is unknown
+     */
+    public int getDestinationIndex(final String destination)
     {
-        String s = (idx < row.getFieldCount() ? row.getField(idx) : "");
-        if (s == null)
-            s = "";
-        if (normalizeNbsp)
-            s = s.replace('\u00A0', ' ');
-        return trim ? s.trim() : s;
+        return this.colIndexByLabel.get(destination);
+    }
+
+    /** @return the number of origins (rows) */
+    public int getNrOrigins()
+    {
+        return this.nrRows;
+    }
+
+    /** @return the number of destinations (columns) */
+    public int getNrDestinations()
+    {
+        return this.nrCols;
     }
 
     /**
-     * Parses common EU/US numeric formats: "1234.56", "1,234.56", "1234,56", "1.234,56", "1 234,56"
+     * Return a read-only view of the volumes from an origin to all destinations, in column order. Every call creates a new
+     * view; use get(origin, destination) to read many rows without allocation.
+     * @param origin the row index of the origin
+     * @return a read-only view on the row, with position 0 and limit getNrDestinations()
      */
-    private static double parseNumber(final String raw, final boolean decimalComma)
+    public DoubleBuffer getRow(final int origin)
     {
-        if (raw == null)
-            return 0.0;
-        String s = raw.trim().replace("\u00A0", ""); // remove nbsp
-        if (s.isEmpty())
-            return 0.0;
+        return DoubleBuffer.wrap(this.values, origin * this.nrCols, this.nrCols).slice().asReadOnlyBuffer();
+    }
 
-        if (decimalComma)
+    /**
+     * Return a read-only view of the volumes from all origins to a destination, in row order. The first call creates a
+     * column-major copy of the matrix, and every call creates a new view.
+     * @param destination the column index of the destination
+     * @return a read-only view on the column, with position 0 and limit getNrOrigins()
+     */
+    public DoubleBuffer getColumn(final int destination)
+    {
+        return DoubleBuffer.wrap(columnMajor(), destination * this.nrRows, this.nrRows).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return the column-major copy of the volumes, which is made on the first call
+     */
+    private double[] columnMajor()
+    {
+        if (this.columnMajor == null)
         {
-            // remove thousands separators '.' or spaces, then replace decimal comma
-            s = s.replace(" ", "").replace(".", "").replace(",", ".");
+            double[] t = new double[this.values.length];
+            for (int r = 0; r < this.nrRows; r++)
+            {
+                for (int c = 0; c < this.nrCols; c++)
+                    t[c * this.nrRows + r] = this.values[r * this.nrCols + c];
+            }
+            this.columnMajor = t;
         }
-        else
+        return this.columnMajor;
+    }
+
+    /**
+     * Return the cumulative volumes from an origin: entry c is the sum of the volumes to destinations 0..c. The last entry is
+     * the total volume from the origin. The array is shared and should not be changed.
+     * @param origin the row index of the origin
+     * @return the prefix sums of the row
+     */
+    public double[] getRowPrefixSums(final int origin)
+    {
+        double[] prefix = this.rowPrefixSums[origin];
+        if (prefix == null)
         {
-            // remove thousands separators ',' or spaces (keep '.')
-            s = s.replace(" ", "").replace(",", "");
+            prefix = prefixSums(this.values, origin * this.nrCols, this.nrCols);
+            this.rowPrefixSums[origin] = prefix;
         }
+        return prefix;
+    }
 
-        try
+    /**
+     * Return the cumulative volumes to a destination: entry r is the sum of the volumes from origins 0..r. The last entry is
+     * the total volume to the destination. The array is shared and should not be changed.
+     * @param destination the column index of the destination
+     * @return the prefix sums of the column
+     */
+    public double[] getColumnPrefixSums(final int destination)
+    {
+        double[] prefix = this.colPrefixSums[destination];
+        if (prefix == null)
         {
-            return Double.parseDouble(s);
+            prefix = prefixSums(columnMajor(), destination * this.nrRows, this.nrRows);
+            this.colPrefixSums[destination] = prefix;
         }
-        catch (NumberFormatException nfe)
+        return prefix;
+    }
+
+    /**
+     * Draw a destination for an origin, with a probability proportional to the volume.
+     * @param origin the row index of the origin
+     * @param u a draw from U(0,1)
+     * @return the column index of the destination, or -1 when the origin has no volume
+     */
+    public int sampleDestination(final int origin, final double u)
+    {
+        return sample(getRowPrefixSums(origin), u);
+    }
+
+    /**
+     * Draw an origin for a destination, with a probability proportional to the volume.
+     * @param destination the column index of the destination
+     * @param u a draw from U(0,1)
+     * @return the row index of the origin, or -1 when the destination has no volume
+     */
+    public int sampleOrigin(final int destination, final double u)
+    {
+        return sample(getColumnPrefixSums(destination), u);
+    }
+
+    /**
+     * @param array the row-major or column-major volumes
+     * @param offset the index of the first volume of the row or column in the array
+     * @param length the length of the row or column
+     * @return the prefix sums of the row or column
+     */
+    private static double[] prefixSums(final double[] array, final int offset, final int length)
+    {
+        double[] prefix = new double[length];
+        double sum = 0.0;
+        for (int i = 0; i < length; i++)
         {
-            // tolerant fallback if mixed formats sneak in
-            return Double.parseDouble(s.replace(',', '.'));
+            sum += array[offset + i];
+            prefix[i] = sum;
         }
+        return prefix;
     }
 
-    // ----- Public API -----
-    public double get(final String origin, final String destination)
+    /**
+     * Return the first index for which the prefix sum exceeds u times the total, so entries with a zero volume are never drawn.
+     * @param prefix the prefix sums
+     * @param u a draw from U(0,1)
+     * @return the drawn index, or -1 when the total is zero
+     */
+    private static int sample(final double[] prefix, final double u)
     {
-        Integer ri = this.rowIndexByLabel.get(origin);
-        if (ri == null)
-            throw new NoSuchElementException("Unknown origin: " + origin);
-        Integer ci = this.colIndexByLabel.get(destination);
-        if (ci == null)
-            throw new NoSuchElementException("Unknown destination: " + destination);
-        return this.values[ri][ci];
+        int n = prefix.length;
+        if (n == 0 || prefix[n - 1] <= 0.0)
+            return -1;
+        double target = u * prefix[n - 1];
+        int lo = 0;
+        int hi = n - 1;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (prefix[mid] > target)
+                hi = mid;
+            else
+                lo = mid + 1;
+        }
+        return lo;
     }
 
     /**
      * Returns a map of all destination volumes for the given origin. Map keys are destination labels; values are volumes. The
-     * iteration order matches the original column order.
+     * iteration order matches the original column order. A new map is created on each call; use get(int, int) for repeated
+     * access.
      * @throws NoSuchElementException if the origin label is unknown.
      */
     public Map<String, Double> getAllDestinationsForOrigin(final String origin)
     {
-        Integer ri = this.rowIndexByLabel.get(origin);
-        if (ri == null)
+        int ri = this.rowIndexByLabel.get(origin);
+        if (ri < 0)
         {
             throw new NoSuchElementException("Unknown origin: " + origin);
         }
-        double[] row = this.values[ri];
         // Preserve label order with LinkedHashMap and pre-size for performance
-        Map<String, Double> result = new LinkedHashMap<>(this.colLabels.size() * 2);
-        for (int c = 0; c < this.colLabels.size(); c++)
+        Map<String, Double> result = new LinkedHashMap<>(this.nrCols * 2);
+        for (int c = 0; c < this.nrCols; c++)
         {
-            result.put(this.colLabels.get(c), row[c]);
+            result.put(this.colLabels.get(c), this.values[ri * this.nrCols + c]);
         }
         return result;
     }
 
     /**
      * Returns a map of all origin volumes for the given destination. Map keys are origin labels; values are volumes. The
-     * iteration order matches the original row order.
+     * iteration order matches the original row order. A new map is created on each call; use get(int, int) for repeated access.
      * @throws NoSuchElementException if the destination label is unknown.
      */
     public Map<String, Double> getAllOriginsForDestination(final String destination)
     {
-        Integer ci = this.colIndexByLabel.get(destination);
-        if (ci == null)
+        int ci = this.colIndexByLabel.get(destination);
+        if (ci < 0)
         {
             throw new NoSuchElementException("Unknown destination: " + destination);
         }
-        Map<String, Double> result = new LinkedHashMap<>(this.rowLabels.size() * 2);
-        for (int r = 0; r < this.rowLabels.size(); r++)
+        Map<String, Double> result = new LinkedHashMap<>(this.nrRows * 2);
+        for (int r = 0; r < this.nrRows; r++)
         {
-            result.put(this.rowLabels.get(r), this.values[r][ci]);
+            result.put(this.rowLabels.get(r), this.values[r * this.nrCols + ci]);
         }
         return result;
     }
@@ -299,9 +441,16 @@ public class OdMatrix
         return this.colLabels;
     }
 
+    /**
+     * Return the volumes as a two-dimensional array. The array is a copy; changes are not reflected in the matrix.
+     * @return a copy of the volumes, indexed as [origin][destination]
+     */
     public double[][] getValues()
     {
-        return this.values;
+        double[][] result = new double[this.nrRows][];
+        for (int r = 0; r < this.nrRows; r++)
+            result[r] = Arrays.copyOfRange(this.values, r * this.nrCols, (r + 1) * this.nrCols);
+        return result;
     }
 
 }
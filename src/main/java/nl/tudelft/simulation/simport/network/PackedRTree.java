@@ -0,0 +1,549 @@
+package nl.tudelft.simulation.simport.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.ToDoubleFunction;
+
+import org.djutils.exceptions.Throw;
+
+/**
+ * PackedRTree is a static R-tree over the bounding boxes of a fixed list of items, bulk-loaded with the Sort-Tile-Recursive
+ * (STR) algorithm. All boxes are stored level by level in four float arrays, with the items at level 0 and the root as the
+ * last box, so the tree has no node objects and a search only walks over array indexes. The float boxes are rounded outward,
+ * so they always contain the double coordinates of the items; exact tests, such as the distance to a line segment or the
+ * point-in-polygon test of an area, are done by the caller on the items themselves.
+ * <p>
+ * The tree supports a bounding box search and a best-first k-nearest search. The distances of the nearest search are
+ * calculated in scaled coordinates, e.g., with an x-scale of cos(lat) times the meters per degree for WGS84 coordinates, so
+ * the distances are in meters. The tree cannot be changed after it has been built; it can be searched by several threads at
+ * the same time.
+ * </p>
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ * @param <T> the type of the items
+ */
+public class PackedRTree<T>
+{
+    /** the maximum number of children of a node. */
+    public static final int NODE_SIZE = 16;
+
+    /** the items, in the order of the original list. */
+    private final List<T> items;
+
+    /** the minimum x of the boxes; items first, then the nodes level by level, with the root last. */
+    private final float[] minX;
+
+    /** the minimum y of the boxes. */
+    private final float[] minY;
+
+    /** the maximum x of the boxes. */
+    private final float[] maxX;
+
+    /** the maximum y of the boxes. */
+    private final float[] maxY;
+
+    /** the item number for a box at level 0, and the position of the first child for a node box. */
+    private final int[] ref;
+
+    /** the position after the last box per level. */
+    private final int[] levelEnd;
+
+    /**
+     * Build the tree over the bounding boxes of the items.
+     * @param items the items
+     * @param minX the minimum x per item
+     * @param minY the minimum y per item
+     * @param maxX the maximum x per item
+     * @param maxY the maximum y per item
+     * @throws IllegalArgumentException when the lengths of the arrays differ from the number of items
+     */
+    public PackedRTree(final List<? extends T> items, final double[] minX, final double[] minY, final double[] maxX,
+            final double[] maxY)
+    {
+        int n = items.size();
+        Throw.when(minX.length != n || minY.length != n || maxX.length != n || maxY.length != n,
+                IllegalArgumentException.class, "PackedRTree: %d items but bounds for %d, %d, %d, %d items", n, minX.length,
+                minY.length, maxX.length, maxY.length);
+        this.items = new ArrayList<>(items);
+
+        int nrLevels = 1;
+        int total = n;
+        int count = n;
+        do
+        {
+            count = Math.max(1, (count + NODE_SIZE - 1) / NODE_SIZE);
+            total += count;
+            nrLevels++;
+        }
+        while (count > 1);
+        this.minX = new float[total];
+        this.minY = new float[total];
+        this.maxX = new float[total];
+        this.maxY = new float[total];
+        this.ref = new int[total];
+        this.levelEnd = new int[nrLevels];
+        for (int i = 0; i < n; i++)
+        {
+            this.minX[i] = down(minX[i]);
+            this.minY[i] = down(minY[i]);
+            this.maxX[i] = up(maxX[i]);
+            this.maxY[i] = up(maxY[i]);
+            this.ref[i] = i;
+        }
+
+        int start = 0;
+        int end = n;
+        for (int level = 0; level < nrLevels - 1; level++)
+        {
+            this.levelEnd[level] = end;
+            sortTileRecursive(start, end);
+            int pos = end;
+            for (int child = start; child < end || pos == end; child += NODE_SIZE, pos++)
+            {
+                // an empty tree gets an empty root, with an inverted box that no search intersects
+                float x0 = Float.POSITIVE_INFINITY;
+                float y0 = Float.POSITIVE_INFINITY;
+                float x1 = Float.NEGATIVE_INFINITY;
+                float y1 = Float.NEGATIVE_INFINITY;
+                for (int c = child; c < Math.min(child + NODE_SIZE, end); c++)
+                {
+                    x0 = Math.min(x0, this.minX[c]);
+                    y0 = Math.min(y0, this.minY[c]);
+                    x1 = Math.max(x1, this.maxX[c]);
+                    y1 = Math.max(y1, this.maxY[c]);
+                }
+                this.minX[pos] = x0;
+                this.minY[pos] = y0;
+                this.maxX[pos] = x1;
+                this.maxY[pos] = y1;
+                this.ref[pos] = child;
+            }
+            start = end;
+            end = pos;
+        }
+        this.levelEnd[nrLevels - 1] = end;
+    }
+
+    /**
+     * Build a tree over point items.
+     * @param items the items
+     * @param x the function that returns the x-coordinate of an item
+     * @param y the function that returns the y-coordinate of an item
+     * @return the tree
+     * @param <T> the type of the items
+     */
+    public static <T> PackedRTree<T> ofPoints(final List<? extends T> items, final ToDoubleFunction<? super T> x,
+            final ToDoubleFunction<? super T> y)
+    {
+        double[] xs = new double[items.size()];
+        double[] ys = new double[items.size()];
+        for (int i = 0; i < xs.length; i++)
+        {
+            xs[i] = x.applyAsDouble(items.get(i));
+            ys[i] = y.applyAsDouble(items.get(i));
+        }
+        return new PackedRTree<>(items, xs, ys, xs, ys);
+    }
+
+    /**
+     * @param v a coordinate
+     * @return the largest float that is not larger than the coordinate
+     */
+    private static float down(final double v)
+    {
+        float f = (float) v;
+        return f > v ? Math.nextDown(f) : f;
+    }
+
+    /**
+     * @param v a coordinate
+     * @return the smallest float that is not smaller than the coordinate
+     */
+    private static float up(final double v)
+    {
+        float f = (float) v;
+        return f < v ? Math.nextUp(f) : f;
+    }
+
+    /**
+     * Order the boxes of one level with STR: sort all boxes on the x of their center, cut them into vertical slices of
+     * sqrt(number of nodes) nodes, and sort each slice on the y of the center, so each run of NODE_SIZE boxes forms a compact
+     * node.
+     * @param start the position of the first box of the level
+     * @param end the position after the last box of the level
+     */
+    private void sortTileRecursive(final int start, final int end)
+    {
+        int m = end - start;
+        if (m <= NODE_SIZE)
+            return;
+        int nrNodes = (m + NODE_SIZE - 1) / NODE_SIZE;
+        int sliceSize = NODE_SIZE * (int) Math.ceil(Math.sqrt(nrNodes));
+        long[] keys = new long[m];
+        for (int i = 0; i < m; i++)
+            keys[i] = key(this.minX[start + i] / 2.0f + this.maxX[start + i] / 2.0f, i);
+        Arrays.sort(keys);
+        int[] order = new int[m];
+        for (int s = 0; s < m; s += sliceSize)
+        {
+            int e = Math.min(s + sliceSize, m);
+            for (int i = s; i < e; i++)
+            {
+                int b = start + (int) keys[i];
+                keys[i] = key(this.minY[b] / 2.0f + this.maxY[b] / 2.0f, (int) keys[i]);
+            }
+            Arrays.sort(keys, s, e);
+            for (int i = s; i < e; i++)
+                order[i] = (int) keys[i];
+        }
+        permute(this.minX, start, order);
+        permute(this.minY, start, order);
+        permute(this.maxX, start, order);
+        permute(this.maxY, start, order);
+        int[] r = new int[m];
+        for (int i = 0; i < m; i++)
+            r[i] = this.ref[start + order[i]];
+        System.arraycopy(r, 0, this.ref, start, m);
+    }
+
+    /**
+     * @param v a float value
+     * @param index a non-negative index
+     * @return a key that sorts on the value first and on the index second, and holds the index in its lower 32 bits
+     */
+    private static long key(final float v, final int index)
+    {
+        int bits = Float.floatToIntBits(v);
+        bits ^= (bits >> 31) & 0x7FFFFFFF;
+        return ((long) bits << 32) | index;
+    }
+
+    /**
+     * @param a the array
+     * @param start the position of the first element to permute
+     * @param order the new order of the elements, relative to start
+     */
+    private static void permute(final float[] a, final int start, final int[] order)
+    {
+        float[] p = new float[order.length];
+        for (int i = 0; i < order.length; i++)
+            p[i] = a[start + order[i]];
+        System.arraycopy(p, 0, a, start, p.length);
+    }
+
+    /**
+     * @return the number of items in the tree
+     */
+    public int size()
+    {
+        return this.items.size();
+    }
+
+    /**
+     * @return the items, in the order in which they were given
+     */
+    public List<T> getItems()
+    {
+        return this.items;
+    }
+
+    /**
+     * Return the items with a bounding box that intersects a box.
+     * @param x0 the minimum x of the box
+     * @param y0 the minimum y of the box
+     * @param x1 the maximum x of the box
+     * @param y1 the maximum y of the box
+     * @return the items with a bounding box that intersects the box
+     */
+    public List<T> search(final double x0, final double y0, final double x1, final double y1)
+    {
+        List<T> result = new ArrayList<>();
+        search(x0, y0, x1, y1, result);
+        return result;
+    }
+
+    /**
+     * Add the items with a bounding box that intersects a box to a list.
+     * @param x0 the minimum x of the box
+     * @param y0 the minimum y of the box
+     * @param x1 the maximum x of the box
+     * @param y1 the maximum y of the box
+     * @param result the list to which the items are added
+     */
+    public void search(final double x0, final double y0, final double x1, final double y1, final List<? super T> result)
+    {
+        searchIndexes(x0, y0, x1, y1, i -> result.add(this.items.get(i)));
+    }
+
+    /**
+     * Pass the numbers of the items with a bounding box that intersects a box to a consumer. The number of an item is its
+     * index in the list of getItems(), so the caller can, e.g., prefer the item that came first in the original list.
+     * @param x0 the minimum x of the box
+     * @param y0 the minimum y of the box
+     * @param x1 the maximum x of the box
+     * @param y1 the maximum y of the box
+     * @param result the consumer of the item numbers
+     */
+    public void searchIndexes(final double x0, final double y0, final double x1, final double y1, final IntConsumer result)
+    {
+        int n = this.items.size();
+        if (n == 0)
+            return;
+        int[] stack = new int[4 * this.levelEnd.length * NODE_SIZE];
+        int sp = 0;
+        stack[sp++] = this.minX.length - 1;
+        while (sp > 0)
+        {
+            int node = stack[--sp];
+            if (!intersects(node, x0, y0, x1, y1))
+                continue;
+            if (node < n)
+            {
+                result.accept(this.ref[node]);
+                continue;
+            }
+            int first = this.ref[node];
+            int last = Math.min(first + NODE_SIZE, levelEndOf(first));
+            for (int c = last - 1; c >= first; c--)
+                stack[sp++] = c;
+        }
+    }
+
+    /**
+     * @param box the position of a box
+     * @param x0 the minimum x of the search box
+     * @param y0 the minimum y of the search box
+     * @param x1 the maximum x of the search box
+     * @param y1 the maximum y of the search box
+     * @return whether the box intersects the search box
+     */
+    private boolean intersects(final int box, final double x0, final double y0, final double x1, final double y1)
+    {
+        return this.minX[box] <= x1 && this.maxX[box] >= x0 && this.minY[box] <= y1 && this.maxY[box] >= y0;
+    }
+
+    /**
+     * @param position the position of a box
+     * @return the position after the last box of the level of the box
+     */
+    private int levelEndOf(final int position)
+    {
+        int level = 0;
+        while (this.levelEnd[level] <= position)
+            level++;
+        return this.levelEnd[level];
+    }
+
+    /**
+     * Return the k nearest items within a maximum distance of a point, nearest first. The tree is searched best-first on the
+     * distance of the point to the boxes, and the exact distance of an item is only calculated when its box is nearer than the
+     * items found so far. The distance function must calculate the distance with the same scales, and may not return a
+     * smaller distance than the distance to the bounding box of the item.
+     * @param x the x of the point
+     * @param y the y of the point
+     * @param k the maximum number of items to return
+     * @param maxDistance the maximum distance, in scaled coordinates
+     * @param xScale the factor for the differences in x, e.g., cos(lat) times the meters per degree for WGS84 coordinates
+     * @param yScale the factor for the differences in y, e.g., the meters per degree for WGS84 coordinates
+     * @param distance the function that returns the exact distance between an item and the point, in scaled coordinates, or
+     *            null to use the distance to the bounding box of the item
+     * @return the at most k nearest items within the maximum distance, nearest first
+     */
+    public List<T> nearest(final double x, final double y, final int k, final double maxDistance, final double xScale,
+            final double yScale, final ItemDistance<? super T> distance)
+    {
+        List<T> result = new ArrayList<>(Math.max(0, Math.min(k, 16)));
+        int n = this.items.size();
+        if (k <= 0 || n == 0)
+            return result;
+        MinQueue queue = new MinQueue();
+        int root = this.minX.length - 1;
+        double d = boxDistance(root, x, y, xScale, yScale);
+        if (d <= maxDistance)
+            queue.add(d, root);
+        while (!queue.isEmpty() && result.size() < k)
+        {
+            int entry = queue.peekValue();
+            queue.remove();
+            if (entry < 0)
+            {
+                // an item with its exact distance
+                result.add(this.items.get(-entry - 1));
+                continue;
+            }
+            if (entry < n)
+            {
+                int item = this.ref[entry];
+                double di = distance == null ? boxDistance(entry, x, y, xScale, yScale)
+                        : distance.distance(this.items.get(item), x, y);
+                if (di <= maxDistance)
+                    queue.add(di, -item - 1);
+                continue;
+            }
+            int first = this.ref[entry];
+            int last = Math.min(first + NODE_SIZE, levelEndOf(first));
+            for (int c = first; c < last; c++)
+            {
+                double dc = boxDistance(c, x, y, xScale, yScale);
+                if (dc <= maxDistance)
+                    queue.add(dc, c);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the k nearest items within a maximum distance of a point, nearest first, with the distance to the bounding box as
+     * the distance of an item. This is the exact distance for point items.
+     * @param x the x of the point
+     * @param y the y of the point
+     * @param k the maximum number of items to return
+     * @param maxDistance the maximum distance, in scaled coordinates
+     * @param xScale the factor for the differences in x
+     * @param yScale the factor for the differences in y
+     * @return the at most k nearest items within the maximum distance, nearest first
+     */
+    public List<T> nearest(final double x, final double y, final int k, final double maxDistance, final double xScale,
+            final double yScale)
+    {
+        return nearest(x, y, k, maxDistance, xScale, yScale, null);
+    }
+
+    /**
+     * @param box the position of a box
+     * @param x the x of the point
+     * @param y the y of the point
+     * @param xScale the factor for the differences in x
+     * @param yScale the factor for the differences in y
+     * @return the scaled distance between the point and the box; 0 when the point is in the box
+     */
+    private double boxDistance(final int box, final double x, final double y, final double xScale, final double yScale)
+    {
+        double dx = Math.max(0.0, Math.max(this.minX[box] - x, x - this.maxX[box])) * xScale;
+        double dy = Math.max(0.0, Math.max(this.minY[box] - y, y - this.maxY[box])) * yScale;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Return the distance between a point and a line segment in scaled coordinates.
+     * @param x the x of the point
+     * @param y the y of the point
+     * @param ax the x of the start of the segment
+     * @param ay the y of the start of the segment
+     * @param bx the x of the end of the segment
+     * @param by the y of the end of the segment
+     * @param xScale the factor for the differences in x
+     * @param yScale the factor for the differences in y
+     * @return the scaled distance between the point and the nearest point of the segment
+     */
+    public static double segmentDistance(final double x, final double y, final double ax, final double ay, final double bx,
+            final double by, final double xScale, final double yScale)
+    {
+        double px = (ax - x) * xScale;
+        double py = (ay - y) * yScale;
+        double dx = (bx - ax) * xScale;
+        double dy = (by - ay) * yScale;
+        double len2 = dx * dx + dy * dy;
+        double t = len2 == 0.0 ? 0.0 : Math.max(0.0, Math.min(1.0, -(px * dx + py * dy) / len2));
+        double qx = px + t * dx;
+        double qy = py + t * dy;
+        return Math.sqrt(qx * qx + qy * qy);
+    }
+
+    /**
+     * ItemDistance calculates the exact distance between an item and a point for the nearest search.
+     * @param <T> the type of the items
+     */
+    @FunctionalInterface
+    public interface ItemDistance<T>
+    {
+        /**
+         * @param item the item
+         * @param x the x of the point
+         * @param y the y of the point
+         * @return the distance between the item and the point, in the scaled coordinates of the search
+         */
+        double distance(T item, double x, double y);
+    }
+
+    /**
+     * MinQueue is a binary min-heap of int values with a double priority, for the best-first nearest search.
+     */
+    private static class MinQueue
+    {
+        /** the priorities. */
+        private double[] keys = new double[64];
+
+        /** the values. */
+        private int[] values = new int[64];
+
+        /** the number of entries. */
+        private int size = 0;
+
+        /**
+         * @param key the priority
+         * @param value the value
+         */
+        void add(final double key, final int value)
+        {
+            if (this.size == this.keys.length)
+            {
+                this.keys = Arrays.copyOf(this.keys, 2 * this.size);
+                this.values = Arrays.copyOf(this.values, 2 * this.size);
+            }
+            int i = this.size++;
+            while (i > 0)
+            {
+                int parent = (i - 1) >>> 1;
+                if (this.keys[parent] <= key)
+                    break;
+                this.keys[i] = this.keys[parent];
+                this.values[i] = this.values[parent];
+                i = parent;
+            }
+            this.keys[i] = key;
+            this.values[i] = value;
+        }
+
+        /** @return the value with the lowest priority */
+        int peekValue()
+        {
+            return this.values[0];
+        }
+
+        /** Remove the entry with the lowest priority. */
+        void remove()
+        {
+            double key = this.keys[--this.size];
+            int value = this.values[this.size];
+            int i = 0;
+            while (true)
+            {
+                int child = 2 * i + 1;
+                if (child >= this.size)
+                    break;
+                if (child + 1 < this.size && this.keys[child + 1] < this.keys[child])
+                    child++;
+                if (this.keys[child] >= key)
+                    break;
+                this.keys[i] = this.keys[child];
+                this.values[i] = this.values[child];
+                i = child;
+            }
+            this.keys[i] = key;
+            this.values[i] = value;
+        }
+
+        /** @return whether the queue is empty */
+        boolean isEmpty()
+        {
+            return this.size == 0;
+        }
+    }
+
+}
@@ -0,0 +1,452 @@
+package nl.tudelft.simulation.simport.network;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * RoadGraph is a compact, directed routing graph of the road network in compressed sparse row (CSR) format. The vertices are
+ * the RoadNodes, numbered 0..n-1; the edges are the RoadLinks and the RoadTurns. Since turns are only present in the network
+ * where a movement from one section to another is allowed, shortest paths over the graph automatically respect the turn
+ * restrictions of the network. Edge weights are free-flow travel times in seconds, where the speed on a link is the minimum of
+ * the maximum speed of the link and the maximum speed of a truck.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class RoadGraph
+{
+    /** the number of vertices. */
+    private final int nrNodes;
+
+    /** x-coordinate (longitude) of the vertices. */
+    private final double[] nodeX;
+
+    /** y-coordinate (latitude) of the vertices. */
+    private final double[] nodeY;
+
+    /** the index of a road node. */
+    private final Map<RoadNode, Integer> nodeIndex;
+
+    /** CSR offsets: the outgoing edges of vertex i are stored at edgeStart[i] .. edgeStart[i+1]-1. */
+    private final int[] edgeStart;
+
+    /** the target vertex of each edge. */
+    private final int[] edgeTarget;
+
+    /** the free-flow travel time of each edge in seconds. */
+    private final double[] edgeTime;
+
+    /** the length of each edge in meters. */
+    private final double[] edgeLength;
+
+    /** the index of the RoadLink of each edge, or -1 for a turn or a link without an index. */
+    private final int[] edgeLink;
+
+    /** the number of incoming edges per vertex. */
+    private final int[] inDegree;
+
+    /**
+     * Build the routing graph from the nodes, links and turns of the road network.
+     * @param roadNodes the road nodes (vertices)
+     * @param roadLinks the road links (edges)
+     * @param roadTurns the turns (edges connecting the end of a link to the start of a next link)
+     * @param truckMaxSpeedSI the maximum speed of a truck in m/s
+     */
+    public RoadGraph(final Collection<RoadNode> roadNodes, final Collection<RoadLink> roadLinks,
+            final Collection<RoadTurn> roadTurns, final double truckMaxSpeedSI)
+    {
+        this.nrNodes = roadNodes.size();
+        this.nodeX = new double[this.nrNodes];
+        this.nodeY = new double[this.nrNodes];
+        this.nodeIndex = new LinkedHashMap<>(this.nrNodes * 2);
+        int n = 0;
+        for (RoadNode node : roadNodes)
+        {
+            this.nodeX[n] = node.getX();
+            this.nodeY[n] = node.getY();
+            this.nodeIndex.put(node, n++);
+        }
+
+        // gather the edges as from/to/time/length
+        int nrEdges = roadLinks.size() + roadTurns.size();
+        int[] from = new int[nrEdges];
+        int[] to = new int[nrEdges];
+        double[] time = new double[nrEdges];
+        double[] length = new double[nrEdges];
+        int[] linkIndex = new int[nrEdges];
+        int e = 0;
+        for (RoadLink link : roadLinks)
+        {
+            from[e] = this.nodeIndex.get(link.getNodeFrom());
+            to[e] = this.nodeIndex.get(link.getNodeTo());
+            length[e] = link.getLength().si;
+            time[e] = length[e] / Math.min(link.getMaxSpeed().si, truckMaxSpeedSI);
+            linkIndex[e] = link.getIndex();
+            e++;
+        }
+        for (RoadTurn turn : roadTurns)
+        {
+            linkIndex[e] = -1;
+            from[e] = this.nodeIndex.get(turn.getNodeFrom());
+            to[e] = this.nodeIndex.get(turn.getNodeTo());
+            length[e] = turn.getLength().si;
+            time[e] = length[e] / Math.min(turn.getMaxSpeed().si, truckMaxSpeedSI);
+            e++;
+        }
+
+        // counting sort of the edges on their from-vertex
+        this.edgeStart = new int[this.nrNodes + 1];
+        this.inDegree = new int[this.nrNodes];
+        for (int i = 0; i < nrEdges; i++)
+        {
+            this.edgeStart[from[i] + 1]++;
+            this.inDegree[to[i]]++;
+        }
+        for (int v = 0; v < this.nrNodes; v++)
+        {
+            this.edgeStart[v + 1] += this.edgeStart[v];
+        }
+        this.edgeTarget = new int[nrEdges];
+        this.edgeTime = new double[nrEdges];
+        this.edgeLength = new double[nrEdges];
+        this.edgeLink = new int[nrEdges];
+        int[] fill = Arrays.copyOf(this.edgeStart, this.nrNodes);
+        for (int i = 0; i < nrEdges; i++)
+        {
+            int pos = fill[from[i]]++;
+            this.edgeTarget[pos] = to[i];
+            this.edgeTime[pos] = time[i];
+            this.edgeLength[pos] = length[i];
+            this.edgeLink[pos] = linkIndex[i];
+        }
+    }
+
+    /**
+     * Run a one-to-all Dijkstra search on the free-flow travel times. The distance along the fastest path is stored as well.
+     * The arrays are provided by the caller, so they can be reused between searches.
+     * @param source the source vertex
+     * @param time array of size nrNodes that will be filled with the fastest travel time in seconds (infinity when
+     *            unreachable)
+     * @param distance array of size nrNodes that will be filled with the length in meters of the fastest path
+     * @param pred array of size nrNodes that will be filled with the predecessor vertex on the fastest path (-1 for the source
+     *            and for unreachable vertices)
+     * @param heap a heap of the correct capacity to use for the search
+     */
+    public void dijkstra(final int source, final double[] time, final double[] distance, final int[] pred,
+            final IndexedMinHeap heap)
+    {
+        dijkstra(source, -1, time, distance, pred, heap);
+    }
+
+    /**
+     * Return the vertices on the fastest path from source to target, using a Dijkstra search that stops as soon as the target
+     * is settled. The work arrays are provided by the caller, so they can be reused between searches.
+     * @param source the source vertex
+     * @param target the target vertex
+     * @param time work array of size nrNodes
+     * @param distance work array of size nrNodes
+     * @param pred work array of size nrNodes
+     * @param heap a heap of the correct capacity to use for the search
+     * @return the vertices on the fastest path, starting with source and ending with target, or null when the target cannot
+     *         be reached
+     */
+    public int[] fastestPath(final int source, final int target, final double[] time, final double[] distance,
+            final int[] pred, final IndexedMinHeap heap)
+    {
+        dijkstra(source, target, time, distance, pred, heap);
+        if (Double.isInfinite(time[target]))
+            return null;
+        int n = 1;
+        for (int v = target; v != source; v = pred[v])
+            n++;
+        int[] path = new int[n];
+        for (int v = target; n > 0; v = pred[v])
+            path[--n] = v;
+        return path;
+    }
+
+    /**
+     * Run a Dijkstra search on the free-flow travel times, that stops when the target vertex is settled.
+     * @param source the source vertex
+     * @param target the target vertex, or -1 to search all vertices
+     * @param time array of size nrNodes that will be filled with the fastest travel time in seconds
+     * @param distance array of size nrNodes that will be filled with the length in meters of the fastest path
+     * @param pred array of size nrNodes that will be filled with the predecessor vertex on the fastest path
+     * @param heap a heap of the correct capacity to use for the search
+     */
+    private void dijkstra(final int source, final int target, final double[] time, final double[] distance,
+            final int[] pred, final IndexedMinHeap heap)
+    {
+        Arrays.fill(time, Double.POSITIVE_INFINITY);
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(pred, -1);
+        heap.clear();
+        time[source] = 0.0;
+        distance[source] = 0.0;
+        heap.insertOrDecrease(source, 0.0);
+        while (!heap.isEmpty())
+        {
+            int v = heap.pollMin();
+            if (v == target)
+                return;
+            double tv = time[v];
+            for (int e = this.edgeStart[v]; e < this.edgeStart[v + 1]; e++)
+            {
+                int w = this.edgeTarget[e];
+                double tw = tv + this.edgeTime[e];
+                if (tw < time[w])
+                {
+                    time[w] = tw;
+                    distance[w] = distance[v] + this.edgeLength[e];
+                    pred[w] = v;
+                    heap.insertOrDecrease(w, tw);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the vertex that is closest to the given point, and that has at least one outgoing edge (when outgoing is true) or
+     * at least one incoming edge (when outgoing is false).
+     * @param x the x-coordinate (longitude)
+     * @param y the y-coordinate (latitude)
+     * @param outgoing whether the vertex should have outgoing edges (true) or incoming edges (false)
+     * @return the index of the closest vertex, or -1 when there is no suitable vertex
+     */
+    public int nearestNode(final double x, final double y, final boolean outgoing)
+    {
+        // equirectangular approximation is good enough to compare distances
+        double cosLat = Math.cos(Math.toRadians(y));
+        int best = -1;
+        double bestD2 = Double.POSITIVE_INFINITY;
+        for (int v = 0; v < this.nrNodes; v++)
+        {
+            if (outgoing ? this.edgeStart[v + 1] == this.edgeStart[v] : this.inDegree[v] == 0)
+                continue;
+            double dx = (this.nodeX[v] - x) * cosLat;
+            double dy = this.nodeY[v] - y;
+            double d2 = dx * dx + dy * dy;
+            if (d2 < bestD2)
+            {
+                bestD2 = d2;
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Return the fastest edge from one vertex to another.
+     * @param from the from vertex
+     * @param to the to vertex
+     * @return the index of the fastest edge from the from vertex to the to vertex, or -1 when there is no such edge
+     */
+    public int findEdge(final int from, final int to)
+    {
+        int best = -1;
+        for (int e = this.edgeStart[from]; e < this.edgeStart[from + 1]; e++)
+        {
+            if (this.edgeTarget[e] == to && (best < 0 || this.edgeTime[e] < this.edgeTime[best]))
+                best = e;
+        }
+        return best;
+    }
+
+    /**
+     * @param e the edge
+     * @return the free-flow travel time of the edge in seconds
+     */
+    public double getEdgeTime(final int e)
+    {
+        return this.edgeTime[e];
+    }
+
+    /**
+     * @param e the edge
+     * @return the index of the RoadLink of the edge, or -1 when the edge is a turn
+     */
+    public int getEdgeLink(final int e)
+    {
+        return this.edgeLink[e];
+    }
+
+    /**
+     * Return the index of a road node.
+     * @param node the road node
+     * @return the index of the road node, or -1 when the node is not part of the graph
+     */
+    public int getNodeIndex(final RoadNode node)
+    {
+        Integer index = this.nodeIndex.get(node);
+        return index == null ? -1 : index.intValue();
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    public int getNrNodes()
+    {
+        return this.nrNodes;
+    }
+
+    /**
+     * @return the number of edges
+     */
+    public int getNrEdges()
+    {
+        return this.edgeTarget.length;
+    }
+
+    /**
+     * @param v the vertex
+     * @return the x-coordinate (longitude) of the vertex
+     */
+    public double getNodeX(final int v)
+    {
+        return this.nodeX[v];
+    }
+
+    /**
+     * @param v the vertex
+     * @return the y-coordinate (latitude) of the vertex
+     */
+    public double getNodeY(final int v)
+    {
+        return this.nodeY[v];
+    }
+
+    /**
+     * IndexedMinHeap is a binary min-heap of int vertices with double keys that supports decrease-key without allocating
+     * objects.
+     */
+    public static class IndexedMinHeap
+    {
+        /** the vertices in heap order. */
+        private final int[] heap;
+
+        /** the keys in heap order. */
+        private final double[] keys;
+
+        /** the position of a vertex in the heap, or -1 when it is not in the heap. */
+        private final int[] position;
+
+        /** the number of elements in the heap. */
+        private int size = 0;
+
+        /**
+         * Create a heap for vertices 0..capacity-1.
+         * @param capacity the number of vertices
+         */
+        public IndexedMinHeap(final int capacity)
+        {
+            this.heap = new int[capacity];
+            this.keys = new double[capacity];
+            this.position = new int[capacity];
+            Arrays.fill(this.position, -1);
+        }
+
+        /**
+         * Empty the heap.
+         */
+        public void clear()
+        {
+            for (int i = 0; i < this.size; i++)
+                this.position[this.heap[i]] = -1;
+            this.size = 0;
+        }
+
+        /**
+         * @return whether the heap is empty
+         */
+        public boolean isEmpty()
+        {
+            return this.size == 0;
+        }
+
+        /**
+         * Insert a vertex, or decrease its key when it is already in the heap.
+         * @param v the vertex
+         * @param key the (new) key
+         */
+        public void insertOrDecrease(final int v, final double key)
+        {
+            int i = this.position[v];
+            if (i < 0)
+            {
+                i = this.size++;
+            }
+            siftUp(i, v, key);
+        }
+
+        /**
+         * Remove and return the vertex with the smallest key.
+         * @return the vertex with the smallest key
+         */
+        public int pollMin()
+        {
+            int min = this.heap[0];
+            this.position[min] = -1;
+            this.size--;
+            if (this.size > 0)
+                siftDown(0, this.heap[this.size], this.keys[this.size]);
+            return min;
+        }
+
+        /**
+         * Move vertex v with the given key up from position i.
+         * @param pos the start position
+         * @param v the vertex
+         * @param key the key
+         */
+        private void siftUp(final int pos, final int v, final double key)
+        {
+            int i = pos;
+            while (i > 0)
+            {
+                int parent = (i - 1) >>> 1;
+                if (this.keys[parent] <= key)
+                    break;
+                this.heap[i] = this.heap[parent];
+                this.keys[i] = this.keys[parent];
+                this.position[this.heap[i]] = i;
+                i = parent;
+            }
+            this.heap[i] = v;
+            this.keys[i] = key;
+            this.position[v] = i;
+        }
+
+        /**
+         * Move vertex v with the given key down from position i.
+         * @param pos the start position
+         * @param v the vertex
+         * @param key the key
+         */
+        private void siftDown(final int pos, final int v, final double key)
+        {
+            int i = pos;
+            int half = this.size >>> 1;
+            while (i < half)
+            {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < this.size && this.keys[right] < this.keys[child])
+                    child = right;
+                if (key <= this.keys[child])
+                    break;
+                this.heap[i] = this.heap[child];
+                this.keys[i] = this.keys[child];
+                this.position[this.heap[i]] = i;
+                i = child;
+            }
+            this.heap[i] = v;
+            this.keys[i] = key;
+            this.position[v] = i;
+        }
+    }
+
+}
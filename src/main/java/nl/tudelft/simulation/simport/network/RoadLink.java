@@ -3,6 +3,7 @@ package nl.tudelft.simulation.simport.network;
 import java.util.Objects;
 
 import org.djunits.unit.SpeedUnit;
+import org.djunits.value.vdouble.scalar.Length;
 import org.djunits.value.vdouble.scalar.Speed;
 import org.djutils.base.Identifiable;
 import org.djutils.draw.bounds.Bounds;
@@ -30,6 +31,14 @@ public class RoadLink implements Locatable, Identifiable
 
     private final double dy;
 
+    /** the location: the lower left corner of the link, created once for the animation. */
+    private final Point2d location;
+
+    /** the relative bounds of the link with respect to its location. */
+    private final Bounds2d relativeBounds;
+
+    private Length length;
+
     private Speed maxSpeed = new Speed(80.0, SpeedUnit.KM_PER_HOUR);
 
     private int nrLanes = 2;
@@ -38,6 +47,9 @@ public class RoadLink implements Locatable, Identifiable
 
     private final String id;
 
+    /** the index of the link in the routing graph and the travel time profile, or -1 when not indexed. */
+    private int index = -1;
+
     /**
      *
      */
@@ -48,6 +60,9 @@ public class RoadLink implements Locatable, Identifiable
         this.nodeTo = nodeTo;
         this.dx = nodeTo.getX() - nodeFrom.getX();
         this.dy = nodeTo.getY() - nodeFrom.getY();
+        this.location = new Point2d(Math.min(nodeFrom.getX(), nodeTo.getX()), Math.min(nodeFrom.getY(), nodeTo.getY()));
+        this.relativeBounds = new Bounds2d(0.0, Math.abs(this.dx), 0.0, Math.abs(this.dy));
+        this.length = Length.ofSI(RoadNetwork.haversineSI(nodeFrom.getY(), nodeFrom.getX(), nodeTo.getY(), nodeTo.getX()));
     }
 
     @Override
@@ -88,6 +103,22 @@ public class RoadLink implements Locatable, Identifiable
         return this.dy;
     }
 
+    /**
+     * @return length; the straight-line length between the nodes unless set otherwise
+     */
+    public Length getLength()
+    {
+        return this.length;
+    }
+
+    /**
+     * @param length set length, e.g., the length of the polyline of the link
+     */
+    public void setLength(final Length length)
+    {
+        this.length = length;
+    }
+
     /**
      * @return maxSpeed
      */
@@ -136,17 +167,32 @@ public class RoadLink implements Locatable, Identifiable
         this.name = name;
     }
 
+    /**
+     * @return index in the routing graph and the travel time profile, or -1 when the link has not been indexed
+     */
+    public int getIndex()
+    {
+        return this.index;
+    }
+
+    /**
+     * @param index set index in the routing graph and the travel time profile
+     */
+    void setIndex(final int index)
+    {
+        this.index = index;
+    }
+
     @Override
     public Point<?> getLocation()
     {
-        return new Point2d(Math.min(this.nodeFrom.getX(), this.nodeTo.getX()),
-                Math.min(this.nodeFrom.getY(), this.nodeTo.getY()));
+        return this.location;
     }
 
     @Override
     public Bounds<?, ?> getRelativeBounds()
     {
-        return new Bounds2d(0.0, Math.abs(this.dx), 0.0, Math.abs(this.dy));
+        return this.relativeBounds;
     }
 
     @Override
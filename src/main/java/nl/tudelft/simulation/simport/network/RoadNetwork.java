@@ -3,10 +3,13 @@ package nl.tudelft.simulation.simport.network;
 import java.awt.geom.Path2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
+import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -30,6 +33,7 @@ import nl.tudelft.simulation.dsol.animation.gis.map.Feature;
 import nl.tudelft.simulation.dsol.animation.gis.map.Layer;
 import nl.tudelft.simulation.dsol.simulators.AnimatorInterface;
 import nl.tudelft.simulation.dsol.simulators.clock.ClockDevsSimulatorInterface;
+import nl.tudelft.simulation.dsol.simulators.clock.ClockTime;
 import nl.tudelft.simulation.simport.animation.CentroidAnimation;
 import nl.tudelft.simulation.simport.animation.LinkAnimation;
 import nl.tudelft.simulation.simport.animation.NodeAnimation;
@@ -79,6 +83,51 @@ public class RoadNetwork
     /** The centroids that are considered to be vertices into or from farther destinations. */
     private final Set<Centroid> farCentroids = new LinkedHashSet<>();
 
+    /** The maximum speed of a truck on the network. */
+    private static final Speed TRUCK_MAX_SPEED = new Speed(80.0, SpeedUnit.KM_PER_HOUR);
+
+    /** The speed on the straight-line connector between a centroid and the closest node on the network. */
+    private static final Speed CONNECTOR_SPEED = new Speed(30.0, SpeedUnit.KM_PER_HOUR);
+
+    /** The routing graph, built by buildTravelTimeMatrix(). */
+    private RoadGraph roadGraph;
+
+    /** The centroid-to-centroid travel times and distances, built by buildTravelTimeMatrix(). */
+    private TravelTimeMatrix travelTimeMatrix;
+
+    /** The route modification count when the travel time matrix was built (it can still be null when there are no links). */
+    private int travelTimeMatrixModificationCount = -1;
+
+    /** The time-dependent travel time factors of the links, or null when travel times are free-flow. */
+    private TravelTimeProfile travelTimeProfile;
+
+    /** The vertices of the fastest paths between centroids that have been calculated, per origin and destination. */
+    private final Map<Centroid, Map<Centroid, int[]>> pathCache = new HashMap<>();
+
+    /** The route polylines between centroids that have been calculated for the animation, per origin and destination. */
+    private final Map<Centroid, Map<Centroid, RoutePolyline>> routeCache = new HashMap<>();
+
+    /** The work arrays {time, distance} for the route searches, allocated on the first search. */
+    private double[][] routeWork;
+
+    /** The predecessor work array for the route searches. */
+    private int[] routePred;
+
+    /** The heap for the route searches. */
+    private RoadGraph.IndexedMinHeap routeHeap;
+
+    /** The spatial index over the links, detectors, centroids and centroid areas, built on first use. */
+    private SpatialIndex spatialIndex;
+
+    /** The number of changes to the links, detectors, centroids and centroid areas; the spatial index uses it. */
+    private int modificationCount = 0;
+
+    /** The modification count when the spatial index was built. */
+    private int spatialIndexModificationCount = -1;
+
+    /** The number of changes to the links, turns and centroids; the travel time matrix uses it. */
+    private int routeModificationCount = 0;
+
     /**
      *
      */
@@ -138,11 +187,10 @@ public class RoadNetwork
         {
             var shpReader = new ShapeFileReader(linksUrl, new CoordinateTransformRdNewToWgs84(0.0, 0.0), features);
             var dbfReader = new DbfReader(new URL(linksUrl.toString().replace(".shp", ".dbf")));
-            List<String> colNames = List.of(dbfReader.getColumnNames());
-            int idCol = colNames.indexOf("id");
-            int nameCol = colNames.indexOf("name");
-            int nrLanesCol = colNames.indexOf("nblanesatt");
-            int speedCol = colNames.indexOf("speedatt");
+            int idCol = dbfReader.getColumnIndex("id");
+            int nameCol = dbfReader.getColumnIndex("name");
+            int nrLanesCol = dbfReader.getColumnIndex("nblanesatt");
+            int speedCol = dbfReader.getColumnIndex("speedatt");
             shpReader.readAllShapes(feature);
             for (int i = 0; i < feature.getNumShapes(); i++)
             {
@@ -158,12 +206,14 @@ public class RoadNetwork
                     nodeTo = this.roadNodeMap.get(nodeTo);
                 else
                     this.roadNodeMap.put(nodeTo, nodeTo);
-                String[] rec = dbfReader.getRow(i);
-                RoadLink link = new RoadLink(rec[idCol].strip(), nodeFrom, nodeTo);
-                link.setName(rec[nameCol].strip());
-                link.setMaxSpeed(new Speed(Double.parseDouble(rec[speedCol].strip()), SpeedUnit.KM_PER_HOUR));
-                link.setNrLanes(Integer.parseInt(rec[nrLanesCol].strip()));
-                this.roadLinkMap.put(link.getId(), link);
+                Throw.when(!dbfReader.next(), SimPortRuntimeException.class,
+                        "%s has %d shapes, but only %d records in the dbf file", linksUrl, feature.getNumShapes(), i);
+                RoadLink link = new RoadLink(dbfReader.getString(idCol), nodeFrom, nodeTo);
+                link.setLength(Length.ofSI(pathLengthSI(path)));
+                link.setName(dbfReader.getString(nameCol));
+                link.setMaxSpeed(new Speed(dbfReader.getDouble(speedCol), SpeedUnit.KM_PER_HOUR));
+                link.setNrLanes(dbfReader.getInt(nrLanesCol));
+                addRoadLink(link);
                 if (animate)
                     new LinkAnimation(link, simulator);
             }
@@ -207,10 +257,12 @@ public class RoadNetwork
                 else
                     this.roadNodeMap.put(nodeTo, nodeTo);
                 RoadTurn turn = new RoadTurn(nodeFrom, nodeTo);
+                turn.setLength(Length.ofSI(pathLengthSI(path)));
                 this.turnList.add(turn);
                 if (animate)
                     new TurnAnimation(turn, simulator);
             }
+            this.routeModificationCount++;
         }
         catch (Exception e)
         {
@@ -236,21 +288,21 @@ public class RoadNetwork
         {
             var shpReader = new ShapeFileReader(centroidsUrl, new CoordinateTransformRdNewToWgs84(0.0, 0.0), features);
             var dbfReader = new DbfReader(new URL(centroidsUrl.toString().replace(".shp", ".dbf")));
-            List<String> colNames = List.of(dbfReader.getColumnNames());
-            int idCol = colNames.indexOf("id");
-            int nameCol = colNames.indexOf("name");
-            int eidCol = colNames.indexOf("eid");
-            int typeCol = colNames.indexOf("type");
+            int idCol = dbfReader.getColumnIndex("id");
+            int nameCol = dbfReader.getColumnIndex("name");
+            int eidCol = dbfReader.getColumnIndex("eid");
+            int typeCol = dbfReader.getColumnIndex("type");
             shpReader.readAllShapes(feature);
             for (int i = 0; i < feature.getNumPoints(); i++)
             {
                 Point2D p = feature.getPoint(i);
-                String[] rec = dbfReader.getRow(i);
-                Centroid centroid = new Centroid(rec[idCol].strip(), p.getX(), p.getY());
-                centroid.setName(rec[nameCol].strip());
-                centroid.setEid(rec[eidCol].strip());
-                centroid.setType(rec[typeCol].strip());
-                this.centroidMap.put(centroid.getEid(), centroid);
+                Throw.when(!dbfReader.next(), SimPortRuntimeException.class,
+                        "%s has %d points, but only %d records in the dbf file", centroidsUrl, feature.getNumPoints(), i);
+                Centroid centroid = new Centroid(dbfReader.getString(idCol), p.getX(), p.getY());
+                centroid.setName(dbfReader.getString(nameCol));
+                centroid.setEid(dbfReader.getString(eidCol));
+                centroid.setType(dbfReader.getString(typeCol));
+                addCentroid(centroid.getEid(), centroid);
                 if (animate)
                     new CentroidAnimation(centroid, simulator);
             }
@@ -259,6 +311,8 @@ public class RoadNetwork
         {
             throw new SimPortRuntimeException(e);
         }
+        // the centroids are read after the nodes, sections and turns, so the network is complete
+        ensureTravelTimeMatrix();
     }
 
     public void readOd(final Path csvPath)
@@ -266,7 +320,8 @@ public class RoadNetwork
         try
         {
             this.odMatrix = OdMatrix.fromCsv(csvPath, ',', StandardCharsets.UTF_8, false, true, true);
-            CategoryLogger.always().info("OD matrix read. In total {} rows and columns", this.odMatrix.getValues().length);
+            CategoryLogger.always().info("OD matrix read. In total {} rows and {} columns", this.odMatrix.getNrOrigins(),
+                    this.odMatrix.getNrDestinations());
         }
         catch (Exception e)
         {
@@ -274,6 +329,75 @@ public class RoadNetwork
         }
     }
 
+    /**
+     * Read the nodes, sections, turns, centroids and O/D matrix, using a binary snapshot of the network when it is available
+     * and was made from the same source files. When there is no valid snapshot, the network is read from the source files, and
+     * the snapshot is written for the next run. The snapshot is invalidated by a change in the contents of any of the source
+     * files (including the dbf files with the attributes of the sections and centroids).
+     * @param nodesUrl the location of the nodes file
+     * @param linksUrl the location of the sections file
+     * @param turnsUrl the location of the turns file
+     * @param centroidsUrl the location of the centroids file
+     * @param odPath the location of the O/D file
+     * @param snapshotPath the location of the snapshot file
+     */
+    public void readNetwork(final URL nodesUrl, final URL linksUrl, final URL turnsUrl, final URL centroidsUrl,
+            final Path odPath, final Path snapshotPath)
+    {
+        long start = System.nanoTime();
+        byte[] hash;
+        try
+        {
+            hash = NetworkSnapshot.contentHash(nodesUrl, linksUrl, new URL(linksUrl.toString().replace(".shp", ".dbf")),
+                    turnsUrl, centroidsUrl, new URL(centroidsUrl.toString().replace(".shp", ".dbf")), odPath.toUri().toURL());
+        }
+        catch (IOException e)
+        {
+            throw new SimPortRuntimeException(e);
+        }
+        if (NetworkSnapshot.read(this, snapshotPath, hash))
+        {
+            animateNetwork();
+            ensureTravelTimeMatrix();
+            CategoryLogger.always().info("Network read from snapshot {} in {} ms (warm start)", snapshotPath,
+                    (System.nanoTime() - start) / 1_000_000L);
+            return;
+        }
+        readNodes(nodesUrl);
+        readSections(linksUrl);
+        readTurns(turnsUrl);
+        readCentroids(centroidsUrl);
+        readOd(odPath);
+        CategoryLogger.always().info("Network read from source files in {} ms (cold start)",
+                (System.nanoTime() - start) / 1_000_000L);
+        try
+        {
+            NetworkSnapshot.write(this, snapshotPath, hash);
+        }
+        catch (IOException e)
+        {
+            CategoryLogger.always().warn("Network snapshot {} could not be written: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Create the animation for the nodes, links, turns and centroids of a network that has been read from a snapshot.
+     */
+    protected void animateNetwork()
+    {
+        if (!(getSimulator() instanceof AnimatorInterface))
+            return;
+        var simulator = getSimulator();
+        for (Node node : this.nodeList)
+            new NodeAnimation(node, simulator);
+        for (RoadLink link : this.roadLinkMap.values())
+            new LinkAnimation(link, simulator);
+        for (RoadTurn turn : this.turnList)
+            new TurnAnimation(turn, simulator);
+        for (Centroid centroid : this.centroidMap.values())
+            new CentroidAnimation(centroid, simulator);
+    }
+
     public void setFarCentroids(final String fc)
     {
         for (String cs : fc.split(","))
@@ -296,16 +420,28 @@ public class RoadNetwork
         return d * Math.PI / 180.0f;
     }
 
-    public static Length haversine(final double lat1, final double lng1, final double lat2, final double lng2)
+    /**
+     * Return the great-circle distance between two points in meters, without creating objects.
+     * @param lat1 latitude of the first point in degrees
+     * @param lng1 longitude of the first point in degrees
+     * @param lat2 latitude of the second point in degrees
+     * @param lng2 longitude of the second point in degrees
+     * @return the distance in meters
+     */
+    public static double haversineSI(final double lat1, final double lng1, final double lat2, final double lng2)
     {
         double radLat1 = rad(lat1);
         double radLat2 = rad(lat2);
         double a = radLat1 - radLat2;
         double b = rad(lng1) - rad(lng2);
-        double s = 2.0f * Math.asin(Math.sqrt(
-                Math.pow(Math.sin(a / 2.0f), 2) + Math.cos(radLat1) * Math.cos(radLat2) * Math.pow(Math.sin(b / 2.0f), 2)));
-        s = s * EARTH_RADIUS_M;
-        return new Length(s, LengthUnit.METER);
+        double sinA = Math.sin(a / 2.0);
+        double sinB = Math.sin(b / 2.0);
+        return 2.0 * Math.asin(Math.sqrt(sinA * sinA + Math.cos(radLat1) * Math.cos(radLat2) * sinB * sinB)) * EARTH_RADIUS_M;
+    }
+
+    public static Length haversine(final double lat1, final double lng1, final double lat2, final double lng2)
+    {
+        return new Length(haversineSI(lat1, lng1, lat2, lng2), LengthUnit.METER);
     }
 
     public static Length haversine(final Point<?> p1, final Point<?> p2)
@@ -313,10 +449,220 @@ public class RoadNetwork
         return haversine(p1.getY(), p1.getX(), p2.getY(), p2.getX());
     }
 
+    /**
+     * Build the routing graph from the links and turns, and calculate the free-flow travel times and route lengths between all
+     * centroids. readCentroids() and readNetwork() call this method when the network has been read, so the first truck does
+     * not pay for it during the simulation. When links, turns or centroids change afterwards, the matrix is built again on the
+     * next request for a driving time, distance or route. The cached routes are cleared.
+     */
+    public void buildTravelTimeMatrix()
+    {
+        this.travelTimeMatrixModificationCount = this.routeModificationCount;
+        this.roadGraph = null;
+        this.travelTimeMatrix = null;
+        this.pathCache.clear();
+        this.routeCache.clear();
+        this.routeWork = null;
+        this.routePred = null;
+        this.routeHeap = null;
+        if (this.roadLinkMap.isEmpty() || this.centroidMap.isEmpty())
+        {
+            CategoryLogger.always().warn("No links or centroids in the network; driving times use straight-line distances");
+            return;
+        }
+        indexLinks();
+        this.roadGraph = new RoadGraph(this.roadNodeMap.keySet(), this.roadLinkMap.values(), this.turnList, TRUCK_MAX_SPEED.si);
+        this.travelTimeMatrix =
+                new TravelTimeMatrix(this.roadGraph, new ArrayList<>(this.centroidMap.values()), CONNECTOR_SPEED.si);
+    }
+
+    /**
+     * Build the travel time matrix when it has not been built yet, or when links, turns or centroids have been added, replaced
+     * or removed since it was built.
+     */
+    private void ensureTravelTimeMatrix()
+    {
+        if (this.travelTimeMatrixModificationCount != this.routeModificationCount)
+            buildTravelTimeMatrix();
+    }
+
+    /**
+     * Return the free-flow driving time between two centroids over the road network. When the centroids cannot be connected
+     * over the network, the straight-line distance is driven with the given speed.
+     * @param from the origin centroid
+     * @param to the destination centroid
+     * @param speed the average speed to use over the straight-line distance when there is no route
+     * @return the driving time between the centroids
+     */
     public Duration drivingTime(final Centroid from, final Centroid to, final Speed speed)
     {
-        Length distance = haversine(from.getLocation(), to.getLocation());
-        return distance.divide(speed);
+        ensureTravelTimeMatrix();
+        if (this.travelTimeMatrix != null)
+        {
+            double t = this.travelTimeMatrix.getTimeSI(from, to);
+            if (!Double.isNaN(t))
+                return Duration.ofSI(t);
+        }
+        return Duration.ofSI(haversineSI(from.getY(), from.getX(), to.getY(), to.getX()) / speed.si);
+    }
+
+    /**
+     * Return the length of the fastest route between two centroids over the road network. When the centroids cannot be
+     * connected over the network, the straight-line distance is returned.
+     * @param from the origin centroid
+     * @param to the destination centroid
+     * @return the length of the route between the centroids
+     */
+    public Length drivingDistance(final Centroid from, final Centroid to)
+    {
+        ensureTravelTimeMatrix();
+        if (this.travelTimeMatrix != null)
+        {
+            double d = this.travelTimeMatrix.getDistanceSI(from, to);
+            if (!Double.isNaN(d))
+                return Length.ofSI(d);
+        }
+        return Length.ofSI(haversineSI(from.getY(), from.getX(), to.getY(), to.getX()));
+    }
+
+    /**
+     * Return the polyline of the fastest route between two centroids over the road network, for the animation of the trucks.
+     * The route runs over a straight-line connector from the origin centroid to the closest node of the network, over the
+     * nodes of the fastest path, and over a straight-line connector to the destination centroid. When the centroids cannot be
+     * connected over the network, the route is a straight line. Routes are calculated once per pair of centroids.
+     * @param from the origin centroid
+     * @param to the destination centroid
+     * @return the polyline of the route between the centroids
+     */
+    public RoutePolyline getRoute(final Centroid from, final Centroid to)
+    {
+        ensureTravelTimeMatrix();
+        return this.routeCache.computeIfAbsent(from, c -> new HashMap<>()).computeIfAbsent(to, c -> calculateRoute(from, to));
+    }
+
+    /**
+     * Calculate the polyline of the fastest route between two centroids.
+     * @param from the origin centroid
+     * @param to the destination centroid
+     * @return the polyline of the route between the centroids
+     */
+    private RoutePolyline calculateRoute(final Centroid from, final Centroid to)
+    {
+        int[] path = getFastestPath(from, to);
+        if (path == null)
+            return RoutePolyline.straight(from.getX(), from.getY(), to.getX(), to.getY());
+        double[] x = new double[path.length + 2];
+        double[] y = new double[path.length + 2];
+        x[0] = from.getX();
+        y[0] = from.getY();
+        for (int i = 0; i < path.length; i++)
+        {
+            x[i + 1] = this.roadGraph.getNodeX(path[i]);
+            y[i + 1] = this.roadGraph.getNodeY(path[i]);
+        }
+        x[path.length + 1] = to.getX();
+        y[path.length + 1] = to.getY();
+        return new RoutePolyline(x, y);
+    }
+
+    /**
+     * Return the vertices of the fastest path over the routing graph between the closest nodes of two centroids. Paths are
+     * calculated once per pair of centroids.
+     * @param from the origin centroid
+     * @param to the destination centroid
+     * @return the vertices of the fastest path, or null when the centroids cannot be connected over the network
+     */
+    private int[] getFastestPath(final Centroid from, final Centroid to)
+    {
+        // build before the lookup, since building the matrix clears the path cache
+        ensureTravelTimeMatrix();
+        int[] path = this.pathCache.computeIfAbsent(from, c -> new HashMap<>()).computeIfAbsent(to,
+                c -> calculateFastestPath(from, to));
+        return path.length == 0 ? null : path;
+    }
+
+    /**
+     * Calculate the vertices of the fastest path between the closest nodes of two centroids.
+     * @param from the origin centroid
+     * @param to the destination centroid
+     * @return the vertices of the fastest path, or an empty array when the centroids cannot be connected over the network
+     */
+    private int[] calculateFastestPath(final Centroid from, final Centroid to)
+    {
+        RoadGraph graph = this.roadGraph;
+        int source = graph == null ? -1 : graph.nearestNode(from.getX(), from.getY(), true);
+        int target = graph == null ? -1 : graph.nearestNode(to.getX(), to.getY(), false);
+        if (source < 0 || target < 0)
+            return new int[0];
+        if (this.routeHeap == null)
+        {
+            int n = graph.getNrNodes();
+            this.routeWork = new double[2][n];
+            this.routePred = new int[n];
+            this.routeHeap = new RoadGraph.IndexedMinHeap(n);
+        }
+        int[] path = graph.fastestPath(source, target, this.routeWork[0], this.routeWork[1], this.routePred, this.routeHeap);
+        return path == null ? new int[0] : path;
+    }
+
+    /**
+     * Return the factor by which the free-flow driving time between two centroids has to be multiplied for a departure at the
+     * given time. The factor is found by driving along the fastest route, where the time on every link is its free-flow time
+     * multiplied by the factor of the travel time profile at the moment the truck enters the link. The connectors between the
+     * centroids and the network are driven at free-flow speed.
+     * @param from the origin centroid
+     * @param to the destination centroid
+     * @param departureTime the departure time
+     * @return the travel time factor for the trip; 1 when there is no travel time profile, or no route over the network
+     */
+    public double travelTimeFactor(final Centroid from, final Centroid to, final ClockTime departureTime)
+    {
+        if (this.travelTimeProfile == null)
+            return 1.0;
+        int[] path = getFastestPath(from, to);
+        if (path == null)
+            return 1.0;
+        RoadGraph graph = this.roadGraph;
+        int first = path[0];
+        int last = path[path.length - 1];
+        double originConnectorTime =
+                haversineSI(from.getY(), from.getX(), graph.getNodeY(first), graph.getNodeX(first)) / CONNECTOR_SPEED.si;
+        double destConnectorTime =
+                haversineSI(graph.getNodeY(last), graph.getNodeX(last), to.getY(), to.getX()) / CONNECTOR_SPEED.si;
+        double freeFlowTime = originConnectorTime + destConnectorTime;
+        double actualTime = freeFlowTime;
+        double t = departureTime.si + originConnectorTime;
+        for (int i = 1; i < path.length; i++)
+        {
+            int e = graph.findEdge(path[i - 1], path[i]);
+            double dt = graph.getEdgeTime(e);
+            double dtActual = dt * this.travelTimeProfile.travelTimeFactor(graph.getEdgeLink(e), t);
+            freeFlowTime += dt;
+            actualTime += dtActual;
+            t += dtActual;
+        }
+        return freeFlowTime > 0.0 ? actualTime / freeFlowTime : 1.0;
+    }
+
+    /**
+     * Read the time-dependent travel time factors of the links from a profile file.
+     * @param profilePath the location of the travel time profile file
+     */
+    public void readTravelTimeProfile(final Path profilePath)
+    {
+        this.travelTimeProfile = TravelTimeProfile.read(this, profilePath);
+    }
+
+    /**
+     * Give every link the index of its position in the link map, for the routing graph and the travel time profile.
+     * @return the number of links
+     */
+    int indexLinks()
+    {
+        int i = 0;
+        for (RoadLink link : this.roadLinkMap.values())
+            link.setIndex(i++);
+        return i;
     }
 
     ///////////////////////////////////////// HELPER METHODS ////////////////////////////////////
@@ -424,6 +770,34 @@ public class RoadNetwork
         return Optional.of(new Point2D[] {firstPoint, lastPoint});
     }
 
+    /**
+     * Return the length of a polyline path in meters, where the coordinates are in WGS84 (x = longitude, y = latitude).
+     * @param path the path
+     * @return the length of the path in meters
+     */
+    public static double pathLengthSI(final Path2D path)
+    {
+        PathIterator it = path.getPathIterator(null);
+        double[] c = new double[6];
+        double length = 0.0;
+        double prevX = 0.0, prevY = 0.0;
+        boolean first = true;
+        while (!it.isDone())
+        {
+            int seg = it.currentSegment(c);
+            if (seg == PathIterator.SEG_LINETO && !first)
+                length += haversineSI(prevY, prevX, c[1], c[0]);
+            if (seg == PathIterator.SEG_MOVETO || seg == PathIterator.SEG_LINETO)
+            {
+                prevX = c[0];
+                prevY = c[1];
+                first = false;
+            }
+            it.next();
+        }
+        return length;
+    }
+
     // Convenience helpers if you only need one side
     public static Optional<Point2D> getFirstPoint(final Path2D path)
     {
@@ -470,15 +844,42 @@ public class RoadNetwork
     }
 
     /**
-     * @return roadLinkMap
+     * @return an unmodifiable view of roadLinkMap; use addRoadLink() and removeRoadLink() to change the links
      */
     public Map<String, RoadLink> getRoadLinkMap()
     {
-        return this.roadLinkMap;
+        return Collections.unmodifiableMap(this.roadLinkMap);
     }
 
     /**
-     * @return turnList
+     * Add a link to the network, or replace the link with the same id.
+     * @param link the link
+     */
+    public void addRoadLink(final RoadLink link)
+    {
+        this.roadLinkMap.put(link.getId(), link);
+        this.modificationCount++;
+        this.routeModificationCount++;
+    }
+
+    /**
+     * Remove a link from the network.
+     * @param link the link
+     * @return whether the network contained the link
+     */
+    public boolean removeRoadLink(final RoadLink link)
+    {
+        boolean removed = this.roadLinkMap.remove(link.getId(), link);
+        if (removed)
+        {
+            this.modificationCount++;
+            this.routeModificationCount++;
+        }
+        return removed;
+    }
+
+    /**
+     * @return turnList; turns that are added to the list directly are used when the travel time matrix is built again
      */
     public List<RoadTurn> getTurnList()
     {
@@ -486,11 +887,39 @@ public class RoadNetwork
     }
 
     /**
-     * @return centroidMap
+     * @return an unmodifiable view of centroidMap; use addCentroid() and removeCentroid() to change the centroids
      */
     public Map<String, Centroid> getCentroidMap()
     {
-        return this.centroidMap;
+        return Collections.unmodifiableMap(this.centroidMap);
+    }
+
+    /**
+     * Add a centroid to the network, or replace the centroid with the same id.
+     * @param id the id to find the centroid with getCentroid(); the eid for the centroids of the shape file
+     * @param centroid the centroid
+     */
+    public void addCentroid(final String id, final Centroid centroid)
+    {
+        this.centroidMap.put(id, centroid);
+        this.modificationCount++;
+        this.routeModificationCount++;
+    }
+
+    /**
+     * Remove a centroid from the network.
+     * @param id the id of the centroid in the network
+     * @return the centroid that was removed, or null when the network has no centroid with the id
+     */
+    public Centroid removeCentroid(final String id)
+    {
+        Centroid removed = this.centroidMap.remove(id);
+        if (removed != null)
+        {
+            this.modificationCount++;
+            this.routeModificationCount++;
+        }
+        return removed;
     }
 
     /**
@@ -503,19 +932,81 @@ public class RoadNetwork
     }
 
     /**
-     * @return detectorList
+     * @return an unmodifiable view of detectorList; use addDetector() and removeDetector() to change the detectors
      */
     public List<Detector> getDetectorList()
     {
-        return this.detectorList;
+        return Collections.unmodifiableList(this.detectorList);
     }
 
     /**
-     * @return centroidAreaList
+     * Add a detector to the network.
+     * @param detector the detector
+     */
+    public void addDetector(final Detector detector)
+    {
+        this.detectorList.add(detector);
+        this.modificationCount++;
+    }
+
+    /**
+     * Remove a detector from the network.
+     * @param detector the detector
+     * @return whether the network contained the detector
+     */
+    public boolean removeDetector(final Detector detector)
+    {
+        boolean removed = this.detectorList.remove(detector);
+        if (removed)
+            this.modificationCount++;
+        return removed;
+    }
+
+    /**
+     * @return an unmodifiable view of centroidAreaList; use addCentroidArea() and removeCentroidArea() to change the areas
      */
     public List<CentroidArea> getCentroidAreaList()
     {
-        return this.centroidAreaList;
+        return Collections.unmodifiableList(this.centroidAreaList);
+    }
+
+    /**
+     * Add a centroid area to the network.
+     * @param area the centroid area
+     */
+    public void addCentroidArea(final CentroidArea area)
+    {
+        this.centroidAreaList.add(area);
+        this.modificationCount++;
+    }
+
+    /**
+     * Remove a centroid area from the network.
+     * @param area the centroid area
+     * @return whether the network contained the area
+     */
+    public boolean removeCentroidArea(final CentroidArea area)
+    {
+        boolean removed = this.centroidAreaList.remove(area);
+        if (removed)
+            this.modificationCount++;
+        return removed;
+    }
+
+    /**
+     * Return the spatial index over the links, detectors, centroids and centroid areas of the network. The index is built on
+     * first use, and built again when links, detectors, centroids or centroid areas have been added, replaced or removed
+     * since the last call.
+     * @return the spatial index of the network
+     */
+    public SpatialIndex getSpatialIndex()
+    {
+        if (this.spatialIndex == null || this.spatialIndexModificationCount != this.modificationCount)
+        {
+            this.spatialIndex = new SpatialIndex(this);
+            this.spatialIndexModificationCount = this.modificationCount;
+        }
+        return this.spatialIndex;
     }
 
     /**
@@ -526,6 +1017,46 @@ public class RoadNetwork
         return this.odMatrix;
     }
 
+    /**
+     * @param odMatrix set odMatrix, e.g., when the network is read from a snapshot
+     */
+    void setOdMatrix(final OdMatrix odMatrix)
+    {
+        this.odMatrix = odMatrix;
+    }
+
+    /**
+     * @return the routing graph, or null when the travel time matrix has not (yet) been built
+     */
+    public RoadGraph getRoadGraph()
+    {
+        return this.roadGraph;
+    }
+
+    /**
+     * @return the time-dependent travel time factors of the links, or null when travel times are free-flow
+     */
+    public TravelTimeProfile getTravelTimeProfile()
+    {
+        return this.travelTimeProfile;
+    }
+
+    /**
+     * @param travelTimeProfile set the time-dependent travel time factors of the links; null for free-flow travel times
+     */
+    public void setTravelTimeProfile(final TravelTimeProfile travelTimeProfile)
+    {
+        this.travelTimeProfile = travelTimeProfile;
+    }
+
+    /**
+     * @return the travel time matrix, or null when it has not (yet) been built
+     */
+    public TravelTimeMatrix getTravelTimeMatrix()
+    {
+        return this.travelTimeMatrix;
+    }
+
     /**
      * @return farCentroids
      */
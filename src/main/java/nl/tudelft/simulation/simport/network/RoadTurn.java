@@ -1,6 +1,7 @@
 package nl.tudelft.simulation.simport.network;
 
 import org.djunits.unit.SpeedUnit;
+import org.djunits.value.vdouble.scalar.Length;
 import org.djunits.value.vdouble.scalar.Speed;
 import org.djutils.draw.bounds.Bounds;
 import org.djutils.draw.bounds.Bounds2d;
@@ -27,6 +28,8 @@ public class RoadTurn implements Locatable
 
     private final double dy;
 
+    private Length length;
+
     private Speed maxSpeed = new Speed(20.0, SpeedUnit.KM_PER_HOUR);
 
     private int nrLanes = 1;
@@ -40,6 +43,7 @@ public class RoadTurn implements Locatable
         this.nodeTo = nodeTo;
         this.dx = nodeTo.getX() - nodeFrom.getX();
         this.dy = nodeTo.getY() - nodeFrom.getY();
+        this.length = Length.ofSI(RoadNetwork.haversineSI(nodeFrom.getY(), nodeFrom.getX(), nodeTo.getY(), nodeTo.getX()));
     }
 
     /**
@@ -74,6 +78,22 @@ public class RoadTurn implements Locatable
         return this.dy;
     }
 
+    /**
+     * @return length; the straight-line length between the nodes unless set otherwise
+     */
+    public Length getLength()
+    {
+        return this.length;
+    }
+
+    /**
+     * @param length set length, e.g., the length of the polyline of the turn
+     */
+    public void setLength(final Length length)
+    {
+        this.length = length;
+    }
+
     /**
      * @return maxSpeed
      */
@@ -0,0 +1,151 @@
+package nl.tudelft.simulation.simport.network;
+
+import org.djutils.exceptions.Throw;
+
+/**
+ * RoutePolyline is the polyline of a route between two centroids, with the cumulative length along the route at every point.
+ * The coordinates and cumulative lengths are interleaved in one array, so the data of a segment is close together in memory.
+ * The position at a fraction of the route is found with a binary search on the cumulative lengths, or with a short forward
+ * scan from the segment of the previous lookup, since an animated truck moves forward along its route. The position is
+ * written into an array that the caller provides, so looking up a position does not create objects.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class RoutePolyline
+{
+    /** the number of doubles per point: x, y, and cumulative length. */
+    private static final int STRIDE = 3;
+
+    /** the maximum number of segments to scan forward from the previous segment before a binary search is used. */
+    private static final int MAX_SCAN = 8;
+
+    /** the points: x (longitude), y (latitude), and the length in meters along the route from the first point. */
+    private final double[] points;
+
+    /** the number of points. */
+    private final int size;
+
+    /**
+     * Create a route polyline. The cumulative lengths are calculated with the great-circle distance between the points.
+     * @param x the x-coordinates (longitude) of the points
+     * @param y the y-coordinates (latitude) of the points
+     */
+    public RoutePolyline(final double[] x, final double[] y)
+    {
+        Throw.when(x.length != y.length, IllegalArgumentException.class, "number of x and y coordinates differ");
+        Throw.when(x.length < 2, IllegalArgumentException.class, "a route needs at least 2 points");
+        this.size = x.length;
+        this.points = new double[STRIDE * this.size];
+        double length = 0.0;
+        for (int i = 0; i < this.size; i++)
+        {
+            if (i > 0)
+                length += RoadNetwork.haversineSI(y[i - 1], x[i - 1], y[i], x[i]);
+            this.points[STRIDE * i] = x[i];
+            this.points[STRIDE * i + 1] = y[i];
+            this.points[STRIDE * i + 2] = length;
+        }
+    }
+
+    /**
+     * Create a straight route between two points.
+     * @param x0 the x-coordinate (longitude) of the start point
+     * @param y0 the y-coordinate (latitude) of the start point
+     * @param x1 the x-coordinate (longitude) of the end point
+     * @param y1 the y-coordinate (latitude) of the end point
+     * @return a route with two points
+     */
+    public static RoutePolyline straight(final double x0, final double y0, final double x1, final double y1)
+    {
+        return new RoutePolyline(new double[] {x0, x1}, new double[] {y0, y1});
+    }
+
+    /**
+     * Write the position at the given fraction of the length of the route into xy. Fractions outside [0, 1] are clamped to
+     * the start or end of the route.
+     * @param fraction the fraction of the length of the route
+     * @param segment the segment that was returned by the previous lookup on this route, as a starting point for the search;
+     *            0 when unknown
+     * @param xy an array of at least length 2 that will be filled with the x- and y-coordinate of the position
+     * @return the segment in which the position lies, to pass to the next lookup
+     */
+    public int locate(final double fraction, final int segment, final double[] xy)
+    {
+        int last = this.size - 1;
+        double length = this.points[STRIDE * last + 2];
+        if (!(fraction > 0.0) || length == 0.0)
+        {
+            xy[0] = this.points[0];
+            xy[1] = this.points[1];
+            return 0;
+        }
+        if (fraction >= 1.0)
+        {
+            xy[0] = this.points[STRIDE * last];
+            xy[1] = this.points[STRIDE * last + 1];
+            return last - 1;
+        }
+        double s = fraction * length;
+
+        // find segment i with cumulative(i) <= s < cumulative(i + 1)
+        int i = Math.max(0, Math.min(segment, last - 1));
+        if (this.points[STRIDE * i + 2] <= s)
+        {
+            int scanEnd = Math.min(last - 1, i + MAX_SCAN);
+            while (i < scanEnd && this.points[STRIDE * (i + 1) + 2] <= s)
+                i++;
+            if (this.points[STRIDE * (i + 1) + 2] <= s)
+                i = search(s, i + 1, last - 1);
+        }
+        else
+            i = search(s, 0, i - 1);
+
+        int p = STRIDE * i;
+        double f = (s - this.points[p + 2]) / (this.points[p + 5] - this.points[p + 2]);
+        xy[0] = this.points[p] + f * (this.points[p + 3] - this.points[p]);
+        xy[1] = this.points[p + 1] + f * (this.points[p + 4] - this.points[p + 1]);
+        return i;
+    }
+
+    /**
+     * Binary search for the last segment in [low, high] that starts at or before s.
+     * @param s the length along the route
+     * @param low the first segment to consider
+     * @param high the last segment to consider
+     * @return the last segment in [low, high] with a cumulative length at its start that is at most s
+     */
+    private int search(final double s, final int low, final int high)
+    {
+        int lo = low;
+        int hi = high;
+        while (lo < hi)
+        {
+            int mid = (lo + hi + 1) >>> 1;
+            if (this.points[STRIDE * mid + 2] <= s)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * @return the number of points of the route
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * @return the length of the route in meters
+     */
+    public double getLengthSI()
+    {
+        return this.points[STRIDE * (this.size - 1) + 2];
+    }
+
+}
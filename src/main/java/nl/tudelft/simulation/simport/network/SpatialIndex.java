@@ -0,0 +1,238 @@
+package nl.tudelft.simulation.simport.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SpatialIndex holds packed R-trees over the links, detectors, centroids and centroid areas of a road network, for map-matching
+ * of e.g. NDW measurement sites and for picking objects in the animation. The coordinates are WGS84; distances are calculated
+ * in meters with an equirectangular projection around the query point, which is accurate enough at the scale of a search
+ * radius of a few kilometers. The index is a snapshot: objects that are added to the network later are not in the index; use
+ * RoadNetwork.getSpatialIndex() to get an index that is rebuilt when links, detectors, centroids or areas have been added,
+ * replaced or removed.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class SpatialIndex
+{
+    /** the number of meters per degree of latitude. */
+    public static final double METERS_PER_DEGREE = 111_320.0;
+
+    /** the links. */
+    private final PackedRTree<RoadLink> links;
+
+    /** the detectors. */
+    private final PackedRTree<Detector> detectors;
+
+    /** the centroids. */
+    private final PackedRTree<Centroid> centroids;
+
+    /** the centroid areas. */
+    private final PackedRTree<CentroidArea> areas;
+
+    /**
+     * Build the index over the current links, detectors, centroids and centroid areas of a network.
+     * @param network the road network
+     */
+    public SpatialIndex(final RoadNetwork network)
+    {
+        List<RoadLink> linkList = new ArrayList<>(network.getRoadLinkMap().values());
+        int n = linkList.size();
+        double[] minX = new double[n];
+        double[] minY = new double[n];
+        double[] maxX = new double[n];
+        double[] maxY = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            RoadLink link = linkList.get(i);
+            minX[i] = Math.min(link.getNodeFrom().getX(), link.getNodeTo().getX());
+            minY[i] = Math.min(link.getNodeFrom().getY(), link.getNodeTo().getY());
+            maxX[i] = Math.max(link.getNodeFrom().getX(), link.getNodeTo().getX());
+            maxY[i] = Math.max(link.getNodeFrom().getY(), link.getNodeTo().getY());
+        }
+        this.links = new PackedRTree<>(linkList, minX, minY, maxX, maxY);
+        this.detectors = PackedRTree.ofPoints(network.getDetectorList(), Detector::getX, Detector::getY);
+        this.centroids =
+                PackedRTree.ofPoints(new ArrayList<>(network.getCentroidMap().values()), Centroid::getX, Centroid::getY);
+
+        List<CentroidArea> areaList = network.getCentroidAreaList();
+        int m = areaList.size();
+        double[] aMinX = new double[m];
+        double[] aMinY = new double[m];
+        double[] aMaxX = new double[m];
+        double[] aMaxY = new double[m];
+        for (int i = 0; i < m; i++)
+        {
+            CentroidArea area = areaList.get(i);
+            aMinX[i] = area.getMinX();
+            aMinY[i] = area.getMinY();
+            aMaxX[i] = area.getMaxX();
+            aMaxY[i] = area.getMaxY();
+        }
+        this.areas = new PackedRTree<>(areaList, aMinX, aMinY, aMaxX, aMaxY);
+    }
+
+    /**
+     * @param lat the latitude
+     * @return the number of meters per degree of longitude at the latitude
+     */
+    public static double metersPerDegreeLon(final double lat)
+    {
+        return Math.cos(Math.toRadians(lat)) * METERS_PER_DEGREE;
+    }
+
+    /**
+     * Return the distance between a point and a link in meters.
+     * @param link the link
+     * @param x the longitude of the point
+     * @param y the latitude of the point
+     * @return the distance between the point and the nearest point of the link in meters
+     */
+    public static double distanceSI(final RoadLink link, final double x, final double y)
+    {
+        return PackedRTree.segmentDistance(x, y, link.getNodeFrom().getX(), link.getNodeFrom().getY(), link.getNodeTo().getX(),
+                link.getNodeTo().getY(), metersPerDegreeLon(y), METERS_PER_DEGREE);
+    }
+
+    /**
+     * @param minX the minimum longitude
+     * @param minY the minimum latitude
+     * @param maxX the maximum longitude
+     * @param maxY the maximum latitude
+     * @return the links with a bounding box that intersects the box
+     */
+    public List<RoadLink> links(final double minX, final double minY, final double maxX, final double maxY)
+    {
+        return this.links.search(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * @param x the longitude of the point
+     * @param y the latitude of the point
+     * @param k the maximum number of links
+     * @param maxDistanceSI the maximum distance in meters
+     * @return the at most k nearest links within the maximum distance, nearest first
+     */
+    public List<RoadLink> nearestLinks(final double x, final double y, final int k, final double maxDistanceSI)
+    {
+        double xScale = metersPerDegreeLon(y);
+        return this.links.nearest(x, y, k, maxDistanceSI, xScale, METERS_PER_DEGREE,
+                (link, px, py) -> PackedRTree.segmentDistance(px, py, link.getNodeFrom().getX(), link.getNodeFrom().getY(),
+                        link.getNodeTo().getX(), link.getNodeTo().getY(), xScale, METERS_PER_DEGREE));
+    }
+
+    /**
+     * @param x the longitude of the point
+     * @param y the latitude of the point
+     * @param maxDistanceSI the maximum distance in meters
+     * @return the nearest link within the maximum distance, or null when there is no link within the maximum distance
+     */
+    public RoadLink nearestLink(final double x, final double y, final double maxDistanceSI)
+    {
+        List<RoadLink> nearest = nearestLinks(x, y, 1, maxDistanceSI);
+        return nearest.isEmpty() ? null : nearest.get(0);
+    }
+
+    /**
+     * @param minX the minimum longitude
+     * @param minY the minimum latitude
+     * @param maxX the maximum longitude
+     * @param maxY the maximum latitude
+     * @return the detectors in the box
+     */
+    public List<Detector> detectors(final double minX, final double minY, final double maxX, final double maxY)
+    {
+        return this.detectors.search(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * @param x the longitude of the point
+     * @param y the latitude of the point
+     * @param k the maximum number of detectors
+     * @param maxDistanceSI the maximum distance in meters
+     * @return the at most k nearest detectors within the maximum distance, nearest first
+     */
+    public List<Detector> nearestDetectors(final double x, final double y, final int k, final double maxDistanceSI)
+    {
+        return this.detectors.nearest(x, y, k, maxDistanceSI, metersPerDegreeLon(y), METERS_PER_DEGREE);
+    }
+
+    /**
+     * @param minX the minimum longitude
+     * @param minY the minimum latitude
+     * @param maxX the maximum longitude
+     * @param maxY the maximum latitude
+     * @return the centroids in the box
+     */
+    public List<Centroid> centroids(final double minX, final double minY, final double maxX, final double maxY)
+    {
+        return this.centroids.search(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * @param x the longitude of the point
+     * @param y the latitude of the point
+     * @param k the maximum number of centroids
+     * @param maxDistanceSI the maximum distance in meters
+     * @return the at most k nearest centroids within the maximum distance, nearest first
+     */
+    public List<Centroid> nearestCentroids(final double x, final double y, final int k, final double maxDistanceSI)
+    {
+        return this.centroids.nearest(x, y, k, maxDistanceSI, metersPerDegreeLon(y), METERS_PER_DEGREE);
+    }
+
+    /**
+     * Return the centroid area in which a point lies. When areas overlap, the first area in the list of the network is
+     * returned.
+     * @param x the longitude of the point
+     * @param y the latitude of the point
+     * @return the centroid area in which the point lies, or null when the point lies outside all areas
+     */
+    public CentroidArea centroidArea(final double x, final double y)
+    {
+        List<CentroidArea> areaList = this.areas.getItems();
+        int[] first = {Integer.MAX_VALUE};
+        this.areas.searchIndexes(x, y, x, y, i ->
+        {
+            if (i < first[0] && areaList.get(i).contains(x, y))
+                first[0] = i;
+        });
+        return first[0] == Integer.MAX_VALUE ? null : areaList.get(first[0]);
+    }
+
+    /**
+     * @return the tree over the links
+     */
+    public PackedRTree<RoadLink> getLinkTree()
+    {
+        return this.links;
+    }
+
+    /**
+     * @return the tree over the detectors
+     */
+    public PackedRTree<Detector> getDetectorTree()
+    {
+        return this.detectors;
+    }
+
+    /**
+     * @return the tree over the centroids
+     */
+    public PackedRTree<Centroid> getCentroidTree()
+    {
+        return this.centroids;
+    }
+
+    /**
+     * @return the tree over the centroid areas
+     */
+    public PackedRTree<CentroidArea> getCentroidAreaTree()
+    {
+        return this.areas;
+    }
+
+}
@@ -0,0 +1,124 @@
+package nl.tudelft.simulation.simport.network;
+
+import java.util.List;
+
+import org.djutils.logger.CategoryLogger;
+
+/**
+ * TravelTimeMatrix contains the free-flow travel times and the route lengths between all pairs of centroids, calculated once
+ * with a many-to-many Dijkstra search on the RoadGraph. Centroids are connected to the closest node in the graph with an
+ * outgoing edge (as origin) or with an incoming edge (as destination), using a straight-line connector. The matrix is indexed
+ * by {@link Centroid#getIndex()}; pairs that cannot be connected over the network contain NaN.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class TravelTimeMatrix
+{
+    /** the travel times in seconds, indexed as [origin][destination]. */
+    private final float[][] time;
+
+    /** the route lengths in meters, indexed as [origin][destination]. */
+    private final float[][] distance;
+
+    /**
+     * Calculate the travel time matrix for the given centroids. The index of each centroid is set to its position in the list.
+     * @param graph the routing graph
+     * @param centroids the centroids for which to calculate the matrix
+     * @param connectorSpeedSI the speed in m/s on the straight-line connector between a centroid and the network
+     */
+    public TravelTimeMatrix(final RoadGraph graph, final List<Centroid> centroids, final double connectorSpeedSI)
+    {
+        int k = centroids.size();
+        this.time = new float[k][k];
+        this.distance = new float[k][k];
+
+        // connect the centroids to the network
+        int[] originNode = new int[k];
+        int[] destNode = new int[k];
+        double[] originConnector = new double[k];
+        double[] destConnector = new double[k];
+        for (int i = 0; i < k; i++)
+        {
+            Centroid c = centroids.get(i);
+            c.setIndex(i);
+            originNode[i] = graph.nearestNode(c.getX(), c.getY(), true);
+            destNode[i] = graph.nearestNode(c.getX(), c.getY(), false);
+            originConnector[i] = originNode[i] < 0 ? Double.NaN
+                    : RoadNetwork.haversineSI(c.getY(), c.getX(), graph.getNodeY(originNode[i]), graph.getNodeX(originNode[i]));
+            destConnector[i] = destNode[i] < 0 ? Double.NaN
+                    : RoadNetwork.haversineSI(c.getY(), c.getX(), graph.getNodeY(destNode[i]), graph.getNodeX(destNode[i]));
+        }
+
+        // one Dijkstra search per origin, reusing the work arrays
+        int n = graph.getNrNodes();
+        double[] t = new double[n];
+        double[] d = new double[n];
+        int[] pred = new int[n];
+        RoadGraph.IndexedMinHeap heap = new RoadGraph.IndexedMinHeap(n);
+        int unreachable = 0;
+        for (int i = 0; i < k; i++)
+        {
+            if (originNode[i] >= 0)
+                graph.dijkstra(originNode[i], t, d, pred, heap);
+            for (int j = 0; j < k; j++)
+            {
+                if (i == j)
+                    continue;
+                if (originNode[i] < 0 || destNode[j] < 0 || Double.isInfinite(t[destNode[j]]))
+                {
+                    this.time[i][j] = Float.NaN;
+                    this.distance[i][j] = Float.NaN;
+                    unreachable++;
+                    continue;
+                }
+                this.time[i][j] =
+                        (float) (t[destNode[j]] + (originConnector[i] + destConnector[j]) / connectorSpeedSI);
+                this.distance[i][j] = (float) (d[destNode[j]] + originConnector[i] + destConnector[j]);
+            }
+        }
+        CategoryLogger.always().info("Travel time matrix calculated for {} centroids on {} nodes and {} edges; {} pairs unreachable",
+                k, n, graph.getNrEdges(), unreachable);
+    }
+
+    /**
+     * Return the free-flow travel time between two centroids.
+     * @param from the origin centroid
+     * @param to the destination centroid
+     * @return the travel time in seconds, or NaN when the centroids are not connected over the network
+     */
+    public double getTimeSI(final Centroid from, final Centroid to)
+    {
+        return from.getIndex() < 0 || to.getIndex() < 0 ? Double.NaN : this.time[from.getIndex()][to.getIndex()];
+    }
+
+    /**
+     * Return the length of the fastest route between two centroids.
+     * @param from the origin centroid
+     * @param to the destination centroid
+     * @return the route length in meters, or NaN when the centroids are not connected over the network
+     */
+    public double getDistanceSI(final Centroid from, final Centroid to)
+    {
+        return from.getIndex() < 0 || to.getIndex() < 0 ? Double.NaN : this.distance[from.getIndex()][to.getIndex()];
+    }
+
+    /**
+     * @return the travel times in seconds, indexed as [origin][destination]
+     */
+    public float[][] getTimes()
+    {
+        return this.time;
+    }
+
+    /**
+     * @return the route lengths in meters, indexed as [origin][destination]
+     */
+    public float[][] getDistances()
+    {
+        return this.distance;
+    }
+
+}
@@ -0,0 +1,229 @@
+package nl.tudelft.simulation.simport.network;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.djutils.exceptions.Throw;
+import org.djutils.logger.CategoryLogger;
+
+import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
+
+/**
+ * TravelTimeProfile contains a time-dependent travel time factor per road link: the ratio between the actual travel time on
+ * the link and its free-flow travel time, for every quarter of an hour of a weekday, a Saturday and a Sunday. The factors are
+ * stored in one short[] table in thousandths, indexed by {@link RoadLink#getIndex()}; a value of 0 means that there is no data
+ * for the link in that quarter, and gives a factor of 1. Looking up a factor is O(1) and does not create objects.
+ * <p>
+ * The profile is calibrated from NDW loop detector data by the TravelTimeCalibration in the ndw package, and stored in a
+ * binary file, so simulation runs do not need the NDW data or a network connection. The file contains MAGIC, VERSION, the
+ * number of day types and quarters, the number of links, and per link the link id and the factors in thousandths, day type
+ * by day type.
+ * </p>
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class TravelTimeProfile
+{
+    /** The magic number at the start of a profile file ("SPTT"). */
+    private static final int MAGIC = 0x53505454;
+
+    /** The version of the profile format; increase when the format changes. */
+    private static final int VERSION = 1;
+
+    /** The number of quarters of an hour in a day. */
+    public static final int NR_QUARTERS = 96;
+
+    /** The number of day types: weekday, Saturday, Sunday. */
+    public static final int NR_DAY_TYPES = 3;
+
+    /** The number of factors per link. */
+    private static final int NR_CELLS = NR_DAY_TYPES * NR_QUARTERS;
+
+    /** The scale of the stored factors. */
+    private static final double SCALE = 1000.0;
+
+    /** The largest factor that can be stored. */
+    public static final double MAX_FACTOR = Short.MAX_VALUE / SCALE;
+
+    /** The number of links in the table. */
+    private final int nrLinks;
+
+    /** The factors in thousandths, indexed as [link][day type][quarter]; 0 means no data. */
+    private final short[] factors;
+
+    /**
+     * Create an empty profile for the links of a network, in which all factors are 1. The links of the network are indexed.
+     * @param network the road network
+     */
+    public TravelTimeProfile(final RoadNetwork network)
+    {
+        this.nrLinks = network.indexLinks();
+        this.factors = new short[this.nrLinks * NR_CELLS];
+    }
+
+    /**
+     * Return the day type for a simulator time: 0 for Monday to Friday, 1 for Saturday, and 2 for Sunday.
+     * @param timeSI the time in seconds since the epoch, in local time
+     * @return the day type
+     */
+    public static int dayType(final double timeSI)
+    {
+        long days = Math.floorDiv((long) Math.floor(timeSI), 86400L);
+        // 1 January 1970 was a Thursday; 0 is Monday
+        int dayOfWeek = (int) Math.floorMod(days + 3L, 7L);
+        return dayOfWeek < 5 ? 0 : dayOfWeek - 4;
+    }
+
+    /**
+     * Return the quarter of an hour of the day for a simulator time.
+     * @param timeSI the time in seconds since the epoch, in local time
+     * @return the quarter of an hour of the day, 0..95
+     */
+    public static int quarter(final double timeSI)
+    {
+        return (int) (Math.floorMod((long) Math.floor(timeSI), 86400L) / 900L);
+    }
+
+    /**
+     * Return the travel time factor of a link at a time.
+     * @param link the link
+     * @param timeSI the time in seconds since the epoch, in local time, e.g., the si value of a ClockTime
+     * @return the ratio between the actual and the free-flow travel time on the link; 1 when there is no data
+     */
+    public double travelTimeFactor(final RoadLink link, final double timeSI)
+    {
+        return travelTimeFactor(link.getIndex(), timeSI);
+    }
+
+    /**
+     * Return the travel time factor of a link at a time.
+     * @param linkIndex the index of the link
+     * @param timeSI the time in seconds since the epoch, in local time, e.g., the si value of a ClockTime
+     * @return the ratio between the actual and the free-flow travel time on the link; 1 when there is no data
+     */
+    public double travelTimeFactor(final int linkIndex, final double timeSI)
+    {
+        if (linkIndex < 0 || linkIndex >= this.nrLinks)
+            return 1.0;
+        short f = this.factors[linkIndex * NR_CELLS + dayType(timeSI) * NR_QUARTERS + quarter(timeSI)];
+        return f == 0 ? 1.0 : f / SCALE;
+    }
+
+    /**
+     * Set the travel time factor of a link for a quarter of an hour. The factor is clamped to [1, MAX_FACTOR].
+     * @param link the link
+     * @param dayType the day type, see {@link #dayType(double)}
+     * @param quarter the quarter of an hour of the day
+     * @param factor the ratio between the actual and the free-flow travel time on the link
+     */
+    public void setFactor(final RoadLink link, final int dayType, final int quarter, final double factor)
+    {
+        Throw.when(link.getIndex() < 0 || link.getIndex() >= this.nrLinks, IllegalArgumentException.class,
+                "link %s is not part of the profile", link.getId());
+        Throw.when(dayType < 0 || dayType >= NR_DAY_TYPES, IllegalArgumentException.class, "illegal day type %d", dayType);
+        Throw.when(quarter < 0 || quarter >= NR_QUARTERS, IllegalArgumentException.class, "illegal quarter %d", quarter);
+        Throw.when(Double.isNaN(factor), IllegalArgumentException.class, "factor is NaN");
+        double f = Math.max(1.0, Math.min(MAX_FACTOR, factor));
+        this.factors[link.getIndex() * NR_CELLS + dayType * NR_QUARTERS + quarter] = (short) Math.round(f * SCALE);
+    }
+
+    /**
+     * @param link the link
+     * @return whether the profile contains data for the link
+     */
+    public boolean hasData(final RoadLink link)
+    {
+        if (link.getIndex() < 0 || link.getIndex() >= this.nrLinks)
+            return false;
+        for (int i = link.getIndex() * NR_CELLS; i < (link.getIndex() + 1) * NR_CELLS; i++)
+        {
+            if (this.factors[i] != 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Write the factors of the links that have data to a profile file.
+     * @param network the road network for which the profile was calibrated
+     * @param path the path of the profile file
+     * @throws IOException when the file cannot be written
+     */
+    public void write(final RoadNetwork network, final Path path) throws IOException
+    {
+        int nrProfiles = 0;
+        for (RoadLink link : network.getRoadLinkMap().values())
+        {
+            if (hasData(link))
+                nrProfiles++;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(NR_DAY_TYPES);
+            out.writeInt(NR_QUARTERS);
+            out.writeInt(nrProfiles);
+            for (RoadLink link : network.getRoadLinkMap().values())
+            {
+                if (!hasData(link))
+                    continue;
+                out.writeUTF(link.getId());
+                int start = link.getIndex() * NR_CELLS;
+                for (int i = start; i < start + NR_CELLS; i++)
+                    out.writeShort(this.factors[i]);
+            }
+        }
+    }
+
+    /**
+     * Read a profile file for the links of a network. Links in the file that are not part of the network are skipped.
+     * @param network the road network
+     * @param path the path of the profile file
+     * @return the travel time profile
+     * @throws SimPortRuntimeException when the file cannot be read or has another format
+     */
+    public static TravelTimeProfile read(final RoadNetwork network, final Path path)
+    {
+        TravelTimeProfile profile = new TravelTimeProfile(network);
+        Map<String, RoadLink> linkMap = network.getRoadLinkMap();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16)))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != NR_DAY_TYPES
+                    || in.readInt() != NR_QUARTERS)
+                throw new SimPortRuntimeException("Travel time profile " + path + " has an unknown format or version");
+            int nrProfiles = in.readInt();
+            int skipped = 0;
+            for (int p = 0; p < nrProfiles; p++)
+            {
+                RoadLink link = linkMap.get(in.readUTF());
+                if (link == null)
+                {
+                    in.skipNBytes(2L * NR_CELLS);
+                    skipped++;
+                    continue;
+                }
+                int start = link.getIndex() * NR_CELLS;
+                for (int i = start; i < start + NR_CELLS; i++)
+                    profile.factors[i] = in.readShort();
+            }
+            CategoryLogger.always().info("Travel time profile read from {} for {} links; {} links not in the network", path,
+                    nrProfiles - skipped, skipped);
+            return profile;
+        }
+        catch (IOException e)
+        {
+            throw new SimPortRuntimeException("Travel time profile " + path + " could not be read", e);
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package nl.tudelft.simulation.simport.output;
+
+/**
+ * ColumnType is the type of a column in a columnar output file. Integer columns are stored as zigzag-encoded variable-length
+ * deltas between the non-null values, doubles as byte-transposed 8-byte values, and strings as indexes in a dictionary per
+ * block.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public enum ColumnType
+{
+    /** 32-bit integer; ColumnarWriter.NULL_INT is null. */
+    INT,
+
+    /** 64-bit integer, e.g., a time in seconds since the epoch; ColumnarWriter.NULL_LONG is null. */
+    LONG,
+
+    /** double; NaN is null. */
+    DOUBLE,
+
+    /** dictionary-encoded string; null is allowed. */
+    STRING;
+}
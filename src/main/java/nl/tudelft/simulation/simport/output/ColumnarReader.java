@@ -0,0 +1,560 @@
+package nl.tudelft.simulation.simport.output;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
+
+/**
+ * ColumnarReader reads a file that was written by a ColumnarWriter. A scan only reads and decompresses the blocks of the
+ * selected columns, and can be restricted to a range of a numeric column (e.g., a time column in seconds since the epoch):
+ * row groups for which the minimum and maximum of the column in the footer fall outside the range are skipped without reading
+ * them, and rows in the other row groups are filtered on the value. A range on a LONG column is compared as longs, so it is
+ * exact for values above 2^53.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ColumnarReader implements AutoCloseable
+{
+    /** the file channel. */
+    private final FileChannel channel;
+
+    /** the column names. */
+    private final String[] names;
+
+    /** the column types. */
+    private final ColumnType[] types;
+
+    /** the number of rows per row group. */
+    private final int[] nrRows;
+
+    /** the offset of each block, per row group and column. */
+    private final long[][] offset;
+
+    /** the compressed length of each block, per row group and column. */
+    private final int[][] compressedLength;
+
+    /** the raw length of each block, per row group and column. */
+    private final int[][] rawLength;
+
+    /** the minimum value of each column, per row group. */
+    private final double[][] min;
+
+    /** the maximum value of each column, per row group. */
+    private final double[][] max;
+
+    /** the minimum value of each LONG column, per row group; NULL_LONG when the column has no values. */
+    private final long[][] minLong;
+
+    /** the maximum value of each LONG column, per row group; NULL_LONG when the column has no values. */
+    private final long[][] maxLong;
+
+    /** the number of row groups that were skipped by the last scan. */
+    private int nrSkippedRowGroups = 0;
+
+    /**
+     * Open a columnar file and read its footer.
+     * @param path the path of the file
+     * @throws IOException when the file cannot be read
+     * @throws SimPortRuntimeException when the file is not a columnar file of a known version
+     */
+    public ColumnarReader(final Path path) throws IOException
+    {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try
+        {
+            long size = this.channel.size();
+            ByteBuffer header = read(0, 8);
+            if (size < 16 || header.getInt() != ColumnarWriter.MAGIC)
+                throw new SimPortRuntimeException("File " + path + " is not a columnar output file");
+            int version = header.getInt();
+            if (version != ColumnarWriter.VERSION)
+                throw new SimPortRuntimeException("File " + path + " has unknown version " + version);
+            ByteBuffer tail = read(size - 8, 8);
+            int footerLength = tail.getInt();
+            if (tail.getInt() != ColumnarWriter.MAGIC)
+                throw new SimPortRuntimeException("File " + path + " has no footer; it might not have been closed");
+            ByteBuffer footerBuffer = read(size - 8 - footerLength, footerLength);
+            DataInputStream footer =
+                    new DataInputStream(new ByteArrayInputStream(footerBuffer.array(), 0, footerLength));
+            int nrColumns = footer.readInt();
+            this.names = new String[nrColumns];
+            this.types = new ColumnType[nrColumns];
+            for (int c = 0; c < nrColumns; c++)
+            {
+                this.names[c] = footer.readUTF();
+                this.types[c] = ColumnType.values()[footer.readByte()];
+            }
+            int nrRowGroups = footer.readInt();
+            this.nrRows = new int[nrRowGroups];
+            this.offset = new long[nrRowGroups][nrColumns];
+            this.compressedLength = new int[nrRowGroups][nrColumns];
+            this.rawLength = new int[nrRowGroups][nrColumns];
+            this.min = new double[nrRowGroups][nrColumns];
+            this.max = new double[nrRowGroups][nrColumns];
+            this.minLong = new long[nrRowGroups][nrColumns];
+            this.maxLong = new long[nrRowGroups][nrColumns];
+            for (int g = 0; g < nrRowGroups; g++)
+            {
+                this.nrRows[g] = footer.readInt();
+                for (int c = 0; c < nrColumns; c++)
+                {
+                    this.offset[g][c] = footer.readLong();
+                    this.compressedLength[g][c] = footer.readInt();
+                    this.rawLength[g][c] = footer.readInt();
+                    if (this.types[c] == ColumnType.LONG)
+                    {
+                        this.minLong[g][c] = footer.readLong();
+                        this.maxLong[g][c] = footer.readLong();
+                    }
+                    else
+                    {
+                        this.min[g][c] = footer.readDouble();
+                        this.max[g][c] = footer.readDouble();
+                    }
+                }
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read a number of bytes from the file.
+     * @param position the position in the file
+     * @param length the number of bytes
+     * @return a heap buffer with the bytes, positioned at 0
+     * @throws IOException on i/o error
+     */
+    private ByteBuffer read(final long position, final int length) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        long p = position;
+        while (buffer.hasRemaining())
+        {
+            int n = this.channel.read(buffer, p);
+            if (n < 0)
+                throw new IOException("Unexpected end of columnar file");
+            p += n;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /** @return the column names */
+    public String[] getColumnNames()
+    {
+        return this.names.clone();
+    }
+
+    /**
+     * Return the type of a column.
+     * @param column the column name
+     * @return the type of the column
+     */
+    public ColumnType getColumnType(final String column)
+    {
+        return this.types[columnIndex(column)];
+    }
+
+    /** @return the total number of rows in the file */
+    public long getNrRows()
+    {
+        long n = 0;
+        for (int rows : this.nrRows)
+            n += rows;
+        return n;
+    }
+
+    /** @return the number of row groups in the file */
+    public int getNrRowGroups()
+    {
+        return this.nrRows.length;
+    }
+
+    /** @return the number of row groups that the last scan skipped based on the footer statistics */
+    public int getNrSkippedRowGroups()
+    {
+        return this.nrSkippedRowGroups;
+    }
+
+    /**
+     * Return the index of a column.
+     * @param column the column name
+     * @return the index of the column
+     * @throws SimPortRuntimeException when the column does not exist
+     */
+    private int columnIndex(final String column)
+    {
+        for (int c = 0; c < this.names.length; c++)
+            if (this.names[c].equals(column))
+                return c;
+        throw new SimPortRuntimeException("Column " + column + " not found in columnar file");
+    }
+
+    /**
+     * Scan all rows for the selected columns.
+     * @param columns the names of the columns to read; the visitor gets them in this order
+     * @param visitor the visitor that is called for every row
+     * @throws IOException on i/o error
+     */
+    public void scan(final String[] columns, final RowVisitor visitor) throws IOException
+    {
+        scan(columns, null, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, visitor);
+    }
+
+    /**
+     * Scan the rows for which the value of a numeric column lies within [from, to]. Row groups for which the statistics show
+     * that no value lies within the range are not read; rows with a null value in the range column are skipped. For a LONG
+     * column, the range is the range of longs that lie within [from, to].
+     * @param columns the names of the columns to read; the visitor gets them in this order
+     * @param rangeColumn the name of the numeric column for the range, e.g., a time column; null to scan all rows
+     * @param from the lowest value of the range (inclusive)
+     * @param to the highest value of the range (inclusive)
+     * @param visitor the visitor that is called for every row in the range
+     * @throws IOException on i/o error
+     */
+    public void scan(final String[] columns, final String rangeColumn, final double from, final double to,
+            final RowVisitor visitor) throws IOException
+    {
+        long fromLong = Double.isNaN(from) ? 1L : (long) Math.ceil(from);
+        long toLong = Double.isNaN(to) ? 0L : (long) Math.floor(to);
+        scan(columns, rangeColumn, fromLong, toLong, from, to, visitor);
+    }
+
+    /**
+     * Scan the rows for which the value of a numeric column lies within [from, to], with long bounds. For a LONG column, e.g.,
+     * a time in nanoseconds, the bounds and values are compared as longs, so the range is exact above 2^53; for the other
+     * numeric columns, the bounds are compared as doubles.
+     * @param columns the names of the columns to read; the visitor gets them in this order
+     * @param rangeColumn the name of the numeric column for the range; null to scan all rows
+     * @param from the lowest value of the range (inclusive)
+     * @param to the highest value of the range (inclusive)
+     * @param visitor the visitor that is called for every row in the range
+     * @throws IOException on i/o error
+     */
+    public void scan(final String[] columns, final String rangeColumn, final long from, final long to,
+            final RowVisitor visitor) throws IOException
+    {
+        scan(columns, rangeColumn, from, to, from, to, visitor);
+    }
+
+    /**
+     * Scan the rows for which the value of a numeric column lies within a range. The long bounds are used for a LONG column,
+     * and the double bounds for the other columns.
+     * @param columns the names of the columns to read; the visitor gets them in this order
+     * @param rangeColumn the name of the numeric column for the range; null to scan all rows
+     * @param fromLong the lowest value of the range for a LONG column (inclusive)
+     * @param toLong the highest value of the range for a LONG column (inclusive)
+     * @param from the lowest value of the range for an INT or DOUBLE column (inclusive)
+     * @param to the highest value of the range for an INT or DOUBLE column (inclusive)
+     * @param visitor the visitor that is called for every row in the range
+     * @throws IOException on i/o error
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    private void scan(final String[] columns, final String rangeColumn, final long fromLong, final long toLong,
+            final double from, final double to, final RowVisitor visitor) throws IOException
+    {
+        int[] selected = new int[columns.length];
+        for (int i = 0; i < columns.length; i++)
+            selected[i] = columnIndex(columns[i]);
+        int range = rangeColumn == null ? -1 : columnIndex(rangeColumn);
+        if (range >= 0 && this.types[range] == ColumnType.STRING)
+            throw new SimPortRuntimeException("Range column " + rangeColumn + " is not numeric");
+        boolean longRange = range >= 0 && this.types[range] == ColumnType.LONG;
+        this.nrSkippedRowGroups = 0;
+        Row row = new Row(selected.length);
+        Inflater inflater = new Inflater();
+        try
+        {
+            for (int g = 0; g < this.nrRows.length; g++)
+            {
+                if (longRange ? (this.minLong[g][range] == ColumnarWriter.NULL_LONG || this.maxLong[g][range] < fromLong
+                        || this.minLong[g][range] > toLong)
+                        : range >= 0 && (Double.isNaN(this.min[g][range]) || this.max[g][range] < from
+                                || this.min[g][range] > to))
+                {
+                    this.nrSkippedRowGroups++;
+                    continue;
+                }
+                for (int i = 0; i < selected.length; i++)
+                    row.values[i] = decode(g, selected[i], inflater);
+                long[] longValues = longRange ? (long[]) decode(g, range, inflater) : null;
+                double[] rangeValues = range < 0 || longRange ? null : numericValues(g, range, inflater);
+                for (int r = 0; r < this.nrRows[g]; r++)
+                {
+                    if (longValues != null && (longValues[r] == ColumnarWriter.NULL_LONG || longValues[r] < fromLong
+                            || longValues[r] > toLong))
+                        continue;
+                    if (rangeValues != null && !(rangeValues[r] >= from && rangeValues[r] <= to))
+                        continue;
+                    row.index = r;
+                    visitor.visit(row);
+                }
+            }
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Return the values of a numeric column in a row group as doubles, with NaN for null values.
+     * @param g the row group
+     * @param c the column
+     * @param inflater the decompressor
+     * @return the values as doubles
+     * @throws IOException on i/o error
+     */
+    private double[] numericValues(final int g, final int c, final Inflater inflater) throws IOException
+    {
+        Object values = decode(g, c, inflater);
+        double[] result = new double[this.nrRows[g]];
+        for (int r = 0; r < result.length; r++)
+        {
+            result[r] = switch (this.types[c])
+            {
+                case INT -> ((int[]) values)[r] == ColumnarWriter.NULL_INT ? Double.NaN : ((int[]) values)[r];
+                case LONG -> ((long[]) values)[r] == ColumnarWriter.NULL_LONG ? Double.NaN : ((long[]) values)[r];
+                default -> ((double[]) values)[r];
+            };
+        }
+        return result;
+    }
+
+    /**
+     * Read, decompress and decode the block of a column in a row group.
+     * @param g the row group
+     * @param c the column
+     * @param inflater the decompressor
+     * @return the values: an int[], long[], double[] or String[]
+     * @throws IOException on i/o error or when the block is corrupt
+     */
+    private Object decode(final int g, final int c, final Inflater inflater) throws IOException
+    {
+        ByteBuffer block = read(this.offset[g][c], this.compressedLength[g][c]);
+        byte[] raw = new byte[this.rawLength[g][c]];
+        inflater.reset();
+        inflater.setInput(block.array(), 0, this.compressedLength[g][c]);
+        try
+        {
+            int n = 0;
+            while (n < raw.length && !inflater.finished())
+                n += inflater.inflate(raw, n, raw.length - n);
+            if (n != raw.length)
+                throw new IOException("Corrupt block for column " + this.names[c] + " in row group " + g);
+        }
+        catch (DataFormatException e)
+        {
+            throw new IOException("Corrupt block for column " + this.names[c] + " in row group " + g, e);
+        }
+        ByteBuffer in = ByteBuffer.wrap(raw);
+        int rows = this.nrRows[g];
+        switch (this.types[c])
+        {
+            case INT:
+            {
+                int[] v = new int[rows];
+                long previous = 0;
+                for (int r = 0; r < rows; r++)
+                {
+                    long code = readVarLong(in);
+                    if (code == 0)
+                        v[r] = ColumnarWriter.NULL_INT;
+                    else
+                    {
+                        previous += unzigzag(code - 1);
+                        v[r] = (int) previous;
+                    }
+                }
+                return v;
+            }
+            case LONG:
+            {
+                long[] v = new long[rows];
+                long previous = 0;
+                for (int r = 0; r < rows; r++)
+                {
+                    long code = readVarLong(in);
+                    if (code == 0)
+                        v[r] = ColumnarWriter.NULL_LONG;
+                    else
+                    {
+                        // a decoded NULL_LONG is the escape for a delta of Long.MIN_VALUE, see ColumnarWriter
+                        long value = previous + unzigzag(code - 1);
+                        previous = value == ColumnarWriter.NULL_LONG ? previous + Long.MIN_VALUE : value;
+                        v[r] = previous;
+                    }
+                }
+                return v;
+            }
+            case DOUBLE:
+            {
+                double[] v = new double[rows];
+                for (int r = 0; r < rows; r++)
+                {
+                    long bits = 0;
+                    for (int b = 0; b < 8; b++)
+                        bits = (bits << 8) | (raw[b * rows + r] & 0xFF);
+                    v[r] = Double.longBitsToDouble(bits);
+                }
+                return v;
+            }
+            default:
+            {
+                String[] dictionary = new String[(int) readVarLong(in)];
+                for (int i = 0; i < dictionary.length; i++)
+                {
+                    int length = (int) readVarLong(in);
+                    dictionary[i] = new String(raw, in.position(), length, StandardCharsets.UTF_8);
+                    in.position(in.position() + length);
+                }
+                String[] v = new String[rows];
+                for (int r = 0; r < rows; r++)
+                {
+                    int id = (int) readVarLong(in);
+                    v[r] = id == 0 ? null : dictionary[id - 1];
+                }
+                return v;
+            }
+        }
+    }
+
+    /**
+     * Read an unsigned variable-length number.
+     * @param in the buffer
+     * @return the number
+     */
+    private static long readVarLong(final ByteBuffer in)
+    {
+        long v = 0;
+        int shift = 0;
+        byte b;
+        do
+        {
+            b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        while (b < 0);
+        return v;
+    }
+
+    /**
+     * Decode a zigzag-encoded number.
+     * @param v the zigzag-encoded number
+     * @return the signed number
+     */
+    private static long unzigzag(final long v)
+    {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.channel.close();
+    }
+
+    /**
+     * A row of a scan. The values are accessed by the index of the column in the list of selected columns. The row object is
+     * reused for the next row, so it should not be stored.
+     */
+    public static class Row
+    {
+        /** the values of the selected columns in the current row group. */
+        private final Object[] values;
+
+        /** the index of the row in the row group. */
+        private int index;
+
+        /**
+         * @param nrColumns the number of selected columns
+         */
+        Row(final int nrColumns)
+        {
+            this.values = new Object[nrColumns];
+        }
+
+        /**
+         * @param i the index of the selected column
+         * @return the value of an INT column; ColumnarWriter.NULL_INT for null
+         */
+        public int getInt(final int i)
+        {
+            return ((int[]) this.values[i])[this.index];
+        }
+
+        /**
+         * @param i the index of the selected column
+         * @return the value of a LONG column; ColumnarWriter.NULL_LONG for null
+         */
+        public long getLong(final int i)
+        {
+            return ((long[]) this.values[i])[this.index];
+        }
+
+        /**
+         * @param i the index of the selected column
+         * @return the value of a DOUBLE column; NaN for null
+         */
+        public double getDouble(final int i)
+        {
+            return ((double[]) this.values[i])[this.index];
+        }
+
+        /**
+         * @param i the index of the selected column
+         * @return the value of a STRING column, can be null
+         */
+        public String getString(final int i)
+        {
+            return ((String[]) this.values[i])[this.index];
+        }
+
+        /**
+         * @param i the index of the selected column
+         * @return whether the value in the selected column is null
+         */
+        public boolean isNull(final int i)
+        {
+            Object v = this.values[i];
+            if (v instanceof int[] a)
+                return a[this.index] == ColumnarWriter.NULL_INT;
+            if (v instanceof long[] a)
+                return a[this.index] == ColumnarWriter.NULL_LONG;
+            if (v instanceof double[] a)
+                return Double.isNaN(a[this.index]);
+            return ((String[]) v)[this.index] == null;
+        }
+    }
+
+    /**
+     * RowVisitor is called for every row of a scan.
+     */
+    @FunctionalInterface
+    public interface RowVisitor
+    {
+        /**
+         * Process a row.
+         * @param row the row, which is only valid during the call
+         */
+        void visit(Row row);
+    }
+
+}
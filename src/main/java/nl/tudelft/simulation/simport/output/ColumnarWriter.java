@@ -0,0 +1,558 @@
+package nl.tudelft.simulation.simport.output;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import org.djutils.exceptions.Throw;
+
+/**
+ * ColumnarWriter writes rows with typed columns to a self-describing columnar file. The rows are buffered in a row group per
+ * column; when the row group is full, every column is encoded and compressed with Deflate into a separate block, so a reader
+ * only has to read and decompress the columns it needs. The footer contains the schema, and for every row group the position
+ * of the blocks and the minimum and maximum value of the numeric columns, so a reader can skip row groups that fall outside a
+ * time range.
+ * <p>
+ * The file layout is: MAGIC, VERSION, the blocks of all row groups, the footer, the length of the footer, and MAGIC. The
+ * footer holds the number of columns, then the name and type of every column, the number of row groups, and per row group the
+ * number of rows and for every column the offset, compressed length, and raw length of the block and the minimum and maximum
+ * value. The minimum and maximum are longs for LONG columns (NULL_LONG when the column has no values), so they are exact for
+ * times in nanoseconds or other values above 2^53, and doubles for the other columns (NaN for string columns and columns
+ * without values). All numbers in the header and footer are big-endian.
+ * </p>
+ * <p>
+ * INT and LONG columns are delta-encoded: every row holds zigzag(value - previous value) + 1 as a variable-length number, and
+ * 0 for null. A LONG delta of Long.MIN_VALUE would encode as 0; since no value can be NULL_LONG, such a delta is written as the
+ * delta to NULL_LONG instead, and the reader turns a decoded NULL_LONG back into previous + Long.MIN_VALUE.
+ * </p>
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ColumnarWriter implements AutoCloseable
+{
+    /** magic number at the start and the end of the file ("SPCF"). */
+    public static final int MAGIC = 0x53504346;
+
+    /** version of the file format; version 2 has long statistics for LONG columns. */
+    public static final int VERSION = 2;
+
+    /** the null value of an INT column. */
+    public static final int NULL_INT = Integer.MIN_VALUE;
+
+    /** the null value of a LONG column. */
+    public static final long NULL_LONG = Long.MIN_VALUE;
+
+    /** the default number of rows in a row group. */
+    public static final int DEFAULT_ROW_GROUP_SIZE = 65536;
+
+    /** the column names. */
+    private final String[] names;
+
+    /** the column types. */
+    private final ColumnType[] types;
+
+    /** the number of rows in a full row group. */
+    private final int rowGroupSize;
+
+    /** the values of the current row group per column: an int[], long[], double[] or String[]. */
+    private final Object[] values;
+
+    /** the number of rows in the current row group. */
+    private int nrRows = 0;
+
+    /** the output stream of the file. */
+    private final OutputStream out;
+
+    /** the number of bytes written to the file. */
+    private long position = 0;
+
+    /** the footer entries of the row groups that have been written. */
+    private final List<RowGroupEntry> rowGroups = new ArrayList<>();
+
+    /** the reusable buffer for the raw encoding of a block. */
+    private final ByteSink raw = new ByteSink(64 * 1024);
+
+    /** the reusable buffer for the compressed block. */
+    private byte[] compressed = new byte[64 * 1024];
+
+    /** the compressor. */
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+
+    /** the dictionary of a string block. */
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    /** whether the writer has been closed. */
+    private boolean closed = false;
+
+    /**
+     * Create a columnar file with the default row group size.
+     * @param path the path of the file
+     * @param names the column names
+     * @param types the column types
+     * @throws IOException when the file cannot be created
+     */
+    public ColumnarWriter(final Path path, final String[] names, final ColumnType[] types) throws IOException
+    {
+        this(path, names, types, DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    /**
+     * Create a columnar file.
+     * @param path the path of the file
+     * @param names the column names
+     * @param types the column types
+     * @param rowGroupSize the number of rows in a row group
+     * @throws IOException when the file cannot be created
+     */
+    public ColumnarWriter(final Path path, final String[] names, final ColumnType[] types, final int rowGroupSize)
+            throws IOException
+    {
+        Throw.when(names.length != types.length, IllegalArgumentException.class, "number of names and types differ");
+        Throw.when(rowGroupSize < 1, IllegalArgumentException.class, "rowGroupSize < 1");
+        this.names = names.clone();
+        this.types = types.clone();
+        this.rowGroupSize = rowGroupSize;
+        this.values = new Object[types.length];
+        for (int c = 0; c < types.length; c++)
+        {
+            this.values[c] = switch (types[c])
+            {
+                case INT -> new int[rowGroupSize];
+                case LONG -> new long[rowGroupSize];
+                case DOUBLE -> new double[rowGroupSize];
+                case STRING -> new String[rowGroupSize];
+            };
+        }
+        clearRowGroup();
+        this.out = new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024);
+        writeInt(MAGIC);
+        writeInt(VERSION);
+    }
+
+    /**
+     * Set an INT value in the current row.
+     * @param column the column index
+     * @param value the value
+     */
+    public void setInt(final int column, final int value)
+    {
+        ((int[]) this.values[column])[this.nrRows] = value;
+    }
+
+    /**
+     * Set a LONG value in the current row.
+     * @param column the column index
+     * @param value the value
+     */
+    public void setLong(final int column, final long value)
+    {
+        ((long[]) this.values[column])[this.nrRows] = value;
+    }
+
+    /**
+     * Set a DOUBLE value in the current row.
+     * @param column the column index
+     * @param value the value
+     */
+    public void setDouble(final int column, final double value)
+    {
+        ((double[]) this.values[column])[this.nrRows] = value;
+    }
+
+    /**
+     * Set a STRING value in the current row.
+     * @param column the column index
+     * @param value the value, can be null
+     */
+    public void setString(final int column, final String value)
+    {
+        ((String[]) this.values[column])[this.nrRows] = value;
+    }
+
+    /**
+     * Finish the current row. Columns that have not been set in the row are null. When the row group is full, it is written.
+     * @throws IOException on i/o error
+     */
+    public void endRow() throws IOException
+    {
+        this.nrRows++;
+        if (this.nrRows == this.rowGroupSize)
+            writeRowGroup();
+    }
+
+    /** @return the total number of bytes written so far */
+    public long getPosition()
+    {
+        return this.position;
+    }
+
+    /**
+     * Reset the values of the current row group to null.
+     */
+    private void clearRowGroup()
+    {
+        for (int c = 0; c < this.types.length; c++)
+        {
+            switch (this.types[c])
+            {
+                case INT -> Arrays.fill((int[]) this.values[c], NULL_INT);
+                case LONG -> Arrays.fill((long[]) this.values[c], NULL_LONG);
+                case DOUBLE -> Arrays.fill((double[]) this.values[c], Double.NaN);
+                case STRING -> Arrays.fill((String[]) this.values[c], null);
+            }
+        }
+        this.nrRows = 0;
+    }
+
+    /**
+     * Encode, compress and write the columns of the current row group.
+     * @throws IOException on i/o error
+     */
+    private void writeRowGroup() throws IOException
+    {
+        if (this.nrRows == 0)
+            return;
+        RowGroupEntry entry = new RowGroupEntry(this.nrRows, this.types.length);
+        for (int c = 0; c < this.types.length; c++)
+        {
+            this.raw.reset();
+            encodeColumn(c, entry);
+            entry.offset[c] = this.position;
+            entry.rawLength[c] = this.raw.length;
+            entry.compressedLength[c] = compress();
+            this.out.write(this.compressed, 0, entry.compressedLength[c]);
+            this.position += entry.compressedLength[c];
+        }
+        this.rowGroups.add(entry);
+        clearRowGroup();
+    }
+
+    /**
+     * Encode the values of a column of the current row group into the raw buffer, and store the minimum and maximum value of
+     * the column in the footer entry.
+     * @param c the column index
+     * @param entry the footer entry of the row group
+     */
+    private void encodeColumn(final int c, final RowGroupEntry entry)
+    {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        switch (this.types[c])
+        {
+            case INT ->
+            {
+                int[] v = (int[]) this.values[c];
+                long previous = 0;
+                for (int i = 0; i < this.nrRows; i++)
+                {
+                    if (v[i] == NULL_INT)
+                    {
+                        this.raw.writeVarLong(0);
+                        continue;
+                    }
+                    this.raw.writeVarLong(zigzag(v[i] - previous) + 1);
+                    previous = v[i];
+                    min = Math.min(min, v[i]);
+                    max = Math.max(max, v[i]);
+                }
+            }
+            case LONG ->
+            {
+                long[] v = (long[]) this.values[c];
+                long previous = 0;
+                long minLong = Long.MAX_VALUE;
+                long maxLong = Long.MIN_VALUE;
+                for (int i = 0; i < this.nrRows; i++)
+                {
+                    if (v[i] == NULL_LONG)
+                    {
+                        this.raw.writeVarLong(0);
+                        continue;
+                    }
+                    long delta = v[i] - previous;
+                    // zigzag(Long.MIN_VALUE) + 1 wraps around to 0, the code for null: write the delta to NULL_LONG instead
+                    if (delta == Long.MIN_VALUE)
+                        delta = NULL_LONG - previous;
+                    this.raw.writeVarLong(zigzag(delta) + 1);
+                    previous = v[i];
+                    minLong = Math.min(minLong, v[i]);
+                    maxLong = Math.max(maxLong, v[i]);
+                }
+                boolean empty = minLong > maxLong;
+                entry.minLong[c] = empty ? NULL_LONG : minLong;
+                entry.maxLong[c] = empty ? NULL_LONG : maxLong;
+            }
+            case DOUBLE ->
+            {
+                // byte-transposed: first the most significant byte of all values, then the next byte, etc., so the sign,
+                // exponent and high mantissa bytes, which are similar for the values of a column, compress well
+                double[] v = (double[]) this.values[c];
+                this.raw.ensure(8 * this.nrRows);
+                for (int i = 0; i < this.nrRows; i++)
+                {
+                    long bits = Double.doubleToLongBits(v[i]);
+                    for (int b = 0; b < 8; b++)
+                        this.raw.bytes[this.raw.length + b * this.nrRows + i] = (byte) (bits >>> (56 - 8 * b));
+                    if (!Double.isNaN(v[i]))
+                    {
+                        min = Math.min(min, v[i]);
+                        max = Math.max(max, v[i]);
+                    }
+                }
+                this.raw.length += 8 * this.nrRows;
+            }
+            case STRING ->
+            {
+                // the dictionary, followed by the dictionary index + 1 of every row (0 is null)
+                String[] v = (String[]) this.values[c];
+                this.dictionary.clear();
+                List<String> entries = new ArrayList<>();
+                int[] ids = new int[this.nrRows];
+                for (int i = 0; i < this.nrRows; i++)
+                {
+                    if (v[i] == null)
+                        continue;
+                    Integer id = this.dictionary.get(v[i]);
+                    if (id == null)
+                    {
+                        id = entries.size();
+                        this.dictionary.put(v[i], id);
+                        entries.add(v[i]);
+                    }
+                    ids[i] = id + 1;
+                }
+                this.raw.writeVarLong(entries.size());
+                for (String s : entries)
+                {
+                    byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                    this.raw.writeVarLong(b.length);
+                    this.raw.write(b, 0, b.length);
+                }
+                for (int i = 0; i < this.nrRows; i++)
+                    this.raw.writeVarLong(ids[i]);
+            }
+        }
+        entry.min[c] = min <= max ? min : Double.NaN;
+        entry.max[c] = min <= max ? max : Double.NaN;
+    }
+
+    /**
+     * Compress the raw buffer into the compressed buffer.
+     * @return the number of compressed bytes
+     */
+    private int compress()
+    {
+        this.deflater.reset();
+        this.deflater.setInput(this.raw.bytes, 0, this.raw.length);
+        this.deflater.finish();
+        int n = 0;
+        while (!this.deflater.finished())
+        {
+            if (n == this.compressed.length)
+                this.compressed = Arrays.copyOf(this.compressed, 2 * this.compressed.length);
+            n += this.deflater.deflate(this.compressed, n, this.compressed.length - n);
+        }
+        return n;
+    }
+
+    /**
+     * Zigzag-encode a signed number, so small negative and positive numbers get a short variable-length encoding.
+     * @param v the number
+     * @return the zigzag-encoded number
+     */
+    static long zigzag(final long v)
+    {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    /**
+     * Write a big-endian int to the file.
+     * @param v the value
+     * @throws IOException on i/o error
+     */
+    private void writeInt(final int v) throws IOException
+    {
+        this.out.write(v >>> 24);
+        this.out.write(v >>> 16);
+        this.out.write(v >>> 8);
+        this.out.write(v);
+        this.position += 4;
+    }
+
+    /**
+     * Write the last row group and the footer, and close the file.
+     * @throws IOException on i/o error
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (this.closed)
+            return;
+        this.closed = true;
+        try
+        {
+            writeRowGroup();
+            this.raw.reset();
+            DataOutputStream footer = new DataOutputStream(this.raw);
+            footer.writeInt(this.types.length);
+            for (int c = 0; c < this.types.length; c++)
+            {
+                footer.writeUTF(this.names[c]);
+                footer.writeByte(this.types[c].ordinal());
+            }
+            footer.writeInt(this.rowGroups.size());
+            for (RowGroupEntry entry : this.rowGroups)
+            {
+                footer.writeInt(entry.nrRows);
+                for (int c = 0; c < this.types.length; c++)
+                {
+                    footer.writeLong(entry.offset[c]);
+                    footer.writeInt(entry.compressedLength[c]);
+                    footer.writeInt(entry.rawLength[c]);
+                    if (this.types[c] == ColumnType.LONG)
+                    {
+                        footer.writeLong(entry.minLong[c]);
+                        footer.writeLong(entry.maxLong[c]);
+                    }
+                    else
+                    {
+                        footer.writeDouble(entry.min[c]);
+                        footer.writeDouble(entry.max[c]);
+                    }
+                }
+            }
+            footer.flush();
+            this.out.write(this.raw.bytes, 0, this.raw.length);
+            this.position += this.raw.length;
+            writeInt(this.raw.length);
+            writeInt(MAGIC);
+        }
+        finally
+        {
+            this.deflater.end();
+            this.out.close();
+        }
+    }
+
+    /** The footer entry of a row group. */
+    private static class RowGroupEntry
+    {
+        /** the number of rows. */
+        private final int nrRows;
+
+        /** the offsets of the column blocks in the file. */
+        private final long[] offset;
+
+        /** the compressed lengths of the column blocks. */
+        private final int[] compressedLength;
+
+        /** the raw lengths of the column blocks. */
+        private final int[] rawLength;
+
+        /** the minimum values of the columns. */
+        private final double[] min;
+
+        /** the maximum values of the columns. */
+        private final double[] max;
+
+        /** the minimum values of the LONG columns. */
+        private final long[] minLong;
+
+        /** the maximum values of the LONG columns. */
+        private final long[] maxLong;
+
+        /**
+         * @param nrRows the number of rows
+         * @param nrColumns the number of columns
+         */
+        RowGroupEntry(final int nrRows, final int nrColumns)
+        {
+            this.nrRows = nrRows;
+            this.offset = new long[nrColumns];
+            this.compressedLength = new int[nrColumns];
+            this.rawLength = new int[nrColumns];
+            this.min = new double[nrColumns];
+            this.max = new double[nrColumns];
+            this.minLong = new long[nrColumns];
+            this.maxLong = new long[nrColumns];
+        }
+    }
+
+    /** A growable byte buffer that is reused for every block. */
+    private static class ByteSink extends OutputStream
+    {
+        /** the bytes. */
+        private byte[] bytes;
+
+        /** the number of bytes. */
+        private int length = 0;
+
+        /**
+         * @param capacity the initial capacity
+         */
+        ByteSink(final int capacity)
+        {
+            this.bytes = new byte[capacity];
+        }
+
+        /** Empty the buffer. */
+        void reset()
+        {
+            this.length = 0;
+        }
+
+        /**
+         * @param n the number of bytes to add
+         */
+        void ensure(final int n)
+        {
+            if (this.length + n > this.bytes.length)
+                this.bytes = Arrays.copyOf(this.bytes, Math.max(this.length + n, 2 * this.bytes.length));
+        }
+
+        @Override
+        public void write(final int b)
+        {
+            ensure(1);
+            this.bytes[this.length++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len)
+        {
+            ensure(len);
+            System.arraycopy(b, off, this.bytes, this.length, len);
+            this.length += len;
+        }
+
+        /**
+         * Write an unsigned variable-length number, 7 bits per byte, least significant group first.
+         * @param v the number
+         */
+        void writeVarLong(final long v)
+        {
+            ensure(10);
+            long x = v;
+            while ((x & ~0x7FL) != 0)
+            {
+                this.bytes[this.length++] = (byte) ((x & 0x7F) | 0x80);
+                x >>>= 7;
+            }
+            this.bytes[this.length++] = (byte) x;
+        }
+    }
+
+}
@@ -0,0 +1,584 @@
+package nl.tudelft.simulation.simport.output;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.value.formatter.Format;
+import org.djunits.value.vdouble.scalar.Duration;
+
+import nl.tudelft.simulation.dsol.simulators.clock.ClockTime;
+
+/**
+ * CsvLineEncoder encodes the fields of a line of a CSV file directly into a reusable byte array, without creating Strings for
+ * the numbers, times, durations and enums in the line. The text of the fields is the same as the text of their toString()
+ * methods: integers and doubles are formatted as by Long.toString() and Double.toString(), a ClockTime as by ymdhm(), and a
+ * Duration as by its djunits toString(). Values outside the ranges that the fast paths handle, which do not occur in normal
+ * output, are formatted by the original methods.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class CsvLineEncoder
+{
+    /** the line separator of the platform. */
+    private static final byte[] LINE_SEPARATOR = bytes(System.lineSeparator());
+
+    /** the text "null" for a null field. */
+    private static final byte[] NULL = bytes("null");
+
+    /** powers of ten that are exactly representable as a double. */
+    private static final double[] POW10 = new double[23];
+
+    /** powers of ten as long values. */
+    private static final long[] LONG_POW10 = new long[19];
+
+    /** the width of a number formatted by the djunits Format class. */
+    private static final int DJUNITS_WIDTH = Format.DEFAULTSIZE;
+
+    /** the toString() text of the constants of an enum class, indexed by ordinal. */
+    private static final ClassValue<byte[][]> ENUM_BYTES = new ClassValue<>()
+    {
+        @Override
+        protected byte[][] computeValue(final Class<?> type)
+        {
+            Object[] constants = type.getEnumConstants();
+            byte[][] result = new byte[constants.length][];
+            for (int i = 0; i < constants.length; i++)
+                result[i] = bytes(constants[i].toString());
+            return result;
+        }
+    };
+
+    static
+    {
+        double p = 1.0;
+        for (int i = 0; i < POW10.length; i++)
+        {
+            POW10[i] = p;
+            p *= 10.0;
+        }
+        long q = 1L;
+        for (int i = 0; i < LONG_POW10.length; i++)
+        {
+            LONG_POW10[i] = q;
+            q *= 10L;
+        }
+    }
+
+    /** the unit suffix (e.g., " s") that Duration.toString() appends, per display unit. */
+    private final Map<DurationUnit, byte[]> unitSuffix = new IdentityHashMap<>();
+
+    /** the buffer with the encoded line. */
+    private byte[] buf;
+
+    /** the number of bytes in the buffer. */
+    private int len = 0;
+
+    /** the characters of the line for writeTo(Writer); created on first use. */
+    private char[] chars = null;
+
+    /**
+     * Create an encoder with an initial line capacity of 1024 bytes. The buffer grows when needed.
+     */
+    public CsvLineEncoder()
+    {
+        this(1024);
+    }
+
+    /**
+     * Create an encoder with a given initial line capacity. The buffer grows when needed.
+     * @param capacity the initial capacity of the line buffer in bytes
+     */
+    public CsvLineEncoder(final int capacity)
+    {
+        this.buf = new byte[capacity];
+    }
+
+    /**
+     * Return the US-ASCII or UTF-8 bytes of a constant text, for use with appendBytes().
+     * @param text the text
+     * @return the UTF-8 bytes of the text
+     */
+    public static byte[] bytes(final String text)
+    {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Empty the line buffer for the next line. */
+    public void reset()
+    {
+        this.len = 0;
+    }
+
+    /** @return the buffer with the encoded line; only the first length() bytes are valid */
+    public byte[] buffer()
+    {
+        return this.buf;
+    }
+
+    /** @return the number of bytes of the encoded line */
+    public int length()
+    {
+        return this.len;
+    }
+
+    /**
+     * Write the encoded line to a Writer. A line that only contains ASCII characters is written from a reusable char array;
+     * other lines are decoded as UTF-8 first.
+     * @param out the writer
+     * @throws IOException when writing fails
+     */
+    public void writeTo(final Writer out) throws IOException
+    {
+        if (this.chars == null || this.chars.length < this.len)
+            this.chars = new char[this.buf.length];
+        for (int i = 0; i < this.len; i++)
+        {
+            byte b = this.buf[i];
+            if (b < 0)
+            {
+                out.write(toString());
+                return;
+            }
+            this.chars[i] = (char) b;
+        }
+        out.write(this.chars, 0, this.len);
+    }
+
+    @Override
+    public String toString()
+    {
+        return new String(this.buf, 0, this.len, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Make sure that a number of bytes can be appended to the buffer.
+     * @param n the number of bytes to append
+     */
+    private void ensure(final int n)
+    {
+        if (this.len + n > this.buf.length)
+            this.buf = Arrays.copyOf(this.buf, Math.max(this.len + n, 2 * this.buf.length));
+    }
+
+    /* ******************************************* TEXT ******************************************* */
+
+    /**
+     * Append a single ASCII character.
+     * @param c the character, which should be below 0x80
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder append(final char c)
+    {
+        ensure(1);
+        this.buf[this.len++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Append a precomputed byte array, e.g., a constant that was created with bytes().
+     * @param b the bytes to append
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendBytes(final byte[] b)
+    {
+        ensure(b.length);
+        System.arraycopy(b, 0, this.buf, this.len, b.length);
+        this.len += b.length;
+        return this;
+    }
+
+    /**
+     * Append the line separator of the platform.
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendLineSeparator()
+    {
+        return appendBytes(LINE_SEPARATOR);
+    }
+
+    /**
+     * Append a text as UTF-8, without quoting or escaping. A null text is appended as "null".
+     * @param s the text
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendText(final CharSequence s)
+    {
+        if (s == null)
+            return appendBytes(NULL);
+        appendUtf8(s, false);
+        return this;
+    }
+
+    /**
+     * Append a text as a quoted field, where double quotes in the text are doubled according to RFC 4180. A null text is
+     * appended as "null" between quotes, as StringBuilder.append() would do.
+     * @param s the text
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendQuoted(final CharSequence s)
+    {
+        append('"');
+        if (s == null)
+            appendBytes(NULL);
+        else
+            appendUtf8(s, true);
+        return append('"');
+    }
+
+    /**
+     * Append a text as a field that is only quoted when it contains a comma, a double quote, or a line break, according to
+     * RFC 4180.
+     * @param s the text
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendField(final CharSequence s)
+    {
+        if (s == null)
+            return this;
+        for (int i = 0; i < s.length(); i++)
+        {
+            char c = s.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r')
+                return appendQuoted(s);
+        }
+        appendUtf8(s, false);
+        return this;
+    }
+
+    /**
+     * Append the UTF-8 encoding of a text.
+     * @param s the text
+     * @param escapeQuotes whether double quotes have to be doubled
+     */
+    private void appendUtf8(final CharSequence s, final boolean escapeQuotes)
+    {
+        int n = s.length();
+        ensure(n);
+        for (int i = 0; i < n; i++)
+        {
+            char c = s.charAt(i);
+            if (c < 0x80)
+            {
+                if (c == '"' && escapeQuotes)
+                {
+                    ensure(n - i + 1);
+                    this.buf[this.len++] = '"';
+                }
+                this.buf[this.len++] = (byte) c;
+                continue;
+            }
+            // non-ASCII: at most 4 bytes per character for the rest of the text
+            ensure(4 * (n - i));
+            if (c < 0x800)
+            {
+                this.buf[this.len++] = (byte) (0xC0 | (c >> 6));
+                this.buf[this.len++] = (byte) (0x80 | (c & 0x3F));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1)))
+            {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                this.buf[this.len++] = (byte) (0xF0 | (cp >> 18));
+                this.buf[this.len++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                this.buf[this.len++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                this.buf[this.len++] = (byte) (0x80 | (cp & 0x3F));
+            }
+            else if (Character.isSurrogate(c))
+                this.buf[this.len++] = '?';
+            else
+            {
+                this.buf[this.len++] = (byte) (0xE0 | (c >> 12));
+                this.buf[this.len++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                this.buf[this.len++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Append the toString() text of an enum constant, from a byte array that is computed once per enum class. A null value is
+     * appended as "null".
+     * @param e the enum constant
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendEnum(final Enum<?> e)
+    {
+        if (e == null)
+            return appendBytes(NULL);
+        return appendBytes(ENUM_BYTES.get(e.getDeclaringClass())[e.ordinal()]);
+    }
+
+    /**
+     * Append an object with the same text as StringBuilder.append(Object), using the allocation-free encoding for the types
+     * that this encoder knows.
+     * @param o the object
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendObject(final Object o)
+    {
+        if (o == null)
+            return appendBytes(NULL);
+        if (o instanceof CharSequence s)
+            return appendText(s);
+        if (o instanceof ClockTime t)
+            return appendClockTime(t);
+        if (o instanceof Duration d)
+            return appendDuration(d);
+        if (o instanceof Enum<?> e)
+            return appendEnum(e);
+        if (o instanceof Integer || o instanceof Long || o instanceof Short || o instanceof Byte)
+            return appendLong(((Number) o).longValue());
+        if (o instanceof Double d)
+            return appendDouble(d);
+        return appendText(o.toString());
+    }
+
+    /* ****************************************** NUMBERS ***************************************** */
+
+    /**
+     * Append an integer number in the format of Long.toString().
+     * @param v the number
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendLong(final long v)
+    {
+        if (v == Long.MIN_VALUE)
+            return appendText(Long.toString(v));
+        ensure(20);
+        long u = v;
+        if (u < 0)
+        {
+            this.buf[this.len++] = '-';
+            u = -u;
+        }
+        appendDigits(u, digitCount(u));
+        return this;
+    }
+
+    /**
+     * Return the number of decimal digits of a non-negative number.
+     * @param u the number
+     * @return the number of digits, at least 1
+     */
+    private static int digitCount(final long u)
+    {
+        int n = 1;
+        while (n < 19 && u >= LONG_POW10[n])
+            n++;
+        return n;
+    }
+
+    /**
+     * Write the given number of decimal digits of a non-negative number, with leading zeros when needed. The capacity of the
+     * buffer should have been ensured.
+     * @param u the number
+     * @param nrDigits the number of digits to write
+     */
+    private void appendDigits(final long u, final int nrDigits)
+    {
+        long x = u;
+        for (int i = this.len + nrDigits - 1; i >= this.len; i--)
+        {
+            this.buf[i] = (byte) ('0' + (x % 10));
+            x /= 10;
+        }
+        this.len += nrDigits;
+    }
+
+    /**
+     * Append a fixed-point number with a given number of decimals, as a scaled long value.
+     * @param negative whether a minus sign has to be written
+     * @param scaled the absolute value times 10^decimals
+     * @param decimals the number of decimals
+     */
+    private void appendScaled(final boolean negative, final long scaled, final int decimals)
+    {
+        ensure(22);
+        if (negative)
+            this.buf[this.len++] = '-';
+        long intPart = scaled / LONG_POW10[decimals];
+        appendDigits(intPart, digitCount(intPart));
+        if (decimals > 0)
+        {
+            this.buf[this.len++] = '.';
+            appendDigits(scaled - intPart * LONG_POW10[decimals], decimals);
+        }
+    }
+
+    /**
+     * Append a double in the format of Double.toString(). In the range [1E-3, 1E7), where Double.toString() uses plain decimal
+     * notation, the shortest number of decimals is searched for which the decimal value parses to exactly the same double;
+     * other values, and values that need 16 or more significant digits, are formatted by Double.toString() itself.
+     * @param v the number
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendDouble(final double v)
+    {
+        double a = Math.abs(v);
+        if (a >= 1E-3 && a < 1E7)
+        {
+            long intPart = (long) a;
+            int intDigits = intPart == 0 ? 0 : digitCount(intPart);
+            for (int p = 1; intDigits + p < 16; p++)
+            {
+                double x = a * POW10[p];
+                long scaled = Math.round(x);
+                if (scaled / POW10[p] == a)
+                {
+                    appendScaled(v < 0, scaled, p);
+                    return this;
+                }
+            }
+        }
+        return appendText(Double.toString(v));
+    }
+
+    /**
+     * Append a value that is formatted with String.format(Locale.ROOT, "%.nf"), i.e., rounded half up to a number of
+     * decimals. Java's Formatter rounds the shortest decimal representation of the double rather than its exact binary value,
+     * so values that lie too close to halfway between two outputs are formatted by String.format itself.
+     * @param v the value
+     * @param decimals the number of decimals (0-8)
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendFixed(final double v, final int decimals)
+    {
+        long scaled = scaleFixed(v, decimals);
+        if (scaled < 0)
+            return appendText(String.format(Locale.ROOT, "%." + decimals + "f", v));
+        appendScaled(v < 0 || (v == 0.0 && 1.0 / v < 0), scaled, decimals);
+        return this;
+    }
+
+    /**
+     * Return the absolute value of v times 10^decimals, rounded half up, or -1 when the value cannot be reproduced reliably.
+     * @param v the value
+     * @param decimals the number of decimals
+     * @return the scaled absolute value, or -1 when the value is not finite, too large, or too close to a rounding boundary
+     */
+    private static long scaleFixed(final double v, final int decimals)
+    {
+        double x = Math.abs(v) * POW10[decimals];
+        if (!(x < 1E15))
+            return -1;
+        double floor = Math.floor(x);
+        double frac = x - floor;
+        // the product and the shortest decimal representation can each be off by an ulp of x
+        if (Math.abs(frac - 0.5) < 1E-6 + 4.0 * Math.ulp(x))
+            return -1;
+        return (long) floor + (frac > 0.5 ? 1 : 0);
+    }
+
+    /* *************************************** TIME AND DURATION *************************************** */
+
+    /**
+     * Append a clock time in the format of ClockTime.ymdhm(), e.g., "2025-03-31 14:05". A null time is appended as "null".
+     * @param time the clock time
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendClockTime(final ClockTime time)
+    {
+        if (time == null)
+            return appendBytes(NULL);
+        long epochSecond = Math.round(time.getSI());
+        long epochDay = Math.floorDiv(epochSecond, 86400L);
+        int secondOfDay = (int) Math.floorMod(epochSecond, 86400L);
+
+        // civil date from the number of days since 1970-01-01 in the proleptic Gregorian calendar
+        long z = epochDay + 719468L;
+        long era = Math.floorDiv(z, 146097L);
+        long doe = z - era * 146097L;
+        long yoe = (doe - doe / 1460L + doe / 36524L - doe / 146096L) / 365L;
+        long doy = doe - (365L * yoe + yoe / 4L - yoe / 100L);
+        long mp = (5L * doy + 2L) / 153L;
+        long day = doy - (153L * mp + 2L) / 5L + 1L;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yoe + era * 400L + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999)
+            return appendText(time.ymdhm());
+
+        ensure(16);
+        appendDigits(year, 4);
+        this.buf[this.len++] = '-';
+        appendDigits(month, 2);
+        this.buf[this.len++] = '-';
+        appendDigits(day, 2);
+        this.buf[this.len++] = ' ';
+        appendDigits(secondOfDay / 3600, 2);
+        this.buf[this.len++] = ':';
+        appendDigits((secondOfDay / 60) % 60, 2);
+        return this;
+    }
+
+    /**
+     * Append a duration in the format of Duration.toString(), e.g., "3600.00000 s". A null duration is appended as "null".
+     * @param duration the duration
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendDuration(final Duration duration)
+    {
+        if (duration == null)
+            return appendBytes(NULL);
+        return appendDuration(duration.getInUnit(), duration.getDisplayUnit());
+    }
+
+    /**
+     * Append a duration value in a unit in the format of Duration.toString(). The number is formatted as by the djunits
+     * EngineeringFormatter, which uses the plain notation with 10 characters for values between 1E-4 and 1E8 (1E7 for negative
+     * values), and the exponent notation otherwise; only the plain notation is encoded without creating Strings.
+     * @param value the value of the duration in the unit
+     * @param unit the display unit of the duration
+     * @return this encoder for method chaining
+     */
+    public CsvLineEncoder appendDuration(final double value, final DurationUnit unit)
+    {
+        byte[] suffix = this.unitSuffix.get(unit);
+        if (suffix == null)
+        {
+            String s = new Duration(1.0, unit).toString();
+            suffix = bytes(s.substring(Format.format(1.0).length()));
+            this.unitSuffix.put(unit, suffix);
+        }
+        if (!appendDjunitsNumber(value))
+            appendText(Format.format(value));
+        return appendBytes(suffix);
+    }
+
+    /**
+     * Append a number in the plain notation of the djunits EngineeringFormatter with the default width of 10 characters.
+     * @param v the number
+     * @return whether the number could be appended; false when the original formatter has to be used
+     */
+    private boolean appendDjunitsNumber(final double v)
+    {
+        double a = Math.abs(v);
+        int decimals = v > 0 ? DJUNITS_WIDTH - 2 : DJUNITS_WIDTH - 3;
+        if (!(a > 1E-4 && a < POW10[DJUNITS_WIDTH - (v > 0 ? 2 : 3)] - 0.5))
+            return false;
+        long scaled = scaleFixed(v, decimals);
+        if (scaled < 0)
+            return false;
+        int length = (v < 0 ? 1 : 0) + digitCount(scaled / LONG_POW10[decimals]) + 1 + decimals;
+        if (length > DJUNITS_WIDTH)
+        {
+            // the formatter reduces the number of decimals until the number fits the width
+            decimals -= length - DJUNITS_WIDTH;
+            scaled = scaleFixed(v, decimals);
+            if (scaled < 0)
+                return false;
+            length = (v < 0 ? 1 : 0) + digitCount(scaled / LONG_POW10[decimals]) + 1 + decimals;
+            if (length > DJUNITS_WIDTH)
+                return false;
+        }
+        appendScaled(v < 0, scaled, decimals);
+        return true;
+    }
+
+}
@@ -0,0 +1,369 @@
+package nl.tudelft.simulation.simport.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.LockSupport;
+
+import org.djutils.logger.CategoryLogger;
+
+import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
+
+/**
+ * OutputPipeline moves the encoding and writing of output lines off the simulation thread. The simulation thread claims a
+ * record, copies the fields of an event into it, and publishes it in an OutputRingBuffer; a dedicated writer thread encodes
+ * the records into a reusable buffer and writes them to the sinks (output streams). The sinks are flushed per block, when the
+ * writer has caught up with the simulation, instead of per line. When the pipeline is synchronous, the record is encoded and
+ * written on the simulation thread when it is published, which is useful for comparison and debugging. When the writer thread
+ * stops with an error, e.g., an exception in an encoder, the simulation thread gets an exception at the next claim(),
+ * publish() or close(), instead of waiting forever for a free record.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class OutputPipeline implements Runnable
+{
+    /** the ring buffer with the records (only used when asynchronous). */
+    private final OutputRingBuffer ring;
+
+    /** the output streams, indexed by the sink number of a record. */
+    private final OutputStream[] sinks;
+
+    /** whether a sink has been written to since the last flush. */
+    private final boolean[] dirty;
+
+    /** the encoder of a record into a line. */
+    private final RecordEncoder encoder;
+
+    /** the columnar files, indexed by the sink number of a record; a non-null entry replaces the output stream. */
+    private final ColumnarWriter[] tables;
+
+    /** the encoder of a record into a row of a columnar file; null when there are no columnar files. */
+    private final RowEncoder rowEncoder;
+
+    /** whether the records are written by a separate thread. */
+    private final boolean async;
+
+    /** the single record that is used when the pipeline is synchronous. */
+    private final OutputRecord syncRecord = new OutputRecord();
+
+    /** the reusable line buffer. */
+    private final CsvLineEncoder line = new CsvLineEncoder(1024);
+
+    /** the writer thread, null when synchronous. */
+    private final Thread writerThread;
+
+    /** whether the pipeline has been asked to drain and close. */
+    private volatile boolean closing = false;
+
+    /** whether the pipeline has been closed. */
+    private boolean closed = false;
+
+    /** the number of records that have been written. */
+    private long nrRecords = 0;
+
+    /**
+     * Create an output pipeline. The sinks are owned by the pipeline and closed when the pipeline is closed.
+     * @param sinks the output streams, indexed by the sink number of a record; entries can be null for unused sinks
+     * @param encoder the encoder of a record into a line
+     * @param async whether the records are written by a separate thread
+     * @param capacity the number of records in the ring buffer
+     */
+    public OutputPipeline(final OutputStream[] sinks, final RecordEncoder encoder, final boolean async, final int capacity)
+    {
+        this(sinks, encoder, new ColumnarWriter[sinks.length], null, async, capacity);
+    }
+
+    /**
+     * Create an output pipeline in which some sinks are columnar files. The sinks and tables are owned by the pipeline and
+     * closed when the pipeline is closed.
+     * @param sinks the output streams, indexed by the sink number of a record; entries can be null for unused sinks
+     * @param encoder the encoder of a record into a line
+     * @param tables the columnar files, indexed by the sink number of a record; entries are null for text sinks
+     * @param rowEncoder the encoder of a record into a row of a columnar file
+     * @param async whether the records are written by a separate thread
+     * @param capacity the number of records in the ring buffer
+     */
+    public OutputPipeline(final OutputStream[] sinks, final RecordEncoder encoder, final ColumnarWriter[] tables,
+            final RowEncoder rowEncoder, final boolean async, final int capacity)
+    {
+        this.sinks = sinks;
+        this.dirty = new boolean[sinks.length];
+        this.encoder = encoder;
+        this.tables = tables;
+        this.rowEncoder = rowEncoder;
+        this.async = async;
+        if (async)
+        {
+            this.ring = new OutputRingBuffer(capacity);
+            this.writerThread = new Thread(this, "OutputWriter");
+            this.writerThread.setDaemon(true);
+        }
+        else
+        {
+            this.ring = null;
+            this.writerThread = null;
+        }
+    }
+
+    /**
+     * Start the writer thread. Lines that are written with writeDirect() before the start are written before all records.
+     */
+    public void start()
+    {
+        if (this.async)
+            this.writerThread.start();
+    }
+
+    /**
+     * Claim a record to fill. When the ring buffer is full, the call waits until the writer thread has freed a record.
+     * @param sink the sink (output file) for which the record is meant
+     * @param kind the kind of record within the sink
+     * @return an empty record that has to be published after filling it
+     * @throws SimPortRuntimeException when the writer thread has stopped with an error
+     */
+    public OutputRecord claim(final int sink, final int kind)
+    {
+        if (this.async)
+        {
+            this.ring.checkFailure();
+            return this.ring.claim(sink, kind);
+        }
+        this.syncRecord.reset(sink, kind);
+        return this.syncRecord;
+    }
+
+    /**
+     * Publish a filled record for writing.
+     * @param record the record that was obtained with claim()
+     * @throws SimPortRuntimeException when the writer thread has stopped with an error
+     */
+    public void publish(final OutputRecord record)
+    {
+        if (this.async)
+        {
+            this.ring.publish(record);
+            this.ring.checkFailure();
+        }
+        else
+        {
+            write(record);
+            flushDirty();
+        }
+    }
+
+    /**
+     * Write a line (e.g., a header) directly to a sink. Only to be used before start() is called.
+     * @param sink the sink
+     * @param text the text to write
+     */
+    public void writeDirect(final int sink, final String text)
+    {
+        try
+        {
+            this.sinks[sink].write(text.getBytes(StandardCharsets.UTF_8));
+            this.dirty[sink] = true;
+        }
+        catch (IOException ioe)
+        {
+            CategoryLogger.always().error("Error writing to output sink {}. Error: {}", sink, ioe.getMessage());
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            int idle = 0;
+            while (true)
+            {
+                OutputRecord record = this.ring.peek();
+                if (record != null)
+                {
+                    write(record);
+                    this.ring.release();
+                    idle = 0;
+                    continue;
+                }
+                if (this.closing)
+                {
+                    // producers have stopped; a last check for records that were published just before closing
+                    if (this.ring.peek() == null)
+                        break;
+                    continue;
+                }
+                // caught up with the simulation: flush the block that was written
+                if (idle++ == 0)
+                    flushDirty();
+                LockSupport.parkNanos(100_000L);
+            }
+            flushDirty();
+        }
+        catch (Throwable error)
+        {
+            // do not die silently: the producers would wait forever for a free record in the full ring
+            CategoryLogger.always().error(error, "Output writer thread stopped after {} records", this.nrRecords);
+            this.ring.fail(error);
+        }
+    }
+
+    /**
+     * Encode a record and write it to its sink.
+     * @param record the record to write
+     */
+    private void write(final OutputRecord record)
+    {
+        ColumnarWriter table = this.tables[record.getSink()];
+        if (table != null)
+        {
+            try
+            {
+                this.rowEncoder.encode(record, table);
+                table.endRow();
+                this.nrRecords++;
+            }
+            catch (IOException ioe)
+            {
+                CategoryLogger.always().error("Error writing to columnar sink {}. Error: {}", record.getSink(),
+                        ioe.getMessage());
+            }
+            return;
+        }
+        this.line.reset();
+        this.encoder.encode(record, this.line);
+        try
+        {
+            this.sinks[record.getSink()].write(this.line.buffer(), 0, this.line.length());
+            this.dirty[record.getSink()] = true;
+            this.nrRecords++;
+        }
+        catch (IOException ioe)
+        {
+            CategoryLogger.always().error("Error writing to output sink {}. Error: {}", record.getSink(), ioe.getMessage());
+        }
+    }
+
+    /**
+     * Flush the sinks that have been written to since the last flush.
+     */
+    private void flushDirty()
+    {
+        for (int i = 0; i < this.sinks.length; i++)
+        {
+            if (this.dirty[i])
+            {
+                try
+                {
+                    this.sinks[i].flush();
+                }
+                catch (IOException ioe)
+                {
+                    CategoryLogger.always().error("Error flushing output sink {}. Error: {}", i, ioe.getMessage());
+                }
+                this.dirty[i] = false;
+            }
+        }
+    }
+
+    /**
+     * Drain all published records, stop the writer thread, and close the sinks. This method should be called by the
+     * simulation thread, after the last record has been published.
+     * @throws SimPortRuntimeException when the writer thread has stopped with an error; the sinks are closed nevertheless
+     */
+    public void close()
+    {
+        if (this.closed)
+            return;
+        this.closed = true;
+        if (this.async)
+        {
+            this.closing = true;
+            LockSupport.unpark(this.writerThread);
+            try
+            {
+                this.writerThread.join();
+            }
+            catch (InterruptedException exception)
+            {
+                CategoryLogger.always().error("Interrupted while draining the output pipeline");
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (int i = 0; i < this.sinks.length; i++)
+        {
+            try
+            {
+                if (this.sinks[i] != null)
+                    this.sinks[i].close();
+            }
+            catch (IOException ioe)
+            {
+                CategoryLogger.always().error("Error closing output sink {}. Error: {}", i, ioe.getMessage());
+            }
+        }
+        for (int i = 0; i < this.tables.length; i++)
+        {
+            try
+            {
+                if (this.tables[i] != null)
+                    this.tables[i].close();
+            }
+            catch (IOException ioe)
+            {
+                CategoryLogger.always().error("Error closing columnar sink {}. Error: {}", i, ioe.getMessage());
+            }
+        }
+        if (this.async)
+            this.ring.checkFailure();
+    }
+
+    /** @return the number of records that have been written */
+    public long getNrRecords()
+    {
+        return this.nrRecords;
+    }
+
+    /** @return the number of times the simulation thread had to wait for a free record */
+    public long getNrWaits()
+    {
+        return this.async ? this.ring.getNrWaits() : 0L;
+    }
+
+    /** @return whether the records are written by a separate thread */
+    public boolean isAsync()
+    {
+        return this.async;
+    }
+
+    /**
+     * RecordEncoder encodes an OutputRecord into the bytes of a line, including the line terminator.
+     */
+    @FunctionalInterface
+    public interface RecordEncoder
+    {
+        /**
+         * Encode the record into the line.
+         * @param record the record to encode
+         * @param line the (empty) line buffer to append to
+         */
+        void encode(OutputRecord record, CsvLineEncoder line);
+    }
+
+    /**
+     * RowEncoder copies the fields of an OutputRecord into the current row of a columnar file.
+     */
+    @FunctionalInterface
+    public interface RowEncoder
+    {
+        /**
+         * Set the columns of the current row of the table; the pipeline finishes the row.
+         * @param record the record to encode
+         * @param table the columnar file
+         */
+        void encode(OutputRecord record, ColumnarWriter table);
+    }
+
+}
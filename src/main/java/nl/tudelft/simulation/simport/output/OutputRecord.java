@@ -0,0 +1,181 @@
+package nl.tudelft.simulation.simport.output;
+
+/**
+ * OutputRecord is a preallocated slot in the OutputRingBuffer. The simulation thread copies the primitive fields of an event
+ * (and references to immutable objects such as ids and times) into the record; the writer thread encodes the record into a
+ * line of the output file. Records are reused, so filling a record does not allocate.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class OutputRecord
+{
+    /** the maximum number of long fields. */
+    public static final int MAX_LONGS = 96;
+
+    /** the maximum number of double fields. */
+    public static final int MAX_DOUBLES = 8;
+
+    /** the maximum number of reference fields. */
+    public static final int MAX_REFS = 32;
+
+    /** the maximum number of byte fields. */
+    public static final int MAX_BYTES = 16;
+
+    /** the position of the record in the ring buffer, used to publish and release the record. */
+    long position;
+
+    /** the sink (output file) for which the record is meant. */
+    private int sink;
+
+    /** the kind of record within the sink, e.g., a driving or a terminal activity line. */
+    private int kind;
+
+    /** the long fields. */
+    private final long[] longs = new long[MAX_LONGS];
+
+    /** the number of long fields in use. */
+    private int nrLongs;
+
+    /** the double fields. */
+    private final double[] doubles = new double[MAX_DOUBLES];
+
+    /** the number of double fields in use. */
+    private int nrDoubles;
+
+    /** the reference fields; only references to immutable objects may be stored. */
+    private final Object[] refs = new Object[MAX_REFS];
+
+    /** the number of reference fields in use. */
+    private int nrRefs;
+
+    /** the byte fields. */
+    private final byte[] bytes = new byte[MAX_BYTES];
+
+    /** the number of byte fields in use. */
+    private int nrBytes;
+
+    /**
+     * Clear the record for reuse, and set the sink and kind.
+     * @param newSink the sink (output file) for which the record is meant
+     * @param newKind the kind of record within the sink
+     */
+    public void reset(final int newSink, final int newKind)
+    {
+        this.sink = newSink;
+        this.kind = newKind;
+        this.nrLongs = 0;
+        this.nrDoubles = 0;
+        for (int i = 0; i < this.nrRefs; i++)
+            this.refs[i] = null;
+        this.nrRefs = 0;
+        this.nrBytes = 0;
+    }
+
+    /** @return the sink (output file) for which the record is meant */
+    public int getSink()
+    {
+        return this.sink;
+    }
+
+    /** @return the kind of record within the sink */
+    public int getKind()
+    {
+        return this.kind;
+    }
+
+    /**
+     * Append a long field.
+     * @param value the value
+     * @return the record for method chaining
+     */
+    public OutputRecord addLong(final long value)
+    {
+        this.longs[this.nrLongs++] = value;
+        return this;
+    }
+
+    /**
+     * Append a double field.
+     * @param value the value
+     * @return the record for method chaining
+     */
+    public OutputRecord addDouble(final double value)
+    {
+        this.doubles[this.nrDoubles++] = value;
+        return this;
+    }
+
+    /**
+     * Append a reference field. The object should be immutable, since it is read by the writer thread later.
+     * @param value the value, can be null
+     * @return the record for method chaining
+     */
+    public OutputRecord addRef(final Object value)
+    {
+        this.refs[this.nrRefs++] = value;
+        return this;
+    }
+
+    /**
+     * Append a byte field.
+     * @param value the value
+     * @return the record for method chaining
+     */
+    public OutputRecord addByte(final byte value)
+    {
+        this.bytes[this.nrBytes++] = value;
+        return this;
+    }
+
+    /**
+     * @param index the index of the field
+     * @return the long field with the given index
+     */
+    public long getLong(final int index)
+    {
+        return this.longs[index];
+    }
+
+    /** @return the number of long fields */
+    public int getNrLongs()
+    {
+        return this.nrLongs;
+    }
+
+    /**
+     * @param index the index of the field
+     * @return the double field with the given index
+     */
+    public double getDouble(final int index)
+    {
+        return this.doubles[index];
+    }
+
+    /**
+     * @param index the index of the field
+     * @return the reference field with the given index
+     */
+    public Object getRef(final int index)
+    {
+        return this.refs[index];
+    }
+
+    /**
+     * @param index the index of the field
+     * @return the byte field with the given index
+     */
+    public byte getByte(final int index)
+    {
+        return this.bytes[index];
+    }
+
+    /** @return the number of byte fields */
+    public int getNrBytes()
+    {
+        return this.nrBytes;
+    }
+
+}
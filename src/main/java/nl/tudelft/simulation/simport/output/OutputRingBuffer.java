@@ -0,0 +1,163 @@
+package nl.tudelft.simulation.simport.output;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
+
+/**
+ * OutputRingBuffer is a bounded multi-producer, single-consumer ring of preallocated OutputRecords. A producer claims a record,
+ * fills it in place, and publishes it; the consumer peeks at the oldest published record, processes it, and releases it for
+ * reuse. Each slot has a sequence number that tells whether it is free for the producer of a given position, or published for
+ * the consumer. When the ring is full, the producer waits until the consumer has released a slot (backpressure). When the
+ * consumer has stopped with an error, a producer gets an exception instead of waiting forever.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class OutputRingBuffer
+{
+    /** the preallocated records. */
+    private final OutputRecord[] slots;
+
+    /** the sequence number per slot: position when free for the producer, position + 1 when published. */
+    private final AtomicLongArray sequence;
+
+    /** the mask to translate a position into a slot index. */
+    private final int mask;
+
+    /** the next position to claim by a producer. */
+    private final AtomicLong tail = new AtomicLong(0);
+
+    /** the next position to process by the consumer; only used by the consumer thread. */
+    private long head = 0;
+
+    /** the number of times a producer had to wait for a free slot. */
+    private final AtomicLong nrWaits = new AtomicLong(0);
+
+    /** the error that stopped the consumer, or null when the consumer is running. */
+    private volatile Throwable failure = null;
+
+    /**
+     * Create a ring buffer.
+     * @param capacity the number of records; will be rounded up to a power of 2
+     */
+    public OutputRingBuffer(final int capacity)
+    {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new OutputRecord[size];
+        this.sequence = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++)
+        {
+            this.slots[i] = new OutputRecord();
+            this.sequence.set(i, i);
+        }
+    }
+
+    /**
+     * Claim a record to fill. When the ring is full, wait until the consumer has released a record.
+     * @param sink the sink (output file) for which the record is meant
+     * @param kind the kind of record within the sink
+     * @return an empty record that has to be published with {@link #publish(OutputRecord)} after filling it
+     * @throws SimPortRuntimeException when the consumer has stopped with an error
+     */
+    public OutputRecord claim(final int sink, final int kind)
+    {
+        int spins = 0;
+        while (true)
+        {
+            long pos = this.tail.get();
+            int index = (int) (pos & this.mask);
+            long seq = this.sequence.get(index);
+            if (seq == pos)
+            {
+                if (this.tail.compareAndSet(pos, pos + 1))
+                {
+                    OutputRecord record = this.slots[index];
+                    record.position = pos;
+                    record.reset(sink, kind);
+                    return record;
+                }
+            }
+            else if (seq < pos)
+            {
+                // full: wait for the consumer, unless it has stopped
+                checkFailure();
+                if (spins++ == 0)
+                    this.nrWaits.incrementAndGet();
+                if (spins < 100)
+                    Thread.onSpinWait();
+                else
+                    LockSupport.parkNanos(10_000L);
+            }
+        }
+    }
+
+    /**
+     * Publish a filled record, so the consumer can process it.
+     * @param record the record that was obtained with claim()
+     */
+    public void publish(final OutputRecord record)
+    {
+        this.sequence.set((int) (record.position & this.mask), record.position + 1);
+    }
+
+    /**
+     * Return the oldest published record without removing it, or null when no record is available. Only to be called by the
+     * consumer thread.
+     * @return the oldest published record, or null when the ring is empty
+     */
+    public OutputRecord peek()
+    {
+        int index = (int) (this.head & this.mask);
+        return this.sequence.get(index) == this.head + 1 ? this.slots[index] : null;
+    }
+
+    /**
+     * Release the record that was returned by peek(), so producers can reuse it. Only to be called by the consumer thread.
+     */
+    public void release()
+    {
+        int index = (int) (this.head & this.mask);
+        this.sequence.set(index, this.head + this.slots.length);
+        this.head++;
+    }
+
+    /**
+     * Register the error that stopped the consumer. Producers that wait for a free slot, or that call checkFailure(), get an
+     * exception with the error as its cause.
+     * @param error the error that stopped the consumer
+     */
+    public void fail(final Throwable error)
+    {
+        this.failure = error;
+    }
+
+    /**
+     * Throw an exception when the consumer has stopped with an error.
+     * @throws SimPortRuntimeException when the consumer has stopped with an error
+     */
+    public void checkFailure()
+    {
+        Throwable error = this.failure;
+        if (error != null)
+            throw new SimPortRuntimeException("The consumer of the output ring buffer stopped with an error", error);
+    }
+
+    /** @return the number of records in the ring */
+    public int getCapacity()
+    {
+        return this.slots.length;
+    }
+
+    /** @return the number of times a producer had to wait for a free slot */
+    public long getNrWaits()
+    {
+        return this.nrWaits.get();
+    }
+
+}
@@ -1,29 +1,36 @@
 package nl.tudelft.simulation.simport.output;
 
 import java.io.BufferedOutputStream;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.zip.GZIPOutputStream;
 
 import org.djunits.unit.LengthUnit;
+import org.djunits.value.vdouble.scalar.Duration;
 import org.djutils.event.Event;
 import org.djutils.event.EventListener;
 import org.djutils.logger.CategoryLogger;
 
+import gnu.trove.list.TIntList;
+
 import nl.tudelft.simulation.dsol.experiment.Replication;
+import nl.tudelft.simulation.dsol.simulators.clock.ClockTime;
+import nl.tudelft.simulation.simport.Location;
 import nl.tudelft.simulation.simport.TransportMode;
+import nl.tudelft.simulation.simport.appointment.Appointment;
 import nl.tudelft.simulation.simport.appointment.SlotBooking;
 import nl.tudelft.simulation.simport.container.Booking;
 import nl.tudelft.simulation.simport.container.Container;
+import nl.tudelft.simulation.simport.model.ModelParameters;
 import nl.tudelft.simulation.simport.model.PortModel;
 import nl.tudelft.simulation.simport.terminal.ContainerFacility;
 import nl.tudelft.simulation.simport.terminal.TerminalStatistics;
 import nl.tudelft.simulation.simport.terminal.TerminalStatistics.TerminalData;
+import nl.tudelft.simulation.simport.terminal.Yard;
 import nl.tudelft.simulation.simport.truck.Truck;
 import nl.tudelft.simulation.simport.truck.activity.RealizedDrivingActivity;
 import nl.tudelft.simulation.simport.truck.activity.RealizedTerminalActivity;
@@ -32,7 +39,9 @@ import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
 import nl.tudelft.simulation.simport.vessel.Vessel;
 
 /**
- * OutputWriter writes output of the simulation that it obtains through pub/sub to a number of output files.
+ * OutputWriter writes output of the simulation that it obtains through pub/sub to a number of output files. The notify()
+ * method only copies the fields of an event into a record of an OutputPipeline; encoding, compression and file I/O take place
+ * on a separate writer thread, unless the writer is created as synchronous.
  * <p>
  * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
  * BSD-style license.
@@ -44,91 +53,213 @@ public class OutputWriter implements EventListener
     /** the model. */
     private final PortModel model;
 
-    /** the vessel writer. */
-    private PrintWriter vesselWriter;
+    /** sink number of the vessel file. */
+    private static final int VESSEL = 0;
+
+    /** sink number of the container file. */
+    private static final int CONTAINER = 1;
+
+    /** sink number of the truck file. */
+    private static final int TRUCK = 2;
+
+    /** sink number of the terminal file. */
+    private static final int TERMINAL = 3;
+
+    /** sink number of the terminal queue file. */
+    private static final int TERMINAL_QUEUE = 4;
+
+    /** sink number of the total terminal file. */
+    private static final int TERMINAL_TOTAL = 5;
+
+    /** sink number of the final container file. */
+    private static final int CONTAINER_FINAL = 6;
+
+    /** record kind for a driving activity in the truck file. */
+    private static final int KIND_DRIVE = 0;
+
+    /** record kind for a terminal visit in the truck file. */
+    private static final int KIND_VISIT = 1;
+
+    /** the number of records in the ring buffer between the simulation and the writer thread. */
+    private static final int RING_CAPACITY = 8192;
+
+    /** the transport modes for the per-mode terminal statistics, in output order. */
+    private static final TransportMode[] STAT_MODES =
+            new TransportMode[] {TransportMode.DEEPSEA, TransportMode.FEEDER, TransportMode.TRUCK, TransportMode.BARGE,
+                    TransportMode.RAIL};
+
+    /** the quoted field "E". */
+    private static final byte[] QUOTED_E = CsvLineEncoder.bytes("\"E\"");
+
+    /** the quoted field "F". */
+    private static final byte[] QUOTED_F = CsvLineEncoder.bytes("\"F\"");
+
+    /** the quoted field "domestic". */
+    private static final byte[] QUOTED_DOMESTIC = CsvLineEncoder.bytes("\"domestic\"");
+
+    /** the quoted field "export". */
+    private static final byte[] QUOTED_EXPORT = CsvLineEncoder.bytes("\"export\"");
+
+    /** the quoted field "import". */
+    private static final byte[] QUOTED_IMPORT = CsvLineEncoder.bytes("\"import\"");
 
-    /** the container writer. */
-    private BufferedWriter containerWriter;
+    /** the quoted field "transshipment". */
+    private static final byte[] QUOTED_TRANSSHIPMENT = CsvLineEncoder.bytes("\"transshipment\"");
 
-    /** the final container writer. */
-    private PrintWriter finalContainerWriter;
+    /** the quoted field "TRANSSHIP". */
+    private static final byte[] QUOTED_TRANSSHIP = CsvLineEncoder.bytes("\"TRANSSHIP\"");
 
-    /** the truck writer. */
-    private BufferedWriter truckWriter;
+    /** the quoted field "TRUCK". */
+    private static final byte[] QUOTED_TRUCK = CsvLineEncoder.bytes("\"TRUCK\"");
 
-    /** the terminal writer. */
-    private PrintWriter terminalWriter;
+    /** the quoted field "BARGE". */
+    private static final byte[] QUOTED_BARGE = CsvLineEncoder.bytes("\"BARGE\"");
 
-    /** the total terminal writer. */
-    private PrintWriter totalTerminalWriter;
+    /** the quoted field "RAIL". */
+    private static final byte[] QUOTED_RAIL = CsvLineEncoder.bytes("\"RAIL\"");
 
-    /** the loop detector writer. */
-    private PrintWriter loopDetectorWriter;
+    /** the quoted field "DRIVE". */
+    private static final byte[] QUOTED_DRIVE = CsvLineEncoder.bytes("\"DRIVE\"");
 
-    /** the tds writer. */
-    private PrintWriter tdsWriter;
+    /** the quoted field "TERMINAL". */
+    private static final byte[] QUOTED_TERMINAL = CsvLineEncoder.bytes("\"TERMINAL\"");
 
-    /** the terminal queue writer. */
-    private PrintWriter terminalQueueWriter;
+    /** the quoted field "FULL". */
+    private static final byte[] QUOTED_FULL = CsvLineEncoder.bytes("\"FULL\"");
 
-    /** the terminal visit writer. */
-    private PrintWriter terminalVisitWriter;
+    /** the quoted field "EMPTY". */
+    private static final byte[] QUOTED_EMPTY = CsvLineEncoder.bytes("\"EMPTY\"");
+
+    /** the empty visit columns of a driving line in the truck file. */
+    private static final byte[] EMPTY_VISIT_COLUMNS = CsvLineEncoder.bytes(",".repeat(17));
+
+    /** the empty driving columns of a visit line in the truck file. */
+    private static final byte[] EMPTY_DRIVING_COLUMNS = CsvLineEncoder.bytes(",".repeat(12));
+
+    /** the empty slot columns of a visit without a slot booking in the truck file. */
+    private static final byte[] EMPTY_SLOT_COLUMNS = CsvLineEncoder.bytes(",".repeat(5));
+
+    /** the pipeline that encodes and writes the records; null when no output is written. */
+    private OutputPipeline pipeline;
+
+    /** the columns of the columnar container file; times are in seconds since the epoch. */
+    private static final String[] CONTAINER_COLUMNS = {"container_nr", "terminal_in", "vessel_in", "date_vessel_in",
+            "terminal_out", "vessel_out", "date_vessel_out", "container_type", "empty_full", "location_chain", "direction",
+            "transport_mode"};
+
+    /** the column types of the columnar container file. */
+    private static final ColumnType[] CONTAINER_COLUMN_TYPES = {ColumnType.INT, ColumnType.STRING, ColumnType.STRING,
+            ColumnType.LONG, ColumnType.STRING, ColumnType.STRING, ColumnType.LONG, ColumnType.STRING, ColumnType.STRING,
+            ColumnType.STRING, ColumnType.STRING, ColumnType.STRING};
 
     /**
-     * OutputWriter writes output of the simulation that it obtains through pub/sub to a number of output files.
+     * the columns of the columnar truck file; times are in seconds since the epoch, durations in seconds. The truck number is
+     * the number within the company, and activity_time is the departure time of a drive or the arrival time of a visit.
+     */
+    private static final String[] TRUCK_COLUMNS = {"trucking_company", "truck_nr", "activity_nr", "activity_type",
+            "activity_time", "driving_leg_type", "driving_etd", "driving_atd", "driving_eta", "driving_ata",
+            "driving_container_nr1", "driving_container_nr2", "driving_orig_centroid", "driving_dest_centroid",
+            "driving_distance_km", "driving_planned_duration_s", "driving_actual_duration_s", "visit_terminal_id",
+            "visit_activity_type", "visit_dropoff_container_nr1", "visit_dropoff_container_nr2", "visit_pickup_container_nr1",
+            "visit_pickup_container_nr2", "visit_target_time", "visit_slot_nr", "visit_earliest_grace_time",
+            "visit_earliest_standard_time", "visit_latest_standard_time", "visit_latest_grace_time", "visit_ata",
+            "visit_waittime_before_gate_s", "visit_duration_gate_in_s", "visit_duration_handling_s",
+            "visit_duration_gate_out_s"};
+
+    /** the column types of the columnar truck file. */
+    private static final ColumnType[] TRUCK_COLUMN_TYPES = {ColumnType.STRING, ColumnType.INT, ColumnType.INT,
+            ColumnType.STRING, ColumnType.LONG, ColumnType.STRING, ColumnType.LONG, ColumnType.LONG, ColumnType.LONG,
+            ColumnType.LONG, ColumnType.INT, ColumnType.INT, ColumnType.STRING, ColumnType.STRING, ColumnType.DOUBLE,
+            ColumnType.DOUBLE, ColumnType.DOUBLE, ColumnType.STRING, ColumnType.STRING, ColumnType.INT, ColumnType.INT,
+            ColumnType.INT, ColumnType.INT, ColumnType.LONG, ColumnType.STRING, ColumnType.LONG, ColumnType.LONG,
+            ColumnType.LONG, ColumnType.LONG, ColumnType.LONG, ColumnType.DOUBLE, ColumnType.DOUBLE, ColumnType.DOUBLE,
+            ColumnType.DOUBLE};
+
+    /** the bytes of the container types, indexed by the type index of a container; filled by the encoder when first used. */
+    private final byte[][] containerTypes = new byte[16][];
+
+    /** the reusable buffer for the location chain in the columnar container file. */
+    private final CsvLineEncoder locationLine = new CsvLineEncoder(64);
+
+    /** the time in nanoseconds that the simulation thread spent in notify(). */
+    private long notifyNanos = 0L;
+
+    /**
+     * OutputWriter writes output of the simulation that it obtains through pub/sub to a number of output files. The output is
+     * written asynchronously by a separate writer thread.
      * @param model the model for pub/sub
      * @param outputPath the output path to which the filenames will be appended
      */
     public OutputWriter(final PortModel model, final String outputPath)
+    {
+        this(model, outputPath, true);
+    }
+
+    /**
+     * OutputWriter writes output of the simulation that it obtains through pub/sub to a number of output files.
+     * @param model the model for pub/sub
+     * @param outputPath the output path to which the filenames will be appended
+     * @param async whether the output is encoded and written by a separate writer thread, or on the simulation thread
+     */
+    public OutputWriter(final PortModel model, final String outputPath, final boolean async)
     {
         this.model = model;
-        if (!this.model.getInputParameterBoolean("output.WriteOutput"))
+        ModelParameters.OutputParameters parameters = model.getModelParameters().output();
+        if (!parameters.writeOutput())
             return;
         makeOutputDirectory(outputPath);
 
         try
         {
-            this.vesselWriter = new PrintWriter(outputPath + "/vessel.csv");
+            OutputStream[] sinks = new OutputStream[7];
+            ColumnarWriter[] tables = new ColumnarWriter[7];
+            boolean columnar = parameters.fileFormat() == ModelParameters.FileFormat.COLUMNAR;
+            sinks[VESSEL] = openFile(outputPath + "/vessel.csv", false);
+            if (parameters.writeContainerFile())
+            {
+                if (columnar)
+                    tables[CONTAINER] = new ColumnarWriter(Path.of(outputPath, "container.col"), CONTAINER_COLUMNS,
+                            CONTAINER_COLUMN_TYPES);
+                else
+                    sinks[CONTAINER] = openFile(outputPath + "/container.csv.gz", true);
+            }
+            if (parameters.writeTruckFile())
+            {
+                if (columnar)
+                    tables[TRUCK] = new ColumnarWriter(Path.of(outputPath, "truck.col"), TRUCK_COLUMNS, TRUCK_COLUMN_TYPES);
+                else
+                    sinks[TRUCK] = openFile(outputPath + "/truck.csv.gz", true);
+            }
+            sinks[TERMINAL] = openFile(outputPath + "/terminal.csv", false);
+            sinks[TERMINAL_QUEUE] = openFile(outputPath + "/terminal_queue.csv", false);
+            sinks[TERMINAL_TOTAL] = openFile(outputPath + "/terminal_total.csv", false);
+            sinks[CONTAINER_FINAL] = openFile(outputPath + "/container_final.csv", false);
+            this.pipeline = new OutputPipeline(sinks, this::encode, tables, this::encodeRow, async, RING_CAPACITY);
+
             writeVesselHeader();
             model.addListener(this, PortModel.VESSEL_EVENT);
-
-            if (this.model.getInputParameterBoolean("output.WriteContainerFile"))
+            if (parameters.writeContainerFile())
             {
-                FileOutputStream cfos = new FileOutputStream(new File(outputPath + "/container.csv.gz"));
-                BufferedOutputStream cbos = new BufferedOutputStream(cfos, 128 * 1024);
-                GZIPOutputStream ggos = new GZIPOutputStream(cbos);
-                OutputStreamWriter gosw = new OutputStreamWriter(ggos, "UTF-8");
-                this.containerWriter = new BufferedWriter(gosw, 128 * 1024);
-                writeContainerHeader();
+                if (!columnar)
+                    writeContainerHeader();
                 model.addListener(this, PortModel.CONTAINER_EVENT);
+                model.addListener(this, PortModel.CONTAINER_BATCH_EVENT);
             }
-
-            if (this.model.getInputParameterBoolean("output.WriteTruckFile"))
+            if (parameters.writeTruckFile())
             {
-                FileOutputStream tfos = new FileOutputStream(new File(outputPath + "/truck.csv.gz"));
-                BufferedOutputStream tbos = new BufferedOutputStream(tfos, 128 * 1024);
-                GZIPOutputStream tgos = new GZIPOutputStream(tbos);
-                OutputStreamWriter tosw = new OutputStreamWriter(tgos, "UTF-8");
-                this.truckWriter = new BufferedWriter(tosw, 128 * 1024);
-                writeTruckTripHeader();
+                if (!columnar)
+                    writeTruckTripHeader();
                 model.addListener(this, PortModel.TRUCK_EVENT);
             }
-
-            this.terminalWriter = new PrintWriter(outputPath + "/terminal.csv");
-            writeTerminalHeader();
+            writeTerminalHeader(TERMINAL);
             model.addListener(this, PortModel.DAILY_TERMINAL_EVENT);
-
-            this.terminalQueueWriter = new PrintWriter(outputPath + "/terminal_queue.csv");
             writeTerminalQueueHeader();
             model.addListener(this, PortModel.TERMINAL_QUEUE_EVENT);
-
-            this.totalTerminalWriter = new PrintWriter(outputPath + "/terminal_total.csv");
-            writeTotalTerminalHeader();
+            writeTerminalHeader(TERMINAL_TOTAL);
             model.addListener(this, PortModel.TOTAL_TERMINAL_EVENT);
-
-            this.finalContainerWriter = new PrintWriter(outputPath + "/container_final.csv");
             writeFinalContainerHeader();
 
+            this.pipeline.start();
             model.getSimulator().addListener(this, Replication.END_REPLICATION_EVENT);
         }
         catch (IOException ioe)
@@ -162,69 +293,213 @@ public class OutputWriter implements EventListener
         }
     }
 
+    /**
+     * Open a buffered output stream for a file.
+     * @param filename the full path of the file
+     * @param gzip whether the file has to be compressed with gzip
+     * @return the output stream
+     * @throws IOException when the file cannot be opened
+     */
+    private OutputStream openFile(final String filename, final boolean gzip) throws IOException
+    {
+        FileOutputStream fos = new FileOutputStream(new File(filename));
+        if (gzip)
+            return new GZIPOutputStream(new BufferedOutputStream(fos, 128 * 1024), 64 * 1024);
+        return new BufferedOutputStream(fos, 64 * 1024);
+    }
+
+    /* ****************************************** HEADERS ******************************************* */
+
     private void writeVesselHeader()
     {
-        this.vesselWriter.print("\"date\"");
-        this.vesselWriter.print(",\"vessel_id\"");
-        this.vesselWriter.print(",\"terminal_id\"");
-        this.vesselWriter.print(",\"vessel_type\"");
-        this.vesselWriter.print(",\"eta\"");
-        this.vesselWriter.print(",\"ata\"");
-        this.vesselWriter.print(",\"etd\"");
-        this.vesselWriter.print(",\"atd\"");
-        this.vesselWriter.print(",\"containers_loaded\"");
-        this.vesselWriter.print(",\"containers_loaded_full\"");
-        this.vesselWriter.print(",\"containers_loaded_empty\"");
-        this.vesselWriter.print(",\"containers_loaded_general\"");
-        this.vesselWriter.print(",\"containers_loaded_reefer\"");
-        this.vesselWriter.print(",\"containers_loaded_20ft\"");
-        this.vesselWriter.print(",\"containers_loaded_40ft\"");
-        this.vesselWriter.print(",\"teu_loaded\"");
-        this.vesselWriter.print(",\"contains_unloaded\"");
-        this.vesselWriter.print(",\"containers_unloaded_full\"");
-        this.vesselWriter.print(",\"containers_unloaded_empty\"");
-        this.vesselWriter.print(",\"containers_unloaded_general\"");
-        this.vesselWriter.print(",\"containers_unloaded_reefer\"");
-        this.vesselWriter.print(",\"containers_unloaded_20ft\"");
-        this.vesselWriter.print(",\"containers_unloaded_40ft\"");
-        this.vesselWriter.print(",\"teu_unloaded\"");
-        this.vesselWriter.print(",\"containers_present\"");
-        this.vesselWriter.print(",\"teu_present\"");
-        this.vesselWriter.print(",\"containers_transshipped_loaded\"");
-        this.vesselWriter.print(",\"containers_transshipped_unloaded\"");
-        this.vesselWriter.println();
-        this.vesselWriter.flush();
-    }
-
-    private void writeVesselLine(final Vessel vessel)
-    {
-        this.vesselWriter.print("\"" + getModel().getSimulator().getSimulatorClockTime().ymdhm() + "\"");
-        this.vesselWriter.print(",\"" + vessel.getId() + "\"");
-        this.vesselWriter.print(",\"" + vessel.getTerminal().getId() + "\"");
-        this.vesselWriter.print(",\"" + vessel.getVesselType().toString() + "\"");
-        this.vesselWriter.print(",\"" + vessel.getEta().ymdhm() + "\"");
-        this.vesselWriter.print(",\"" + vessel.getAta().ymdhm() + "\"");
-        this.vesselWriter.print(",\"" + vessel.getEtd().ymdhm() + "\"");
-        this.vesselWriter.print(",\"" + vessel.getAtd().ymdhm() + "\"");
-        this.vesselWriter.print("," + vessel.getLoadList().size());
-        int[] fegr24Loaded = calcFEGR24(vessel.getLoadList());
-        for (int i = 0; i < 6; i++)
-            this.vesselWriter.print("," + fegr24Loaded[i]);
-        this.vesselWriter.print("," + (fegr24Loaded[4] + 2 * fegr24Loaded[5]));
-        this.vesselWriter.print("," + vessel.getUnloadList().size());
-        int[] fegr24Unloaded = calcFEGR24(vessel.getUnloadList());
-        for (int i = 0; i < 6; i++)
-            this.vesselWriter.print("," + fegr24Unloaded[i]);
-        this.vesselWriter.print("," + (fegr24Unloaded[4] + 2 * fegr24Unloaded[5]));
-        this.vesselWriter.print("," + vessel.getContainerList().size());
+        StringBuilder s = new StringBuilder();
+        s.append("\"date\"");
+        s.append(",\"vessel_id\"");
+        s.append(",\"terminal_id\"");
+        s.append(",\"vessel_type\"");
+        s.append(",\"eta\"");
+        s.append(",\"ata\"");
+        s.append(",\"etd\"");
+        s.append(",\"atd\"");
+        s.append(",\"containers_loaded\"");
+        s.append(",\"containers_loaded_full\"");
+        s.append(",\"containers_loaded_empty\"");
+        s.append(",\"containers_loaded_general\"");
+        s.append(",\"containers_loaded_reefer\"");
+        s.append(",\"containers_loaded_20ft\"");
+        s.append(",\"containers_loaded_40ft\"");
+        s.append(",\"teu_loaded\"");
+        s.append(",\"contains_unloaded\"");
+        s.append(",\"containers_unloaded_full\"");
+        s.append(",\"containers_unloaded_empty\"");
+        s.append(",\"containers_unloaded_general\"");
+        s.append(",\"containers_unloaded_reefer\"");
+        s.append(",\"containers_unloaded_20ft\"");
+        s.append(",\"containers_unloaded_40ft\"");
+        s.append(",\"teu_unloaded\"");
+        s.append(",\"containers_present\"");
+        s.append(",\"teu_present\"");
+        s.append(",\"containers_transshipped_loaded\"");
+        s.append(",\"containers_transshipped_unloaded\"");
+        s.append(System.lineSeparator());
+        this.pipeline.writeDirect(VESSEL, s.toString());
+    }
+
+    private void writeContainerHeader()
+    {
+        StringBuilder s = new StringBuilder();
+        s.append("\"container_nr\"");
+        s.append(",\"terminal_in\"");
+        s.append(",\"vessel_in\"");
+        s.append(",\"date_vessel_in\"");
+        s.append(",\"terminal_out\"");
+        s.append(",\"vessel_out\"");
+        s.append(",\"date_vessel_out\"");
+        s.append(",\"container_type\"");
+        s.append(",\"empty_full\"");
+        s.append(",\"location_chain\"");
+        s.append(",\"direction\"");
+        s.append(",\"transport_mode\"");
+        s.append("\n");
+        this.pipeline.writeDirect(CONTAINER, s.toString());
+    }
+
+    private void writeTruckTripHeader()
+    {
+        StringBuilder s = new StringBuilder();
+        s.append("\"trucking_company\"");
+        s.append(",\"truck_nr\"");
+        s.append(",\"activity_nr\"");
+        s.append(",\"activity_type\"");
+
+        s.append(",\"driving_leg_type\"");
+        s.append(",\"driving_etd\"");
+        s.append(",\"driving_atd\"");
+        s.append(",\"driving_eta\"");
+        s.append(",\"driving_ata\"");
+        s.append(",\"driving_container_nr1\"");
+        s.append(",\"driving_container_nr2\"");
+        s.append(",\"driving_orig_centroid\"");
+        s.append(",\"driving_dest_centroid\"");
+        s.append(",\"driving_distance_km\"");
+        s.append(",\"driving_planned_duration_s\"");
+        s.append(",\"driving_actual_duration_s\"");
+
+        s.append(",\"visit_terminal_id\"");
+        s.append(",\"visit_activity_type\"");
+        s.append(",\"visit_dropoff_container_nr1\"");
+        s.append(",\"visit_dropoff_container_nr2\"");
+        s.append(",\"visit_pickup_container_nr1\"");
+        s.append(",\"visit_pickup_container_nr2\"");
+        s.append(",\"visit_target_time\"");
+        s.append(",\"visit_slot_nr\"");
+        s.append(",\"visit_earliest_grace_time\"");
+        s.append(",\"visit_earliest_standard_time\"");
+        s.append(",\"visit_latest_standard_time\"");
+        s.append(",\"visit_latest_grace_time\"");
+        s.append(",\"visit_ata\"");
+        s.append(",\"visit_waittime_before_gate\"");
+        s.append(",\"visit_duration_gate_in_s\"");
+        s.append(",\"visit_duration_handling_s\"");
+        s.append(",\"visit_duration_gate_out_s\"");
+
+        s.append("\n");
+        this.pipeline.writeDirect(TRUCK, s.toString());
+    }
+
+    private void writeTerminalHeader(final int sink)
+    {
+        StringBuilder s = new StringBuilder();
+        s.append("\"date\"");
+        s.append(",\"terminal\"");
+        s.append(",\"nr_vessel_arrivals\"");
+        s.append(",\"nr_vessel_departures\"");
+        s.append(",\"nr_deepsea_arrivals\"");
+        s.append(",\"nr_deepsea_departures\"");
+        s.append(",\"nr_feeder_arrivals\"");
+        s.append(",\"nr_feeder_departures\"");
+        for (String yad : new String[] {"yard", "arrivals", "departures"})
+        {
+            for (String ct : new String[] {"containers", "teu"})
+            {
+                for (String type : new String[] {"total", "full", "empty", "general", "reefer", "20ft", "40ft"})
+                {
+                    s.append(",\"nr_" + ct + "_" + type + "_" + yad + "\"");
+                }
+            }
+        }
+        s.append(",\"nr_truck_visits_pickup\"");
+        s.append(",\"nr_truck_visits_delivery\"");
+        s.append(",\"nr_truck_visits_dual\"");
+        s.append(",\"nr_container_arrivals_deepsea\"");
+        s.append(",\"nr_container_departures_deepsea\"");
+        s.append(",\"nr_teu_arrivals_deepsea\"");
+        s.append(",\"nr_teu_departures_deepsea\"");
+        s.append(",\"nr_container_arrivals_feeder\"");
+        s.append(",\"nr_container_departures_feeder\"");
+        s.append(",\"nr_teu_arrivals_feeder\"");
+        s.append(",\"nr_teu_departures_feeder\"");
+        s.append(",\"nr_container_arrivals_truck\"");
+        s.append(",\"nr_container_departures_truck\"");
+        s.append(",\"nr_teu_arrivals_truck\"");
+        s.append(",\"nr_teu_departures_truck\"");
+        s.append(",\"nr_container_arrivals_barge\"");
+        s.append(",\"nr_container_departures_barge\"");
+        s.append(",\"nr_teu_arrivals_barge\"");
+        s.append(",\"nr_teu_departures_barge\"");
+        s.append(",\"nr_container_arrivals_rail\"");
+        s.append(",\"nr_container_departures_rail\"");
+        s.append(",\"nr_teu_arrivals_rail\"");
+        s.append(",\"nr_teu_departures_rail\"");
+        s.append(System.lineSeparator());
+        this.pipeline.writeDirect(sink, s.toString());
+    }
+
+    private void writeTerminalQueueHeader()
+    {
+        this.pipeline.writeDirect(TERMINAL_QUEUE,
+                "\"time\",\"terminal_id\",\"nr_trucks\"" + System.lineSeparator());
+    }
+
+    private void writeFinalContainerHeader()
+    {
+        this.pipeline.writeDirect(CONTAINER_FINAL,
+                "\"terminal_id\",\"container_nr\",\"vessel_in_nr\",\"vessel_out_nr\",\"locations\"" + System.lineSeparator());
+    }
+
+    /* *************************************** RECORD CAPTURE *************************************** */
+
+    private void recordVessel(final Vessel vessel)
+    {
+        OutputRecord r = this.pipeline.claim(VESSEL, 0);
+        r.addRef(getModel().getSimulator().getSimulatorClockTime()).addRef(vessel.getId()).addRef(vessel.getTerminal().getId())
+                .addRef(vessel.getVesselType()).addRef(vessel.getEta()).addRef(vessel.getAta()).addRef(vessel.getEtd())
+                .addRef(vessel.getAtd());
+        r.addLong(vessel.getLoadList().size());
+        addFEGR24(r, vessel.getLoadList());
+        r.addLong(vessel.getUnloadList().size());
+        addFEGR24(r, vessel.getUnloadList());
+        r.addLong(vessel.getContainerList().size());
         int teu = 0;
         for (Container c : vessel.getContainerList())
             teu += c.is20ft() ? 1 : 2;
-        this.vesselWriter.print("," + teu);
-        this.vesselWriter.print("," + vessel.getNrContainersTransshippedLoaded());
-        this.vesselWriter.print("," + vessel.getNrContainersTransshippedUnloaded());
-        this.vesselWriter.println();
-        this.vesselWriter.flush();
+        r.addLong(teu);
+        r.addLong(vessel.getNrContainersTransshippedLoaded());
+        r.addLong(vessel.getNrContainersTransshippedUnloaded());
+        this.pipeline.publish(r);
+    }
+
+    /**
+     * Add the full/empty, general/reefer, 20ft/40ft counts and the teu of a list of bookings to a record.
+     * @param r the record
+     * @param bookings the bookings to count
+     */
+    private void addFEGR24(final OutputRecord r, final List<Booking> bookings)
+    {
+        int[] fegr24 = calcFEGR24(bookings);
+        for (int i = 0; i < 6; i++)
+            r.addLong(fegr24[i]);
+        r.addLong(fegr24[4] + 2 * fegr24[5]);
     }
 
     int[] calcFEGR24(final List<Booking> bookings)
@@ -250,427 +525,593 @@ public class OutputWriter implements EventListener
         return fegr24;
     }
 
-    private void writeContainerHeader()
-    {
-        try
-        {
-            this.containerWriter.write("\"container_nr\"");
-            this.containerWriter.write(",\"terminal_in\"");
-            this.containerWriter.write(",\"vessel_in\"");
-            this.containerWriter.write(",\"date_vessel_in\"");
-            this.containerWriter.write(",\"terminal_out\"");
-            this.containerWriter.write(",\"vessel_out\"");
-            this.containerWriter.write(",\"date_vessel_out\"");
-            this.containerWriter.write(",\"container_type\"");
-            this.containerWriter.write(",\"empty_full\"");
-            this.containerWriter.write(",\"location_chain\"");
-            this.containerWriter.write(",\"direction\"");
-            this.containerWriter.write(",\"transport_mode\"");
-            this.containerWriter.write("\n");
-            this.containerWriter.flush();
-        }
-        catch (IOException ioe)
-        {
-            CategoryLogger.always().error("Error writing to containerWriter. Error: " + ioe.getMessage());
-        }
-    }
-
-    private void writeContainerLine(final Container container)
+    private void recordContainer(final Container container)
     {
         int vesselInNr = container.getVesselInNr();
         Vessel vesselIn = vesselInNr < 0 ? null : getModel().getVesselMap().get(vesselInNr);
         int vesselOutNr = container.getVesselOutNr();
         Vessel vesselOut = vesselOutNr < 0 ? null : getModel().getVesselMap().get(vesselOutNr);
-        try
-        {
-            this.containerWriter.write("\"" + container.getId() + "\"");
-            this.containerWriter.write(",\"" + (vesselIn == null ? "" : vesselIn.getTerminal().getId()) + "\"");
-            this.containerWriter.write(",\"" + (vesselIn == null ? "" : vesselIn.getId()) + "\"");
-            this.containerWriter.write(",\"" + (vesselIn == null ? "" : vesselIn.getAta().ymdhm()) + "\"");
-            this.containerWriter.write(",\"" + (vesselOut == null ? "" : vesselOut.getTerminal().getId()) + "\"");
-            this.containerWriter.write(",\"" + (vesselOut == null ? "" : vesselOut.getId()) + "\"");
-            this.containerWriter.write(",\"" + (vesselOut == null ? "" : vesselOut.getAta().ymdhm()) + "\"");
-            this.containerWriter.write("\"" + container.getType() + "\"");
-            this.containerWriter.write("\"" + (container.isEmpty() ? "E" : "F") + "\"");
-            String locations = container.getLocations().toString();
-            this.containerWriter.write(",\"" + locations + "\"");
-            String direction = "domestic";
-            if (vesselIn == null && vesselOut != null)
-                direction = "export";
-            else if (vesselIn != null && vesselOut == null)
-                direction = "import";
-            else if (vesselIn != null && vesselOut != null)
-                direction = "transshipment";
-            this.containerWriter.write(",\"" + direction + "\"");
-            String transportMode = "TRANSSHIP";
-            if (locations.contains("TRUCK"))
-                transportMode = "TRUCK";
-            else if (locations.contains("BARGE"))
-                transportMode = "BARGE";
-            else if (locations.contains("RAIL"))
-                transportMode = "RAIL";
-            this.containerWriter.write(",\"" + transportMode + "\"");
-            this.containerWriter.write("\n");
-            this.containerWriter.flush();
-        }
-        catch (IOException ioe)
+        OutputRecord r = this.pipeline.claim(CONTAINER, 0);
+        r.addRef(container);
+        if (vesselIn == null)
+            r.addRef(null).addRef(null).addRef(null);
+        else
+            r.addRef(vesselIn.getTerminal().getId()).addRef(vesselIn.getId()).addRef(vesselIn.getAta());
+        if (vesselOut == null)
+            r.addRef(null).addRef(null).addRef(null);
+        else
+            r.addRef(vesselOut.getTerminal().getId()).addRef(vesselOut.getId()).addRef(vesselOut.getAta());
+        addLocations(r, container);
+        this.pipeline.publish(r);
+    }
+
+    /**
+     * Copy the location chain of a container into the byte fields of a record, since the container's locations can change
+     * before the record is written.
+     * @param r the record
+     * @param container the container
+     */
+    private void addLocations(final OutputRecord r, final Container container)
+    {
+        for (int i = 0; i < container.getNrLocations(); i++)
+            r.addByte(container.getLocationByte(i));
+    }
+
+    private void recordTruckTrip(final Truck truck)
+    {
+        String companyId = truck.getTruckingCompany().getId();
+        for (int i = 0; i < truck.getRealizedActivityList().size(); i++)
         {
-            CategoryLogger.always().error("Error writing to containerWriter. Error: " + ioe.getMessage());
+            RealizedTruckActivity ta = truck.getRealizedActivityList().get(i);
+            OutputRecord r;
+            if (ta instanceof RealizedDrivingActivity da)
+            {
+                r = this.pipeline.claim(TRUCK, KIND_DRIVE);
+                r.addRef(da.getPlannedDepartureTime()).addRef(da.getActualDepartureTime()).addRef(da.getPlannedArrivalTime())
+                        .addRef(da.getActualArrivalTime()).addRef(da.getContainer1()).addRef(da.getContainer2())
+                        .addRef(da.getOrigCentroid().getEid()).addRef(da.getDestCentroid().getEid());
+                r.addDouble(da.getDistance().getInUnit(LengthUnit.KILOMETER));
+            }
+            else
+            {
+                RealizedTerminalActivity va = (RealizedTerminalActivity) ta;
+                r = this.pipeline.claim(TRUCK, KIND_VISIT);
+                r.addRef(va.getTerminal().getId()).addRef(va.getTerminalActivityType()).addRef(va.getContainerDropoff1())
+                        .addRef(va.getContainerDropoff2()).addRef(va.getContainerPickup1()).addRef(va.getContainerPickup2())
+                        .addRef(va.getAppointment()).addRef(va.getActualArrivalTime()).addRef(va.getWaitingTimeIn())
+                        .addRef(va.getActualGateTimeIn()).addRef(va.getActualHandlingTime()).addRef(va.getActualGateTimeOut());
+            }
+            r.addRef(companyId);
+            r.addLong(truck.getIdWithinCompany()).addLong(i + 1);
+            this.pipeline.publish(r);
         }
     }
 
-    private void writeTruckTripHeader()
+    private void recordTerminal(final int sink, final TerminalData stat, final ContainerFacility facility)
     {
-        try
+        OutputRecord r = this.pipeline.claim(sink, 0);
+        r.addRef(stat.getStartTime()).addRef(facility.getId());
+        r.addLong(stat.getNrVesselArrivals());
+        r.addLong(stat.getNrVesselDepartures());
+        r.addLong(stat.getNrDeepseaArrivals());
+        r.addLong(stat.getNrDeepseaDepartures());
+        r.addLong(stat.getNrFeederArrivals());
+        r.addLong(stat.getNrFeederDepartures());
+
+        r.addLong(stat.getNrContainersTotal());
+        r.addLong(stat.getNrContainersFull());
+        r.addLong(stat.getNrContainersEmpty());
+        r.addLong(stat.getNrContainersGeneral());
+        r.addLong(stat.getNrContainersReefer());
+        r.addLong(stat.getNrContainers20Ft());
+        r.addLong(stat.getNrContainers40Ft());
+
+        r.addLong(stat.getNrTeuTotal());
+        r.addLong(stat.getNrTeuFull());
+        r.addLong(stat.getNrTeuEmpty());
+        r.addLong(stat.getNrTeuGeneral());
+        r.addLong(stat.getNrTeuReefer());
+        r.addLong(stat.getNrTeu20Ft());
+        r.addLong(stat.getNrTeu40Ft());
+
+        r.addLong(stat.getNrContainersArrTotal());
+        r.addLong(stat.getNrContainersArrFull());
+        r.addLong(stat.getNrContainersArrEmpty());
+        r.addLong(stat.getNrContainersArrGeneral());
+        r.addLong(stat.getNrContainersArrReefer());
+        r.addLong(stat.getNrContainersArr20Ft());
+        r.addLong(stat.getNrContainersArr40Ft());
+
+        r.addLong(stat.getNrTeuArrTotal());
+        r.addLong(stat.getNrTeuArrFull());
+        r.addLong(stat.getNrTeuArrEmpty());
+        r.addLong(stat.getNrTeuArrGeneral());
+        r.addLong(stat.getNrTeuArrReefer());
+        r.addLong(stat.getNrTeuArr20Ft());
+        r.addLong(stat.getNrTeuArr40Ft());
+
+        r.addLong(stat.getNrContainersDepTotal());
+        r.addLong(stat.getNrContainersDepFull());
+        r.addLong(stat.getNrContainersDepEmpty());
+        r.addLong(stat.getNrContainersDepGeneral());
+        r.addLong(stat.getNrContainersDepReefer());
+        r.addLong(stat.getNrContainersDep20Ft());
+        r.addLong(stat.getNrContainersDep40Ft());
+
+        r.addLong(stat.getNrTeuDepTotal());
+        r.addLong(stat.getNrTeuDepFull());
+        r.addLong(stat.getNrTeuDepEmpty());
+        r.addLong(stat.getNrTeuDepGeneral());
+        r.addLong(stat.getNrTeuDepReefer());
+        r.addLong(stat.getNrTeuDep20Ft());
+        r.addLong(stat.getNrTeuDep40Ft());
+
+        r.addLong(stat.getNrTruckVisitsPickup());
+        r.addLong(stat.getNrTruckVisitsDelivery());
+        r.addLong(stat.getNrTruckVisitsDual());
+
+        for (TransportMode tm : STAT_MODES)
         {
-            this.truckWriter.write("\"trucking_company\"");
-            this.truckWriter.write(",\"truck_nr\"");
-            this.truckWriter.write(",\"activity_nr\"");
-            this.truckWriter.write(",\"activity_type\"");
-
-            this.truckWriter.write(",\"driving_leg_type\"");
-            this.truckWriter.write(",\"driving_etd\"");
-            this.truckWriter.write(",\"driving_atd\"");
-            this.truckWriter.write(",\"driving_eta\"");
-            this.truckWriter.write(",\"driving_ata\"");
-            this.truckWriter.write(",\"driving_container_nr1\"");
-            this.truckWriter.write(",\"driving_container_nr2\"");
-            this.truckWriter.write(",\"driving_orig_centroid\"");
-            this.truckWriter.write(",\"driving_dest_centroid\"");
-            this.truckWriter.write(",\"driving_distance_km\"");
-            this.truckWriter.write(",\"driving_planned_duration_s\"");
-            this.truckWriter.write(",\"driving_actual_duration_s\"");
-
-            this.truckWriter.write(",\"visit_terminal_id\"");
-            this.truckWriter.write(",\"visit_activity_type\"");
-            this.truckWriter.write(",\"visit_dropoff_container_nr1\"");
-            this.truckWriter.write(",\"visit_dropoff_container_nr2\"");
-            this.truckWriter.write(",\"visit_pickup_container_nr1\"");
-            this.truckWriter.write(",\"visit_pickup_container_nr2\"");
-            this.truckWriter.write(",\"visit_target_time\"");
-            this.truckWriter.write(",\"visit_slot_nr\"");
-            this.truckWriter.write(",\"visit_earliest_grace_time\"");
-            this.truckWriter.write(",\"visit_earliest_standard_time\"");
-            this.truckWriter.write(",\"visit_latest_standard_time\"");
-            this.truckWriter.write(",\"visit_latest_grace_time\"");
-            this.truckWriter.write(",\"visit_ata\"");
-            this.truckWriter.write(",\"visit_waittime_before_gate\"");
-            this.truckWriter.write(",\"visit_duration_gate_in_s\"");
-            this.truckWriter.write(",\"visit_duration_handling_s\"");
-            this.truckWriter.write(",\"visit_duration_gate_out_s\"");
-
-            this.truckWriter.write("\n");
-            this.truckWriter.flush();
+            r.addLong(stat.getNrContainerArrivals(tm));
+            r.addLong(stat.getNrContainerDepartures(tm));
+            r.addLong(stat.getNrTeuArrivals(tm));
+            r.addLong(stat.getNrTeuDepartures(tm));
         }
-        catch (IOException ioe)
+        this.pipeline.publish(r);
+    }
+
+    private void recordTerminalQueue(final String id, final int nrTrucksInQueue)
+    {
+        OutputRecord r = this.pipeline.claim(TERMINAL_QUEUE, 0);
+        r.addRef(this.model.getSimulator().getSimulatorClockTime()).addRef(id).addLong(nrTrucksInQueue);
+        this.pipeline.publish(r);
+    }
+
+    private void recordFinalContainers(final ContainerFacility facility)
+    {
+        String id = facility.getId();
+        Yard yard = facility.getYard();
+        TIntList containerNrs = yard.getContainerNrs();
+        for (int i = 0; i < containerNrs.size(); i++)
         {
-            CategoryLogger.always().error("Error writing to containerWriter. Error: " + ioe.getMessage());
+            Container container = yard.getContainerMap().get(containerNrs.get(i));
+            OutputRecord r = this.pipeline.claim(CONTAINER_FINAL, 0);
+            r.addRef(id).addRef(container).addLong(container.getVesselInNr()).addLong(container.getVesselOutNr());
+            addLocations(r, container);
+            this.pipeline.publish(r);
         }
     }
 
-    private void writeTruckTripLine(final Truck truck)
+    /* ************************************* ENCODING (WRITER THREAD) ************************************* */
+
+    /**
+     * Encode a record into a line of its output file. This method is called by the writer thread (or by the simulation thread
+     * when the output is synchronous), and only uses the contents of the record.
+     * @param r the record
+     * @param s the line encoder
+     */
+    private void encode(final OutputRecord r, final CsvLineEncoder s)
     {
-        for (int i = 0; i < truck.getRealizedActivityList().size(); i++)
+        switch (r.getSink())
         {
-            try
+            case VESSEL -> encodeVessel(r, s);
+            case CONTAINER -> encodeContainer(r, s);
+            case TRUCK ->
             {
-                RealizedTruckActivity ta = truck.getRealizedActivityList().get(i);
-                this.truckWriter.write("\"" + truck.getTruckingCompany().getId() + "\"");
-                this.truckWriter.write(",\"" + truck.getId() + "\"");
-                this.truckWriter.write("," + (i + 1));
-                if (ta instanceof RealizedDrivingActivity da)
-                    writeDrivingLine(da);
+                if (r.getKind() == KIND_DRIVE)
+                    encodeDriving(r, s);
                 else
-                    writeVisitLine((RealizedTerminalActivity) ta);
-                this.truckWriter.write("\n");
-                this.truckWriter.flush();
-            }
-            catch (IOException ioe)
-            {
-                CategoryLogger.always().error("Error writing to containerWriter. Error: " + ioe.getMessage());
+                    encodeVisit(r, s);
             }
+            case TERMINAL, TERMINAL_TOTAL -> encodeTerminal(r, s);
+            case TERMINAL_QUEUE -> encodeTerminalQueue(r, s);
+            case CONTAINER_FINAL -> encodeFinalContainer(r, s);
+            default -> throw new SimPortRuntimeException("Unknown output sink " + r.getSink());
         }
     }
 
-    private void writeDrivingLine(final RealizedDrivingActivity da) throws IOException
+    /**
+     * Append a quoted clock time.
+     * @param t the clock time
+     * @param s the line encoder
+     */
+    private void appendQuotedTime(final Object t, final CsvLineEncoder s)
     {
-        this.truckWriter.write(",\"DRIVE\"");
-        this.truckWriter.write(",\"" + (da.getContainer1() != null ? "FULL" : "EMPTY") + "\"");
-        this.truckWriter.write(",\"" + da.getPlannedDepartureTime() + "\"");
-        this.truckWriter.write(",\"" + da.getActualDepartureTime() + "\"");
-        this.truckWriter.write(",\"" + da.getPlannedArrivalTime() + "\"");
-        this.truckWriter.write(",\"" + da.getActualArrivalTime() + "\"");
-        if (da.getContainer1() != null)
-            this.truckWriter.write(",\"" + da.getContainer1().getId() + "\"");
-        else
-            this.truckWriter.write(",");
-        if (da.getContainer2() != null)
-            this.truckWriter.write(",\"" + da.getContainer2().getId() + "\"");
-        else
-            this.truckWriter.write(",");
-        this.truckWriter.write(",\"" + da.getOrigCentroid().getEid() + "\"");
-        this.truckWriter.write(",\"" + da.getDestCentroid().getEid() + "\"");
-        this.truckWriter.write(",\"" + da.getDistance().getInUnit(LengthUnit.KILOMETER) + "\"");
-        this.truckWriter.write(",\"" + da.getPlannedArrivalTime().minus(da.getPlannedDepartureTime()) + "\"");
-        this.truckWriter.write(",\"" + da.getActualArrivalTime().minus(da.getActualDepartureTime()) + "\"");
-        this.truckWriter.write(",,,,,,,,,,,,,,,,,");
-    }
-
-    private void writeVisitLine(final RealizedTerminalActivity ta) throws IOException
-    {
-        this.truckWriter.write(",\"TERMINAL\"");
-        this.truckWriter.write(",,,,,,,,,,,,");
-        this.truckWriter.write(",\"" + ta.getTerminal().getId() + "\"");
-        this.truckWriter.write(",\"" + ta.getTerminalActivityType().toString() + "\"");
-        if (ta.getContainerDropoff1() != null)
-            this.truckWriter.write(",\"" + ta.getContainerDropoff1().getId() + "\"");
-        else
-            this.truckWriter.write(",");
-        if (ta.getContainerDropoff2() != null)
-            this.truckWriter.write(",\"" + ta.getContainerDropoff2().getId() + "\"");
-        else
-            this.truckWriter.write(",");
-        if (ta.getContainerPickup1() != null)
-            this.truckWriter.write(",\"" + ta.getContainerPickup1().getId() + "\"");
-        else
-            this.truckWriter.write(",");
-        if (ta.getContainerPickup2() != null)
-            this.truckWriter.write(",\"" + ta.getContainerPickup2().getId() + "\"");
+        s.append('"').appendClockTime((ClockTime) t).append('"');
+    }
+
+    /**
+     * Append a quoted object, such as an id, an enum, a time or a duration.
+     * @param o the object
+     * @param s the line encoder
+     */
+    private void appendQuotedObject(final Object o, final CsvLineEncoder s)
+    {
+        if (o instanceof CharSequence cs)
+            s.appendQuoted(cs);
         else
-            this.truckWriter.write(",");
-        this.truckWriter.write(",\"" + ta.getAppointment().getTargetTime() + "\"");
-        if (ta.getAppointment() instanceof SlotBooking sb)
+            s.append('"').appendObject(o).append('"');
+    }
+
+    private void encodeVessel(final OutputRecord r, final CsvLineEncoder s)
+    {
+        appendQuotedTime(r.getRef(0), s);
+        s.append(',').appendQuoted((String) r.getRef(1));
+        s.append(',').appendQuoted((String) r.getRef(2));
+        s.append(',').append('"').appendEnum((Enum<?>) r.getRef(3)).append('"');
+        for (int i = 4; i < 8; i++)
         {
-            this.truckWriter.write(",\"" + sb.getSlot().getId() + "\"");
-            this.truckWriter.write(",\"" + sb.getEarliestGraceTime() + "\"");
-            this.truckWriter.write(",\"" + sb.getEarliestStandardTime() + "\"");
-            this.truckWriter.write(",\"" + sb.getLatestStandardTime() + "\"");
-            this.truckWriter.write(",\"" + sb.getLatestGraceTime() + "\"");
+            s.append(',');
+            appendQuotedTime(r.getRef(i), s);
         }
-        else
-            this.truckWriter.write(",,,,,");
+        for (int i = 0; i < r.getNrLongs(); i++)
+            s.append(',').appendLong(r.getLong(i));
+        s.appendLineSeparator();
+    }
+
+    private void encodeContainer(final OutputRecord r, final CsvLineEncoder s)
+    {
+        Container container = (Container) r.getRef(0);
+        boolean in = r.getRef(2) != null;
+        boolean out = r.getRef(5) != null;
+        s.append('"').appendLong(container.getNr()).append('"');
+        s.append(',').appendQuoted(in ? (String) r.getRef(1) : "");
+        s.append(',').appendQuoted(in ? (String) r.getRef(2) : "");
+        s.append(',').append('"');
+        if (in)
+            s.appendClockTime((ClockTime) r.getRef(3));
+        s.append('"');
+        s.append(',').appendQuoted(out ? (String) r.getRef(4) : "");
+        s.append(',').appendQuoted(out ? (String) r.getRef(5) : "");
+        s.append(',').append('"');
+        if (out)
+            s.appendClockTime((ClockTime) r.getRef(6));
+        s.append('"');
+        s.append(',').append('"').appendBytes(containerType(container)).append('"');
+        s.append(',').appendBytes(container.isEmpty() ? QUOTED_E : QUOTED_F);
+        s.append(',').append('"');
+        appendLocations(r, s);
+        s.append('"');
+        byte[] direction = QUOTED_DOMESTIC;
+        if (!in && out)
+            direction = QUOTED_EXPORT;
+        else if (in && !out)
+            direction = QUOTED_IMPORT;
+        else if (in && out)
+            direction = QUOTED_TRANSSHIPMENT;
+        s.append(',').appendBytes(direction);
+        byte[] transportMode = QUOTED_TRANSSHIP;
+        if (hasLocation(r, Location.TRUCK))
+            transportMode = QUOTED_TRUCK;
+        else if (hasLocation(r, Location.BARGE))
+            transportMode = QUOTED_BARGE;
+        else if (hasLocation(r, Location.RAIL))
+            transportMode = QUOTED_RAIL;
+        s.append(',').appendBytes(transportMode);
+        s.append('\n');
+    }
 
-        this.truckWriter.write(",\"" + ta.getActualArrivalTime() + "\"");
-        this.truckWriter.write(",\"" + ta.getWaitingTimeIn() + "\"");
-        this.truckWriter.write(",\"" + ta.getActualGateTimeIn() + "\"");
-        this.truckWriter.write(",\"" + ta.getActualHandlingTime() + "\"");
-        this.truckWriter.write(",\"" + ta.getActualGateTimeOut() + "\"");
+    /**
+     * Return the bytes of the container type (e.g., "40G1") of a container, which are computed once per type index.
+     * @param container the container
+     * @return the bytes of the container type
+     */
+    private byte[] containerType(final Container container)
+    {
+        int index = container.getTypeIndex();
+        byte[] type = this.containerTypes[index];
+        if (type == null)
+        {
+            type = CsvLineEncoder.bytes(container.getType());
+            this.containerTypes[index] = type;
+        }
+        return type;
+    }
+
+    /**
+     * Append the location chain in the byte fields of a record in the format of List.toString(), e.g., [DEEPSEA, TERMINAL].
+     * @param r the record
+     * @param s the line encoder
+     */
+    private void appendLocations(final OutputRecord r, final CsvLineEncoder s)
+    {
+        s.append('[');
+        for (int i = 0; i < r.getNrBytes(); i++)
+        {
+            if (i > 0)
+                s.append(',').append(' ');
+            s.appendEnum(Location.of(r.getByte(i)));
+        }
+        s.append(']');
     }
 
-    private void writeTerminalHeader()
+    /**
+     * Return whether the location chain in the byte fields of a record contains the given location.
+     * @param r the record
+     * @param location the location to look for
+     * @return whether the location chain contains the location
+     */
+    private boolean hasLocation(final OutputRecord r, final Location location)
     {
-        writeTerminalHeader(this.terminalWriter);
+        for (int i = 0; i < r.getNrBytes(); i++)
+            if (r.getByte(i) == location.asByte())
+                return true;
+        return false;
     }
 
-    private void writeTotalTerminalHeader()
+    private void appendTruckPrefix(final OutputRecord r, final int companyRef, final CsvLineEncoder s)
     {
-        writeTerminalHeader(this.totalTerminalWriter);
+        String companyId = (String) r.getRef(companyRef);
+        s.appendQuoted(companyId);
+        s.append(',').append('"').appendText(companyId).append('.').appendLong(r.getLong(0)).append('"');
+        s.append(',').appendLong(r.getLong(1));
     }
 
-    private void writeTerminalHeader(final PrintWriter writer)
+    private void appendContainer(final Object container, final CsvLineEncoder s)
     {
-        writer.print("\"date\"");
-        writer.print(",\"terminal\"");
-        writer.print(",\"nr_vessel_arrivals\"");
-        writer.print(",\"nr_vessel_departures\"");
-        writer.print(",\"nr_deepsea_arrivals\"");
-        writer.print(",\"nr_deepsea_departures\"");
-        writer.print(",\"nr_feeder_arrivals\"");
-        writer.print(",\"nr_feeder_departures\"");
-        for (String yad : new String[] {"yard", "arrivals", "departures"})
+        s.append(',');
+        if (container != null)
+            s.append('"').appendLong(((Container) container).getNr()).append('"');
+    }
+
+    private void encodeDriving(final OutputRecord r, final CsvLineEncoder s)
+    {
+        ClockTime plannedDeparture = (ClockTime) r.getRef(0);
+        ClockTime actualDeparture = (ClockTime) r.getRef(1);
+        ClockTime plannedArrival = (ClockTime) r.getRef(2);
+        ClockTime actualArrival = (ClockTime) r.getRef(3);
+        appendTruckPrefix(r, 8, s);
+        s.append(',').appendBytes(QUOTED_DRIVE);
+        s.append(',').appendBytes(r.getRef(4) != null ? QUOTED_FULL : QUOTED_EMPTY);
+        s.append(',');
+        appendQuotedTime(plannedDeparture, s);
+        s.append(',');
+        appendQuotedTime(actualDeparture, s);
+        s.append(',');
+        appendQuotedTime(plannedArrival, s);
+        s.append(',');
+        appendQuotedTime(actualArrival, s);
+        appendContainer(r.getRef(4), s);
+        appendContainer(r.getRef(5), s);
+        s.append(',').appendQuoted((String) r.getRef(6));
+        s.append(',').appendQuoted((String) r.getRef(7));
+        s.append(',').append('"').appendDouble(r.getDouble(0)).append('"');
+        // same value and unit as ClockTime.minus(ClockTime), without creating the Duration
+        s.append(',').append('"').appendDuration(plannedArrival.getInUnit()
+                - plannedDeparture.getInUnit(plannedArrival.getDisplayUnit()),
+                plannedArrival.getDisplayUnit().getRelativeUnit()).append('"');
+        s.append(',').append('"').appendDuration(actualArrival.getInUnit()
+                - actualDeparture.getInUnit(actualArrival.getDisplayUnit()),
+                actualArrival.getDisplayUnit().getRelativeUnit()).append('"');
+        s.appendBytes(EMPTY_VISIT_COLUMNS);
+        s.append('\n');
+    }
+
+    private void encodeVisit(final OutputRecord r, final CsvLineEncoder s)
+    {
+        appendTruckPrefix(r, 12, s);
+        s.append(',').appendBytes(QUOTED_TERMINAL);
+        s.appendBytes(EMPTY_DRIVING_COLUMNS);
+        s.append(',').appendQuoted((String) r.getRef(0));
+        s.append(',').append('"').appendEnum((Enum<?>) r.getRef(1)).append('"');
+        for (int i = 2; i < 6; i++)
+            appendContainer(r.getRef(i), s);
+        Appointment appointment = (Appointment) r.getRef(6);
+        s.append(',');
+        appendQuotedTime(appointment.getTargetTime(), s);
+        if (appointment instanceof SlotBooking sb)
         {
-            for (String ct : new String[] {"containers", "teu"})
-            {
-                for (String type : new String[] {"total", "full", "empty", "general", "reefer", "20ft", "40ft"})
-                {
-                    writer.print(",\"nr_" + ct + "_" + type + "_" + yad + "\"");
-                }
-            }
+            s.append(',').appendQuoted(sb.getSlot().getId());
+            s.append(',');
+            appendQuotedTime(sb.getEarliestGraceTime(), s);
+            s.append(',');
+            appendQuotedTime(sb.getEarliestStandardTime(), s);
+            s.append(',');
+            appendQuotedTime(sb.getLatestStandardTime(), s);
+            s.append(',');
+            appendQuotedTime(sb.getLatestGraceTime(), s);
         }
-        writer.print(",\"nr_truck_visits_pickup\"");
-        writer.print(",\"nr_truck_visits_delivery\"");
-        writer.print(",\"nr_truck_visits_dual\"");
-        writer.print(",\"nr_container_arrivals_deepsea\"");
-        writer.print(",\"nr_container_departures_deepsea\"");
-        writer.print(",\"nr_teu_arrivals_deepsea\"");
-        writer.print(",\"nr_teu_departures_deepsea\"");
-        writer.print(",\"nr_container_arrivals_feeder\"");
-        writer.print(",\"nr_container_departures_feeder\"");
-        writer.print(",\"nr_teu_arrivals_feeder\"");
-        writer.print(",\"nr_teu_departures_feeder\"");
-        writer.print(",\"nr_container_arrivals_truck\"");
-        writer.print(",\"nr_container_departures_truck\"");
-        writer.print(",\"nr_teu_arrivals_truck\"");
-        writer.print(",\"nr_teu_departures_truck\"");
-        writer.print(",\"nr_container_arrivals_barge\"");
-        writer.print(",\"nr_container_departures_barge\"");
-        writer.print(",\"nr_teu_arrivals_barge\"");
-        writer.print(",\"nr_teu_departures_barge\"");
-        writer.print(",\"nr_container_arrivals_rail\"");
-        writer.print(",\"nr_container_departures_rail\"");
-        writer.print(",\"nr_teu_arrivals_rail\"");
-        writer.print(",\"nr_teu_departures_rail\"");
-        writer.println();
-        writer.flush();
-    }
-
-    private void writeTerminalLine(final TerminalStatistics terminalStatistics)
-    {
-        var stat = terminalStatistics.getPeriodic();
-        writeTerminalLine(this.terminalWriter, stat, terminalStatistics.getFacility());
-    }
-
-    private void writeTotalTerminalLine(final TerminalStatistics terminalStatistics)
-    {
-        var stat = terminalStatistics.getTotal();
-        writeTerminalLine(this.totalTerminalWriter, stat, terminalStatistics.getFacility());
-    }
-
-    private void writeTerminalLine(final PrintWriter writer, final TerminalData stat, final ContainerFacility facility)
-    {
-        writer.print("\"" + stat.getStartTime().ymdhm() + "\"");
-        writer.print(",\"" + facility.getId() + "\"");
-        writer.print("," + stat.getNrVesselArrivals());
-        writer.print("," + stat.getNrVesselDepartures());
-        writer.print("," + stat.getNrDeepseaArrivals());
-        writer.print("," + stat.getNrDeepseaDepartures());
-        writer.print("," + stat.getNrFeederArrivals());
-        writer.print("," + stat.getNrFeederDepartures());
-
-        writer.print("," + stat.getNrContainersTotal());
-        writer.print("," + stat.getNrContainersFull());
-        writer.print("," + stat.getNrContainersEmpty());
-        writer.print("," + stat.getNrContainersGeneral());
-        writer.print("," + stat.getNrContainersReefer());
-        writer.print("," + stat.getNrContainers20Ft());
-        writer.print("," + stat.getNrContainers40Ft());
-
-        writer.print("," + stat.getNrTeuTotal());
-        writer.print("," + stat.getNrTeuFull());
-        writer.print("," + stat.getNrTeuEmpty());
-        writer.print("," + stat.getNrTeuGeneral());
-        writer.print("," + stat.getNrTeuReefer());
-        writer.print("," + stat.getNrTeu20Ft());
-        writer.print("," + stat.getNrTeu40Ft());
-
-        writer.print("," + stat.getNrContainersArrTotal());
-        writer.print("," + stat.getNrContainersArrFull());
-        writer.print("," + stat.getNrContainersArrEmpty());
-        writer.print("," + stat.getNrContainersArrGeneral());
-        writer.print("," + stat.getNrContainersArrReefer());
-        writer.print("," + stat.getNrContainersArr20Ft());
-        writer.print("," + stat.getNrContainersArr40Ft());
-
-        writer.print("," + stat.getNrTeuArrTotal());
-        writer.print("," + stat.getNrTeuArrFull());
-        writer.print("," + stat.getNrTeuArrEmpty());
-        writer.print("," + stat.getNrTeuArrGeneral());
-        writer.print("," + stat.getNrTeuArrReefer());
-        writer.print("," + stat.getNrTeuArr20Ft());
-        writer.print("," + stat.getNrTeuArr40Ft());
-
-        writer.print("," + stat.getNrContainersDepTotal());
-        writer.print("," + stat.getNrContainersDepFull());
-        writer.print("," + stat.getNrContainersDepEmpty());
-        writer.print("," + stat.getNrContainersDepGeneral());
-        writer.print("," + stat.getNrContainersDepReefer());
-        writer.print("," + stat.getNrContainersDep20Ft());
-        writer.print("," + stat.getNrContainersDep40Ft());
-
-        writer.print("," + stat.getNrTeuDepTotal());
-        writer.print("," + stat.getNrTeuDepFull());
-        writer.print("," + stat.getNrTeuDepEmpty());
-        writer.print("," + stat.getNrTeuDepGeneral());
-        writer.print("," + stat.getNrTeuDepReefer());
-        writer.print("," + stat.getNrTeuDep20Ft());
-        writer.print("," + stat.getNrTeuDep40Ft());
-
-        writer.print("," + stat.getNrTruckVisitsPickup());
-        writer.print("," + stat.getNrTruckVisitsDelivery());
-        writer.print("," + stat.getNrTruckVisitsDual());
-
-        for (TransportMode tm : new TransportMode[] {TransportMode.DEEPSEA, TransportMode.FEEDER, TransportMode.TRUCK,
-                TransportMode.BARGE, TransportMode.RAIL})
+        else
+            s.appendBytes(EMPTY_SLOT_COLUMNS);
+        for (int i = 7; i < 12; i++)
         {
-            writer.print("," + stat.getNrContainerArrivals(tm));
-            writer.print("," + stat.getNrContainerDepartures(tm));
-            writer.print("," + stat.getNrTeuArrivals(tm));
-            writer.print("," + stat.getNrTeuDepartures(tm));
+            s.append(',');
+            appendQuotedObject(r.getRef(i), s);
         }
-        writer.println();
-        writer.flush();
+        s.append('\n');
     }
 
-    private void writeTerminalQueueHeader()
+    private void encodeTerminal(final OutputRecord r, final CsvLineEncoder s)
     {
-        this.terminalQueueWriter.print("\"time\"");
-        this.terminalQueueWriter.print(",\"terminal_id\"");
-        this.terminalQueueWriter.print(",\"nr_trucks\"");
-        this.terminalQueueWriter.println();
-        this.terminalQueueWriter.flush();
+        appendQuotedTime(r.getRef(0), s);
+        s.append(',').appendQuoted((String) r.getRef(1));
+        for (int i = 0; i < r.getNrLongs(); i++)
+            s.append(',').appendLong(r.getLong(i));
+        s.appendLineSeparator();
     }
 
-    private void writeTerminalQueueLine(final String id, final int nrTrucksInQueue)
+    private void encodeTerminalQueue(final OutputRecord r, final CsvLineEncoder s)
     {
-        this.terminalQueueWriter.print("\"" + this.model.getSimulator().getSimulatorClockTime() + "\"");
-        this.terminalQueueWriter.print(",\"" + id + "\"");
-        this.terminalQueueWriter.print("," + nrTrucksInQueue);
-        this.terminalQueueWriter.println();
-        this.terminalQueueWriter.flush();
+        appendQuotedTime(r.getRef(0), s);
+        s.append(',').appendQuoted((String) r.getRef(1));
+        s.append(',').appendLong(r.getLong(0));
+        s.appendLineSeparator();
     }
 
-    private void writeFinalContainerHeader()
+    private void encodeFinalContainer(final OutputRecord r, final CsvLineEncoder s)
     {
-        this.finalContainerWriter.print("\"terminal_id\"");
-        this.finalContainerWriter.print(",\"container_nr\"");
-        this.finalContainerWriter.print(",\"vessel_in_nr\"");
-        this.finalContainerWriter.print(",\"vessel_out_nr\"");
-        this.finalContainerWriter.print(",\"locations\"");
-        this.finalContainerWriter.println();
-        this.finalContainerWriter.flush();
+        s.appendQuoted((String) r.getRef(0));
+        s.append(',').append('"').appendLong(((Container) r.getRef(1)).getNr()).append('"');
+        s.append(',').appendLong(r.getLong(0));
+        s.append(',').appendLong(r.getLong(1));
+        s.append(',');
+        appendLocations(r, s);
+        s.appendLineSeparator();
     }
 
-    private void writeFinalContainerLines(final ContainerFacility facility)
+    /* ********************************** COLUMNAR ENCODING (WRITER THREAD) ********************************** */
+
+    /**
+     * Copy a record into a row of its columnar file. This method is called by the writer thread (or by the simulation thread
+     * when the output is synchronous), and only uses the contents of the record.
+     * @param r the record
+     * @param table the columnar file
+     */
+    private void encodeRow(final OutputRecord r, final ColumnarWriter table)
     {
-        String id = facility.getId();
-        for (Container container : facility.getYard().getContainerMap().values())
+        switch (r.getSink())
         {
-            this.finalContainerWriter.print("\"" + id + "\"");
-            this.finalContainerWriter.print(",\"" + container.getId() + "\"");
-            this.finalContainerWriter.print("," + container.getVesselInNr());
-            this.finalContainerWriter.print("," + container.getVesselOutNr());
-            this.finalContainerWriter.print("," + container.getLocations().toString());
-            this.finalContainerWriter.println();
+            case CONTAINER -> encodeContainerRow(r, table);
+            case TRUCK ->
+            {
+                if (r.getKind() == KIND_DRIVE)
+                    encodeDrivingRow(r, table);
+                else
+                    encodeVisitRow(r, table);
+            }
+            default -> throw new SimPortRuntimeException("No columnar output for sink " + r.getSink());
         }
-        this.finalContainerWriter.flush();
     }
 
-    /** close the files. */
-    protected void closeFiles()
+    /**
+     * Return a clock time as a number of seconds since the epoch, as used by ClockTime.localDateTime().
+     * @param time the clock time, can be null
+     * @return the number of seconds since the epoch, or ColumnarWriter.NULL_LONG when the time is null
+     */
+    private static long epochSecond(final Object time)
     {
-        this.vesselWriter.close();
-        this.terminalWriter.close();
-        this.totalTerminalWriter.close();
-        this.terminalQueueWriter.close();
-        this.finalContainerWriter.close();
-        try
-        {
-            if (this.containerWriter != null)
-                this.containerWriter.close();
-        }
-        catch (IOException ioe)
+        return time == null ? ColumnarWriter.NULL_LONG : Math.round(((ClockTime) time).getSI());
+    }
+
+    /**
+     * Return the number of a container in the record.
+     * @param container the container, can be null
+     * @return the container number, or ColumnarWriter.NULL_INT when the container is null
+     */
+    private static int containerNr(final Object container)
+    {
+        return container == null ? ColumnarWriter.NULL_INT : ((Container) container).getNr();
+    }
+
+    /**
+     * Return a duration in seconds.
+     * @param duration the duration, can be null
+     * @return the duration in seconds, or NaN when the duration is null
+     */
+    private static double seconds(final Object duration)
+    {
+        return duration == null ? Double.NaN : ((Duration) duration).si;
+    }
+
+    private void encodeContainerRow(final OutputRecord r, final ColumnarWriter t)
+    {
+        Container container = (Container) r.getRef(0);
+        boolean in = r.getRef(2) != null;
+        boolean out = r.getRef(5) != null;
+        t.setInt(0, container.getNr());
+        if (in)
         {
-            CategoryLogger.always().error("Error closing containerWriter file. Error: " + ioe.getMessage());
+            t.setString(1, (String) r.getRef(1));
+            t.setString(2, (String) r.getRef(2));
+            t.setLong(3, epochSecond(r.getRef(3)));
         }
-        try
+        if (out)
         {
-            if (this.truckWriter != null)
-                this.truckWriter.close();
+            t.setString(4, (String) r.getRef(4));
+            t.setString(5, (String) r.getRef(5));
+            t.setLong(6, epochSecond(r.getRef(6)));
         }
-        catch (IOException ioe)
+        t.setString(7, container.getType());
+        t.setString(8, container.isEmpty() ? "E" : "F");
+        this.locationLine.reset();
+        appendLocations(r, this.locationLine);
+        t.setString(9, this.locationLine.toString());
+        t.setString(10, !in && out ? "export" : in && !out ? "import" : in && out ? "transshipment" : "domestic");
+        String transportMode = "TRANSSHIP";
+        if (hasLocation(r, Location.TRUCK))
+            transportMode = "TRUCK";
+        else if (hasLocation(r, Location.BARGE))
+            transportMode = "BARGE";
+        else if (hasLocation(r, Location.RAIL))
+            transportMode = "RAIL";
+        t.setString(11, transportMode);
+    }
+
+    /**
+     * Set the first five columns of a truck row.
+     * @param r the record
+     * @param companyRef the index of the company id in the references of the record
+     * @param activityType the activity type
+     * @param activityTime the departure time of a drive or the arrival time of a visit
+     * @param t the columnar file
+     */
+    private void setTruckPrefix(final OutputRecord r, final int companyRef, final String activityType,
+            final Object activityTime, final ColumnarWriter t)
+    {
+        t.setString(0, (String) r.getRef(companyRef));
+        t.setInt(1, (int) r.getLong(0));
+        t.setInt(2, (int) r.getLong(1));
+        t.setString(3, activityType);
+        t.setLong(4, epochSecond(activityTime));
+    }
+
+    private void encodeDrivingRow(final OutputRecord r, final ColumnarWriter t)
+    {
+        ClockTime plannedDeparture = (ClockTime) r.getRef(0);
+        ClockTime actualDeparture = (ClockTime) r.getRef(1);
+        ClockTime plannedArrival = (ClockTime) r.getRef(2);
+        ClockTime actualArrival = (ClockTime) r.getRef(3);
+        setTruckPrefix(r, 8, "DRIVE", actualDeparture, t);
+        t.setString(5, r.getRef(4) != null ? "FULL" : "EMPTY");
+        t.setLong(6, epochSecond(plannedDeparture));
+        t.setLong(7, epochSecond(actualDeparture));
+        t.setLong(8, epochSecond(plannedArrival));
+        t.setLong(9, epochSecond(actualArrival));
+        t.setInt(10, containerNr(r.getRef(4)));
+        t.setInt(11, containerNr(r.getRef(5)));
+        t.setString(12, (String) r.getRef(6));
+        t.setString(13, (String) r.getRef(7));
+        t.setDouble(14, r.getDouble(0));
+        t.setDouble(15, plannedArrival.si - plannedDeparture.si);
+        t.setDouble(16, actualArrival.si - actualDeparture.si);
+    }
+
+    private void encodeVisitRow(final OutputRecord r, final ColumnarWriter t)
+    {
+        setTruckPrefix(r, 12, "TERMINAL", r.getRef(7), t);
+        t.setString(17, (String) r.getRef(0));
+        t.setString(18, String.valueOf(r.getRef(1)));
+        for (int i = 2; i < 6; i++)
+            t.setInt(17 + i, containerNr(r.getRef(i)));
+        Appointment appointment = (Appointment) r.getRef(6);
+        t.setLong(23, epochSecond(appointment.getTargetTime()));
+        if (appointment instanceof SlotBooking sb)
         {
-            CategoryLogger.always().error("Error closing truckWriter file. Error: " + ioe.getMessage());
+            t.setString(24, sb.getSlot().getId());
+            t.setLong(25, epochSecond(sb.getEarliestGraceTime()));
+            t.setLong(26, epochSecond(sb.getEarliestStandardTime()));
+            t.setLong(27, epochSecond(sb.getLatestStandardTime()));
+            t.setLong(28, epochSecond(sb.getLatestGraceTime()));
         }
+        t.setLong(29, epochSecond(r.getRef(7)));
+        for (int i = 8; i < 12; i++)
+            t.setDouble(22 + i, seconds(r.getRef(i)));
+    }
+
+    /* ******************************************** CLOSE ******************************************* */
+
+    /** drain the pipeline and close the files. */
+    protected void closeFiles()
+    {
+        if (this.pipeline == null)
+            return;
+        this.pipeline.close();
+        double weeks = getModel().getSimulator().getSimulatorTime().si / (7.0 * 86400.0);
+        double ms = this.notifyNanos / 1.0E6;
+        CategoryLogger.always().info(
+                "OutputWriter ({}): {} records written, {} ms in event handling ({} ms per simulated week), {} producer waits",
+                this.pipeline.isAsync() ? "async" : "sync", this.pipeline.getNrRecords(), String.format("%.1f", ms),
+                String.format("%.1f", weeks > 0.0 ? ms / weeks : ms), this.pipeline.getNrWaits());
     }
 
     /**
@@ -687,37 +1128,47 @@ public class OutputWriter implements EventListener
     @Override
     public void notify(final Event event)
     {
+        long t0 = System.nanoTime();
         if (event.getType().equals(PortModel.VESSEL_EVENT))
         {
-            writeVesselLine((Vessel) event.getContent());
+            recordVessel((Vessel) event.getContent());
         }
         else if (event.getType().equals(PortModel.CONTAINER_EVENT))
         {
-            writeContainerLine((Container) event.getContent());
+            recordContainer((Container) event.getContent());
+        }
+        else if (event.getType().equals(PortModel.CONTAINER_BATCH_EVENT))
+        {
+            for (Container container : (Container[]) event.getContent())
+                recordContainer(container);
         }
         else if (event.getType().equals(PortModel.TRUCK_EVENT))
         {
-            writeTruckTripLine((Truck) event.getContent());
+            recordTruckTrip((Truck) event.getContent());
         }
         else if (event.getType().equals(PortModel.DAILY_TERMINAL_EVENT))
         {
-            writeTerminalLine((TerminalStatistics) event.getContent());
+            TerminalStatistics terminalStatistics = (TerminalStatistics) event.getContent();
+            recordTerminal(TERMINAL, terminalStatistics.getPeriodic(), terminalStatistics.getFacility());
         }
         else if (event.getType().equals(PortModel.TERMINAL_QUEUE_EVENT))
         {
             Object[] content = (Object[]) event.getContent();
             String id = content[0].toString();
             int nrTrucksInQueue = (int) content[1];
-            writeTerminalQueueLine(id, nrTrucksInQueue);
+            recordTerminalQueue(id, nrTrucksInQueue);
         }
         else if (event.getType().equals(PortModel.TOTAL_TERMINAL_EVENT))
         {
-            writeTotalTerminalLine((TerminalStatistics) event.getContent());
-            writeFinalContainerLines((((TerminalStatistics) event.getContent()).getFacility()));
+            TerminalStatistics terminalStatistics = (TerminalStatistics) event.getContent();
+            recordTerminal(TERMINAL_TOTAL, terminalStatistics.getTotal(), terminalStatistics.getFacility());
+            recordFinalContainers(terminalStatistics.getFacility());
         }
         else if (event.getType().equals(Replication.END_REPLICATION_EVENT))
         {
             closeFiles();
+            return;
         }
+        this.notifyNanos += System.nanoTime() - t0;
     }
 }
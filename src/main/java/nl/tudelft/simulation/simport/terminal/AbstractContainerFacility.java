@@ -1,9 +1,11 @@
 package nl.tudelft.simulation.simport.terminal;
 
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.NavigableMap;
 import java.util.Objects;
-import java.util.TreeMap;
 
 import org.djunits.unit.DurationUnit;
 import org.djunits.value.vdouble.scalar.Duration;
@@ -17,9 +19,12 @@ import nl.tudelft.simulation.dsol.simulators.clock.ClockDevsSimulatorInterface;
 import nl.tudelft.simulation.simport.appointment.Appointment;
 import nl.tudelft.simulation.simport.model.PortModel;
 import nl.tudelft.simulation.simport.network.Centroid;
+import nl.tudelft.simulation.simport.network.OdMatrix;
 import nl.tudelft.simulation.simport.network.RoadLink;
 import nl.tudelft.simulation.simport.terminal.slot.SlotManagementSystem;
 import nl.tudelft.simulation.simport.truck.TransportOrder;
+import nl.tudelft.simulation.simport.util.AliasTable;
+import nl.tudelft.simulation.simport.util.DiscreteSampler;
 import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
 
 /**
@@ -47,6 +52,12 @@ public abstract class AbstractContainerFacility extends LocalEventProducer imple
     /** Facility longitude (s). */
     private final double lon;
 
+    /** the location, created once for the animation. */
+    private final Point3d location;
+
+    /** the relative bounds of the animation. */
+    private static final Bounds2d RELATIVE_BOUNDS = new Bounds2d(0.0015, 0.0009);
+
     /** Centroid associated with the terminal. */
     private Centroid centroid;
 
@@ -71,17 +82,20 @@ public abstract class AbstractContainerFacility extends LocalEventProducer imple
     /** Event type for daily TEU statistics. */
     private final EventType dailyYardTeuEventType;
 
-    /** The centroids of the destinations and weight for this container facility. */
+    /** The centroids of the destinations and weight for this container facility; created on demand after setTerminalOD(). */
     private Map<String, Double> terminalDestinations;
 
-    /** The cumulative probabilities for destination centroids. */
-    private NavigableMap<Double, Centroid> destinationProbabilities = new TreeMap<>();
+    /** The sampler for destination centroids, proportional to their weight. */
+    private DiscreteSampler<Centroid> destinationSampler = new AliasTable<>(List.of(), new double[0]);
 
-    /** The centroids of the origins and weight for this container facility. */
+    /** The centroids of the origins and weight for this container facility; created on demand after setTerminalOD(). */
     private Map<String, Double> terminalOrigins;
 
-    /** The cumulative probabilities for origin centroids. */
-    private NavigableMap<Double, Centroid> originProbabilities = new TreeMap<>();
+    /** The sampler for origin centroids, proportional to their weight. */
+    private DiscreteSampler<Centroid> originSampler = new AliasTable<>(List.of(), new double[0]);
+
+    /** The O/D matrix from which the origins and destinations were taken by setTerminalOD(), or null. */
+    private OdMatrix odMatrix;
 
     /** The slot management system (can be null if none). */
     private SlotManagementSystem slotManagementSystem;
@@ -102,6 +116,7 @@ public abstract class AbstractContainerFacility extends LocalEventProducer imple
         this.model = model;
         this.lat = lat;
         this.lon = lon;
+        this.location = new Point3d(lon, lat, 1.0);
         this.statistics = new TerminalStatistics(this, model.getSimulator());
         this.dailyYardTeuEventType = new EventType("DAILY_YARD_TEU_EVENT_TYPE_" + id);
 
@@ -135,41 +150,75 @@ public abstract class AbstractContainerFacility extends LocalEventProducer imple
         // get the row (origins) and column (destinations) for the terminal centroids
         var od = getModel().getRoadNetwork().getOdMatrix();
         var centroid = getCentroid();
-        Throw.when(!od.containsOrigin(centroid.getEid()), SimPortRuntimeException.class,
-                "OD does not containn terminal origin %s for %s", centroid.getEid(), this);
-        Throw.when(!od.containsDestination(centroid.getEid()), SimPortRuntimeException.class,
-                "OD does not containn terminal destination %s for %s", centroid.getEid(), this);
-        Map<String, Double> terminalDestinations = od.getAllDestinationsForOrigin(centroid.getEid());
-        Map<String, Double> terminalOrigins = od.getAllOriginsForDestination(centroid.getEid());
-        setTerminalDestinations(terminalDestinations);
-        setTerminalOrigins(terminalOrigins);
+        int row = od.getOriginIndex(centroid.getEid());
+        int col = od.getDestinationIndex(centroid.getEid());
+        Throw.when(row < 0, SimPortRuntimeException.class, "OD does not containn terminal origin %s for %s",
+                centroid.getEid(), this);
+        Throw.when(col < 0, SimPortRuntimeException.class, "OD does not containn terminal destination %s for %s",
+                centroid.getEid(), this);
+        this.odMatrix = od;
+        this.terminalDestinations = null;
+        this.terminalOrigins = null;
+        this.destinationSampler = makeSampler(od.getColLabels(), od.getRow(row));
+        this.originSampler = makeSampler(od.getRowLabels(), od.getColumn(col));
     }
 
-    protected void makeCumulativeProbabilities(final NavigableMap<Double, Centroid> probabilities,
-            final Map<String, Double> weights)
+    /**
+     * Make a sampler for the centroids in the map, proportional to their weight.
+     * @param weights the weight per centroid eid
+     * @return a sampler for the centroids
+     */
+    protected DiscreteSampler<Centroid> makeSampler(final Map<String, Double> weights)
     {
-        var centroidMap = getModel().getRoadNetwork().getCentroidMap();
-        probabilities.clear();
-        probabilities.put(0.0, null);
-
-        double sum = 0.0;
-        for (var centroidName : weights.keySet())
-        {
-            if (centroidMap.containsKey(centroidName))
-                sum += weights.get(centroidName);
-        }
+        List<String> labels = new ArrayList<>(weights.keySet());
+        double[] w = new double[labels.size()];
+        for (int i = 0; i < w.length; i++)
+            w[i] = weights.get(labels.get(i));
+        return makeSampler(labels, DoubleBuffer.wrap(w));
+    }
 
-        double cumulative = 0.0;
-        for (var centroidName : weights.keySet())
+    /**
+     * Make a sampler for the centroids with the given labels, proportional to their weight. Labels that are not a centroid
+     * and zero weights are skipped.
+     * @param labels the centroid eids
+     * @param weights the weights, in the order of the labels
+     * @return a sampler for the centroids
+     */
+    protected DiscreteSampler<Centroid> makeSampler(final List<String> labels, final DoubleBuffer weights)
+    {
+        var centroidMap = getModel().getRoadNetwork().getCentroidMap();
+        List<Centroid> centroids = new ArrayList<>();
+        double[] w = new double[labels.size()];
+        for (int i = 0; i < labels.size(); i++)
         {
-            if (!centroidMap.containsKey(centroidName))
-                continue;
-            double weight = weights.get(centroidName);
-            if (weight == 0.0)
+            Centroid centroid = centroidMap.get(labels.get(i));
+            double weight = weights.get(i);
+            if (centroid == null || weight == 0.0)
                 continue;
-            cumulative += weight;
-            probabilities.put(cumulative / sum, centroidMap.get(centroidName));
+            w[centroids.size()] = weight;
+            centroids.add(centroid);
         }
+        return new AliasTable<>(centroids, Arrays.copyOf(w, centroids.size()));
+    }
+
+    /**
+     * Draw a destination centroid for a container that leaves the terminal, proportional to the O/D weights.
+     * @param u a draw from U(0,1)
+     * @return the destination centroid, or null when no destinations have been set
+     */
+    public Centroid drawDestinationCentroid(final double u)
+    {
+        return this.destinationSampler.sample(u);
+    }
+
+    /**
+     * Draw an origin centroid for a container that arrives at the terminal, proportional to the O/D weights.
+     * @param u a draw from U(0,1)
+     * @return the origin centroid, or null when no origins have been set
+     */
+    public Centroid drawOriginCentroid(final double u)
+    {
+        return this.originSampler.sample(u);
     }
 
     public Appointment bookAppointment(final TransportOrder transportOrder)
@@ -231,13 +280,13 @@ public abstract class AbstractContainerFacility extends LocalEventProducer imple
     @Override
     public Point3d getLocation()
     {
-        return new Point3d(this.lon, this.lat, 1.0);
+        return this.location;
     }
 
     @Override
     public Bounds2d getRelativeBounds()
     {
-        return new Bounds2d(0.0015, 0.0009);
+        return RELATIVE_BOUNDS;
     }
 
     @Override
@@ -343,6 +392,8 @@ public abstract class AbstractContainerFacility extends LocalEventProducer imple
      */
     public Map<String, Double> getTerminalDestinations()
     {
+        if (this.terminalDestinations == null && this.odMatrix != null)
+            this.terminalDestinations = this.odMatrix.getAllDestinationsForOrigin(getCentroid().getEid());
         return this.terminalDestinations;
     }
 
@@ -352,7 +403,7 @@ public abstract class AbstractContainerFacility extends LocalEventProducer imple
     public void setTerminalDestinations(final Map<String, Double> terminalDestinations)
     {
         this.terminalDestinations = terminalDestinations;
-        makeCumulativeProbabilities(this.destinationProbabilities, this.terminalDestinations);
+        this.destinationSampler = makeSampler(terminalDestinations);
     }
 
     /**
@@ -360,6 +411,8 @@ public abstract class AbstractContainerFacility extends LocalEventProducer imple
      */
     public Map<String, Double> getTerminalOrigins()
     {
+        if (this.terminalOrigins == null && this.odMatrix != null)
+            this.terminalOrigins = this.odMatrix.getAllOriginsForDestination(getCentroid().getEid());
         return this.terminalOrigins;
     }
 
@@ -369,23 +422,23 @@ public abstract class AbstractContainerFacility extends LocalEventProducer imple
     public void setTerminalOrigins(final Map<String, Double> terminalOrigins)
     {
         this.terminalOrigins = terminalOrigins;
-        makeCumulativeProbabilities(this.originProbabilities, this.terminalOrigins);
+        this.originSampler = makeSampler(terminalOrigins);
     }
 
     /**
-     * @return destinationProbabilities
+     * @return destinationSampler
      */
-    public NavigableMap<Double, Centroid> getDestinationProbabilities()
+    public DiscreteSampler<Centroid> getDestinationSampler()
     {
-        return this.destinationProbabilities;
+        return this.destinationSampler;
     }
 
     /**
-     * @return originProbabilities
+     * @return originSampler
      */
-    public NavigableMap<Double, Centroid> getOriginProbabilities()
+    public DiscreteSampler<Centroid> getOriginSampler()
     {
-        return this.originProbabilities;
+        return this.originSampler;
     }
 
     /**
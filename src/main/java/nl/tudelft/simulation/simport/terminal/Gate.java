@@ -1,6 +1,6 @@
 package nl.tudelft.simulation.simport.terminal;
 
-import java.util.List;
+import java.util.Queue;
 
 import org.djunits.value.vdouble.scalar.Duration;
 import org.djutils.base.Identifiable;
@@ -52,10 +52,11 @@ public interface Gate extends Identifiable
     Duration getAvgGateTimeOut();
 
     /** @return the queue of trucks that want to enter. */
-    List<Truck> getTruckQueueIn();
+    Queue<Truck> getTruckQueueIn();
 
     /**
-     * Add a truck that wants to enter the terminal.
+     * Add a truck that wants to enter the terminal. The gate calls {@link Truck#enterGateFromQueue()} when it is the truck's
+     * turn to enter, which can be immediately when a lane is free.
      * @param truck the truck that wants to enter
      */
     void addTruckToQueueIn(Truck truck);
@@ -1,7 +1,7 @@
 package nl.tudelft.simulation.simport.terminal;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Queue;
 
 import org.djunits.unit.DurationUnit;
 import org.djunits.value.vdouble.scalar.Duration;
@@ -10,9 +10,13 @@ import nl.tudelft.simulation.dsol.simulators.clock.ClockDevsSimulatorInterface;
 import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
 import nl.tudelft.simulation.simport.model.PortModel;
 import nl.tudelft.simulation.simport.truck.Truck;
+import nl.tudelft.simulation.simport.util.DistributionMoments;
 
 /**
- * GateConstant is a gate with a constant number of lanes and a constant processing time.
+ * GateConstant is a gate with a constant number of lanes and a constant processing time. The lanes-in are modeled as parallel
+ * servers: a truck that joins the queue is admitted right away when a lane is free; otherwise, a single event is scheduled for
+ * the time the first lane becomes free. Each lane admits a truck at most once per headway, where the headway is chosen such
+ * that all lanes together admit the total capacity per hour.
  * <p>
  * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
  * BSD-style license.
@@ -46,10 +50,13 @@ public class GateConstant implements Gate
     private Duration avgGateTimeOut;
 
     /** the truck queue for entering the terminal. */
-    private List<Truck> truckQueueIn = new ArrayList<>();
+    private final ArrayDeque<Truck> truckQueueIn = new ArrayDeque<>();
 
-    /** the shortest interval between successive gate-in events because of capacity. */
-    private Duration intervalGateIn;
+    /** the lanes-in as parallel servers. */
+    private final GateLanes gateLanesIn = new GateLanes();
+
+    /** whether an event is scheduled for the time the first busy lane becomes free. */
+    private boolean laneFreeEventScheduled = false;
 
     private int capTotal = 0;
 
@@ -98,9 +105,19 @@ public class GateConstant implements Gate
         this.capExportFull = capExportFull;
         this.capExportEmpty = capExportEmpty;
 
-        // check the in-queue periodically
-        this.intervalGateIn = new Duration(60.0 / this.capTotal, DurationUnit.MINUTE);
-        getSimulator().scheduleEventNow(() -> checkGateIn());
+        updateHeadway();
+    }
+
+    /**
+     * Calculate the headway per lane from the total capacity per hour and the number of lanes-in. Without a capacity, the
+     * average gate-in time is used as the headway.
+     */
+    protected void updateHeadway()
+    {
+        if (this.capTotal > 0)
+            this.gateLanesIn.setHeadwaySI(3600.0 * this.gateLanesIn.getNrLanes() / this.capTotal);
+        else
+            this.gateLanesIn.setHeadwaySI(this.timeInDist == null ? 0.0 : getAvgGateTimeIn().si);
     }
 
     protected void sampleGateIn()
@@ -110,11 +127,29 @@ public class GateConstant implements Gate
         getSimulator().scheduleEventRel(new Duration(6.0, DurationUnit.MINUTE), () -> sampleGateIn());
     }
 
-    protected void checkGateIn()
+    /**
+     * Admit trucks from the queue as long as a lane is free. When trucks remain in the queue, schedule one event for the time
+     * the first lane becomes free, unless such an event has already been scheduled.
+     */
+    protected void admitTrucks()
+    {
+        double now = getSimulator().getSimulatorTime().si;
+        while (!this.truckQueueIn.isEmpty() && this.gateLanesIn.admit(now))
+            this.truckQueueIn.pollFirst().enterGateFromQueue();
+        if (!this.truckQueueIn.isEmpty() && !this.laneFreeEventScheduled)
+        {
+            this.laneFreeEventScheduled = true;
+            getSimulator().scheduleEventRel(Duration.ofSI(this.gateLanesIn.getEarliestFreeTimeSI() - now), () -> laneFree());
+        }
+    }
+
+    /**
+     * Called when the first busy lane becomes free.
+     */
+    protected void laneFree()
     {
-        if (this.truckQueueIn.size() > 0)
-            this.truckQueueIn.remove(0).enterGateFromQueue();
-        getSimulator().scheduleEventRel(this.intervalGateIn, () -> checkGateIn());
+        this.laneFreeEventScheduled = false;
+        admitTrucks();
     }
 
     @Override
@@ -133,6 +168,8 @@ public class GateConstant implements Gate
     public void setLanesIn(final int lanesIn)
     {
         this.lanesIn = lanesIn;
+        this.gateLanesIn.setNrLanes(lanesIn);
+        updateHeadway();
     }
 
     @Override
@@ -160,6 +197,8 @@ public class GateConstant implements Gate
     public void setTimeInDist(final DistContinuousDuration timeInDist)
     {
         this.timeInDist = timeInDist;
+        this.avgGateTimeIn = null;
+        updateHeadway();
     }
 
     @Override
@@ -175,6 +214,7 @@ public class GateConstant implements Gate
     public void setTimeOutDist(final DistContinuousDuration timeOutDist)
     {
         this.timeOutDist = timeOutDist;
+        this.avgGateTimeOut = null;
     }
 
     @Override
@@ -187,14 +227,7 @@ public class GateConstant implements Gate
     public Duration getAvgGateTimeIn()
     {
         if (this.avgGateTimeIn == null)
-        {
-            double durationSi = 0.0;
-            for (int i = 0; i < 1000; i++)
-            {
-                durationSi += drawCurrentGateTimeIn().si;
-            }
-            this.avgGateTimeIn = Duration.ofSI(durationSi / 1000.0);
-        }
+            this.avgGateTimeIn = DistributionMoments.mean(this.timeInDist);
         return this.avgGateTimeIn;
     }
 
@@ -202,19 +235,12 @@ public class GateConstant implements Gate
     public Duration getAvgGateTimeOut()
     {
         if (this.avgGateTimeOut == null)
-        {
-            double durationSi = 0.0;
-            for (int i = 0; i < 1000; i++)
-            {
-                durationSi += drawCurrentGateTimeOut().si;
-            }
-            this.avgGateTimeOut = Duration.ofSI(durationSi / 1000.0);
-        }
+            this.avgGateTimeOut = DistributionMoments.mean(this.timeOutDist);
         return this.avgGateTimeOut;
     }
 
     @Override
-    public List<Truck> getTruckQueueIn()
+    public Queue<Truck> getTruckQueueIn()
     {
         return this.truckQueueIn;
     }
@@ -222,8 +248,8 @@ public class GateConstant implements Gate
     @Override
     public void addTruckToQueueIn(final Truck truck)
     {
-        this.truckQueueIn.add(truck);
-
+        this.truckQueueIn.addLast(truck);
+        admitTrucks();
     }
 
     @Override
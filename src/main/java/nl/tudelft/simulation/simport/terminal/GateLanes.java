@@ -0,0 +1,84 @@
+package nl.tudelft.simulation.simport.terminal;
+
+import java.util.Arrays;
+
+/**
+ * GateLanes keeps track of the lanes of a gate as a set of parallel servers. Each lane is busy until a given time after it
+ * has admitted a truck; the minimum time between two trucks on the same lane (the headway) follows from the capacity of the
+ * gate. The class contains no simulator logic, so the gate can schedule an event only when a lane actually becomes free.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class GateLanes
+{
+    /** the time (in seconds) until which each lane is busy. */
+    private double[] busyUntil = new double[] {Double.NEGATIVE_INFINITY};
+
+    /** the minimum time (in seconds) between two trucks on the same lane. */
+    private double headwaySI = 0.0;
+
+    /**
+     * Set the number of lanes. Lanes that remain keep their busy time; new lanes are free.
+     * @param nrLanes the number of lanes; values below 1 are treated as 1 lane
+     */
+    public void setNrLanes(final int nrLanes)
+    {
+        int n = Math.max(1, nrLanes);
+        int old = this.busyUntil.length;
+        this.busyUntil = Arrays.copyOf(this.busyUntil, n);
+        for (int i = old; i < n; i++)
+            this.busyUntil[i] = Double.NEGATIVE_INFINITY;
+    }
+
+    /** @return the number of lanes */
+    public int getNrLanes()
+    {
+        return this.busyUntil.length;
+    }
+
+    /**
+     * Set the minimum time between two trucks on the same lane.
+     * @param headwaySI the headway in seconds
+     */
+    public void setHeadwaySI(final double headwaySI)
+    {
+        this.headwaySI = headwaySI;
+    }
+
+    /** @return the minimum time between two trucks on the same lane in seconds */
+    public double getHeadwaySI()
+    {
+        return this.headwaySI;
+    }
+
+    /**
+     * Admit a truck on the first lane that is free at the given time, and make that lane busy for the headway.
+     * @param nowSI the current time in seconds
+     * @return whether a lane was free and the truck was admitted
+     */
+    public boolean admit(final double nowSI)
+    {
+        for (int i = 0; i < this.busyUntil.length; i++)
+        {
+            if (this.busyUntil[i] <= nowSI)
+            {
+                this.busyUntil[i] = nowSI + this.headwaySI;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** @return the earliest time (in seconds) at which a lane becomes free */
+    public double getEarliestFreeTimeSI()
+    {
+        double t = Double.POSITIVE_INFINITY;
+        for (double b : this.busyUntil)
+            t = Math.min(t, b);
+        return t;
+    }
+
+}
@@ -5,16 +5,20 @@ import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 import org.djunits.value.vdouble.scalar.Duration;
+import org.djutils.exceptions.Throw;
 
 import nl.tudelft.simulation.dsol.simulators.AnimatorInterface;
 import nl.tudelft.simulation.simport.Location;
 import nl.tudelft.simulation.simport.animation.TerminalAnimation;
 import nl.tudelft.simulation.simport.container.Booking;
 import nl.tudelft.simulation.simport.container.Container;
+import nl.tudelft.simulation.simport.model.ModelParameters;
 import nl.tudelft.simulation.simport.model.PortModel;
 import nl.tudelft.simulation.simport.vessel.Vessel;
 import nl.tudelft.simulation.simport.vessel.VesselGenerator;
@@ -32,11 +36,23 @@ public class Terminal extends AbstractContainerFacility
     /** The vessel generators for this terminal. */
     private Map<String, VesselGenerator> vesselGeneratorMap = new LinkedHashMap<>();
 
-    /** Unallocated export bookings that have to be allocated to a mode. These come in 7-14 days before vessel arrival. */
-    private final SortedMap<Vessel, List<Booking>> unallocatedExportMap;
+    /** Unallocated import bookings of feeders that can be transshipped to a deepsea vessel, ordered on ETA. */
+    private final NavigableSet<VesselBookings> unallocatedFeederImports = new TreeSet<>(VesselBookings.ETA_ORDER);
 
-    /** Unallocated import bookings that have to be allocated to a mode. These come in 7-14 days before vessel arrival. */
-    private final SortedMap<Vessel, List<Booking>> unallocatedImportMap;
+    /** Unallocated export bookings of feeders that can be transshipped from a deepsea vessel, ordered on ETA. */
+    private final NavigableSet<VesselBookings> unallocatedFeederExports = new TreeSet<>(VesselBookings.ETA_ORDER);
+
+    /** Unallocated import bookings of deepsea vessels that have to be allocated at the cutoff, ordered on ETA. */
+    private final NavigableSet<VesselBookings> unallocatedDeepseaImports = new TreeSet<>(VesselBookings.ETA_ORDER);
+
+    /** Unallocated export bookings of deepsea vessels that have to be allocated at the cutoff, ordered on ETA. */
+    private final NavigableSet<VesselBookings> unallocatedDeepseaExports = new TreeSet<>(VesselBookings.ETA_ORDER);
+
+    /** The deepsea vessels of unallocatedDeepseaImports that can still unload containers for transshipment. */
+    private final NavigableSet<VesselBookings> openDeepseaImports = new TreeSet<>(VesselBookings.ETA_ORDER);
+
+    /** The deepsea vessels of unallocatedDeepseaExports that can still load containers from transshipment. */
+    private final NavigableSet<VesselBookings> openDeepseaExports = new TreeSet<>(VesselBookings.ETA_ORDER);
 
     /** Allocated export bookings that have been allocated to the truck MODE, not necessarily to a truck instance yet. */
     private final SortedMap<Vessel, List<Booking>> allocatedExportTruckMap;
@@ -68,12 +84,18 @@ public class Terminal extends AbstractContainerFacility
     /** The transshipment fraction for export containers. */
     private double transshipmentFractionExport;
 
+    /** The number of containers that are unloaded from or loaded onto a vessel in one handling event (crane cycle). */
+    private int craneBatchSize = 20;
+
     /** The modal split for import containers. */
     private ModalSplit modalSplitImport;
 
     /** The modal split for export containers. */
     private ModalSplit modalSplitExport;
 
+    /** The terminal parameters of the run. */
+    private final ModelParameters.TerminalParameters terminalParameters;
+
     /**
      * Create a new terminal for the port model.
      * @param id the id of the terminal
@@ -83,11 +105,25 @@ public class Terminal extends AbstractContainerFacility
      * @param lon longitude
      */
     public Terminal(final String id, final String name, final PortModel model, final double lat, final double lon)
+    {
+        this(id, name, model, lat, lon, model.getModelParameters().terminal());
+    }
+
+    /**
+     * Create a new terminal for the port model with the terminal parameters of the run.
+     * @param id the id of the terminal
+     * @param name the longer name of the terminal
+     * @param model the port model
+     * @param lat latitude
+     * @param lon longitude
+     * @param terminalParameters the terminal parameters of the run
+     */
+    public Terminal(final String id, final String name, final PortModel model, final double lat, final double lon,
+            final ModelParameters.TerminalParameters terminalParameters)
     {
         super(id, name, model, lat, lon);
+        this.terminalParameters = terminalParameters;
         model.addTerminal(this);
-        this.unallocatedExportMap = new TreeMap<>(new VesselComparator());
-        this.unallocatedImportMap = new TreeMap<>(new VesselComparator());
         this.allocatedExportTruckMap = new TreeMap<>(new VesselComparator());
         this.allocatedExportBargeMap = new TreeMap<>(new VesselComparator());
         this.allocatedExportRailMap = new TreeMap<>(new VesselComparator());
@@ -160,26 +196,33 @@ public class Terminal extends AbstractContainerFacility
      */
     public void addToUnallocatedImportMap(final Vessel vessel)
     {
-        this.unallocatedImportMap.put(vessel, new ArrayList<>(vessel.getUnloadList()));
         this.allocatedImportTruckMap.put(vessel, new ArrayList<>());
         this.allocatedImportBargeMap.put(vessel, new ArrayList<>());
         this.allocatedImportRailMap.put(vessel, new ArrayList<>());
         this.allocatedImportTransshipMap.put(vessel, new ArrayList<>());
 
-        // if the vessel is a feeder, distribute the modes of transport
-        if (!vessel.getVesselType().isFeeder())
-            return;
-        int index = 0;
-        var list = this.unallocatedImportMap.get(vessel);
-        while (index < list.size())
+        VesselBookings bookings = new VesselBookings(vessel);
+        if (vessel.getVesselType().isFeeder())
+        {
+            // if the vessel is a feeder, distribute the modes of transport for the bookings that are not transshipped
+            for (Booking booking : vessel.getUnloadList())
+            {
+                if (getModel().getU01().draw() < this.transshipmentFractionImport)
+                    bookings.add(booking);
+                else
+                    drawImportMode(vessel, booking);
+            }
+            if (!bookings.isEmpty())
+                this.unallocatedFeederImports.add(bookings);
+        }
+        else
         {
-            Booking booking = list.get(index);
-            if (getModel().getU01().draw() < this.transshipmentFractionImport)
-                index++;
-            else
+            for (Booking booking : vessel.getUnloadList())
+                bookings.add(booking);
+            if (!bookings.isEmpty())
             {
-                drawImportMode(vessel, booking);
-                list.remove(index);
+                this.unallocatedDeepseaImports.add(bookings);
+                this.openDeepseaImports.add(bookings);
             }
         }
     }
@@ -192,33 +235,40 @@ public class Terminal extends AbstractContainerFacility
      */
     public void addToUnallocatedExportMap(final Vessel vessel)
     {
-        this.unallocatedExportMap.put(vessel, new ArrayList<>(vessel.getLoadList()));
         this.allocatedExportTruckMap.put(vessel, new ArrayList<>());
         this.allocatedExportBargeMap.put(vessel, new ArrayList<>());
         this.allocatedExportRailMap.put(vessel, new ArrayList<>());
         this.allocatedExportTransshipMap.put(vessel, new ArrayList<>());
 
-        // if the vessel is a feeder, distribute the modes of transport
-        if (!vessel.getVesselType().isFeeder())
-            return;
-        int index = 0;
-        var list = this.unallocatedExportMap.get(vessel);
-        while (index < list.size())
+        VesselBookings bookings = new VesselBookings(vessel);
+        if (vessel.getVesselType().isFeeder())
         {
-            Booking booking = list.get(index);
-            if (getModel().getU01().draw() < this.transshipmentFractionExport)
-                index++;
-            else
+            // if the vessel is a feeder, distribute the modes of transport for the bookings that are not transshipped
+            for (Booking booking : vessel.getLoadList())
             {
-                drawExportMode(vessel, booking);
-                list.remove(index);
+                if (getModel().getU01().draw() < this.transshipmentFractionExport)
+                    bookings.add(booking);
+                else
+                    drawExportMode(vessel, booking);
+            }
+            if (!bookings.isEmpty())
+                this.unallocatedFeederExports.add(bookings);
+        }
+        else
+        {
+            for (Booking booking : vessel.getLoadList())
+                bookings.add(booking);
+            if (!bookings.isEmpty())
+            {
+                this.unallocatedDeepseaExports.add(bookings);
+                this.openDeepseaExports.add(bookings);
             }
         }
     }
 
     /**
-     * Draw an export mode of transport and add the booking to the correct map. Note that the booking is not yet removed from
-     * the unallocated booking map. Add a container in the hinterland for the export booking.
+     * Draw an export mode of transport and add the booking to the correct map. Note that the booking has already been removed
+     * from the unallocated bookings, or has never been added to them. Add a container in the hinterland for the export booking.
      * @param vessel the vessel the booking belongs to; the container is LEAVING with this vessel
      * @param booking the booking, without a container
      */
@@ -249,8 +299,8 @@ public class Terminal extends AbstractContainerFacility
     }
 
     /**
-     * Draw an import mode of transport and add the booking to the correct map. Note that the booking is not yet removed from
-     * the unallocated booking map.
+     * Draw an import mode of transport and add the booking to the correct map. Note that the booking has already been removed
+     * from the unallocated bookings, or has never been added to them.
      * @param vessel the vessel the booking belongs to; the container is ARRIVING with this vessel
      * @param booking the booking, including a container since it is import (the container is already linked to the vessel)
      */
@@ -281,148 +331,150 @@ public class Terminal extends AbstractContainerFacility
      * Check once a day how to match transloading bookings for vessels arriving and departing. When all transloading has been
      * booked, bookings are distributed over the modes of transport. Containers that are transloaded stay a few days on the
      * yard. This means that there has to be a minimum number of days between arrival of vessel and departure on the next
-     * vessel. This number is a property for the simulation.
+     * vessel. This number is a property for the simulation. Only bookings for the same container type (size, full/empty,
+     * reefer) are matched. Feeders without transshipment bookings and deepsea vessels that reached the maximum transshipment
+     * fraction are not considered anymore, and the eligible deepsea vessels for a feeder are found by their ETA, so the work
+     * is proportional to the number of matches rather than to the number of vessel pairs.
      */
     protected void allocateBookings()
     {
-        Duration cutoffDS = Duration.valueOf(getModel().getInputParameterString("terminal.CutoffTransloadingDeepsea"));
-        Duration cutoffFF = Duration.valueOf(getModel().getInputParameterString("terminal.CutoffTransloadingFeeder"));
-        Duration bufferTime = Duration.valueOf(getModel().getInputParameterString("terminal.TransloadingBufferTime"));
-        double maxTransloadFraction = getModel().getInputParameterDouble("terminal.MaxDeepseaTransloadFraction");
+        ModelParameters.TerminalParameters parameters = this.terminalParameters;
+        Duration cutoffDS = parameters.cutoffTransloadingDeepsea();
+        Duration cutoffFF = parameters.cutoffTransloadingFeeder();
+        Duration bufferTime = parameters.transloadingBufferTime();
+        double maxTransloadFraction = parameters.maxDeepseaTransloadFraction();
+        double now = getSimulator().getSimulatorClockTime().si;
+        double firstDeepseaEta = now + cutoffDS.si;
 
         // Feeder -> Deepsea
-        for (Vessel feeder : this.unallocatedImportMap.keySet())
+        for (var it = this.unallocatedFeederImports.iterator(); it.hasNext();)
         {
-            if (!feeder.getVesselType().isFeeder() || this.unallocatedImportMap.get(feeder).size() == 0)
-                continue;
-            for (Vessel deepsea : this.unallocatedExportMap.keySet())
+            VesselBookings feeder = it.next();
+            double fromEta = Math.max(firstDeepseaEta, feeder.getEta() + bufferTime.si);
+            var deepseas = this.openDeepseaExports.tailSet(VesselBookings.searchKey(fromEta), true);
+            for (var dit = deepseas.iterator(); dit.hasNext() && !feeder.isEmpty();)
             {
-                if (deepsea.getVesselType().isFeeder() || this.unallocatedExportMap.get(deepsea).size() == 0)
-                    continue;
-                if (deepsea.getEta().minus(getSimulator().getSimulatorClockTime()).lt(cutoffDS))
-                    continue;
-                if (deepsea.getEta().minus(feeder.getEta()).lt(bufferTime))
-                    continue;
-                while (deepsea.getNrContainersTransshippedLoaded() <= maxTransloadFraction * deepsea.getLoadList().size())
-                {
-                    if (this.unallocatedImportMap.get(feeder).size() == 0)
-                        break;
-                    var bookingFeeder = this.unallocatedImportMap.get(feeder).remove(0);
-                    var bookingDeepsea = this.unallocatedExportMap.get(deepsea).remove(0);
-                    Container container = bookingFeeder.getContainer();
-                    container.setVesselOutNr(deepsea.getVesselNr());
-                    bookingDeepsea.setContainer(container);
-                    this.allocatedImportTransshipMap.get(feeder).add(bookingFeeder);
-                    this.allocatedExportTransshipMap.get(deepsea).add(bookingDeepsea);
-                    feeder.incNrContainersTransshippedUnloaded(1);
-                    deepsea.incNrContainersTransshippedLoaded(1);
-                }
+                VesselBookings deepsea = dit.next();
+                Vessel vessel = deepsea.getVessel();
+                transship(feeder, deepsea, remainingTransshipment(vessel.getNrContainersTransshippedLoaded(),
+                        vessel.getLoadList().size(), maxTransloadFraction));
+                if (deepsea.isEmpty() || remainingTransshipment(vessel.getNrContainersTransshippedLoaded(),
+                        vessel.getLoadList().size(), maxTransloadFraction) == 0)
+                    dit.remove();
             }
+            if (feeder.isEmpty())
+                it.remove();
         }
 
         // Deepsea -> Feeder
-        for (Vessel feeder : this.unallocatedExportMap.keySet())
+        for (var it = this.unallocatedFeederExports.iterator(); it.hasNext();)
         {
-            if (!feeder.getVesselType().isFeeder() || this.unallocatedExportMap.get(feeder).size() == 0)
+            VesselBookings feeder = it.next();
+            double toEta = Math.nextUp(feeder.getEta() - bufferTime.si);
+            if (toEta <= firstDeepseaEta)
                 continue;
-            for (Vessel deepsea : this.unallocatedImportMap.keySet())
+            var deepseas = this.openDeepseaImports.subSet(VesselBookings.searchKey(firstDeepseaEta), true,
+                    VesselBookings.searchKey(toEta), false);
+            for (var dit = deepseas.iterator(); dit.hasNext() && !feeder.isEmpty();)
             {
-                if (deepsea.getVesselType().isFeeder() || this.unallocatedImportMap.get(deepsea).size() == 0)
-                    continue;
-                if (deepsea.getEta().minus(getSimulator().getSimulatorClockTime()).lt(cutoffDS))
-                    continue;
-                if (feeder.getEta().minus(deepsea.getEta()).lt(bufferTime))
-                    continue;
-                while (deepsea.getNrContainersTransshippedUnloaded() <= maxTransloadFraction * deepsea.getUnloadList().size())
-                {
-                    if (this.unallocatedExportMap.get(feeder).size() == 0)
-                        break;
-                    var bookingDeepsea = this.unallocatedImportMap.get(deepsea).remove(0);
-                    var bookingFeeder = this.unallocatedExportMap.get(feeder).remove(0);
-                    Container container = bookingDeepsea.getContainer();
-                    container.setVesselOutNr(feeder.getVesselNr());
-                    bookingFeeder.setContainer(container);
-                    this.allocatedImportTransshipMap.get(deepsea).add(bookingDeepsea);
-                    this.allocatedExportTransshipMap.get(feeder).add(bookingFeeder);
-                    feeder.incNrContainersTransshippedLoaded(1);
-                    deepsea.incNrContainersTransshippedUnloaded(1);
-                }
+                VesselBookings deepsea = dit.next();
+                Vessel vessel = deepsea.getVessel();
+                transship(deepsea, feeder, remainingTransshipment(vessel.getNrContainersTransshippedUnloaded(),
+                        vessel.getUnloadList().size(), maxTransloadFraction));
+                if (deepsea.isEmpty() || remainingTransshipment(vessel.getNrContainersTransshippedUnloaded(),
+                        vessel.getUnloadList().size(), maxTransloadFraction) == 0)
+                    dit.remove();
             }
-        }
-
-        // Ships where allocation is ready or where cutoff date has passed
-        for (var it = this.unallocatedExportMap.keySet().iterator(); it.hasNext();)
-        {
-            Vessel deepsea = it.next();
-            if (!deepsea.getVesselType().isDeepSea())
-                continue;
-            if (deepsea.getEta().minus(getSimulator().getSimulatorClockTime()).lt(cutoffDS))
-            {
-                for (var booking : this.unallocatedExportMap.get(deepsea))
-                {
-                    drawExportMode(deepsea, booking);
-                }
-                it.remove();
-            }
-        }
-        for (var it = this.unallocatedImportMap.keySet().iterator(); it.hasNext();)
-        {
-            Vessel deepsea = it.next();
-            if (!deepsea.getVesselType().isDeepSea())
-                continue;
-            if (deepsea.getEta().minus(getSimulator().getSimulatorClockTime()).lt(cutoffDS))
-            {
-                for (var booking : this.unallocatedImportMap.get(deepsea))
-                {
-                    drawImportMode(deepsea, booking);
-                }
+            if (feeder.isEmpty())
                 it.remove();
-            }
         }
 
-        for (var it = this.unallocatedExportMap.keySet().iterator(); it.hasNext();)
+        // Ships where the cutoff date has passed
+        allocateAfterCutoff(this.unallocatedDeepseaExports, this.openDeepseaExports, firstDeepseaEta, true);
+        allocateAfterCutoff(this.unallocatedDeepseaImports, this.openDeepseaImports, firstDeepseaEta, false);
+        allocateAfterCutoff(this.unallocatedFeederExports, null, now + cutoffFF.si, true);
+        allocateAfterCutoff(this.unallocatedFeederImports, null, now + cutoffFF.si, false);
+
+        getSimulator().scheduleEventRel(parameters.transloadingMatchInterval(), () -> allocateBookings());
+    }
+
+    /**
+     * Return how many containers can still be transshipped for a deepsea vessel. The vessel can receive transshipment
+     * containers as long as the number of transshipped containers does not exceed the maximum fraction of its bookings.
+     * @param nrTransshipped the number of containers that have already been transshipped
+     * @param nrBookings the number of bookings of the vessel
+     * @param maxTransloadFraction the maximum fraction of bookings that can be transshipped
+     * @return the number of containers that can still be transshipped
+     */
+    private static int remainingTransshipment(final int nrTransshipped, final int nrBookings,
+            final double maxTransloadFraction)
+    {
+        return Math.max(0, (int) Math.floor(maxTransloadFraction * nrBookings) - nrTransshipped + 1);
+    }
+
+    /**
+     * Match import bookings of one vessel with export bookings of the same container type of another vessel, and transship
+     * the containers of the import bookings to the vessel of the export bookings.
+     * @param imports the unallocated import bookings of the vessel that unloads the containers
+     * @param exports the unallocated export bookings of the vessel that loads the containers
+     * @param maxNumber the maximum number of matches
+     */
+    private void transship(final VesselBookings imports, final VesselBookings exports, final int maxNumber)
+    {
+        int nr = 0;
+        int typeMask;
+        while (nr < maxNumber && (typeMask = imports.getTypeMask() & exports.getTypeMask()) != 0)
         {
-            Vessel feeder = it.next();
-            if (!feeder.getVesselType().isFeeder())
-                continue;
-            if (feeder.getEta().minus(getSimulator().getSimulatorClockTime()).lt(cutoffFF))
-            {
-                for (var booking : this.unallocatedExportMap.get(feeder))
-                {
-                    drawExportMode(feeder, booking);
-                }
-                it.remove();
-            }
+            int type = Integer.numberOfTrailingZeros(typeMask);
+            Booking importBooking = imports.poll(type);
+            Booking exportBooking = exports.poll(type);
+            Container container = importBooking.getContainer();
+            container.setVesselOutNr(exports.getVesselNr());
+            exportBooking.setContainer(container);
+            this.allocatedImportTransshipMap.get(imports.getVessel()).add(importBooking);
+            this.allocatedExportTransshipMap.get(exports.getVessel()).add(exportBooking);
+            nr++;
         }
-        for (var it = this.unallocatedImportMap.keySet().iterator(); it.hasNext();)
+        imports.getVessel().incNrContainersTransshippedUnloaded(nr);
+        exports.getVessel().incNrContainersTransshippedLoaded(nr);
+    }
+
+    /**
+     * Draw the mode of transport for the remaining bookings of the vessels that arrive before the given ETA, and remove these
+     * vessels from the unallocated bookings.
+     * @param unallocated the unallocated bookings, ordered on ETA
+     * @param open the subset of vessels that can still be matched, or null when there is no such set
+     * @param cutoffEta the ETA in seconds before which the mode of transport has to be determined
+     * @param export whether the bookings are export bookings
+     */
+    private void allocateAfterCutoff(final NavigableSet<VesselBookings> unallocated, final NavigableSet<VesselBookings> open,
+            final double cutoffEta, final boolean export)
+    {
+        if (open != null)
+            open.headSet(VesselBookings.searchKey(cutoffEta), false).clear();
+        while (!unallocated.isEmpty() && unallocated.first().getEta() < cutoffEta)
         {
-            Vessel feeder = it.next();
-            if (!feeder.getVesselType().isFeeder())
-                continue;
-            if (feeder.getEta().minus(getSimulator().getSimulatorClockTime()).lt(cutoffFF))
+            VesselBookings bookings = unallocated.pollFirst();
+            for (Booking booking : bookings.removeAll())
             {
-                for (var booking : this.unallocatedImportMap.get(feeder))
-                {
-                    drawImportMode(feeder, booking);
-                }
-                it.remove();
+                if (export)
+                    drawExportMode(bookings.getVessel(), booking);
+                else
+                    drawImportMode(bookings.getVessel(), booking);
             }
         }
-
-        getSimulator().scheduleEventRel(
-                Duration.valueOf(getModel().getInputParameterString("terminal.TransloadingMatchInterval")),
-                () -> allocateBookings());
     }
 
     /**
-     * Comparator for two vessels based on ETA.
+     * Comparator for two vessels based on ETA, and on the vessel number for vessels with the same ETA.
      */
     protected static class VesselComparator implements Comparator<Vessel>
     {
         @Override
         public int compare(final Vessel v1, final Vessel v2)
         {
-            return Double.compare(v1.getEta().doubleValue(), v2.getEta().doubleValue());
+            int c = Double.compare(v1.getEta().doubleValue(), v2.getEta().doubleValue());
+            return c != 0 ? c : Integer.compare(v1.getVesselNr(), v2.getVesselNr());
         }
     }
 
@@ -455,6 +507,14 @@ public class Terminal extends AbstractContainerFacility
         return this.modalSplitExport;
     }
 
+    /**
+     * @return the terminal parameters of the run
+     */
+    public ModelParameters.TerminalParameters getTerminalParameters()
+    {
+        return this.terminalParameters;
+    }
+
     /**
      * Set the modal split for export containers for this terminal.
      * @param modalSplitExport the modal split for export containers for this terminal
@@ -497,19 +557,58 @@ public class Terminal extends AbstractContainerFacility
     }
 
     /**
-     * @return unallocatedExportMap
+     * Return the number of containers that are unloaded from or loaded onto a vessel in one handling event.
+     * @return the number of containers per handling event of a vessel
+     */
+    public int getCraneBatchSize()
+    {
+        return this.craneBatchSize;
+    }
+
+    /**
+     * Set the number of containers that are unloaded from or loaded onto a vessel in one handling event. A batch size of 1
+     * schedules an event per container.
+     * @param craneBatchSize the number of containers per handling event of a vessel, at least 1
+     */
+    public void setCraneBatchSize(final int craneBatchSize)
+    {
+        Throw.when(craneBatchSize < 1, IllegalArgumentException.class, "craneBatchSize should be at least 1");
+        this.craneBatchSize = craneBatchSize;
+    }
+
+    /**
+     * Return a snapshot of the unallocated export bookings per vessel. Changes to the map do not change the allocation.
+     * @return a map with the unallocated export bookings per vessel
      */
     public SortedMap<Vessel, List<Booking>> getUnallocatedExportMap()
     {
-        return this.unallocatedExportMap;
+        return bookingMap(this.unallocatedFeederExports, this.unallocatedDeepseaExports);
     }
 
     /**
-     * @return unallocatedImportMap
+     * Return a snapshot of the unallocated import bookings per vessel. Changes to the map do not change the allocation.
+     * @return a map with the unallocated import bookings per vessel
      */
     public SortedMap<Vessel, List<Booking>> getUnallocatedImportMap()
     {
-        return this.unallocatedImportMap;
+        return bookingMap(this.unallocatedFeederImports, this.unallocatedDeepseaImports);
+    }
+
+    /**
+     * Make a map of the bookings per vessel for the feeder and deepsea vessels.
+     * @param feeders the bookings of the feeders
+     * @param deepseas the bookings of the deepsea vessels
+     * @return a map with the bookings per vessel
+     */
+    private static SortedMap<Vessel, List<Booking>> bookingMap(final NavigableSet<VesselBookings> feeders,
+            final NavigableSet<VesselBookings> deepseas)
+    {
+        SortedMap<Vessel, List<Booking>> map = new TreeMap<>(new VesselComparator());
+        for (VesselBookings bookings : feeders)
+            map.put(bookings.getVessel(), bookings.toList());
+        for (VesselBookings bookings : deepseas)
+            map.put(bookings.getVessel(), bookings.toList());
+        return map;
     }
 
     /**
@@ -0,0 +1,198 @@
+package nl.tudelft.simulation.simport.terminal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import nl.tudelft.simulation.simport.container.Booking;
+import nl.tudelft.simulation.simport.vessel.Vessel;
+
+/**
+ * VesselBookings holds the unallocated bookings of one vessel, in a queue per container type (size, full/empty, reefer). A
+ * bit mask indicates which types still have bookings, so two vessels can be checked for a possible transshipment match in
+ * constant time, and a match is made by taking the first booking from the queues of both vessels.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class VesselBookings
+{
+    /** Ordering on ETA, and on vessel number for vessels with the same ETA. */
+    public static final Comparator<VesselBookings> ETA_ORDER =
+            Comparator.comparingDouble(VesselBookings::getEta).thenComparingInt(VesselBookings::getVesselNr);
+
+    /** The number of container types, see Shipment.getTypeIndex(). */
+    private static final int NR_TYPES = 16;
+
+    /** The vessel, null for a search key. */
+    private final Vessel vessel;
+
+    /** The ETA of the vessel in seconds. */
+    private final double eta;
+
+    /** The vessel number. */
+    private final int vesselNr;
+
+    /** The bookings per container type; a queue is created when the first booking of that type is added. */
+    private final ArrayDeque<Booking>[] queues;
+
+    /** Bit i is set when the queue for type index i contains bookings. */
+    private int typeMask = 0;
+
+    /** The total number of bookings. */
+    private int size = 0;
+
+    /**
+     * Create an empty booking administration for a vessel.
+     * @param vessel the vessel
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public VesselBookings(final Vessel vessel)
+    {
+        this.vessel = vessel;
+        this.eta = vessel.getEta().si;
+        this.vesselNr = vessel.getVesselNr();
+        this.queues = new ArrayDeque[NR_TYPES];
+    }
+
+    /**
+     * Create a search key to find vessels in a set that is ordered on ETA_ORDER.
+     * @param eta the ETA in seconds
+     */
+    private VesselBookings(final double eta)
+    {
+        this.vessel = null;
+        this.eta = eta;
+        this.vesselNr = Integer.MIN_VALUE;
+        this.queues = null;
+    }
+
+    /**
+     * Return a search key that sorts before all vessels with the given ETA or a later ETA in ETA_ORDER.
+     * @param eta the ETA in seconds
+     * @return a search key for a set that is ordered on ETA_ORDER
+     */
+    public static VesselBookings searchKey(final double eta)
+    {
+        return new VesselBookings(eta);
+    }
+
+    /**
+     * Add a booking at the end of the queue for its container type.
+     * @param booking the booking to add
+     */
+    public void add(final Booking booking)
+    {
+        int type = booking.getTypeIndex();
+        if (this.queues[type] == null)
+            this.queues[type] = new ArrayDeque<>();
+        this.queues[type].addLast(booking);
+        this.typeMask |= 1 << type;
+        this.size++;
+    }
+
+    /**
+     * Remove and return the first booking of the given container type.
+     * @param type the type index, see Shipment.getTypeIndex()
+     * @return the first booking of the given type, or null when there is none
+     */
+    public Booking poll(final int type)
+    {
+        ArrayDeque<Booking> queue = this.queues[type];
+        if (queue == null || queue.isEmpty())
+            return null;
+        Booking booking = queue.pollFirst();
+        if (queue.isEmpty())
+            this.typeMask &= ~(1 << type);
+        this.size--;
+        return booking;
+    }
+
+    /**
+     * Remove all bookings, and return them grouped per container type.
+     * @return the removed bookings
+     */
+    public List<Booking> removeAll()
+    {
+        List<Booking> result = toList();
+        for (int type = 0; type < NR_TYPES; type++)
+        {
+            if (this.queues[type] != null)
+                this.queues[type].clear();
+        }
+        this.typeMask = 0;
+        this.size = 0;
+        return result;
+    }
+
+    /**
+     * Return a copy of the bookings, grouped per container type.
+     * @return a list with the bookings
+     */
+    public List<Booking> toList()
+    {
+        List<Booking> result = new ArrayList<>(this.size);
+        for (int type = 0; type < NR_TYPES; type++)
+        {
+            if (this.queues[type] != null)
+                result.addAll(this.queues[type]);
+        }
+        return result;
+    }
+
+    /**
+     * Return the number of bookings of the given container type.
+     * @param type the type index, see Shipment.getTypeIndex()
+     * @return the number of bookings of the given type
+     */
+    public int size(final int type)
+    {
+        return this.queues[type] == null ? 0 : this.queues[type].size();
+    }
+
+    /** @return the total number of bookings */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /** @return whether there are no bookings */
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    /** @return a bit mask where bit i is set when there are bookings with type index i */
+    public int getTypeMask()
+    {
+        return this.typeMask;
+    }
+
+    /** @return the vessel */
+    public Vessel getVessel()
+    {
+        return this.vessel;
+    }
+
+    /** @return the ETA of the vessel in seconds */
+    public double getEta()
+    {
+        return this.eta;
+    }
+
+    /** @return the vessel number */
+    public int getVesselNr()
+    {
+        return this.vesselNr;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "VesselBookings [vessel=" + this.vessel + ", size=" + this.size + "]";
+    }
+
+}
@@ -0,0 +1,148 @@
+package nl.tudelft.simulation.simport.terminal;
+
+import java.util.function.ToIntFunction;
+
+import gnu.trove.TCollections;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.hash.TIntHashSet;
+
+import nl.tudelft.simulation.simport.container.Container;
+
+/**
+ * VesselContainerIndex keeps the numbers of the containers in a yard per vessel, in a primitive int list per vessel number. The
+ * vessel of a container is taken from the container itself (e.g., its incoming or outgoing vessel number), which does not
+ * change while the container is in the yard. Adding a container appends its number to the list of its vessel. Removing a
+ * container only decreases the number of live entries of the list; the list is compacted against the container map of the
+ * yard when it is read, or when more than half of its entries have been removed, so both operations take amortized constant
+ * time, and no position or vessel has to be stored per container.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class VesselContainerIndex
+{
+    /** The container map of the yard, which determines which container numbers are still live. */
+    private final TIntObjectMap<Container> containerMap;
+
+    /** The function that returns the vessel number under which a container is indexed, or a negative number for none. */
+    private final ToIntFunction<Container> vesselNr;
+
+    /** The container numbers per vessel number. */
+    private final TIntObjectHashMap<Slice> slices = new TIntObjectHashMap<>();
+
+    /**
+     * Create an index of the containers in a yard per vessel.
+     * @param containerMap the container map of the yard
+     * @param vesselNr the function that returns the vessel number under which a container is indexed, or a negative number
+     *            when the container should not be indexed
+     */
+    public VesselContainerIndex(final TIntObjectMap<Container> containerMap, final ToIntFunction<Container> vesselNr)
+    {
+        this.containerMap = containerMap;
+        this.vesselNr = vesselNr;
+    }
+
+    /**
+     * Index a container that has just been stored in the container map of the yard.
+     * @param container the container
+     */
+    public void add(final Container container)
+    {
+        int vessel = this.vesselNr.applyAsInt(container);
+        if (vessel < 0)
+            return;
+        Slice slice = this.slices.get(vessel);
+        if (slice == null)
+        {
+            slice = new Slice();
+            this.slices.put(vessel, slice);
+        }
+        slice.nrs.add(container.getNr());
+        slice.live++;
+    }
+
+    /**
+     * Remove a container that has just been removed from the container map of the yard.
+     * @param container the container
+     */
+    public void remove(final Container container)
+    {
+        int vessel = this.vesselNr.applyAsInt(container);
+        if (vessel < 0)
+            return;
+        Slice slice = this.slices.get(vessel);
+        if (slice == null)
+            return;
+        slice.live--;
+        if (slice.live <= 0)
+            this.slices.remove(vessel);
+        else if (slice.nrs.size() > 2 * slice.live + 8)
+            compact(vessel, slice);
+    }
+
+    /**
+     * Return the numbers of the containers in the yard that are indexed under a vessel, in the order in which they entered the
+     * yard.
+     * @param vessel the vessel number
+     * @return an unmodifiable view of the container numbers for the vessel; an empty list when there are none
+     */
+    public TIntList get(final int vessel)
+    {
+        Slice slice = this.slices.get(vessel);
+        if (slice == null)
+            return new TIntArrayList(0);
+        if (slice.nrs.size() != slice.live)
+            compact(vessel, slice);
+        return TCollections.unmodifiableList(slice.nrs);
+    }
+
+    /**
+     * Remove the container numbers from a slice that are no longer in the yard under the vessel, and duplicates of containers
+     * that left the yard and entered it again.
+     * @param vessel the vessel number
+     * @param slice the slice of the vessel
+     */
+    private void compact(final int vessel, final Slice slice)
+    {
+        TIntArrayList nrs = slice.nrs;
+        int n = 0;
+        for (int i = 0; i < nrs.size(); i++)
+        {
+            int nr = nrs.getQuick(i);
+            Container container = this.containerMap.get(nr);
+            if (container != null && this.vesselNr.applyAsInt(container) == vessel)
+                nrs.setQuick(n++, nr);
+        }
+        if (n > slice.live)
+        {
+            // a container left the yard and entered it again: keep its first entry
+            TIntHashSet seen = new TIntHashSet(2 * n);
+            int m = 0;
+            for (int i = 0; i < n; i++)
+            {
+                int nr = nrs.getQuick(i);
+                if (seen.add(nr))
+                    nrs.setQuick(m++, nr);
+            }
+            n = m;
+        }
+        nrs.remove(n, nrs.size() - n);
+        slice.live = n;
+    }
+
+    /** The container numbers of one vessel, including entries of removed containers, and the number of live entries. */
+    private static class Slice
+    {
+        /** the container numbers, including entries of containers that have been removed. */
+        private final TIntArrayList nrs = new TIntArrayList(16);
+
+        /** the number of containers of the vessel in the yard. */
+        private int live = 0;
+    }
+
+}
@@ -1,19 +1,19 @@
 package nl.tudelft.simulation.simport.terminal;
 
 import java.util.Collection;
-import java.util.List;
-import java.util.Map;
 
 import org.djunits.value.vdouble.scalar.Duration;
 import org.djutils.base.Identifiable;
 import org.djutils.logger.CategoryLogger;
 
+import gnu.trove.list.TIntList;
+import gnu.trove.map.TIntObjectMap;
+
 import nl.tudelft.simulation.dsol.logger.Cat;
 import nl.tudelft.simulation.simport.Location;
 import nl.tudelft.simulation.simport.TransportMode;
 import nl.tudelft.simulation.simport.container.Container;
 import nl.tudelft.simulation.simport.truck.Truck;
-import nl.tudelft.simulation.simport.vessel.Vessel;
 
 /**
  * Yard models the handling at the terminal. It is defined as an interface to start simple, and be able to expand the logic
@@ -48,20 +48,51 @@ public interface Yard extends Identifiable
     Duration getAvgHandlingTimeDual();
 
 
-    /** @return the containers in the yard, as a map from container number to container. */
-    Map<Integer, Container> getContainerMap();
+    /**
+     * @return the containers in the yard, as a map from container number to container. The map should not be changed
+     *         directly; use addContainer() and removeContainer() to keep the indexes and counters of the yard consistent.
+     */
+    TIntObjectMap<Container> getContainerMap();
+
+    /**
+     * Return the numbers of the containers in the yard in the order in which they entered the yard; a container that left the
+     * yard and entered it again is at the position of its last entry.
+     * @return an unmodifiable view of the numbers of the containers in the yard, in the order of entry
+     */
+    TIntList getContainerNrs();
+
+    /**
+     * Return the numbers of the import containers for a vessel in the yard. These are the containers that were unloaded from
+     * the vessel, and that will be transshipped or transported by one of the transport modes.
+     * @param vesselNr the number of the vessel that unloaded the containers
+     * @return an unmodifiable view of the numbers of the import containers of the vessel in the yard
+     */
+    TIntList getImportContainers(int vesselNr);
+
+    /**
+     * Return the numbers of the export containers for a vessel in the yard. These are the containers that have to be loaded
+     * onto the vessel, and that came into the terminal with one of the transport modes (or transshipment). A container is
+     * indexed under the outgoing vessel that was known when the container entered the yard.
+     * @param vesselNr the number of the vessel that will load the containers
+     * @return an unmodifiable view of the numbers of the export containers of the vessel in the yard
+     */
+    TIntList getExportContainers(int vesselNr);
+
+    /** @return the number of TEU in the yard. */
+    int getNrTeu();
 
     /**
-     * @return the import containers for a Vessel in the yard, as a map from vessel to container. These are the unloaded
-     *         containers from the Vessel, that will be transshipped or transported by one of the transport modes.
+     * Store a container in the administration of the yard: the container map, the vessel indexes and the TEU counter.
+     * @param container the container to store
      */
-    Map<Vessel, List<Container>> getImportVesselContainerMap();
+    void storeContainer(Container container);
 
     /**
-     * @return the export containers for a Vessel in the yard, as a map from vessel to container. These are the containers that
-     *         have to be loaded onto the Vessel, and came into the terminal with one of the transport modes (or transshipment).
+     * Remove a container from the administration of the yard: the container map, the vessel indexes and the TEU counter.
+     * @param container the container to remove
+     * @return whether the container was in the yard
      */
-    Map<Vessel, List<Container>> getExportVesselContainerMap();
+    boolean releaseContainer(Container container);
 
     /** @return the trucks at the yard. */
     Collection<Truck> getTrucks();
@@ -79,7 +110,7 @@ public interface Yard extends Identifiable
      */
     default void addContainer(final Container container, final TransportMode mode)
     {
-        getContainerMap().put(container.getNr(), container);
+        storeContainer(container);
         container.addLocation(Location.TERMINAL);
         getContainerFacility().getStatistics().addContainerYard(container, mode);
     }
@@ -92,7 +123,7 @@ public interface Yard extends Identifiable
     default boolean removeContainer(final Container container, final TransportMode mode)
     {
         getContainerFacility().getStatistics().removeContainerYard(container, mode);
-        return getContainerMap().remove(container.getNr()) != null;
+        return releaseContainer(container);
     }
 
     /**
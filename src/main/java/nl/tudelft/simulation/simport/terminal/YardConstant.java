@@ -1,17 +1,21 @@
 package nl.tudelft.simulation.simport.terminal;
 
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Map;
 
 import org.djunits.value.vdouble.scalar.Duration;
 
+import gnu.trove.TCollections;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.hash.TIntHashSet;
+
 import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
 import nl.tudelft.simulation.simport.container.Container;
 import nl.tudelft.simulation.simport.truck.Truck;
-import nl.tudelft.simulation.simport.vessel.Vessel;
+import nl.tudelft.simulation.simport.util.DistributionMoments;
 
 /**
  * YardConstant is an implementation of the Yard interface with constant parameters.
@@ -48,19 +52,22 @@ public class YardConstant implements Yard
     private Duration avgHandlingTimeDual;
 
     /** Map with containers in the yard (Container number -> Container). */
-    private final Map<Integer, Container> containerMap = new LinkedHashMap<>();
+    private final TIntObjectHashMap<Container> containerMap = new TIntObjectHashMap<>(1024, 0.75f);
 
     /**
-     * The import containers for a Vessel in the yard, as a map from vessel to container. These are the unloaded containers from
-     * the Vessel, that will be transshipped or transported by one of the transport modes.
+     * The numbers of the containers in the order in which they entered the yard, since the trove map has no order. Numbers of
+     * containers that left the yard are removed when the list is read, or when more than half of the entries are stale.
      */
-    Map<Vessel, List<Container>> importVesselContainerMap = new LinkedHashMap<>();
+    private final TIntArrayList entryOrder = new TIntArrayList(1024);
 
-    /**
-     * The export containers for a Vessel in the yard, as a map from vessel to container. These are the containers that have to
-     * be loaded onto the Vessel, and came into the terminal with one of the transport modes (or transshipment).
-     */
-    Map<Vessel, List<Container>> exportVesselContainerMap = new LinkedHashMap<>();
+    /** The numbers of the import containers in the yard per incoming vessel number. */
+    private final VesselContainerIndex importIndex = new VesselContainerIndex(this.containerMap, Container::getVesselInNr);
+
+    /** The numbers of the export containers in the yard per outgoing vessel number. */
+    private final VesselContainerIndex exportIndex = new VesselContainerIndex(this.containerMap, Container::getVesselOutNr);
+
+    /** The number of TEU in the yard. */
+    private int nrTeu = 0;
 
     /** Set of trucks on the yard. */
     private Collection<Truck> trucks = new LinkedHashSet<Truck>();
@@ -83,6 +90,7 @@ public class YardConstant implements Yard
     public void setHandlingTimeExportDist(final DistContinuousDuration handlingTimeExportDist)
     {
         this.handlingTimeExportDist = handlingTimeExportDist;
+        this.avgHandlingTimeExport = null;
     }
 
     /**
@@ -92,6 +100,7 @@ public class YardConstant implements Yard
     public void setHandlingTimeImportDist(final DistContinuousDuration handlingTimeImportDist)
     {
         this.handlingTimeImportDist = handlingTimeImportDist;
+        this.avgHandlingTimeImport = null;
     }
 
     /**
@@ -102,6 +111,7 @@ public class YardConstant implements Yard
     public void setHandlingTimeDualDist(final DistContinuousDuration handlingTimeDualDist)
     {
         this.handlingTimeDualDist = handlingTimeDualDist;
+        this.avgHandlingTimeDual = null;
     }
 
     @Override
@@ -126,14 +136,7 @@ public class YardConstant implements Yard
     public Duration getAvgHandlingTimeExport()
     {
         if (this.avgHandlingTimeExport == null)
-        {
-            double durationSi = 0.0;
-            for (int i = 0; i < 1000; i++)
-            {
-                durationSi += drawHandlingTimeExport().si;
-            }
-            this.avgHandlingTimeExport = Duration.ofSI(durationSi / 1000.0);
-        }
+            this.avgHandlingTimeExport = DistributionMoments.mean(this.handlingTimeExportDist);
         return this.avgHandlingTimeExport;
     }
 
@@ -141,14 +144,7 @@ public class YardConstant implements Yard
     public Duration getAvgHandlingTimeImport()
     {
         if (this.avgHandlingTimeImport == null)
-        {
-            double durationSi = 0.0;
-            for (int i = 0; i < 1000; i++)
-            {
-                durationSi += drawHandlingTimeImport().si;
-            }
-            this.avgHandlingTimeImport = Duration.ofSI(durationSi / 1000.0);
-        }
+            this.avgHandlingTimeImport = DistributionMoments.mean(this.handlingTimeImportDist);
         return this.avgHandlingTimeImport;
     }
 
@@ -156,33 +152,98 @@ public class YardConstant implements Yard
     public Duration getAvgHandlingTimeDual()
     {
         if (this.avgHandlingTimeDual == null)
+            this.avgHandlingTimeDual = DistributionMoments.mean(this.handlingTimeDualDist);
+        return this.avgHandlingTimeDual;
+    }
+
+    @Override
+    public TIntObjectMap<Container> getContainerMap()
+    {
+        return this.containerMap;
+    }
+
+    @Override
+    public TIntList getContainerNrs()
+    {
+        if (this.entryOrder.size() != this.containerMap.size())
+            compactEntryOrder();
+        return TCollections.unmodifiableList(this.entryOrder);
+    }
+
+    /**
+     * Remove the numbers of containers that are no longer in the yard from the entry order. When a container left the yard and
+     * entered it again, its last entry is kept, as in a LinkedHashMap.
+     */
+    private void compactEntryOrder()
+    {
+        TIntArrayList nrs = this.entryOrder;
+        int n = 0;
+        for (int i = 0; i < nrs.size(); i++)
+        {
+            int nr = nrs.getQuick(i);
+            if (this.containerMap.containsKey(nr))
+                nrs.setQuick(n++, nr);
+        }
+        if (n > this.containerMap.size())
         {
-            double durationSi = 0.0;
-            for (int i = 0; i < 1000; i++)
+            // walk backwards, so the last entry of a container is kept, and move the result to the front
+            TIntHashSet seen = new TIntHashSet(2 * n);
+            int m = n;
+            for (int i = n - 1; i >= 0; i--)
             {
-                durationSi += drawHandlingTimeDual().si;
+                int nr = nrs.getQuick(i);
+                if (seen.add(nr))
+                    nrs.setQuick(--m, nr);
             }
-            this.avgHandlingTimeDual = Duration.ofSI(durationSi / 1000.0);
+            for (int i = m; i < n; i++)
+                nrs.setQuick(i - m, nrs.getQuick(i));
+            n -= m;
         }
-        return this.avgHandlingTimeDual;
+        nrs.remove(n, nrs.size() - n);
     }
 
     @Override
-    public Map<Integer, Container> getContainerMap()
+    public TIntList getImportContainers(final int vesselNr)
     {
-        return this.containerMap;
+        return this.importIndex.get(vesselNr);
+    }
+
+    @Override
+    public TIntList getExportContainers(final int vesselNr)
+    {
+        return this.exportIndex.get(vesselNr);
+    }
+
+    @Override
+    public int getNrTeu()
+    {
+        return this.nrTeu;
     }
 
     @Override
-    public Map<Vessel, List<Container>> getImportVesselContainerMap()
+    public void storeContainer(final Container container)
     {
-        return this.importVesselContainerMap;
+        int nr = container.getNr();
+        if (this.containerMap.put(nr, container) != null)
+            return;
+        this.entryOrder.add(nr);
+        this.importIndex.add(container);
+        this.exportIndex.add(container);
+        this.nrTeu += container.is40ft() ? 2 : 1;
     }
 
     @Override
-    public Map<Vessel, List<Container>> getExportVesselContainerMap()
+    public boolean releaseContainer(final Container container)
     {
-        return this.exportVesselContainerMap;
+        int nr = container.getNr();
+        if (this.containerMap.remove(nr) == null)
+            return false;
+        if (this.entryOrder.size() > 2 * this.containerMap.size() + 8)
+            compactEntryOrder();
+        this.importIndex.remove(container);
+        this.exportIndex.remove(container);
+        this.nrTeu -= container.is40ft() ? 2 : 1;
+        return true;
     }
 
     @Override
@@ -0,0 +1,174 @@
+package nl.tudelft.simulation.simport.truck;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import nl.tudelft.simulation.simport.network.Centroid;
+
+/**
+ * OrderMatchIndex finds transport orders that can be combined into one truck trip: an order that drops off a container at a
+ * terminal, and an order that picks up a container at the same or at another terminal. The drop-off orders and pick-up
+ * orders are kept per terminal centroid, ordered on target time, so the order closest in time at a terminal is found in
+ * logarithmic time.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class OrderMatchIndex
+{
+    /** The ordering of the transport orders on target time. */
+    private final Comparator<TransportOrder> comparator;
+
+    /** The orders that drop off a container at a terminal, per terminal centroid. */
+    private final Map<Centroid, NavigableSet<TransportOrder>> dropoffs = new LinkedHashMap<>();
+
+    /** The orders that pick up a container at a terminal, per terminal centroid. */
+    private final Map<Centroid, NavigableSet<TransportOrder>> pickups = new LinkedHashMap<>();
+
+    /**
+     * Create an empty index.
+     * @param comparator the ordering of the transport orders on target time, which only returns 0 for the same order
+     */
+    public OrderMatchIndex(final Comparator<TransportOrder> comparator)
+    {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Add an order that drops off a container at the terminal of its unload centroid.
+     * @param order the transport order
+     */
+    public void addDropoff(final TransportOrder order)
+    {
+        this.dropoffs.computeIfAbsent(order.unloadCentroid(), c -> new TreeSet<>(this.comparator)).add(order);
+    }
+
+    /**
+     * Add an order that picks up a container at the terminal of its load centroid.
+     * @param order the transport order
+     */
+    public void addPickup(final TransportOrder order)
+    {
+        this.pickups.computeIfAbsent(order.loadCentroid(), c -> new TreeSet<>(this.comparator)).add(order);
+    }
+
+    /**
+     * Remove an order from the index, e.g., because it has been planned.
+     * @param order the transport order
+     */
+    public void remove(final TransportOrder order)
+    {
+        NavigableSet<TransportOrder> set = this.dropoffs.get(order.unloadCentroid());
+        if (set != null)
+            set.remove(order);
+        set = this.pickups.get(order.loadCentroid());
+        if (set != null)
+            set.remove(order);
+    }
+
+    /**
+     * Return the pick-up order at the given terminal that is closest in target time to the given order.
+     * @param terminal the terminal centroid
+     * @param order the order for which to find a match
+     * @return the closest pick-up order at the terminal, or null when there is none
+     */
+    public TransportOrder nearestPickup(final Centroid terminal, final TransportOrder order)
+    {
+        return nearest(this.pickups.get(terminal), order);
+    }
+
+    /**
+     * Return the drop-off order at the given terminal that is closest in target time to the given order.
+     * @param terminal the terminal centroid
+     * @param order the order for which to find a match
+     * @return the closest drop-off order at the terminal, or null when there is none
+     */
+    public TransportOrder nearestDropoff(final Centroid terminal, final TransportOrder order)
+    {
+        return nearest(this.dropoffs.get(terminal), order);
+    }
+
+    /**
+     * Return the pick-up order at another terminal than the given terminal that is closest in target time to the given order.
+     * @param terminal the terminal centroid to exclude
+     * @param order the order for which to find a match
+     * @return the closest pick-up order at another terminal, or null when there is none
+     */
+    public TransportOrder nearestPickupElsewhere(final Centroid terminal, final TransportOrder order)
+    {
+        return nearestElsewhere(this.pickups, terminal, order);
+    }
+
+    /**
+     * Return the drop-off order at another terminal than the given terminal that is closest in target time to the given
+     * order.
+     * @param terminal the terminal centroid to exclude
+     * @param order the order for which to find a match
+     * @return the closest drop-off order at another terminal, or null when there is none
+     */
+    public TransportOrder nearestDropoffElsewhere(final Centroid terminal, final TransportOrder order)
+    {
+        return nearestElsewhere(this.dropoffs, terminal, order);
+    }
+
+    /**
+     * Return the order in the set that is closest in target time to the given order, excluding the order itself.
+     * @param set the orders at a terminal, can be null
+     * @param order the order for which to find a match
+     * @return the closest order, or null when there is none
+     */
+    private static TransportOrder nearest(final NavigableSet<TransportOrder> set, final TransportOrder order)
+    {
+        if (set == null || set.isEmpty())
+            return null;
+        TransportOrder before = set.lower(order);
+        TransportOrder after = set.higher(order);
+        if (before == null)
+            return after;
+        if (after == null)
+            return before;
+        return timeDifference(before, order) <= timeDifference(after, order) ? before : after;
+    }
+
+    /**
+     * Return the order at another terminal than the given terminal that is closest in target time to the given order.
+     * @param map the orders per terminal centroid
+     * @param terminal the terminal centroid to exclude
+     * @param order the order for which to find a match
+     * @return the closest order at another terminal, or null when there is none
+     */
+    private static TransportOrder nearestElsewhere(final Map<Centroid, NavigableSet<TransportOrder>> map,
+            final Centroid terminal, final TransportOrder order)
+    {
+        TransportOrder best = null;
+        double bestDifference = Double.POSITIVE_INFINITY;
+        for (var entry : map.entrySet())
+        {
+            if (entry.getKey().equals(terminal))
+                continue;
+            TransportOrder candidate = nearest(entry.getValue(), order);
+            if (candidate != null && timeDifference(candidate, order) < bestDifference)
+            {
+                best = candidate;
+                bestDifference = timeDifference(candidate, order);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param o1 the first order
+     * @param o2 the second order
+     * @return the absolute difference of the target times of the orders in seconds
+     */
+    private static double timeDifference(final TransportOrder o1, final TransportOrder o2)
+    {
+        return Math.abs(o1.targetTime().si - o2.targetTime().si);
+    }
+
+}
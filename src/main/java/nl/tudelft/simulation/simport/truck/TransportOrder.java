@@ -1,7 +1,5 @@
 package nl.tudelft.simulation.simport.truck;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
 import org.djunits.value.vdouble.scalar.Duration;
 
 import nl.tudelft.simulation.dsol.simulators.clock.ClockTime;
@@ -33,14 +31,11 @@ public class TransportOrder
     private final Duration marginAfter;     public Duration marginAfter() { return this.marginAfter; }
     // @formatter:on
 
-    /** the static uniqueId counter. */
-    private static AtomicInteger uniqueIdCounter = new AtomicInteger(0);
-
-    public TransportOrder(final Vessel vessel, final Container container, final Centroid loadCentroid,
+    public TransportOrder(final int uniqueId, final Vessel vessel, final Container container, final Centroid loadCentroid,
             final Terminal loadTerminal, final Centroid unloadCentroid, final Terminal unloadTerminal,
             final ClockTime targetTime, final Duration marginBefore, final Duration marginAfter)
     {
-        this.uniqueId = uniqueIdCounter.incrementAndGet();
+        this.uniqueId = uniqueId;
         this.vessel = vessel;
         this.container = container;
         this.loadCentroid = loadCentroid;
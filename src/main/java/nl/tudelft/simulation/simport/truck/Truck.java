@@ -21,6 +21,7 @@ import nl.tudelft.simulation.simport.animation.TruckAnimation;
 import nl.tudelft.simulation.simport.appointment.SlotBooking;
 import nl.tudelft.simulation.simport.container.Container;
 import nl.tudelft.simulation.simport.model.PortModel;
+import nl.tudelft.simulation.simport.network.RoadNetwork;
 import nl.tudelft.simulation.simport.truck.activity.PlannedDrivingActivity;
 import nl.tudelft.simulation.simport.truck.activity.PlannedTerminalActivity;
 import nl.tudelft.simulation.simport.truck.activity.PlannedTruckActivity;
@@ -40,14 +41,14 @@ import nl.tudelft.simulation.simport.truck.activity.RealizedTruckActivity;
  */
 public class Truck implements Identifiable, Locatable
 {
-    /** The truck id. */
-    private final int uniqueId;
+    /** The truck id; a new id is given for every trip of the truck. */
+    private int uniqueId;
 
     /** The trucking company to which the truck belongs. */
     private final TruckingCompany truckingCompany;
 
-    /** The id within the trucking cmpany. */
-    private final int idWithinCompany;
+    /** The id within the trucking company; a new id is given for every trip of the truck. */
+    private int idWithinCompany;
 
     /** the model. */
     private final PortModel model;
@@ -58,11 +59,11 @@ public class Truck implements Identifiable, Locatable
     /** The second container that is carried. */
     private Container container2;
 
-    /** Planned truck activities (driving and loading/unloading). */
-    private List<PlannedTruckActivity> plannedActivityList = new ArrayList<>();
+    /** Planned truck activities (driving and loading/unloading). The list is reused for the next trip of the truck. */
+    private final List<PlannedTruckActivity> plannedActivityList = new ArrayList<>();
 
-    /** Realized truck activities (driving and loading/unloading). */
-    private List<RealizedTruckActivity> realizedActivityList = new ArrayList<>();
+    /** Realized truck activities (driving and loading/unloading). The list is reused for the next trip of the truck. */
+    private final List<RealizedTruckActivity> realizedActivityList = new ArrayList<>();
 
     /** Current truck activity index. */
     private int currentActivityIndex = -1;
@@ -73,6 +74,27 @@ public class Truck implements Identifiable, Locatable
     /** truck animation. */
     private TruckAnimation truckAnimation = null;
 
+    /** the location when the truck has not started its trip. */
+    private static final Point3d NO_LOCATION = new Point3d(0.0, 0.0, 1.0);
+
+    /** the relative bounds of the truck: 10x10 m at Rotterdam (51.9 deg latitude). */
+    private static final Bounds2d RELATIVE_BOUNDS = new Bounds2d(0.000146, 0.00009);
+
+    /** the cached location for the animation, recalculated when the simulator time or the activity changes. */
+    private Point<?> location = NO_LOCATION;
+
+    /** the simulator time in seconds for which the cached location was calculated. */
+    private double locationTime = Double.NaN;
+
+    /** the activity for which the cached location was calculated. */
+    private RealizedTruckActivity locationActivity = null;
+
+    /** the reusable x and y coordinates of a position on the route. */
+    private final double[] routePosition = new double[2];
+
+    /** the segment of the route of the last position, as a starting point for the next lookup. */
+    private int routeSegment = 0;
+
     /**
      * Instantiate a truck.
      * @param id the overall unique id
@@ -85,9 +107,34 @@ public class Truck implements Identifiable, Locatable
         this.truckingCompany = truckingCompany;
         this.idWithinCompany = idWithinCompany;
         this.model = truckingCompany.getModel();
+        startAnimation();
+    }
+
+    /**
+     * Prepare an idle truck of the fleet for a new trip. The truck gets new ids, so the output keeps one truck number per
+     * trip, and the activity lists are cleared for the new plan.
+     * @param id the overall unique id for the trip
+     * @param idWithinCompany the unique id within the company for the trip
+     */
+    protected void reuse(final int id, final int idWithinCompany)
+    {
+        this.uniqueId = id;
+        this.idWithinCompany = idWithinCompany;
+        this.container1 = null;
+        this.container2 = null;
+        this.plannedActivityList.clear();
+        this.realizedActivityList.clear();
+        this.currentActivityIndex = -1;
+        this.realizedActivityIndex = -1;
+        startAnimation();
+    }
 
-        // animation?
-        if (getSimulator() instanceof AnimatorInterface)
+    /**
+     * Create the animation for the truck when the simulator is animated.
+     */
+    private void startAnimation()
+    {
+        if (this.truckAnimation == null && getSimulator() instanceof AnimatorInterface)
         {
             this.truckAnimation = new TruckAnimation(this, getSimulator());
         }
@@ -108,7 +155,11 @@ public class Truck implements Identifiable, Locatable
         {
             // TODO: see if there is a delay when starting to drive.
             Duration delay = Duration.ofSI(0.0);
-            getSimulator().scheduleEventAbs(new ClockTime(pda.getDepartureTime().plus(delay)), () -> startDrivingFirst(pda));
+            // a trip that waited for a free truck can start later than planned
+            ClockTime departureTime = new ClockTime(pda.getDepartureTime().plus(delay));
+            if (departureTime.lt(getSimulator().getSimulatorClockTime()))
+                departureTime = getSimulator().getSimulatorClockTime();
+            getSimulator().scheduleEventAbs(departureTime, () -> startDrivingFirst(pda));
         }
         else
             CategoryLogger.with(Cat.DSOL).error("Truck {} has an unknown or illegal first activity {}", toString(),
@@ -137,13 +188,18 @@ public class Truck implements Identifiable, Locatable
      */
     protected void startDriving(final PlannedDrivingActivity pda)
     {
-        // TODO: stochastic driving time, especially in the rush hours
-        double factor = 1.0;
+        // TODO: stochastic driving time
         ClockTime tnow = getSimulator().getSimulatorClockTime();
+        RoadNetwork roadNetwork = this.model.getRoadNetwork();
+        double factor =
+                roadNetwork == null ? 1.0 : roadNetwork.travelTimeFactor(pda.getOrigCentroid(), pda.getDestCentroid(), tnow);
         RealizedDrivingActivity rda = new RealizedDrivingActivity(pda);
         rda.setActualDepartureTime(tnow);
-        ClockTime actualArrivalTime = new ClockTime(tnow.plus(pda.getDuration().times(factor)));
+        // the congestion factor applies to the driving time, not to the planned margin before the appointment
+        ClockTime actualArrivalTime = new ClockTime(tnow.plus(pda.getDrivingTime().times(factor)).plus(pda.getMargin()));
         rda.setActualArrivalTime(actualArrivalTime);
+        if (this.truckAnimation != null && roadNetwork != null)
+            rda.setRoute(roadNetwork.getRoute(pda.getOrigCentroid(), pda.getDestCentroid()));
         this.realizedActivityList.add(rda);
         this.realizedActivityIndex++;
         getSimulator().scheduleEventAbs(actualArrivalTime, () -> endDriving(rda));
@@ -177,10 +233,14 @@ public class Truck implements Identifiable, Locatable
         this.currentActivityIndex++;
         if (this.currentActivityIndex >= this.plannedActivityList.size())
         {
-            // end of activities; log statistics to truck file
+            // end of activities; log statistics to truck file, and return the truck to the fleet
             this.model.fireEvent(PortModel.TRUCK_EVENT, this);
             if (this.truckAnimation != null)
+            {
                 this.truckAnimation.destroy(getSimulator());
+                this.truckAnimation = null;
+            }
+            this.truckingCompany.releaseTruck(this);
             return;
         }
 
@@ -359,22 +419,53 @@ public class Truck implements Identifiable, Locatable
         return this.container2;
     }
 
+    /**
+     * Return the location of the truck. The location is cached, and only recalculated when the simulator time or the current
+     * activity has changed, since the animation asks for the location several times per frame.
+     */
     @Override
     public Point<?> getLocation()
     {
-        if (this.realizedActivityIndex >= 0)
+        double now = getSimulator().getSimulatorClockTime().si;
+        int index = this.realizedActivityIndex;
+        RealizedTruckActivity activity =
+                index >= 0 && index < this.realizedActivityList.size() ? this.realizedActivityList.get(index) : null;
+        if (now != this.locationTime || activity != this.locationActivity)
         {
-            // terminal -- return terminal location
-            if (this.realizedActivityList.get(this.realizedActivityIndex) instanceof RealizedTerminalActivity ta)
-                return ta.getTerminal().getLocation();
+            this.location = calculateLocation(activity, now);
+            this.locationActivity = activity;
+            this.locationTime = now;
+        }
+        return this.location;
+    }
+
+    /**
+     * Calculate the location of the truck for the given activity.
+     * @param activity the current realized activity, or null when the truck has not started its trip
+     * @param now the simulator time in seconds
+     * @return the location of the truck
+     */
+    private Point<?> calculateLocation(final RealizedTruckActivity activity, final double now)
+    {
+        // terminal -- return terminal location
+        if (activity instanceof RealizedTerminalActivity ta)
+            return ta.getTerminal().getLocation();
 
-            // driving -- interpolate location based on last activity
-            if (this.realizedActivityList.get(this.realizedActivityIndex) instanceof RealizedDrivingActivity ra)
+        // driving -- interpolate location along the route, or along a straight line when there is no route
+        if (activity instanceof RealizedDrivingActivity ra)
+        {
+            if (ra.getRoute() == null)
                 return interpolateLocation(ra.getOrigCentroid().getLocation(), ra.getDestCentroid().getLocation(),
                         ra.getActualDepartureTime(), ra.getActualArrivalTime());
+            double start = ra.getActualDepartureTime().si;
+            if (ra != this.locationActivity)
+                this.routeSegment = 0;
+            this.routeSegment = ra.getRoute().locate((now - start) / (ra.getActualArrivalTime().si - start),
+                    this.routeSegment, this.routePosition);
+            return new Point3d(this.routePosition[0], this.routePosition[1], 1.0);
         }
 
-        return new Point3d(0.0, 0.0, 1.0);
+        return NO_LOCATION;
     }
 
     /**
@@ -401,7 +492,7 @@ public class Truck implements Identifiable, Locatable
     @Override
     public Bounds2d getRelativeBounds()
     {
-        return new Bounds2d(0.000146, 0.00009); // 10x10 m at Rotterdam (51.9 deg latitude)
+        return RELATIVE_BOUNDS;
     }
 
     /**
@@ -418,6 +509,14 @@ public class Truck implements Identifiable, Locatable
         return this.truckingCompany.getId() + "." + this.idWithinCompany;
     }
 
+    /**
+     * @return the id within the trucking company
+     */
+    public int getIdWithinCompany()
+    {
+        return this.idWithinCompany;
+    }
+
     /**
      * @return truckingCompany
      */
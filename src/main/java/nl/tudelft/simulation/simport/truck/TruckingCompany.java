@@ -1,12 +1,13 @@
 package nl.tudelft.simulation.simport.truck;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.LinkedHashSet;
-import java.util.NavigableMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.NavigableSet;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -21,12 +22,15 @@ import org.djutils.exceptions.Throw;
 import nl.tudelft.simulation.dsol.simulators.clock.ClockDevsSimulatorInterface;
 import nl.tudelft.simulation.dsol.simulators.clock.ClockTime;
 import nl.tudelft.simulation.simport.appointment.Appointment;
+import nl.tudelft.simulation.simport.model.ModelParameters;
 import nl.tudelft.simulation.simport.model.PortModel;
+import nl.tudelft.simulation.simport.network.Centroid;
 import nl.tudelft.simulation.simport.network.RoadNetwork;
 import nl.tudelft.simulation.simport.terminal.Terminal;
 import nl.tudelft.simulation.simport.truck.activity.PlannedDrivingActivity;
 import nl.tudelft.simulation.simport.truck.activity.PlannedTerminalActivity;
 import nl.tudelft.simulation.simport.truck.activity.PlannedTerminalActivity.TerminalActivityType;
+import nl.tudelft.simulation.simport.util.AliasTable;
 
 /**
  * TruckingCompany is the company that owns one or more trucks.
@@ -47,6 +51,18 @@ public class TruckingCompany implements Identifiable
     /** the truck counter. */
     private final AtomicInteger uniqueTruckNr = new AtomicInteger(1000);
 
+    /** The maximum number of trucks of the company. */
+    private final int nrTrucks;
+
+    /** The number of trucks that have been created; trucks are created when needed, up to nrTrucks. */
+    private int nrTrucksCreated = 0;
+
+    /** The trucks that are not executing a plan, and that can be used for a new trip. */
+    private final ArrayDeque<Truck> idleTrucks = new ArrayDeque<>();
+
+    /** The transport orders that wait for a truck, because all trucks of the company are busy. */
+    private final ArrayDeque<TransportOrder> waitingOrders = new ArrayDeque<>();
+
     /** The unplanned transport orders. */
     private final NavigableSet<TransportOrder> unplannedOrderSet = new TreeSet<>(new TransportOrderComparator());
 
@@ -56,42 +72,53 @@ public class TruckingCompany implements Identifiable
     /** Fraction Sunday trips of trips planned on Sunday. */
     private final double fractionSunday;
 
-    /** Cumulative distribution probabilities for the weights per hour of the day. */
-    private final NavigableMap<Double, Integer> cumulativeHourProbabilities = new TreeMap<>();
+    /** Sampler for the hour of the day, proportional to the weights per hour of the day. */
+    private AliasTable<Integer> hourSampler;
 
     /**
      * Instantiate a trucking company.
      * @param id the id
      * @param model the model
-     * @param nrTruck the number of trucks
+     * @param nrTrucks the number of trucks of the company, which limits the number of trips that can be executed at the same
+     *            time
      */
     public TruckingCompany(final String id, final PortModel model, final int nrTrucks)
     {
+        this(id, model, nrTrucks, model.getModelParameters().truck());
+    }
+
+    /**
+     * Instantiate a trucking company with the truck parameters of the run.
+     * @param id the id
+     * @param model the model
+     * @param nrTrucks the number of trucks of the company, which limits the number of trips that can be executed at the same
+     *            time
+     * @param truckParameters the truck parameters of the run, with the fractions of weekend trips and the hour weights
+     */
+    public TruckingCompany(final String id, final PortModel model, final int nrTrucks,
+            final ModelParameters.TruckParameters truckParameters)
+    {
+        Throw.when(nrTrucks < 0, IllegalArgumentException.class, "nrTrucks cannot be negative");
         this.id = id;
         this.model = model;
+        this.nrTrucks = nrTrucks;
         getSimulator().scheduleEventRel(new Duration(24.0, DurationUnit.HOUR), () -> planTrips());
 
-        this.fractionSaturday = model.getInputParameterDouble("truck.FractionSaturday");
-        this.fractionSunday = model.getInputParameterDouble("truck.FractionSunday");
-        setHourWeights();
+        this.fractionSaturday = truckParameters.fractionSaturday();
+        this.fractionSunday = truckParameters.fractionSunday();
+        setHourWeights(truckParameters.hourWeights());
     }
 
-    protected void setHourWeights()
+    /**
+     * Set the sampler for the hour of the day of a trip.
+     * @param weights the weights for the 24 hours of the day
+     */
+    protected void setHourWeights(final double[] weights)
     {
-        String[] stringWeights = this.model.getInputParameterString("truck.HourWeights").split(",");
-        Throw.when(stringWeights.length != 24, IllegalArgumentException.class,
-                "HourWeights parameter does not have 24 entries");
-        double total = 0.0;
-        for (String w : stringWeights)
-        {
-            total += Double.parseDouble(w);
-        }
-        double cumTotal = 0.0;
+        List<Integer> hours = new ArrayList<>(24);
         for (int hour = 0; hour < 24; hour++)
-        {
-            cumTotal += Double.parseDouble(stringWeights[hour]);
-            this.cumulativeHourProbabilities.put(cumTotal / total, hour);
-        }
+            hours.add(hour);
+        this.hourSampler = new AliasTable<>(hours, weights);
     }
 
     public void bookTrip(final TransportOrder transportOrder)
@@ -106,118 +133,133 @@ public class TruckingCompany implements Identifiable
         getSimulator().scheduleEventRel(new Duration(24.0, DurationUnit.HOUR), () -> planTrips());
 
         // Find the TransportOrders that need to be planned in the next 36 hours
-        RoadNetwork roadNetwork = getModel().getRoadNetwork();
         ClockTime cutoff = new ClockTime(getSimulator().getSimulatorClockTime().plus(new Duration(36.0, DurationUnit.HOUR)));
-        Set<TransportOrder> planSet = new LinkedHashSet<>();
+        List<TransportOrder> planList = new ArrayList<>();
         for (var it = this.unplannedOrderSet.iterator(); it.hasNext();)
         {
             var to = it.next();
             if (to.targetTime().gt(cutoff))
                 break;
-            planSet.add(to);
+            planList.add(to);
             it.remove();
         }
 
         // See if there is work to do
-        int nrTotal = planSet.size();
-        if (nrTotal == 0)
-            return;
+        if (planList.size() > 0)
+            planOrders(planList);
+    }
+
+    /**
+     * Plan the transport orders for the next planning period, in the order of their target time. Orders to or from faraway
+     * centroids are planned as single trips. Other orders that drop off a container at a terminal are combined with an order
+     * that picks up a container at the same terminal, or at another terminal, as long as the fraction of combined trips is
+     * below the target fraction. The partner order is the order at the terminal with the closest target time, found with an
+     * OrderMatchIndex.
+     * @param planList the transport orders to plan, sorted on target time
+     */
+    protected void planOrders(final List<TransportOrder> planList)
+    {
+        RoadNetwork roadNetwork = getModel().getRoadNetwork();
+        Set<Centroid> terminalCentroids = getModel().getTerminalCentroids();
+        int nrTotal = planList.size();
+
+        // Index the orders that can be part of a combined trip
+        OrderMatchIndex index = new OrderMatchIndex(new TransportOrderComparator());
+        for (var transportOrder : planList)
+        {
+            if (isFarTrip(roadNetwork, transportOrder))
+                continue;
+            if (terminalCentroids.contains(transportOrder.unloadCentroid()))
+                index.addDropoff(transportOrder);
+            if (terminalCentroids.contains(transportOrder.loadCentroid()))
+                index.addPickup(transportOrder);
+        }
 
         int nrCombinedOneTerminal = 0;
         int nrCombinedTwoTerminals = 0;
-        for (var it = planSet.iterator(); it.hasNext();)
+        Set<TransportOrder> plannedSet = new HashSet<>();
+        for (var transportOrder : planList)
         {
-            var transportOrder = it.next();
+            if (plannedSet.contains(transportOrder))
+                continue;
+            plannedSet.add(transportOrder);
+            index.remove(transportOrder);
 
             // Plan faraway trips as single trips (import or export)
-            if (roadNetwork.getFarCentroids().contains(transportOrder.loadCentroid())
-                    || roadNetwork.getFarCentroids().contains(transportOrder.unloadCentroid()))
+            if (isFarTrip(roadNetwork, transportOrder))
             {
                 planSingleTrip(transportOrder);
-                it.remove();
                 continue;
             }
 
+            boolean dropoff = terminalCentroids.contains(transportOrder.unloadCentroid());
+            boolean pickup = terminalCentroids.contains(transportOrder.loadCentroid());
+
             // Try to find dropoff and pickup order at same terminal, up to the given fraction
-            if (1.0 * nrCombinedOneTerminal / nrTotal > getModel().getTargetCombinedOneTerminalFraction())
+            if (1.0 * nrCombinedOneTerminal / nrTotal < getModel().getTargetCombinedOneTerminalFraction())
             {
-                // Find a matching transport order; transportOrder is always the part of the trip WITH container
-                boolean planned = false;
-                for (var it2 = planSet.iterator(); it2.hasNext();)
+                TransportOrder transportOrder2 = null;
+                if (dropoff && (transportOrder2 = index.nearestPickup(transportOrder.unloadCentroid(), transportOrder)) != null)
+                    planCombinedTripOneTerminal(transportOrder, transportOrder2);
+                else if (pickup
+                        && (transportOrder2 = index.nearestDropoff(transportOrder.loadCentroid(), transportOrder)) != null)
+                    planCombinedTripOneTerminal(transportOrder2, transportOrder);
+                if (transportOrder2 != null)
                 {
-                    var transportOrder2 = it2.next();
-                    if (transportOrder == transportOrder2)
-                        continue;
-                    if (transportOrder.unloadCentroid().equals(transportOrder2.loadCentroid())
-                            && getModel().getTerminalCentroids().contains(transportOrder.unloadCentroid()))
-                    {
-                        planCombinedTripOneTerminal(transportOrder, transportOrder2);
-                        it2.remove();
-                        it.remove();
-                        nrCombinedOneTerminal++;
-                        planned = true;
-                        break;
-                    }
-                    else if (transportOrder2.unloadCentroid().equals(transportOrder.loadCentroid())
-                            && getModel().getTerminalCentroids().contains(transportOrder2.unloadCentroid()))
-                    {
-                        planCombinedTripOneTerminal(transportOrder2, transportOrder);
-                        it2.remove();
-                        it.remove();
-                        nrCombinedOneTerminal++;
-                        planned = true;
-                        break;
-                    }
-                }
-                if (planned)
+                    plannedSet.add(transportOrder2);
+                    index.remove(transportOrder2);
+                    nrCombinedOneTerminal++;
                     continue;
+                }
             }
 
             // Try to find dropoff and pickup order at different terminals, up to the given fraction
-            if (1.0 * nrCombinedTwoTerminals / nrTotal > getModel().getTargetCombinedTwoTerminalFraction())
+            if (1.0 * nrCombinedTwoTerminals / nrTotal < getModel().getTargetCombinedTwoTerminalFraction())
             {
-                // Find a matching transport order
-                boolean planned = false;
-                for (var it2 = planSet.iterator(); it2.hasNext();)
+                TransportOrder transportOrder2 = null;
+                if (dropoff && (transportOrder2 =
+                        index.nearestPickupElsewhere(transportOrder.unloadCentroid(), transportOrder)) != null)
+                    planCombinedTripTwoTerminals(transportOrder, transportOrder2);
+                else if (pickup && (transportOrder2 =
+                        index.nearestDropoffElsewhere(transportOrder.loadCentroid(), transportOrder)) != null)
+                    planCombinedTripTwoTerminals(transportOrder2, transportOrder);
+                if (transportOrder2 != null)
                 {
-                    var transportOrder2 = it2.next();
-                    if (transportOrder == transportOrder2)
-                        continue;
-                    if (transportOrder.unloadCentroid().equals(transportOrder2.loadCentroid())
-                            && getModel().getTerminalCentroids().contains(transportOrder.unloadCentroid()))
-                    {
-                        planCombinedTripTwoTerminals(transportOrder, transportOrder2);
-                        it2.remove();
-                        it.remove();
-                        nrCombinedTwoTerminals++;
-                        planned = true;
-                        break;
-                    }
-                    else if (transportOrder2.unloadCentroid().equals(transportOrder.loadCentroid())
-                            && getModel().getTerminalCentroids().contains(transportOrder.unloadCentroid()))
-                    {
-                        planCombinedTripTwoTerminals(transportOrder2, transportOrder);
-                        it2.remove();
-                        it.remove();
-                        nrCombinedTwoTerminals++;
-                        planned = true;
-                        break;
-                    }
-                }
-                if (planned)
+                    plannedSet.add(transportOrder2);
+                    index.remove(transportOrder2);
+                    nrCombinedTwoTerminals++;
                     continue;
+                }
             }
 
             // Single trip
             planSingleTrip(transportOrder);
-            it.remove();
         }
+    }
 
+    /**
+     * Return whether the load or unload centroid of the order is a faraway centroid, for which the trip is always planned as a
+     * single trip.
+     * @param roadNetwork the road network
+     * @param transportOrder the transport order
+     * @return whether the order is a trip to or from a faraway centroid
+     */
+    protected boolean isFarTrip(final RoadNetwork roadNetwork, final TransportOrder transportOrder)
+    {
+        return roadNetwork.getFarCentroids().contains(transportOrder.loadCentroid())
+                || roadNetwork.getFarCentroids().contains(transportOrder.unloadCentroid());
     }
 
     protected void planSingleTrip(final TransportOrder transportOrder)
     {
         Truck truck = generateTruck();
+        if (truck == null)
+        {
+            // all trucks are busy; the order is planned when a truck returns
+            this.model.getTruckingStatistics().incWaitingTrips();
+            this.waitingOrders.add(transportOrder);
+            return;
+        }
 
         // unloading, so export container.
         if (transportOrder.loadTerminal() == null)
@@ -228,14 +270,18 @@ public class TruckingCompany implements Identifiable
             Terminal terminal = transportOrder.unloadTerminal();
             Appointment appointment = transportOrder.unloadTerminal().bookAppointment(transportOrder);
             ClockTime targetTime = appointment.getTargetTime();
-            Duration drivingTime = getModel().getRoadNetwork().drivingTime(transportOrder.loadCentroid(),
-                    transportOrder.unloadCentroid(), new Speed(50.0, SpeedUnit.KM_PER_HOUR)); // straight distance
+            RoadNetwork roadNetwork = getModel().getRoadNetwork();
+            Duration drivingTime1 = roadNetwork.drivingTime(transportOrder.loadCentroid(), transportOrder.unloadCentroid(),
+                    STRAIGHT_LINE_SPEED);
+            Duration drivingTime2 = roadNetwork.drivingTime(transportOrder.unloadCentroid(), transportOrder.loadCentroid(),
+                    STRAIGHT_LINE_SPEED);
             Duration margin = new Duration(15.0, DurationUnit.MINUTE);
-            ClockTime departureTime1 = new ClockTime(targetTime.minus(drivingTime.plus(margin)));
-            Length distance = RoadNetwork.haversine(transportOrder.loadCentroid().getLocation(),
-                    transportOrder.unloadCentroid().getLocation());
+            ClockTime departureTime1 = new ClockTime(targetTime.minus(drivingTime1.plus(margin)));
+            Length distance1 = roadNetwork.drivingDistance(transportOrder.loadCentroid(), transportOrder.unloadCentroid());
+            Length distance2 = roadNetwork.drivingDistance(transportOrder.unloadCentroid(), transportOrder.loadCentroid());
             PlannedDrivingActivity pda1 = new PlannedDrivingActivity(truck, transportOrder.loadCentroid(),
-                    transportOrder.unloadCentroid(), transportOrder.container(), null, departureTime1, targetTime, distance);
+                    transportOrder.unloadCentroid(), transportOrder.container(), null, departureTime1, targetTime, distance1,
+                    drivingTime1);
             truck.getPlannedActivityList().add(pda1);
 
             // (2) unload container at terminal
@@ -246,9 +292,9 @@ public class TruckingCompany implements Identifiable
             // (3) drive back empty
             ClockTime departureTime2 = new ClockTime(targetTime.plus(terminal.getYard().getAvgHandlingTimeExport())
                     .plus(terminal.getGate().getAvgGateTimeIn()).plus(terminal.getGate().getAvgGateTimeOut()));
-            ClockTime arrivalTime2 = new ClockTime(departureTime2.plus(drivingTime.plus(margin)));
+            ClockTime arrivalTime2 = new ClockTime(departureTime2.plus(drivingTime2.plus(margin)));
             PlannedDrivingActivity pda2 = new PlannedDrivingActivity(truck, transportOrder.unloadCentroid(),
-                    transportOrder.loadCentroid(), null, null, departureTime2, arrivalTime2, distance);
+                    transportOrder.loadCentroid(), null, null, departureTime2, arrivalTime2, distance2, drivingTime2);
             truck.getPlannedActivityList().add(pda2);
         }
 
@@ -261,14 +307,17 @@ public class TruckingCompany implements Identifiable
             Terminal terminal = transportOrder.loadTerminal();
             Appointment appointment = transportOrder.loadTerminal().bookAppointment(transportOrder);
             ClockTime targetTime = appointment.getTargetTime();
-            Duration drivingTime = getModel().getRoadNetwork().drivingTime(transportOrder.unloadCentroid(),
-                    transportOrder.loadCentroid(), new Speed(50.0, SpeedUnit.KM_PER_HOUR)); // straight distance
+            RoadNetwork roadNetwork = getModel().getRoadNetwork();
+            Duration drivingTime1 = roadNetwork.drivingTime(transportOrder.unloadCentroid(), transportOrder.loadCentroid(),
+                    STRAIGHT_LINE_SPEED);
+            Duration drivingTime2 = roadNetwork.drivingTime(transportOrder.loadCentroid(), transportOrder.unloadCentroid(),
+                    STRAIGHT_LINE_SPEED);
             Duration margin = new Duration(15.0, DurationUnit.MINUTE);
-            ClockTime departureTime1 = new ClockTime(targetTime.minus(drivingTime.plus(margin)));
-            Length distance = RoadNetwork.haversine(transportOrder.unloadCentroid().getLocation(),
-                    transportOrder.loadCentroid().getLocation());
+            ClockTime departureTime1 = new ClockTime(targetTime.minus(drivingTime1.plus(margin)));
+            Length distance1 = roadNetwork.drivingDistance(transportOrder.unloadCentroid(), transportOrder.loadCentroid());
+            Length distance2 = roadNetwork.drivingDistance(transportOrder.loadCentroid(), transportOrder.unloadCentroid());
             PlannedDrivingActivity pda1 = new PlannedDrivingActivity(truck, transportOrder.unloadCentroid(),
-                    transportOrder.loadCentroid(), null, null, departureTime1, targetTime, distance);
+                    transportOrder.loadCentroid(), null, null, departureTime1, targetTime, distance1, drivingTime1);
             truck.getPlannedActivityList().add(pda1);
 
             // (2) unload container at terminal
@@ -279,9 +328,10 @@ public class TruckingCompany implements Identifiable
             // (3) drive back full
             ClockTime departureTime2 = new ClockTime(targetTime.plus(terminal.getYard().getAvgHandlingTimeImport())
                     .plus(terminal.getGate().getAvgGateTimeIn()).plus(terminal.getGate().getAvgGateTimeOut()));
-            ClockTime arrivalTime2 = new ClockTime(departureTime2.plus(drivingTime.plus(margin)));
+            ClockTime arrivalTime2 = new ClockTime(departureTime2.plus(drivingTime2.plus(margin)));
             PlannedDrivingActivity pda2 = new PlannedDrivingActivity(truck, transportOrder.loadCentroid(),
-                    transportOrder.unloadCentroid(), transportOrder.container(), null, departureTime2, arrivalTime2, distance);
+                    transportOrder.unloadCentroid(), transportOrder.container(), null, departureTime2, arrivalTime2, distance2,
+                    drivingTime2);
             truck.getPlannedActivityList().add(pda2);
         }
 
@@ -307,6 +357,9 @@ public class TruckingCompany implements Identifiable
     }
 
     // constants
+    /** average speed over the straight-line distance when two centroids are not connected by the road network. */
+    private static final Speed STRAIGHT_LINE_SPEED = new Speed(50.0, SpeedUnit.KM_PER_HOUR);
+
     private static final Duration H24 = new Duration(24.0, DurationUnit.HOUR);
 
     private static final Duration H48 = new Duration(48.0, DurationUnit.HOUR);
@@ -363,7 +416,7 @@ public class TruckingCompany implements Identifiable
         weekday = targetTime.dayOfWeekInt();
 
         // determine hour of the day
-        int hourOfTheDay = this.cumulativeHourProbabilities.ceilingEntry(this.model.getU01().draw()).getValue();
+        int hourOfTheDay = this.hourSampler.sampleIndex(this.model.getU01().draw());
         var localDate = targetTime.localDateTime().toLocalDate();
         int minute = (int) Math.floor(59.9 * this.model.getU01().draw());
         var localDateTime = LocalDateTime.of(localDate.getYear(), localDate.getMonthValue(), localDate.getDayOfMonth(),
@@ -373,11 +426,54 @@ public class TruckingCompany implements Identifiable
             transportOrder.setTargetTime(newTime);
     }
 
+    /**
+     * Return an idle truck of the company for a new trip. When there is no idle truck, a new truck is created as long as the
+     * company has less than nrTrucks trucks.
+     * @return a truck for a new trip, or null when all trucks of the company are busy
+     */
     protected Truck generateTruck()
     {
+        Truck truck = this.idleTrucks.pollFirst();
+        if (truck != null)
+        {
+            truck.reuse(getModel().uniqueTruckNr(), this.uniqueTruckNr.incrementAndGet());
+            return truck;
+        }
+        if (this.nrTrucksCreated >= this.nrTrucks)
+            return null;
+        this.nrTrucksCreated++;
         return new Truck(getModel().uniqueTruckNr(), this, this.uniqueTruckNr.incrementAndGet());
     }
 
+    /**
+     * Return a truck that has finished its plan to the idle trucks, and plan the first waiting transport order, if any.
+     * @param truck the truck that has finished its plan
+     */
+    protected void releaseTruck(final Truck truck)
+    {
+        this.idleTrucks.addFirst(truck);
+        if (!this.waitingOrders.isEmpty())
+            planSingleTrip(this.waitingOrders.pollFirst());
+    }
+
+    /** @return the maximum number of trucks of the company */
+    public int getNrTrucks()
+    {
+        return this.nrTrucks;
+    }
+
+    /** @return the number of trucks that are executing a plan */
+    public int getNrBusyTrucks()
+    {
+        return this.nrTrucksCreated - this.idleTrucks.size();
+    }
+
+    /** @return the number of transport orders that wait for a truck */
+    public int getNrWaitingOrders()
+    {
+        return this.waitingOrders.size();
+    }
+
     /**
      * @return the port model
      */
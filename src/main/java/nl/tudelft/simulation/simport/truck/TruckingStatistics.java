@@ -37,6 +37,11 @@ public class TruckingStatistics
     public void incCombinedTrips2Terminals() {this.combinedTrips2Terminals++; incTotalTrips(); }
     public int getCombinedTrips2Terminals() {return this.combinedTrips2Terminals; }
 
+    /** The number of trips that had to wait for a free truck because the whole fleet was busy. */
+    private int waitingTrips = 0;
+    public void incWaitingTrips() {this.waitingTrips++; }
+    public int getWaitingTrips() {return this.waitingTrips; }
+
     // @formatter:on
 
 }
@@ -40,6 +40,9 @@ public class PlannedDrivingActivity extends PlannedTruckActivity
     /** the length of the route. */
     private final Length distance;
 
+    /** the free-flow driving time, without the margin that the planned duration may contain. */
+    private final Duration drivingTime;
+
     /**
      * Make a driving activity for a truck.
      * @param truck the truck
@@ -54,6 +57,27 @@ public class PlannedDrivingActivity extends PlannedTruckActivity
     public PlannedDrivingActivity(final Truck truck, final Centroid origCentroid, final Centroid destCentroid,
             final Container container1, final Container container2, final ClockTime departureTime, final ClockTime arrivalTime,
             final Length distance)
+    {
+        this(truck, origCentroid, destCentroid, container1, container2, departureTime, arrivalTime, distance,
+                arrivalTime.minus(departureTime));
+    }
+
+    /**
+     * Make a driving activity for a truck, of which the planned duration consists of the free-flow driving time and a margin.
+     * @param truck the truck
+     * @param origCentroid the start location
+     * @param destCentroid the end location
+     * @param container1 the first container on the truck (can be null)
+     * @param container2 the second container on the truck (can be null)
+     * @param departureTime the departure time
+     * @param arrivalTime the arrival time
+     * @param distance the length of the route
+     * @param drivingTime the free-flow driving time, at most the time between departure and arrival
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    public PlannedDrivingActivity(final Truck truck, final Centroid origCentroid, final Centroid destCentroid,
+            final Container container1, final Container container2, final ClockTime departureTime, final ClockTime arrivalTime,
+            final Length distance, final Duration drivingTime)
     {
         super(truck);
         this.origCentroid = origCentroid;
@@ -63,6 +87,7 @@ public class PlannedDrivingActivity extends PlannedTruckActivity
         this.departureTime = departureTime;
         this.arrivalTime = arrivalTime;
         this.distance = distance;
+        this.drivingTime = drivingTime;
     }
 
     /**
@@ -89,6 +114,22 @@ public class PlannedDrivingActivity extends PlannedTruckActivity
         return this.getArrivalTime().minus(this.getDepartureTime());
     }
 
+    /**
+     * @return the free-flow driving time, without the margin that the duration of the trip may contain
+     */
+    public Duration getDrivingTime()
+    {
+        return this.drivingTime;
+    }
+
+    /**
+     * @return the margin between the duration of the trip and the free-flow driving time
+     */
+    public Duration getMargin()
+    {
+        return getDuration().minus(this.drivingTime);
+    }
+
     /**
      * @return the average speed of the trip
      */
@@ -7,6 +7,7 @@ import org.djunits.value.vdouble.scalar.Speed;
 import nl.tudelft.simulation.dsol.simulators.clock.ClockTime;
 import nl.tudelft.simulation.simport.container.Container;
 import nl.tudelft.simulation.simport.network.Centroid;
+import nl.tudelft.simulation.simport.network.RoutePolyline;
 
 /**
  * RealizedDrivingActivity contains information about the actual trip from A to B.
@@ -27,6 +28,9 @@ public class RealizedDrivingActivity extends RealizedTruckActivity
     /** the actual arrival time. */
     private ClockTime actualArrivalTime;
 
+    /** the polyline of the route for the animation, or null when the truck is not animated. */
+    private RoutePolyline route;
+
     /**
      * Make a realized driving activity for a truck.
      * @param plannedDrivingActivity the planned driving activity
@@ -175,6 +179,22 @@ public class RealizedDrivingActivity extends RealizedTruckActivity
         return this.plannedDrivingActivity.getDistance();
     }
 
+    /**
+     * @return the polyline of the route for the animation, or null when the truck is not animated
+     */
+    public RoutePolyline getRoute()
+    {
+        return this.route;
+    }
+
+    /**
+     * @param route set the polyline of the route for the animation
+     */
+    public void setRoute(final RoutePolyline route)
+    {
+        this.route = route;
+    }
+
     /**
      * @return plannedDrivingActivity
      */
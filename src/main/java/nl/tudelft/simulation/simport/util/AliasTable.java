@@ -0,0 +1,159 @@
+package nl.tudelft.simulation.simport.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.djutils.exceptions.Throw;
+
+/**
+ * AliasTable is a DiscreteSampler that draws a value in constant time with Vose's alias method. The table divides the
+ * probability mass in n columns of equal height 1/n; column i contains value i with probability prob[i], and the alias of
+ * column i otherwise. A draw selects a column and a position in the column, for which one U(0,1) draw is split in its integer
+ * and fractional part after multiplying it by n. Drawing does not allocate objects.
+ * <p>
+ * See: M.D. Vose (1991), A linear algorithm for generating random numbers with a given distribution. IEEE Transactions on
+ * Software Engineering 17(9), pp. 972-975.
+ * </p>
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ * @param <T> the type of the values
+ */
+public class AliasTable<T> implements DiscreteSampler<T>
+{
+    /** the values. */
+    private final List<T> values;
+
+    /** the probability of each value. */
+    private final double[] probabilities;
+
+    /** the probability to draw the value of the column itself rather than its alias. */
+    private final double[] prob;
+
+    /** the alias of each column. */
+    private final int[] alias;
+
+    /**
+     * Create an alias table for values with the given weights. The weights do not have to add up to 1. Values with a zero
+     * weight are never drawn.
+     * @param values the values
+     * @param weights the weights of the values, in the same order
+     * @throws IllegalArgumentException when the number of weights differs from the number of values, when a weight is
+     *             negative or not finite, or when the weights add up to zero for a non-empty list of values
+     */
+    public AliasTable(final List<? extends T> values, final double[] weights)
+    {
+        Throw.whenNull(values, "values");
+        Throw.whenNull(weights, "weights");
+        Throw.when(values.size() != weights.length, IllegalArgumentException.class,
+                "AliasTable: %d values but %d weights", values.size(), weights.length);
+        int n = weights.length;
+        double total = 0.0;
+        for (double w : weights)
+        {
+            Throw.when(w < 0.0 || !Double.isFinite(w), IllegalArgumentException.class, "AliasTable: illegal weight %f", w);
+            total += w;
+        }
+        Throw.when(n > 0 && total <= 0.0, IllegalArgumentException.class, "AliasTable: weights add up to zero");
+        this.values = new ArrayList<>(values);
+        this.probabilities = new double[n];
+        this.prob = new double[n];
+        this.alias = new int[n];
+
+        // scale the weights to an average of 1, and divide the columns into small (< 1) and large (>= 1)
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int nrSmall = 0;
+        int nrLarge = 0;
+        int maxIndex = 0;
+        for (int i = 0; i < n; i++)
+        {
+            this.probabilities[i] = weights[i] / total;
+            scaled[i] = this.probabilities[i] * n;
+            if (scaled[i] < 1.0)
+                small[nrSmall++] = i;
+            else
+                large[nrLarge++] = i;
+            if (weights[i] > weights[maxIndex])
+                maxIndex = i;
+        }
+
+        // fill each small column with the remainder of a large column
+        while (nrSmall > 0 && nrLarge > 0)
+        {
+            int s = small[--nrSmall];
+            int l = large[--nrLarge];
+            this.prob[s] = scaled[s];
+            this.alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0)
+                small[nrSmall++] = l;
+            else
+                large[nrLarge++] = l;
+        }
+
+        // the remaining columns are full, apart from rounding errors; a zero weight should still never be drawn
+        while (nrLarge > 0)
+            this.prob[large[--nrLarge]] = 1.0;
+        while (nrSmall > 0)
+        {
+            int s = small[--nrSmall];
+            this.prob[s] = weights[s] > 0.0 ? 1.0 : 0.0;
+            this.alias[s] = maxIndex;
+        }
+    }
+
+    @Override
+    public int sampleIndex(final double u)
+    {
+        int n = this.prob.length;
+        if (n == 0)
+            return -1;
+        double x = u * n;
+        int column = Math.min((int) x, n - 1);
+        return x - column < this.prob[column] ? column : this.alias[column];
+    }
+
+    /**
+     * Draw the index of a value, with separate U(0,1) draws for the column and for the position in the column.
+     * @param u1 a draw from U(0,1) to select the column
+     * @param u2 a draw from U(0,1) to select the value or its alias
+     * @return the index of the drawn value, or -1 when the table is empty
+     */
+    public int sampleIndex(final double u1, final double u2)
+    {
+        int n = this.prob.length;
+        if (n == 0)
+            return -1;
+        int column = Math.min((int) (u1 * n), n - 1);
+        return u2 < this.prob[column] ? column : this.alias[column];
+    }
+
+    @Override
+    public T get(final int index)
+    {
+        return this.values.get(index);
+    }
+
+    @Override
+    public double getProbability(final int index)
+    {
+        return this.probabilities[index];
+    }
+
+    @Override
+    public int size()
+    {
+        return this.prob.length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AliasTable [size=" + size() + "]";
+    }
+
+}
@@ -0,0 +1,345 @@
+package nl.tudelft.simulation.simport.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * CsvTokenizer reads a delimited text file field by field into a reusable character buffer, so numeric fields can be parsed
+ * without creating a String per cell. Fields can be quoted with double quotes; a doubled quote within a quoted field is a
+ * literal quote. Lines end with \n, \r or \r\n. The typical loop is:
+ *
+ * <pre>
+ * while (tokenizer.nextRow())
+ *     while (tokenizer.nextField())
+ *         sum += tokenizer.getDouble(false);
+ * </pre>
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class CsvTokenizer implements Closeable
+{
+    /** exact powers of ten that can be represented as a double. */
+    private static final double[] POW10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14,
+            1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /** the largest mantissa for which the fast path is exact (2^53). */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /** the reader. */
+    private final Reader reader;
+
+    /** the field delimiter. */
+    private final char delimiter;
+
+    /** the read buffer. */
+    private final char[] buffer = new char[1 << 16];
+
+    /** the position in the read buffer. */
+    private int pos = 0;
+
+    /** the number of valid characters in the read buffer. */
+    private int limit = 0;
+
+    /** the characters of the current field. */
+    private char[] field = new char[256];
+
+    /** the length of the current field. */
+    private int fieldLength = 0;
+
+    /** whether the last field of the current row has been read. */
+    private boolean endOfRow = true;
+
+    /** the 1-based line number of the current row. */
+    private int lineNumber = 0;
+
+    /**
+     * Create a tokenizer for the given reader. The reader is buffered by the tokenizer.
+     * @param reader the reader
+     * @param delimiter the field delimiter
+     */
+    public CsvTokenizer(final Reader reader, final char delimiter)
+    {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Move to the next row, skipping the unread fields of the current row.
+     * @return whether there is a next row
+     * @throws IOException on read error
+     */
+    public boolean nextRow() throws IOException
+    {
+        while (nextField())
+            continue;
+        if (peek() < 0)
+            return false;
+        this.endOfRow = false;
+        this.lineNumber++;
+        return true;
+    }
+
+    /**
+     * Read the next field of the current row into the field buffer.
+     * @return whether there was a next field in the current row
+     * @throws IOException on read error
+     */
+    public boolean nextField() throws IOException
+    {
+        if (this.endOfRow)
+            return false;
+        this.fieldLength = 0;
+        boolean quoted = false;
+        int c = read();
+        if (c == '"')
+        {
+            quoted = true;
+            c = read();
+        }
+        while (true)
+        {
+            if (c < 0)
+            {
+                this.endOfRow = true;
+                return true;
+            }
+            if (quoted)
+            {
+                if (c == '"')
+                {
+                    if (peek() == '"')
+                    {
+                        read();
+                        append('"');
+                    }
+                    else
+                        quoted = false;
+                }
+                else
+                    append((char) c);
+            }
+            else if (c == this.delimiter)
+                return true;
+            else if (c == '\n')
+            {
+                this.endOfRow = true;
+                return true;
+            }
+            else if (c == '\r')
+            {
+                if (peek() == '\n')
+                    read();
+                this.endOfRow = true;
+                return true;
+            }
+            else
+                append((char) c);
+            c = read();
+        }
+    }
+
+    /**
+     * Return the current field as a String.
+     * @param trim whether to remove leading and trailing white space
+     * @param normalizeNbsp whether to replace non-breaking spaces by spaces
+     * @return the current field as a String
+     */
+    public String getString(final boolean trim, final boolean normalizeNbsp)
+    {
+        if (normalizeNbsp)
+        {
+            for (int i = 0; i < this.fieldLength; i++)
+            {
+                if (this.field[i] == '\u00A0')
+                    this.field[i] = ' ';
+            }
+        }
+        int start = 0;
+        int end = this.fieldLength;
+        if (trim)
+        {
+            while (start < end && this.field[start] <= ' ')
+                start++;
+            while (end > start && this.field[end - 1] <= ' ')
+                end--;
+        }
+        return new String(this.field, start, end - start);
+    }
+
+    /** @return whether the current field only contains white space */
+    public boolean isBlank()
+    {
+        for (int i = 0; i < this.fieldLength; i++)
+        {
+            if (!isSpace(this.field[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parse the current field as a number. Common EU/US formats are supported: "1234.56", "1,234.56", "1234,56", "1.234,56",
+     * "1 234,56", and an exponent. Spaces and non-breaking spaces are ignored, as are the thousands separators ',' (or '.' when
+     * decimalComma is true). A blank field is 0.0. Plain numbers are parsed directly from the field buffer; other numbers are
+     * parsed with Double.parseDouble().
+     * @param decimalComma whether the decimal separator is a comma
+     * @return the value of the field
+     * @throws NumberFormatException when the field is not a number
+     */
+    public double getDouble(final boolean decimalComma)
+    {
+        char decimal = decimalComma ? ',' : '.';
+        char grouping = decimalComma ? '.' : ',';
+        long mantissa = 0L;
+        int digits = 0;
+        int exponent = 0;
+        boolean negative = false;
+        boolean seenDecimal = false;
+        boolean seenSign = false;
+        boolean truncated = false;
+        int i = 0;
+        for (; i < this.fieldLength; i++)
+        {
+            char c = this.field[i];
+            if (c >= '0' && c <= '9')
+            {
+                if (mantissa < MAX_EXACT_MANTISSA / 10)
+                {
+                    mantissa = 10L * mantissa + (c - '0');
+                    if (seenDecimal)
+                        exponent--;
+                }
+                else
+                    truncated = true;
+                digits++;
+            }
+            else if (c == decimal && !seenDecimal)
+                seenDecimal = true;
+            else if (c == grouping || isSpace(c))
+                continue;
+            else if ((c == '-' || c == '+') && digits == 0 && !seenSign && !seenDecimal)
+            {
+                seenSign = true;
+                negative = c == '-';
+            }
+            else
+                break;
+        }
+        if (i == this.fieldLength && !truncated && -exponent < POW10.length && exponent < POW10.length)
+        {
+            if (digits == 0)
+            {
+                if (!seenSign && !seenDecimal)
+                    return 0.0;
+                throw new NumberFormatException("not a number: '" + getString(false, false) + "' on line " + this.lineNumber);
+            }
+            double value = exponent < 0 ? mantissa / POW10[-exponent] : mantissa * POW10[exponent];
+            return negative ? -value : value;
+        }
+        return parseSlow(decimalComma);
+    }
+
+    /**
+     * Parse the current field with Double.parseDouble(), after removing spaces and thousands separators.
+     * @param decimalComma whether the decimal separator is a comma
+     * @return the value of the field
+     * @throws NumberFormatException when the field is not a number
+     */
+    private double parseSlow(final boolean decimalComma)
+    {
+        StringBuilder s = new StringBuilder(this.fieldLength);
+        for (int i = 0; i < this.fieldLength; i++)
+        {
+            char c = this.field[i];
+            if (isSpace(c) || c == (decimalComma ? '.' : ','))
+                continue;
+            s.append(decimalComma && c == ',' ? '.' : c);
+        }
+        try
+        {
+            return Double.parseDouble(s.toString());
+        }
+        catch (NumberFormatException nfe)
+        {
+            throw new NumberFormatException("not a number: '" + getString(false, false) + "' on line " + this.lineNumber);
+        }
+    }
+
+    /** @return the 1-based line number of the current row (counted in rows, not in physical lines) */
+    public int getLineNumber()
+    {
+        return this.lineNumber;
+    }
+
+    /**
+     * @param c the character
+     * @return whether the character is white space or a non-breaking space
+     */
+    private static boolean isSpace(final char c)
+    {
+        return c <= ' ' || c == '\u00A0';
+    }
+
+    /**
+     * Append a character to the field buffer.
+     * @param c the character
+     */
+    private void append(final char c)
+    {
+        if (this.fieldLength == this.field.length)
+            this.field = Arrays.copyOf(this.field, 2 * this.field.length);
+        this.field[this.fieldLength++] = c;
+    }
+
+    /**
+     * @return the next character, or -1 at the end of the input
+     * @throws IOException on read error
+     */
+    private int read() throws IOException
+    {
+        if (this.pos == this.limit && !fill())
+            return -1;
+        return this.buffer[this.pos++];
+    }
+
+    /**
+     * @return the next character without consuming it, or -1 at the end of the input
+     * @throws IOException on read error
+     */
+    private int peek() throws IOException
+    {
+        if (this.pos == this.limit && !fill())
+            return -1;
+        return this.buffer[this.pos];
+    }
+
+    /**
+     * Fill the read buffer.
+     * @return whether characters were read
+     * @throws IOException on read error
+     */
+    private boolean fill() throws IOException
+    {
+        int n;
+        do
+        {
+            n = this.reader.read(this.buffer, 0, this.buffer.length);
+        }
+        while (n == 0);
+        this.pos = 0;
+        this.limit = Math.max(0, n);
+        return n > 0;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.reader.close();
+    }
+
+}
@@ -0,0 +1,54 @@
+package nl.tudelft.simulation.simport.util;
+
+/**
+ * DiscreteSampler draws one of a fixed set of values, each with its own probability, from draws of a U(0,1) distribution.
+ * The sampler does not own a random stream, so the caller decides which stream is used, and results are reproducible.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ * @param <T> the type of the values
+ */
+public interface DiscreteSampler<T>
+{
+    /**
+     * Draw the index of a value.
+     * @param u a draw from U(0,1)
+     * @return the index of the drawn value, or -1 when the sampler is empty
+     */
+    int sampleIndex(double u);
+
+    /**
+     * Draw a value.
+     * @param u a draw from U(0,1)
+     * @return the drawn value, or null when the sampler is empty
+     */
+    default T sample(final double u)
+    {
+        int index = sampleIndex(u);
+        return index < 0 ? null : get(index);
+    }
+
+    /**
+     * @param index the index of the value
+     * @return the value with the given index
+     */
+    T get(int index);
+
+    /**
+     * @param index the index of the value
+     * @return the probability of drawing the value with the given index
+     */
+    double getProbability(int index);
+
+    /** @return the number of values */
+    int size();
+
+    /** @return whether the sampler has no values to draw */
+    default boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+}
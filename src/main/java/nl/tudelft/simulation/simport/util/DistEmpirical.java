@@ -0,0 +1,38 @@
+package nl.tudelft.simulation.simport.util;
+
+import nl.tudelft.simulation.jstats.distributions.DistEmpiricalInterpolated;
+import nl.tudelft.simulation.jstats.distributions.empirical.InterpolatedEmpiricalDistribution;
+import nl.tudelft.simulation.jstats.streams.StreamInterface;
+
+/**
+ * DistEmpirical is an interpolated empirical distribution that keeps its empirical data accessible, so the moments of the
+ * distribution can be calculated from the data instead of being estimated by sampling.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class DistEmpirical extends DistEmpiricalInterpolated
+{
+    /** the empirical data. */
+    private final InterpolatedEmpiricalDistribution empiricalDistribution;
+
+    /**
+     * Create an interpolated empirical distribution.
+     * @param stream the random stream
+     * @param empiricalDistribution the empirical data, with cumulative probabilities from 0.0 to 1.0
+     */
+    public DistEmpirical(final StreamInterface stream, final InterpolatedEmpiricalDistribution empiricalDistribution)
+    {
+        super(stream, empiricalDistribution);
+        this.empiricalDistribution = empiricalDistribution;
+    }
+
+    /** @return the empirical data */
+    public InterpolatedEmpiricalDistribution getEmpiricalDistribution()
+    {
+        return this.empiricalDistribution;
+    }
+
+}
@@ -0,0 +1,234 @@
+package nl.tudelft.simulation.simport.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.djunits.value.vdouble.scalar.Duration;
+
+import nl.tudelft.simulation.jstats.distributions.DistBeta;
+import nl.tudelft.simulation.jstats.distributions.DistConstant;
+import nl.tudelft.simulation.jstats.distributions.DistContinuous;
+import nl.tudelft.simulation.jstats.distributions.DistErlang;
+import nl.tudelft.simulation.jstats.distributions.DistExponential;
+import nl.tudelft.simulation.jstats.distributions.DistGamma;
+import nl.tudelft.simulation.jstats.distributions.DistLogNormal;
+import nl.tudelft.simulation.jstats.distributions.DistNormal;
+import nl.tudelft.simulation.jstats.distributions.DistNormalTrunc;
+import nl.tudelft.simulation.jstats.distributions.DistPearson5;
+import nl.tudelft.simulation.jstats.distributions.DistPearson6;
+import nl.tudelft.simulation.jstats.distributions.DistTriangular;
+import nl.tudelft.simulation.jstats.distributions.DistUniform;
+import nl.tudelft.simulation.jstats.distributions.unit.DistContinuousDuration;
+import nl.tudelft.simulation.jstats.streams.MersenneTwister;
+import nl.tudelft.simulation.jstats.streams.StreamInterface;
+
+/**
+ * DistributionMoments calculates the mean and variance of the continuous distributions that the DistributionParser produces,
+ * with closed-form expressions in the parameters of the distribution. No random numbers are drawn, so calculating a mean does
+ * not change the random streams of the model. For a distribution without a closed form, the moments are estimated once by
+ * sampling on a separate stream with a fixed seed, and the estimate is cached for the distribution.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public final class DistributionMoments
+{
+    /** the number of samples for the estimate of the moments of a distribution without a closed form. */
+    private static final int NR_SAMPLES = 100_000;
+
+    /** the seed of the separate stream for the estimates. */
+    private static final long SEED = 1234L;
+
+    /** the estimated moments {mean, variance} of the distributions without a closed form. */
+    private static final Map<DistContinuous, double[]> ESTIMATES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** standard normal distribution for the cumulative probabilities of the truncated normal distribution; never drawn. */
+    private static final DistNormal STANDARD_NORMAL = new DistNormal(new MersenneTwister(SEED), 0.0, 1.0);
+
+    /**
+     * Utility class, no constructor.
+     */
+    private DistributionMoments()
+    {
+        // Utility class, no constructor
+    }
+
+    /**
+     * Return the mean of a continuous distribution.
+     * @param dist the distribution
+     * @return the mean of the distribution; infinite when the mean does not exist
+     */
+    public static double mean(final DistContinuous dist)
+    {
+        return moments(dist)[0];
+    }
+
+    /**
+     * Return the variance of a continuous distribution.
+     * @param dist the distribution
+     * @return the variance of the distribution; infinite when the variance does not exist
+     */
+    public static double variance(final DistContinuous dist)
+    {
+        return moments(dist)[1];
+    }
+
+    /**
+     * Return the mean of a continuous duration distribution.
+     * @param dist the duration distribution
+     * @return the mean of the distribution
+     */
+    public static Duration mean(final DistContinuousDuration dist)
+    {
+        return new Duration(mean(dist.getWrappedDistribution()), dist.getUnit());
+    }
+
+    /**
+     * Return the mean and variance of a continuous distribution.
+     * @param dist the distribution
+     * @return an array with the mean and the variance of the distribution
+     */
+    private static double[] moments(final DistContinuous dist)
+    {
+        // DistLogNormal extends DistNormal, so it has to be tested first
+        if (dist instanceof DistLogNormal d)
+        {
+            double s2 = d.getSigma() * d.getSigma();
+            double mean = Math.exp(d.getMu() + s2 / 2.0);
+            return new double[] {mean, Math.expm1(s2) * mean * mean};
+        }
+        if (dist instanceof DistConstant d)
+            return new double[] {d.getConstant(), 0.0};
+        if (dist instanceof DistExponential d)
+            return new double[] {d.getMean(), d.getMean() * d.getMean()};
+        if (dist instanceof DistTriangular d)
+        {
+            double a = d.getMin();
+            double c = d.getMode();
+            double b = d.getMax();
+            return new double[] {(a + b + c) / 3.0, (a * a + b * b + c * c - a * b - a * c - b * c) / 18.0};
+        }
+        if (dist instanceof DistNormal d)
+            return new double[] {d.getMu(), d.getSigma() * d.getSigma()};
+        if (dist instanceof DistNormalTrunc d)
+            return truncatedNormal(d.getMu(), d.getSigma(), d.getMin(), d.getMax());
+        if (dist instanceof DistBeta d)
+        {
+            double a = d.getAlpha1();
+            double b = d.getAlpha2();
+            return new double[] {a / (a + b), a * b / ((a + b) * (a + b) * (a + b + 1.0))};
+        }
+        if (dist instanceof DistErlang d)
+            return new double[] {d.getK() * d.getScale(), d.getK() * d.getScale() * d.getScale()};
+        if (dist instanceof DistGamma d)
+            return new double[] {d.getShape() * d.getScale(), d.getShape() * d.getScale() * d.getScale()};
+        if (dist instanceof DistPearson5 d)
+        {
+            double a = d.getAlpha();
+            double b = d.getBeta();
+            double mean = a > 1.0 ? b / (a - 1.0) : Double.POSITIVE_INFINITY;
+            double variance = a > 2.0 ? b * b / ((a - 1.0) * (a - 1.0) * (a - 2.0)) : Double.POSITIVE_INFINITY;
+            return new double[] {mean, variance};
+        }
+        if (dist instanceof DistPearson6 d)
+        {
+            double a1 = d.getAlpha1();
+            double a2 = d.getAlpha2();
+            double b = d.getBeta();
+            double mean = a2 > 1.0 ? b * a1 / (a2 - 1.0) : Double.POSITIVE_INFINITY;
+            double variance = a2 > 2.0 ? b * b * a1 * (a1 + a2 - 1.0) / ((a2 - 1.0) * (a2 - 1.0) * (a2 - 2.0))
+                    : Double.POSITIVE_INFINITY;
+            return new double[] {mean, variance};
+        }
+        if (dist instanceof DistUniform d)
+        {
+            double w = d.getMax() - d.getMin();
+            return new double[] {(d.getMin() + d.getMax()) / 2.0, w * w / 12.0};
+        }
+        if (dist instanceof DistEmpirical d)
+            return empirical(d.getEmpiricalDistribution().getCumulativeProbabilities(),
+                    d.getEmpiricalDistribution().getValues());
+        return ESTIMATES.computeIfAbsent(dist, DistributionMoments::estimate);
+    }
+
+    /**
+     * Return the mean and variance of a normal distribution that is truncated to [min, max].
+     * @param mu the mean of the normal distribution
+     * @param sigma the standard deviation of the normal distribution
+     * @param min the lower bound
+     * @param max the upper bound
+     * @return an array with the mean and the variance of the truncated distribution
+     */
+    private static double[] truncatedNormal(final double mu, final double sigma, final double min, final double max)
+    {
+        double alpha = (min - mu) / sigma;
+        double beta = (max - mu) / sigma;
+        double z = STANDARD_NORMAL.getCumulativeProbability(beta) - STANDARD_NORMAL.getCumulativeProbability(alpha);
+        double phiAlpha = STANDARD_NORMAL.getProbabilityDensity(alpha);
+        double phiBeta = STANDARD_NORMAL.getProbabilityDensity(beta);
+        double shift = (phiAlpha - phiBeta) / z;
+        // alpha * phi(alpha) is 0 for an infinite bound
+        double aPhiA = Double.isInfinite(alpha) ? 0.0 : alpha * phiAlpha;
+        double bPhiB = Double.isInfinite(beta) ? 0.0 : beta * phiBeta;
+        return new double[] {mu + sigma * shift, sigma * sigma * (1.0 + (aPhiA - bPhiB) / z - shift * shift)};
+    }
+
+    /**
+     * Return the mean and variance of an interpolated empirical distribution, where the value is uniformly distributed
+     * between two successive entries.
+     * @param cumulativeProbabilities the cumulative probabilities of the entries
+     * @param values the values of the entries
+     * @return an array with the mean and the variance of the distribution
+     */
+    private static double[] empirical(final List<Double> cumulativeProbabilities, final List<Number> values)
+    {
+        double m1 = 0.0;
+        double m2 = 0.0;
+        for (int i = 1; i < values.size(); i++)
+        {
+            double p = cumulativeProbabilities.get(i) - cumulativeProbabilities.get(i - 1);
+            double v0 = values.get(i - 1).doubleValue();
+            double v1 = values.get(i).doubleValue();
+            m1 += p * (v0 + v1) / 2.0;
+            m2 += p * (v0 * v0 + v0 * v1 + v1 * v1) / 3.0;
+        }
+        return new double[] {m1, Math.max(0.0, m2 - m1 * m1)};
+    }
+
+    /**
+     * Estimate the mean and variance of a distribution by sampling on a separate stream. The stream of the distribution is
+     * restored afterwards, so the random streams of the model are not used.
+     * @param dist the distribution
+     * @return an array with the estimated mean and variance of the distribution
+     */
+    private static double[] estimate(final DistContinuous dist)
+    {
+        synchronized (dist)
+        {
+            StreamInterface modelStream = dist.getStream();
+            try
+            {
+                dist.setStream(new MersenneTwister(SEED));
+                double sum = 0.0;
+                double sum2 = 0.0;
+                for (int i = 0; i < NR_SAMPLES; i++)
+                {
+                    double x = dist.draw();
+                    sum += x;
+                    sum2 += x * x;
+                }
+                double mean = sum / NR_SAMPLES;
+                return new double[] {mean, Math.max(0.0, (sum2 - NR_SAMPLES * mean * mean) / (NR_SAMPLES - 1))};
+            }
+            finally
+            {
+                dist.setStream(modelStream);
+            }
+        }
+    }
+
+}
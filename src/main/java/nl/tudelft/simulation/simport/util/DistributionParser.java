@@ -12,7 +12,6 @@ import nl.tudelft.simulation.jstats.distributions.DistDiscrete;
 import nl.tudelft.simulation.jstats.distributions.DistDiscreteConstant;
 import nl.tudelft.simulation.jstats.distributions.DistDiscreteUniform;
 import nl.tudelft.simulation.jstats.distributions.DistEmpiricalDiscreteLong;
-import nl.tudelft.simulation.jstats.distributions.DistEmpiricalInterpolated;
 import nl.tudelft.simulation.jstats.distributions.DistErlang;
 import nl.tudelft.simulation.jstats.distributions.DistExponential;
 import nl.tudelft.simulation.jstats.distributions.DistGamma;
@@ -131,6 +130,7 @@ public final class DistributionParser
                 return new DistErlang(stream, scale, k);
             }
 
+            case "gamma":
             case "gammma":
             {
                 checkArgs(distStr, argArray, 2);
@@ -187,7 +187,7 @@ public final class DistributionParser
                     values[i] = Double.parseDouble(argArray[2 * i + 1].strip());
                 }
                 var empiricalDist = new InterpolatedEmpiricalDistribution(values, cumulativeProbabilities);
-                return new DistEmpiricalInterpolated(stream, empiricalDist);
+                return new DistEmpirical(stream, empiricalDist);
             }
 
             default:
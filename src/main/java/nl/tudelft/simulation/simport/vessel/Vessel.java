@@ -80,6 +80,9 @@ public class Vessel extends LocalEventProducer implements Identifiable
     /** List of containers physically present on the vessel. */
     private List<Container> containerList = new ArrayList<>();
 
+    /** The number of containers at the front of the container list that have been unloaded in the current unloading. */
+    private int unloadCursor = 0;
+
     /** Number of loaded containers that have been marked as transshipped. */
     private int nrContainersTransshippedLoaded = 0;
 
@@ -233,7 +236,8 @@ public class Vessel extends LocalEventProducer implements Identifiable
 
     /**
      * Return the list of containers physically present on the ship. This is NOT a safe copy, so containers can be added or
-     * removed.
+     * removed. While the vessel is unloading, containers that have already been unloaded can still be at the front of the
+     * list; they are removed when the last container has been unloaded.
      * @return list of containers physically present on the ship
      */
     public List<Container> getContainerList()
@@ -262,31 +266,58 @@ public class Vessel extends LocalEventProducer implements Identifiable
     }
 
     /**
-     * Unload all containers from the vessel.
+     * Unload all containers from the vessel, in batches of getTerminal().getCraneBatchSize() containers with one event per
+     * batch. A batch is handled at the time its first container would have been unloaded when handling the containers one by
+     * one, so containers are never later on the yard than with an event per container.
      */
     protected void unloadContainers()
     {
         Duration unloadTime = this.etd.minus(this.ata).times(0.5);
         Duration deltaT = unloadTime.divide(Math.max(1.0, this.unloadList.size()));
+        this.unloadCursor = 0;
         if (this.unloadList.size() > 0)
         {
-            unloadContainer(0, deltaT);
+            unloadBatch(0, deltaT);
+        }
+    }
+
+    /**
+     * Unload a batch of containers from the vessel, place them in the yard, and schedule the next batch.
+     * @param index the index in the booking unload list of the first container of the batch
+     * @param deltaT the time between two successive containers
+     */
+    protected void unloadBatch(final int index, final Duration deltaT)
+    {
+        int batchSize = getTerminal().getCraneBatchSize();
+        int end = Math.min(this.unloadList.size(), index + batchSize);
+        for (int i = index; i < end; i++)
+            unloadContainer(i);
+        if (end < this.unloadList.size())
+            getSimulator().scheduleEventRel(deltaT.times(end - index), () -> unloadBatch(end, deltaT));
+        else
+        {
+            // remove the unloaded containers from the front of the container list in one operation
+            this.containerList.subList(0, this.unloadCursor).clear();
+            this.unloadCursor = 0;
         }
     }
 
     /**
-     * Unload one container from the vessel, and place it in the yard.
+     * Unload one container from the vessel, and place it in the yard. The containers are normally unloaded in the order of
+     * the container list, and stay in the list until the last container has been unloaded. Containers that are unloaded out
+     * of order are removed from the list directly.
      * @param index the index of the container in the booking unload list to be unloaded
-     * @param deltaT the time till the next container is unloaded
      */
-    protected void unloadContainer(final int index, final Duration deltaT)
+    protected void unloadContainer(final int index)
     {
         Container container = this.unloadList.get(index).getContainer();
         if (container != null)
         {
             getTerminal().getYard().addContainer(container,
                     getVesselType().isDeepSea() ? TransportMode.DEEPSEA : TransportMode.FEEDER);
-            if (!this.containerList.remove(container))
+            if (this.unloadCursor < this.containerList.size() && this.containerList.get(this.unloadCursor) == container)
+                this.unloadCursor++;
+            else if (!this.containerList.remove(container))
             {
                 CategoryLogger.with(Cat.DSOL).debug("Container {} not on vessel {} for booking {}", container, this,
                         this.unloadList.get(index));
@@ -297,31 +328,47 @@ public class Vessel extends LocalEventProducer implements Identifiable
             CategoryLogger.with(Cat.DSOL).debug("Container not found for booking {}, vessel {}", this.unloadList.get(index),
                     this);
         }
-        if (index < this.unloadList.size() - 1)
-        {
-            getSimulator().scheduleEventRel(deltaT, () -> unloadContainer(index + 1, deltaT));
-        }
     }
 
     /**
-     * Load all containers onto the vessel.
+     * Load all containers onto the vessel, in batches of getTerminal().getCraneBatchSize() containers with one event per
+     * batch. A batch is handled at the time its last container would have been loaded when handling the containers one by
+     * one, so containers are never earlier removed from the yard than with an event per container.
      */
     protected void loadContainers()
     {
         Duration loadTime = this.etd.minus(this.ata).times(0.5);
-        Duration deltaT = loadTime.divide(this.loadList.size());
+        Duration deltaT = loadTime.divide(Math.max(1.0, this.loadList.size()));
         if (this.loadList.size() > 0)
         {
-            loadContainer(0, deltaT);
+            int end = Math.min(this.loadList.size(), getTerminal().getCraneBatchSize());
+            getSimulator().scheduleEventRel(deltaT.times(end - 1), () -> loadBatch(0, deltaT));
+        }
+    }
+
+    /**
+     * Load a batch of containers from the yard onto the vessel, and schedule the next batch.
+     * @param index the index in the booking load list of the first container of the batch
+     * @param deltaT the time between two successive containers
+     */
+    protected void loadBatch(final int index, final Duration deltaT)
+    {
+        int batchSize = getTerminal().getCraneBatchSize();
+        int end = Math.min(this.loadList.size(), index + batchSize);
+        for (int i = index; i < end; i++)
+            loadContainer(i);
+        if (end < this.loadList.size())
+        {
+            int nextEnd = Math.min(this.loadList.size(), end + batchSize);
+            getSimulator().scheduleEventRel(deltaT.times(nextEnd - end), () -> loadBatch(end, deltaT));
         }
     }
 
     /**
      * Load one container from the yard into the vessel.
      * @param index the index of the container in the booking load list to be loaded
-     * @param deltaT the time till the next container is loaded
      */
-    protected void loadContainer(final int index, final Duration deltaT)
+    protected void loadContainer(final int index)
     {
         Container container = this.loadList.get(index).getContainer();
         if (container != null)
@@ -343,19 +390,18 @@ public class Vessel extends LocalEventProducer implements Identifiable
             CategoryLogger.with(Cat.DSOL).debug("Container not allocated for booking {}, vessel {}", this.loadList.get(index),
                     this);
         }
-        if (index < this.loadList.size() - 1)
-        {
-            getSimulator().scheduleEventRel(deltaT, () -> loadContainer(index + 1, deltaT));
-        }
     }
 
+    /**
+     * Vessel departure. The containers on board leave the model with one CONTAINER_BATCH_EVENT, and with a CONTAINER_EVENT
+     * per container for the listeners that only listen for single containers; see PortModel.fireContainerBatch().
+     */
     protected void vesselDeparture()
     {
-        for (Container container : getContainerList())
-        {
+        Container[] containers = getContainerList().toArray(new Container[getContainerList().size()]);
+        for (Container container : containers)
             container.setVesselOutNr(getVesselNr());
-            getModel().fireEvent(PortModel.CONTAINER_EVENT, container);
-        }
+        getModel().fireContainerBatch(containers);
         getTerminal().getStatistics().vesselDeparture(this);
         getModel().fireEvent(PortModel.VESSEL_EVENT, this);
         CategoryLogger.with(Cat.DSOL).info("Vessel {} departed from terminal {}", this.id, this.terminal);
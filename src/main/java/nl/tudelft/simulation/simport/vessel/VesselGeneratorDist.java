@@ -16,6 +16,7 @@ import nl.tudelft.simulation.jstats.streams.StreamInterface;
 import nl.tudelft.simulation.simport.Location;
 import nl.tudelft.simulation.simport.container.Booking;
 import nl.tudelft.simulation.simport.container.Container;
+import nl.tudelft.simulation.simport.model.ModelParameters;
 import nl.tudelft.simulation.simport.model.PortModel;
 import nl.tudelft.simulation.simport.terminal.Terminal;
 
@@ -80,6 +81,9 @@ public class VesselGeneratorDist extends VesselGenerator
     /** stopped? */
     private boolean stopped = true;
 
+    /** The terminal parameters of the run, with the time between generating a vessel and its arrival. */
+    private final ModelParameters.TerminalParameters terminalParameters;
+
     /**
      * Create a VesselGenerator based on distributions for one Terminal.
      * @param id the generator's id
@@ -88,8 +92,23 @@ public class VesselGeneratorDist extends VesselGenerator
      * @param vesselType the vessel type to generate
      */
     public VesselGeneratorDist(final String id, final PortModel model, final Terminal terminal, final VesselType vesselType)
+    {
+        this(id, model, terminal, vesselType, terminal.getTerminalParameters());
+    }
+
+    /**
+     * Create a VesselGenerator based on distributions for one Terminal, with the terminal parameters of the run.
+     * @param id the generator's id
+     * @param model the model
+     * @param terminal the terminal to generate ships for
+     * @param vesselType the vessel type to generate
+     * @param terminalParameters the terminal parameters of the run
+     */
+    public VesselGeneratorDist(final String id, final PortModel model, final Terminal terminal, final VesselType vesselType,
+            final ModelParameters.TerminalParameters terminalParameters)
     {
         super(id, model, terminal, vesselType);
+        this.terminalParameters = terminalParameters;
     }
 
     @Override
@@ -198,8 +217,7 @@ public class VesselGeneratorDist extends VesselGenerator
 
     protected void generateVessel()
     {
-        Duration etaAdvance = Duration.valueOf(getModel()
-                .getInputParameterString(getVesselType().isDeepSea() ? "terminal.GenerateDeepsea" : "terminal.GenerateFeeder"));
+        Duration etaAdvance = this.terminalParameters.generateAdvance(getVesselType().isDeepSea());
         var eta = new ClockTime(getSimulator().getSimulatorClockTime().plus(etaAdvance));
         var etd = new ClockTime(eta.plus(new Duration(1.0, DurationUnit.DAY)));
         var vessel = new Vessel(getVesselType(), getModel(), eta, etd, getTerminal());
@@ -0,0 +1,200 @@
+package nl.tudelft.simulation.simport.ndw;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import nl.tudelft.simulation.simport.util.CheckedTest;
+import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
+
+/**
+ * AggregateStoreTest writes day files with the DayBuilder and reads them back with the Day reader. It checks that a bucket
+ * that arrives in two batches is merged (flows and flow samples summed, speeds averaged over both batches), that buckets
+ * outside the day and of unknown sites are dropped, and that a day has the right number of buckets around the change to and
+ * from daylight saving time. It also checks that importDay() does not store a day of which an entry cannot be parsed.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class AggregateStoreTest extends CheckedTest
+{
+    /** the bucket size of 15 minutes. */
+    private static final long BUCKET = 15L * 60_000L;
+
+    /**
+     * @throws IOException when the store cannot be written
+     */
+    public AggregateStoreTest() throws IOException
+    {
+        Path directory = Files.createTempDirectory("aggregate-store-test");
+        AggregateStore store = new AggregateStore(directory);
+        Map<String, SiteMetadata> metadata = new TreeMap<>();
+        for (String id : new String[] {"s1", "s2", "s3", "s4"})
+            metadata.put(id, new SiteMetadata(id, "A15", "east", 51.9, 4.3, 2, id, null, Map.of()));
+
+        testMerge(store, metadata);
+        testDayLength(store, metadata, LocalDate.of(2024, 1, 8), 96);
+        testDayLength(store, metadata, LocalDate.of(2024, 3, 31), 92);
+        testDayLength(store, metadata, LocalDate.of(2024, 10, 27), 100);
+        testFailedEntry(store, metadata, directory);
+
+        for (LocalDate day : store.days())
+            Files.delete(store.dayFile(day));
+        Files.delete(directory);
+        report();
+    }
+
+    /**
+     * Write a day in two batches with the same bucket in both, and buckets that should be dropped, and read it back.
+     * @param store the store
+     * @param metadata the site metadata
+     * @throws IOException when the day file cannot be written
+     */
+    private void testMerge(final AggregateStore store, final Map<String, SiteMetadata> metadata) throws IOException
+    {
+        LocalDate day = LocalDate.of(2024, 1, 9);
+        long start = day.atStartOfDay(AggregateStore.ZONE).toInstant().toEpochMilli();
+        AggregateStore.DayBuilder builder = new AggregateStore.DayBuilder(metadata, BUCKET, day);
+
+        List<TrafficAggregator.AggregatedBucket> batch1 = new ArrayList<>();
+        batch1.add(bucket("s1", "A", start, 10.0, 2, 1000.0, 10.0, 0.0, 0));
+        batch1.add(bucket("s2", "B", start + 5 * BUCKET, 0.0, 0, 0.0, 0.0, 150.0, 2));
+        batch1.add(bucket("s3", "A", start + 95 * BUCKET, 7.0, 1, 0.0, 0.0, 0.0, 0));
+        batch1.add(bucket("s1", "A", start - BUCKET, 99.0, 1, 0.0, 0.0, 0.0, 0));
+        batch1.add(bucket("unknown", "A", start, 99.0, 1, 0.0, 0.0, 0.0, 0));
+        builder.add(batch1);
+
+        List<TrafficAggregator.AggregatedBucket> batch2 = new ArrayList<>();
+        batch2.add(bucket("s1", "A", start, 5.0, 1, 400.0, 5.0, 0.0, 0));
+        batch2.add(bucket("s1", "A", start + 96 * BUCKET, 99.0, 1, 0.0, 0.0, 0.0, 0));
+        batch2.add(bucket("s1", "A", Long.MAX_VALUE / 2, 99.0, 1, 0.0, 0.0, 0.0, 0));
+        builder.add(batch2);
+        check("dropped", builder.getNrDropped() == 3, builder.getNrDropped());
+        builder.write(store.dayFile(day));
+
+        try (AggregateStore.Day data = store.open(day))
+        {
+            check("nrBuckets", data.getNrBuckets() == 96, data.getNrBuckets());
+            check("first bucket", data.getBucketMillis(0) == start, data.getBucketMillis(0));
+            check("bucketIndex before day", data.bucketIndex(start - 1) == -1, data.bucketIndex(start - 1));
+            int last = data.bucketIndex(start + 96 * BUCKET - 1);
+            check("bucketIndex last", last == 95, last);
+            check("nrSites", data.getNrSites() == 3, data.getNrSites());
+            check("no data site", data.siteIndex("s4") == -1, data.siteIndex("s4"));
+            int a = data.getClassLabels().indexOf("A");
+            int b = data.getClassLabels().indexOf("B");
+
+            AggregateStore.SiteSeries s1 = data.readSite(data.siteIndex("s1"));
+            check("s1 flow", s1.flow(a, 0) == 15, s1.flow(a, 0));
+            check("s1 coverage", s1.coverage(a, 0) == 3, s1.coverage(a, 0));
+            check("s1 speed", Math.abs(s1.speed(a, 0) - 1400.0 / 15.0) < 1E-4, s1.speed(a, 0));
+            check("s1 empty bucket", s1.flow(a, 1) == 0 && Float.isNaN(s1.speed(a, 1)), s1.speed(a, 1));
+            check("s1 other class", Float.isNaN(s1.speed(b, 0)), s1.speed(b, 0));
+
+            AggregateStore.SiteSeries s2 = data.readSite(data.siteIndex("s2"));
+            check("s2 simple speed", s2.speed(b, 5) == 75.0f, s2.speed(b, 5));
+            check("s2 no flow", s2.flow(b, 5) == 0 && s2.coverage(b, 5) == 0, s2.flow(b, 5));
+
+            AggregateStore.SiteSeries s3 = data.readSite(data.siteIndex("s3"));
+            check("s3 last bucket", s3.flow(a, 95) == 7, s3.flow(a, 95));
+        }
+    }
+
+    /**
+     * Write an empty day and check the number of buckets.
+     * @param store the store
+     * @param metadata the site metadata
+     * @param day the day
+     * @param expected the expected number of buckets
+     * @throws IOException when the day file cannot be written
+     */
+    private void testDayLength(final AggregateStore store, final Map<String, SiteMetadata> metadata, final LocalDate day,
+            final int expected) throws IOException
+    {
+        store.write(day, metadata, BUCKET, List.of());
+        try (AggregateStore.Day data = store.open(day))
+        {
+            check("nrBuckets " + day, data.getNrBuckets() == expected, data.getNrBuckets());
+            check("nrSites " + day, data.getNrSites() == 0, data.getNrSites());
+        }
+    }
+
+    /**
+     * Import a zip file with an entry that is not gzipped, and check that the import fails and that the day is not stored.
+     * @param store the store
+     * @param metadata the site metadata
+     * @param directory the directory for the zip file
+     * @throws IOException when the zip file cannot be written
+     */
+    private void testFailedEntry(final AggregateStore store, final Map<String, SiteMetadata> metadata, final Path directory)
+            throws IOException
+    {
+        LocalDate day = LocalDate.of(2024, 1, 10);
+        Path zip = directory.resolve("NDW-2024-01-10-data.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip)))
+        {
+            out.putNextEntry(new ZipEntry("2024-01-10_08_00_00_trafficspeed.xml.gz"));
+            out.write("not gzipped".getBytes());
+            out.closeEntry();
+        }
+        Throwable thrown = null;
+        try
+        {
+            store.importDay(day, zip.toFile(), metadata, BUCKET, 2);
+        }
+        catch (Exception e)
+        {
+            thrown = e;
+        }
+        check("failed entry throws", thrown instanceof SimPortRuntimeException, thrown);
+        check("failed day not stored", !store.contains(day), store.days());
+        Files.delete(zip);
+    }
+
+    /**
+     * Make an aggregated bucket.
+     * @param siteId the site id
+     * @param classLabel the vehicle class label
+     * @param bucketId the bucket in milliseconds since the epoch
+     * @param flow the total flow
+     * @param flowSamples the number of flow samples
+     * @param speedWeightedSum the weighted sum of the speeds
+     * @param speedWeight the sum of the speed weights
+     * @param speedSimpleSum the unweighted sum of the speeds
+     * @param speedSamples the number of speed samples
+     * @return the aggregated bucket
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    private static TrafficAggregator.AggregatedBucket bucket(final String siteId, final String classLabel, final long bucketId,
+            final double flow, final long flowSamples, final double speedWeightedSum, final double speedWeight,
+            final double speedSimpleSum, final long speedSamples)
+    {
+        TrafficAggregator.AggregatedBucket b = new TrafficAggregator.AggregatedBucket(siteId, classLabel, bucketId);
+        b.totalFlow = flow;
+        b.countSamplesFlow = flowSamples;
+        b.speedWeightedSum = speedWeightedSum;
+        b.speedWeight = speedWeight;
+        b.speedSimpleSum = speedSimpleSum;
+        b.countSamplesSpeed = speedSamples;
+        return b;
+    }
+
+    /**
+     * @param args none
+     * @throws IOException when the store cannot be written
+     */
+    public static void main(final String[] args) throws IOException
+    {
+        new AggregateStoreTest();
+    }
+
+}
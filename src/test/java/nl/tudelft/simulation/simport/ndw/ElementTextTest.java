@@ -0,0 +1,166 @@
+package nl.tudelft.simulation.simport.ndw;
+
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.Random;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import nl.tudelft.simulation.simport.util.CheckedTest;
+
+/**
+ * ElementTextTest reads element texts with the ElementText of the DailyDataProcessor from a StAX reader, and compares
+ * ElementText.parseDouble() with Double.parseDouble() of the text, which it replaces, for plain decimal numbers up to and
+ * beyond 15 digits, exponents, signs, whitespace, comments and CDATA in the element, and texts that are not a number.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ElementTextTest extends CheckedTest
+{
+    /** the number of random numbers. */
+    private static final int N = 200_000;
+
+    /** the StAX input factory. */
+    private final XMLInputFactory factory = XMLInputFactory.newInstance();
+
+    /** the element text, which is reused for all elements. */
+    private final DailyDataProcessor.ElementText text = new DailyDataProcessor.ElementText();
+
+    /**
+     * @throws XMLStreamException on a parse error
+     */
+    public ElementTextTest() throws XMLStreamException
+    {
+        testFixed();
+        testRandom(new Random(22L));
+        testElement();
+        report();
+    }
+
+    /**
+     * Test numbers at the edges of the fast path, and texts that are not a number.
+     * @throws XMLStreamException on a parse error
+     */
+    private void testFixed() throws XMLStreamException
+    {
+        String[] texts = {"0", "-0", "+0", "0.0", "-0.0", "1", "-1", "+1", "1.", ".5", "-.5", "00012.5000", "60", "104.3",
+                "0.1", "0.3", "123456789012345", "999999999999999", "1000000000000000", "12345678901234567890",
+                "0.123456789012345", "0.1234567890123456", "1234567.89012345", "9007199254740993", "9.007199254740993",
+                "1E3", "1e-3", "-2.5E+10", "1.7976931348623157E308", "4.9E-324", "1E400", "Infinity", "-Infinity", "NaN",
+                "0x1p3", "1d", "2.5f", " 42 ", "\t\n-3.25\r\n", "  ", "", ".", "-", "+", "-.", "1.2.3", "1-2", "--1", "abc",
+                "12a", "1,5", "true"};
+        for (String t : texts)
+            compare(t);
+    }
+
+    /**
+     * Test random plain decimal numbers with 1 to 20 digits and a random position of the decimal point.
+     * @param random the random generator
+     */
+    private void testRandom(final Random random)
+    {
+        for (int i = 0; i < N; i++)
+        {
+            int nrDigits = 1 + random.nextInt(20);
+            StringBuilder sb = new StringBuilder();
+            if (random.nextInt(4) == 0)
+                sb.append('-');
+            for (int d = 0; d < nrDigits; d++)
+                sb.append((char) ('0' + random.nextInt(10)));
+            if (random.nextBoolean())
+                sb.insert(sb.length() - random.nextInt(nrDigits + 1), '.');
+            compare(sb.toString());
+        }
+        for (int i = 0; i < N / 10; i++)
+        {
+            double v = Double.longBitsToDouble(random.nextLong() & 0x7FEFFFFFFFFFFFFFL);
+            compare(Double.toString(v));
+            compare(String.format(Locale.ROOT, "%.3f", random.nextDouble() * 200.0));
+        }
+    }
+
+    /**
+     * Test the reading of element texts with comments and CDATA, the comparison of the text, and elements with children.
+     * @throws XMLStreamException on a parse error
+     */
+    private void testElement() throws XMLStreamException
+    {
+        read("<v>1<!-- comment -->2.5</v>");
+        check("comment", this.text.parseDouble() == 12.5, this.text.parseDouble());
+        read("<v><![CDATA[ 7.25 ]]></v>");
+        check("cdata", this.text.parseDouble() == 7.25, this.text.parseDouble());
+        read("<v>" + "1234567890".repeat(20) + "</v>");
+        check("long text", this.text.parseDouble() == Double.parseDouble("1234567890".repeat(20)), this.text.parseDouble());
+        read("<v>TRUE</v>");
+        check("equalsIgnoreCase true", this.text.equalsIgnoreCase("true"), "TRUE");
+        check("equalsIgnoreCase false", !this.text.equalsIgnoreCase("false"), "TRUE");
+        read("<v></v>");
+        check("empty", Double.isNaN(this.text.parseDouble()) && !this.text.equalsIgnoreCase("true"), "");
+        boolean thrown = false;
+        try
+        {
+            read("<v>1<w>2</w></v>");
+        }
+        catch (XMLStreamException exception)
+        {
+            thrown = true;
+        }
+        check("child element", thrown, "no exception");
+    }
+
+    /**
+     * Read the text of a single element with the element text.
+     * @param xml the xml document with one element
+     * @throws XMLStreamException on a parse error
+     */
+    private void read(final String xml) throws XMLStreamException
+    {
+        XMLStreamReader reader = this.factory.createXMLStreamReader(new StringReader(xml));
+        reader.nextTag();
+        this.text.read(reader);
+        reader.close();
+    }
+
+    /**
+     * Compare ElementText.parseDouble() with Double.parseDouble(), where a text that is not a number gives NaN.
+     * @param t the text of the element, without characters that have to be escaped in xml
+     */
+    private void compare(final String t)
+    {
+        double expected;
+        try
+        {
+            expected = Double.parseDouble(t);
+        }
+        catch (NumberFormatException exception)
+        {
+            expected = Double.NaN;
+        }
+        try
+        {
+            read("<v>" + t + "</v>");
+        }
+        catch (XMLStreamException exception)
+        {
+            check("[" + t + "]", false, exception.getMessage());
+            return;
+        }
+        double actual = this.text.parseDouble();
+        check("[" + t + "]", Double.doubleToLongBits(expected) == Double.doubleToLongBits(actual), expected + " vs " + actual);
+    }
+
+    /**
+     * @param args none
+     * @throws XMLStreamException on a parse error
+     */
+    public static void main(final String[] args) throws XMLStreamException
+    {
+        new ElementTextTest();
+    }
+
+}
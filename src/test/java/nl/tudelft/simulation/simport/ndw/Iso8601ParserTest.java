@@ -0,0 +1,148 @@
+package nl.tudelft.simulation.simport.ndw;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+import nl.tudelft.simulation.simport.util.CheckedTest;
+
+/**
+ * Iso8601ParserTest compares the Iso8601Parser with Instant.parse(), which it replaces, for random timestamps in UTC and with
+ * zone offsets, with 0 to 9 digits of the fraction of a second, for series of timestamps in the same minute that hit the
+ * minute cache, for leap days, and for texts that are not handled by the fast path or that are not valid timestamps. The
+ * parser ignores whitespace around the timestamp, so it is compared with Instant.parse() of the stripped text.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class Iso8601ParserTest extends CheckedTest
+{
+    /** the number of random timestamps. */
+    private static final int N = 200_000;
+
+    /** the parser, which is reused for all timestamps to exercise the minute cache. */
+    private final Iso8601Parser parser = new Iso8601Parser();
+
+    /** Run the tests. */
+    public Iso8601ParserTest()
+    {
+        testFixed();
+        testRandom(new Random(22L));
+        testSameMinute();
+        testOffsetInText();
+        report();
+    }
+
+    /** Test timestamps at the edges of the fast path, and texts that fall back to Instant.parse() or are invalid. */
+    private void testFixed()
+    {
+        String[] texts = {"2025-03-31T14:05:00Z", "2025-03-31T16:05:00.000+02:00", "2025-03-31T10:05:00-04:00",
+                "2025-03-31t14:05:00z", "1970-01-01T00:00:00Z", "1969-12-31T23:59:59.999Z", "2024-02-29T12:00:00Z",
+                "2000-02-29T00:00:00Z", "2100-02-28T23:59:59Z", "0001-01-01T00:00:00Z", "9999-12-31T23:59:59.999999999Z",
+                "2025-01-01T00:00:00.5Z", "2025-01-01T00:00:00.12Z", "2025-01-01T00:00:00.1234Z",
+                "2025-01-01T00:00:00.123456789+01:00", "2025-01-01T00:00:00+18:00", "2025-01-01T00:00:00-18:00",
+                "2025-06-30T23:59:60Z", "  2025-03-31T14:05:00Z", "2025-03-31T14:05:00Z\n\t",
+                " \r\n2025-03-31T14:05:00.250+01:00 ",
+                // fallback or invalid
+                "2025-03-31T14:05Z", "2025-03-31T14:05:00", "2025-03-31T14:05:00+0200", "2025-03-31T14:05:00+02",
+                "2025-03-31T14:05:00.Z", "2025-03-31T14:05:00.1234567890Z", "2025-03-31T14:05:00+18:30",
+                "2025-03-31T14:05:00+19:00", "2025-02-29T00:00:00Z", "2100-02-29T00:00:00Z", "2025-04-31T00:00:00Z",
+                "2025-13-01T00:00:00Z", "2025-00-01T00:00:00Z", "2025-01-00T00:00:00Z", "2025-01-01T24:00:00Z",
+                "2025-01-01T00:60:00Z", "2025-01-01T00:00:61Z", "2025-01-01 00:00:00Z", "2025/01/01T00:00:00Z",
+                "+12025-01-01T00:00:00Z", "-0001-01-01T00:00:00Z", "2025-01-01T00:00:00ZZ", "2025-01-01T00:00:00+02:00Z",
+                "x025-01-01T00:00:00Z", "2025-01-01T00:00:0xZ", "", "   ", "Z", "2025-01-01T00:00:00+02:0x"};
+        for (String text : texts)
+            compare(text);
+    }
+
+    /**
+     * Test random timestamps in UTC and with an offset, with a random number of fraction digits.
+     * @param random the random generator
+     */
+    private void testRandom(final Random random)
+    {
+        for (int i = 0; i < N; i++)
+        {
+            long second = -2_000_000_000L + (long) (random.nextDouble() * 8_000_000_000L);
+            LocalDateTime time = LocalDateTime.ofEpochSecond(second, random.nextInt(1_000_000_000), ZoneOffset.UTC);
+            StringBuilder sb = new StringBuilder(time.format(DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss")));
+            int nrDigits = random.nextInt(10);
+            if (nrDigits > 0)
+                sb.append('.').append(String.format(Locale.ROOT, "%09d", time.getNano()), 0, nrDigits);
+            if (random.nextBoolean())
+                sb.append(random.nextBoolean() ? 'Z' : 'z');
+            else
+            {
+                int minutes = random.nextInt(18 * 60 + 1);
+                sb.append(String.format(Locale.ROOT, "%c%02d:%02d", random.nextBoolean() ? '+' : '-', minutes / 60,
+                        minutes % 60));
+            }
+            compare(sb.toString());
+        }
+    }
+
+    /** Test a series of timestamps in the same minute and the next minutes, which hit and refresh the minute cache. */
+    private void testSameMinute()
+    {
+        LocalDateTime start = LocalDateTime.of(2024, 12, 31, 23, 58);
+        for (int minute = 0; minute < 4; minute++)
+        {
+            String prefix = start.plusMinutes(minute).format(DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm"));
+            for (int second = 0; second < 60; second += 7)
+            {
+                compare(String.format(Locale.ROOT, "%s:%02d.%03dZ", prefix, second, 17 * second));
+                compare(String.format(Locale.ROOT, "%s:%02d+01:00", prefix, second));
+            }
+        }
+    }
+
+    /** Test a timestamp in the middle of a larger char array, as in the text buffer of a StAX reader. */
+    private void testOffsetInText()
+    {
+        char[] buffer = "<t>2025-03-31T16:05:07.125+02:00</t>".toCharArray();
+        long expected = Instant.parse("2025-03-31T16:05:07.125+02:00").toEpochMilli();
+        check("offset in buffer", this.parser.parseEpochMillis(buffer, 3, 29) == expected, buffer);
+    }
+
+    /**
+     * Compare the parser with Instant.parse() of the stripped text; both have to give the same value or both have to throw.
+     * @param text the timestamp
+     */
+    private void compare(final String text)
+    {
+        String expected;
+        try
+        {
+            expected = Long.toString(Instant.parse(text.strip()).toEpochMilli());
+        }
+        catch (RuntimeException exception)
+        {
+            expected = "exception";
+        }
+        String actual;
+        try
+        {
+            char[] buffer = ("##" + text + "##").toCharArray();
+            actual = Long.toString(this.parser.parseEpochMillis(buffer, 2, text.length()));
+        }
+        catch (RuntimeException exception)
+        {
+            actual = "exception";
+        }
+        check("[" + text + "]", expected.equals(actual), expected + " vs " + actual);
+    }
+
+    /**
+     * @param args none
+     */
+    public static void main(final String[] args)
+    {
+        new Iso8601ParserTest();
+    }
+
+}
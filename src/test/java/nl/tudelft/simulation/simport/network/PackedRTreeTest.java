@@ -0,0 +1,249 @@
+package nl.tudelft.simulation.simport.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntToDoubleFunction;
+
+import nl.tudelft.simulation.simport.util.CheckedTest;
+
+/**
+ * PackedRTreeTest compares the box search and the nearest search of the PackedRTree with a linear scan over the same items,
+ * for random line segments and points in WGS84 coordinates around Rotterdam. It also checks that the spatial index of a
+ * RoadNetwork is rebuilt when a link is replaced without changing the number of links, and that the centroid area of a point
+ * in overlapping areas is the first area of the network.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class PackedRTreeTest extends CheckedTest
+{
+    /** the number of segments and points. */
+    private static final int N = 5000;
+
+    /** the number of queries. */
+    private static final int NR_QUERIES = 500;
+
+    /** the tolerance in degrees for the outward rounding of the float boxes. */
+    private static final double EPS = 1E-5;
+
+    /** the tolerance in meters for the distances of segments, which are calculated exactly on the items. */
+    private static final double SEGMENT_EPS = 1E-6;
+
+    /**
+     * the tolerance in meters for the distances of points, which are calculated on the float boxes; one float ulp of the
+     * latitude is about 0.4 m.
+     */
+    private static final double POINT_EPS = 1.0;
+
+    /** */
+    public PackedRTreeTest()
+    {
+        Random random = new Random(25L);
+        testSegments(random);
+        testPoints(random);
+        testEmpty();
+        testSpatialIndex();
+        report();
+    }
+
+    /**
+     * Test the box search and the nearest search over line segments.
+     * @param random the random generator
+     */
+    private void testSegments(final Random random)
+    {
+        double[][] segments = new double[N][];
+        List<Integer> items = new ArrayList<>();
+        double[] minX = new double[N];
+        double[] minY = new double[N];
+        double[] maxX = new double[N];
+        double[] maxY = new double[N];
+        for (int i = 0; i < N; i++)
+        {
+            double ax = 4.0 + random.nextDouble();
+            double ay = 51.8 + 0.3 * random.nextDouble();
+            double bx = ax + 0.01 * random.nextGaussian();
+            double by = ay + 0.01 * random.nextGaussian();
+            segments[i] = new double[] {ax, ay, bx, by};
+            items.add(i);
+            minX[i] = Math.min(ax, bx);
+            minY[i] = Math.min(ay, by);
+            maxX[i] = Math.max(ax, bx);
+            maxY[i] = Math.max(ay, by);
+        }
+        PackedRTree<Integer> tree = new PackedRTree<>(items, minX, minY, maxX, maxY);
+        check("size", tree.size() == N, tree.size());
+
+        for (int q = 0; q < NR_QUERIES; q++)
+        {
+            double x0 = 4.0 + random.nextDouble();
+            double y0 = 51.8 + 0.3 * random.nextDouble();
+            double x1 = x0 + 0.05 * random.nextDouble();
+            double y1 = y0 + 0.05 * random.nextDouble();
+            Set<Integer> found = new HashSet<>(tree.search(x0, y0, x1, y1));
+            Set<Integer> indexes = new HashSet<>();
+            tree.searchIndexes(x0, y0, x1, y1, indexes::add);
+            check("searchIndexes " + q, indexes.equals(found), indexes.size() + " instead of " + found.size());
+            for (int i = 0; i < N; i++)
+            {
+                boolean exact = minX[i] <= x1 && maxX[i] >= x0 && minY[i] <= y1 && maxY[i] >= y0;
+                boolean near = minX[i] <= x1 + EPS && maxX[i] >= x0 - EPS && minY[i] <= y1 + EPS && maxY[i] >= y0 - EPS;
+                if (exact && !found.contains(i))
+                    check("search " + q + " misses item", false, i);
+                if (!near && found.contains(i))
+                    check("search " + q + " returns item outside the box", false, i);
+            }
+
+            double x = 4.0 + random.nextDouble();
+            double y = 51.8 + 0.3 * random.nextDouble();
+            double xScale = SpatialIndex.metersPerDegreeLon(y);
+            double yScale = SpatialIndex.METERS_PER_DEGREE;
+            int k = 1 + random.nextInt(8);
+            double maxDistance = 200.0 + 2000.0 * random.nextDouble();
+            PackedRTree.ItemDistance<Integer> distance = (item, px, py) -> PackedRTree.segmentDistance(px, py,
+                    segments[item][0], segments[item][1], segments[item][2], segments[item][3], xScale, yScale);
+            List<Integer> nearest = tree.nearest(x, y, k, maxDistance, xScale, yScale, distance);
+            double[] linear = new double[N];
+            for (int i = 0; i < N; i++)
+                linear[i] = distance.distance(i, x, y);
+            compareNearest("segments " + q, nearest, linear, k, maxDistance, SEGMENT_EPS,
+                    i -> distance.distance(i, x, y));
+        }
+    }
+
+    /**
+     * Test the nearest search over points, which uses the distance to the boxes of the items.
+     * @param random the random generator
+     */
+    private void testPoints(final Random random)
+    {
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < N; i++)
+            points.add(new double[] {4.0 + random.nextDouble(), 51.8 + 0.3 * random.nextDouble()});
+        PackedRTree<double[]> tree = PackedRTree.ofPoints(points, p -> p[0], p -> p[1]);
+        for (int q = 0; q < NR_QUERIES; q++)
+        {
+            double x = 4.0 + random.nextDouble();
+            double y = 51.8 + 0.3 * random.nextDouble();
+            double xScale = SpatialIndex.metersPerDegreeLon(y);
+            double yScale = SpatialIndex.METERS_PER_DEGREE;
+            int k = 1 + random.nextInt(8);
+            double maxDistance = 300.0 + 3000.0 * random.nextDouble();
+            List<double[]> nearest = tree.nearest(x, y, k, maxDistance, xScale, yScale);
+            double[] linear = new double[N];
+            for (int i = 0; i < N; i++)
+                linear[i] = Math.hypot((points.get(i)[0] - x) * xScale, (points.get(i)[1] - y) * yScale);
+            List<Integer> indexes = new ArrayList<>();
+            for (double[] p : nearest)
+                indexes.add(points.indexOf(p));
+            compareNearest("points " + q, indexes, linear, k, maxDistance, POINT_EPS, i -> linear[i]);
+        }
+    }
+
+    /**
+     * Compare the result of a nearest search with the k smallest distances of a linear scan. The distances of the tree can
+     * differ by a tolerance from the exact distances, so items with almost the same distance can swap places, and an item
+     * at almost the maximum distance can be in or out of the result.
+     * @param name the name of the query
+     * @param nearest the item numbers that the tree returned, nearest first
+     * @param linear the distances of all items
+     * @param k the maximum number of items
+     * @param maxDistance the maximum distance
+     * @param eps the tolerance for the distances
+     * @param distance the exact distance of an item
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    private void compareNearest(final String name, final List<Integer> nearest, final double[] linear, final int k,
+            final double maxDistance, final double eps, final IntToDoubleFunction distance)
+    {
+        double[] sorted = linear.clone();
+        Arrays.sort(sorted);
+        int minExpected = 0;
+        while (minExpected < k && sorted[minExpected] <= maxDistance - eps)
+            minExpected++;
+        int maxExpected = 0;
+        while (maxExpected < k && sorted[maxExpected] <= maxDistance + eps)
+            maxExpected++;
+        if (nearest.size() < minExpected || nearest.size() > maxExpected)
+        {
+            check(name + " number of items", false, nearest.size() + " instead of " + minExpected + ".." + maxExpected);
+            return;
+        }
+        for (int r = 0; r < nearest.size(); r++)
+        {
+            double d = distance.applyAsDouble(nearest.get(r));
+            if (Math.abs(d - sorted[r]) > eps)
+                check(name + " rank " + r, false, d + " instead of " + sorted[r]);
+        }
+    }
+
+    /** Test the searches on an empty tree. */
+    private void testEmpty()
+    {
+        PackedRTree<Integer> tree = new PackedRTree<>(List.of(), new double[0], new double[0], new double[0], new double[0]);
+        check("empty search", tree.search(0.0, 0.0, 10.0, 10.0).isEmpty(), tree.size());
+        check("empty nearest", tree.nearest(0.0, 0.0, 3, 1E9, 1.0, 1.0).isEmpty(), tree.size());
+    }
+
+    /** Test that the spatial index of a network follows the changes to the network. */
+    private void testSpatialIndex()
+    {
+        RoadNetwork network = new RoadNetwork(null);
+        RoadNode a = new RoadNode(4.0, 51.9);
+        RoadNode b = new RoadNode(4.01, 51.9);
+        RoadNode c = new RoadNode(4.5, 52.0);
+        RoadNode d = new RoadNode(4.51, 52.0);
+        network.addRoadLink(new RoadLink("L1", a, b));
+        network.addRoadLink(new RoadLink("L2", c, d));
+        SpatialIndex index = network.getSpatialIndex();
+        check("same index", network.getSpatialIndex() == index, "rebuilt");
+        RoadLink nearest = index.nearestLink(4.005, 51.9001, 100.0);
+        check("nearest before", nearest != null && nearest.getId().equals("L1"), nearest);
+
+        // replace L1 by a link far away; the number of links stays the same
+        network.addRoadLink(new RoadLink("L1", new RoadNode(5.0, 52.2), new RoadNode(5.01, 52.2)));
+        SpatialIndex rebuilt = network.getSpatialIndex();
+        check("index rebuilt after replace", rebuilt != index, "not rebuilt");
+        check("nearest after replace", rebuilt.nearestLink(4.005, 51.9001, 100.0) == null, "old link found");
+
+        network.addDetector(new Detector("D1", 4.505, 52.0, network.getRoadLinkMap().get("L2")));
+        check("detector", network.getSpatialIndex().detectors(4.5, 51.99, 4.51, 52.01).size() == 1, "no detector");
+        check("remove detector", network.removeDetector(network.getDetectorList().get(0)), "not removed");
+        check("detector removed", network.getSpatialIndex().detectors(4.5, 51.99, 4.51, 52.01).isEmpty(), "detector");
+
+        CentroidArea large =
+                new CentroidArea("large", new double[] {4.0, 4.2, 4.2, 4.0}, new double[] {51.8, 51.8, 52.0, 52.0});
+        CentroidArea small = new CentroidArea("small", new double[] {4.1, 4.15, 4.15}, new double[] {51.9, 51.9, 51.95});
+        network.addCentroidArea(small);
+        network.addCentroidArea(large);
+        check("first area", network.getSpatialIndex().centroidArea(4.14, 51.91) == small, "not the first area");
+        check("other area", network.getSpatialIndex().centroidArea(4.05, 51.85) == large, "not the large area");
+        check("no area", network.getSpatialIndex().centroidArea(4.5, 52.5) == null, "area outside");
+        network.removeCentroidArea(small);
+        check("area removed", network.getSpatialIndex().centroidArea(4.14, 51.91) == large, "removed area found");
+        try
+        {
+            network.getRoadLinkMap().clear();
+            check("unmodifiable links", false, "links could be cleared");
+        }
+        catch (UnsupportedOperationException e)
+        {
+            // expected: the links can only be changed with addRoadLink and removeRoadLink
+        }
+    }
+
+    /**
+     * @param args none
+     */
+    public static void main(final String[] args)
+    {
+        new PackedRTreeTest();
+    }
+
+}
@@ -0,0 +1,104 @@
+package nl.tudelft.simulation.simport.network;
+
+import org.djunits.unit.SpeedUnit;
+import org.djunits.value.vdouble.scalar.Speed;
+
+import nl.tudelft.simulation.simport.util.CheckedTest;
+
+/**
+ * RoadNetworkTest checks that the travel time matrix of a RoadNetwork follows the changes to the network: it is built again
+ * when a link is replaced or a centroid is added after it was built, and it is not built again when only a detector is added.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class RoadNetworkTest extends CheckedTest
+{
+    /** the speed for straight-line driving. */
+    private static final Speed STRAIGHT = new Speed(10.0, SpeedUnit.KM_PER_HOUR);
+
+    /** Run the tests. */
+    public RoadNetworkTest()
+    {
+        testTravelTimeMatrix();
+        report();
+    }
+
+    /** Test that the travel time matrix is built again after the links or centroids change. */
+    private void testTravelTimeMatrix()
+    {
+        RoadNetwork network = new RoadNetwork(null);
+        RoadNode a = new RoadNode(4.0, 51.9);
+        RoadNode b = new RoadNode(4.1, 51.9);
+        RoadNode c = new RoadNode(4.2, 51.9);
+        for (RoadNode node : new RoadNode[] {a, b, c})
+            network.getRoadNodeMap().put(node, node);
+        network.addRoadLink(link("L1", a, b, 50.0));
+        network.addRoadLink(link("L2", b, c, 50.0));
+        Centroid c1 = centroid(network, "C1", 4.0, 51.9);
+        Centroid c2 = centroid(network, "C2", 4.1, 51.9);
+        network.buildTravelTimeMatrix();
+        TravelTimeMatrix matrix = network.getTravelTimeMatrix();
+        check("matrix built", matrix != null, null);
+        double slow = network.drivingTime(c1, c2, STRAIGHT).si;
+        check("same matrix", network.getTravelTimeMatrix() == matrix, "rebuilt without changes");
+
+        network.addDetector(new Detector("D1", 4.05, 51.9, network.getRoadLinkMap().get("L1")));
+        network.drivingTime(c1, c2, STRAIGHT);
+        check("not rebuilt for a detector", network.getTravelTimeMatrix() == matrix, "rebuilt");
+
+        // replace L1 by a faster link; the number of links stays the same
+        network.addRoadLink(link("L1", a, b, 80.0));
+        double fast = network.drivingTime(c1, c2, STRAIGHT).si;
+        check("rebuilt after replace", network.getTravelTimeMatrix() != matrix, "not rebuilt");
+        check("faster after replace", fast < slow, fast + " vs " + slow);
+
+        // a centroid that is added after the build is routed over the network, not with the straight-line speed
+        Centroid c3 = centroid(network, "C3", 4.2, 51.9);
+        double straight = RoadNetwork.haversineSI(51.9, 4.0, 51.9, 4.2) / STRAIGHT.si;
+        double routed = network.drivingTime(c1, c3, STRAIGHT).si;
+        check("new centroid routed", routed < straight / 2.0, routed + " vs " + straight);
+    }
+
+    /**
+     * Make a link with a maximum speed.
+     * @param id the link id
+     * @param from the from node
+     * @param to the to node
+     * @param kmh the maximum speed in km/h
+     * @return the link
+     */
+    private static RoadLink link(final String id, final RoadNode from, final RoadNode to, final double kmh)
+    {
+        RoadLink link = new RoadLink(id, from, to);
+        link.setMaxSpeed(new Speed(kmh, SpeedUnit.KM_PER_HOUR));
+        return link;
+    }
+
+    /**
+     * Add a centroid to the network.
+     * @param network the network
+     * @param id the id and eid of the centroid
+     * @param lon the longitude
+     * @param lat the latitude
+     * @return the centroid
+     */
+    private static Centroid centroid(final RoadNetwork network, final String id, final double lon, final double lat)
+    {
+        Centroid centroid = new Centroid(id, lon, lat);
+        centroid.setEid(id);
+        network.addCentroid(id, centroid);
+        return centroid;
+    }
+
+    /**
+     * @param args none
+     */
+    public static void main(final String[] args)
+    {
+        new RoadNetworkTest();
+    }
+
+}
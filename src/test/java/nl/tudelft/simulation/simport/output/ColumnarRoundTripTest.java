@@ -0,0 +1,231 @@
+package nl.tudelft.simulation.simport.output;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import nl.tudelft.simulation.simport.util.CheckedTest;
+
+/**
+ * ColumnarRoundTripTest writes a columnar file with INT, LONG, DOUBLE and STRING columns and reads it back. The values contain
+ * nulls, the extremes of each type, and LONG sequences whose delta is Long.MIN_VALUE or overflows. The range scans are checked
+ * against a filter over the written values, including a LONG range above 2^53 that a double cannot represent, and the number
+ * of row groups that the footer statistics skip.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class ColumnarRoundTripTest extends CheckedTest
+{
+    /** the number of rows in a row group, small so the file has many row groups. */
+    private static final int ROW_GROUP_SIZE = 8;
+
+    /** 2^53, the first long above which not every long is a double. */
+    private static final long P53 = 1L << 53;
+
+    /** the column names. */
+    private static final String[] NAMES = {"i", "l", "d", "s"};
+
+    /** the column types. */
+    private static final ColumnType[] TYPES = {ColumnType.INT, ColumnType.LONG, ColumnType.DOUBLE, ColumnType.STRING};
+
+    /** the INT values. */
+    private final List<Integer> ints = new ArrayList<>();
+
+    /** the LONG values. */
+    private final List<Long> longs = new ArrayList<>();
+
+    /** the DOUBLE values. */
+    private final List<Double> doubles = new ArrayList<>();
+
+    /** the STRING values. */
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * @throws IOException when the file cannot be written or read
+     */
+    public ColumnarRoundTripTest() throws IOException
+    {
+        long[] extremes = {Long.MAX_VALUE, Long.MIN_VALUE + 1, -1L, Long.MAX_VALUE, 1L, Long.MIN_VALUE + 1, 0L, Long.MAX_VALUE,
+                Long.MIN_VALUE + 1, Long.MAX_VALUE, ColumnarWriter.NULL_LONG, Long.MAX_VALUE, Long.MIN_VALUE + 1};
+        for (long l : extremes)
+            add(Integer.MAX_VALUE, l, Double.MAX_VALUE, "extreme");
+        add(Integer.MIN_VALUE + 1, -1L, -Double.MAX_VALUE, "");
+        add(ColumnarWriter.NULL_INT, ColumnarWriter.NULL_LONG, Double.NaN, null);
+        add(0, 0L, -0.0, "ü");
+        Random random = new Random(5L);
+        for (int k = 0; k < 200; k++)
+        {
+            long l = random.nextInt(10) == 0 ? ColumnarWriter.NULL_LONG : P53 + k;
+            int i = random.nextInt(10) == 0 ? ColumnarWriter.NULL_INT : k - 100;
+            double d = random.nextInt(10) == 0 ? Double.NaN : k * 0.5;
+            String s = random.nextInt(10) == 0 ? null : "s" + (k % 7);
+            add(i, l, d, s);
+        }
+
+        Path path = Files.createTempFile("columnar", ".col");
+        try (ColumnarWriter writer = new ColumnarWriter(path, NAMES, TYPES, ROW_GROUP_SIZE))
+        {
+            for (int r = 0; r < this.longs.size(); r++)
+            {
+                if (this.ints.get(r) != ColumnarWriter.NULL_INT)
+                    writer.setInt(0, this.ints.get(r));
+                if (this.longs.get(r) != ColumnarWriter.NULL_LONG)
+                    writer.setLong(1, this.longs.get(r));
+                if (!Double.isNaN(this.doubles.get(r)))
+                    writer.setDouble(2, this.doubles.get(r));
+                writer.setString(3, this.strings.get(r));
+                writer.endRow();
+            }
+        }
+        try (ColumnarReader reader = new ColumnarReader(path))
+        {
+            check("nrRows", reader.getNrRows() == this.longs.size(), reader.getNrRows());
+            testAll(reader);
+            testLongRange(reader, P53 + 1, P53 + 1);
+            testLongRange(reader, P53 + 50, P53 + 57);
+            testLongRange(reader, Long.MAX_VALUE, Long.MAX_VALUE);
+            testLongRange(reader, Long.MIN_VALUE + 1, Long.MIN_VALUE + 1);
+            testLongRange(reader, P53 + 1000, P53 + 2000);
+            testDoubleRange(reader, "d", 10.0, 20.0);
+            testDoubleRange(reader, "i", -5.0, 5.0);
+        }
+        Files.delete(path);
+        report();
+    }
+
+    /**
+     * Add a row to the expected values.
+     * @param i the INT value
+     * @param l the LONG value
+     * @param d the DOUBLE value
+     * @param s the STRING value
+     */
+    private void add(final int i, final long l, final double d, final String s)
+    {
+        this.ints.add(i);
+        this.longs.add(l);
+        this.doubles.add(d);
+        this.strings.add(s);
+    }
+
+    /**
+     * Read all rows and compare them with the written values.
+     * @param reader the reader
+     * @throws IOException on i/o error
+     */
+    private void testAll(final ColumnarReader reader) throws IOException
+    {
+        int[] r = {0};
+        reader.scan(NAMES, row ->
+        {
+            int k = r[0]++;
+            check("int row " + k, row.getInt(0) == this.ints.get(k), row.getInt(0));
+            check("long row " + k, row.getLong(1) == this.longs.get(k), row.getLong(1));
+            check("long null row " + k, row.isNull(1) == (this.longs.get(k) == ColumnarWriter.NULL_LONG), row.isNull(1));
+            check("double row " + k, Double.compare(row.getDouble(2), this.doubles.get(k)) == 0, row.getDouble(2));
+            check("string row " + k, row.isNull(3) ? this.strings.get(k) == null : row.getString(3).equals(this.strings.get(k)),
+                    row.getString(3));
+        });
+        check("rows read", r[0] == this.longs.size(), r[0]);
+    }
+
+    /**
+     * Scan a LONG range and compare the rows and the skipped row groups with a filter over the written values.
+     * @param reader the reader
+     * @param from the lowest value of the range
+     * @param to the highest value of the range
+     * @throws IOException on i/o error
+     */
+    private void testLongRange(final ColumnarReader reader, final long from, final long to) throws IOException
+    {
+        List<Integer> expected = new ArrayList<>();
+        int expectedSkipped = 0;
+        for (int g = 0; g * ROW_GROUP_SIZE < this.longs.size(); g++)
+        {
+            boolean hit = false;
+            for (int r = g * ROW_GROUP_SIZE; r < Math.min(this.longs.size(), (g + 1) * ROW_GROUP_SIZE); r++)
+            {
+                long l = this.longs.get(r);
+                if (l != ColumnarWriter.NULL_LONG && l >= from && l <= to)
+                {
+                    expected.add(r);
+                    hit = true;
+                }
+            }
+            if (!hit && !overlaps(g, from, to))
+                expectedSkipped++;
+        }
+        List<Long> found = new ArrayList<>();
+        reader.scan(new String[] {"l"}, "l", from, to, row -> found.add(row.getLong(0)));
+        List<Long> expectedValues = new ArrayList<>();
+        for (int r : expected)
+            expectedValues.add(this.longs.get(r));
+        check("long range [" + from + "," + to + "]", found.equals(expectedValues), found);
+        check("long range [" + from + "," + to + "] skipped", reader.getNrSkippedRowGroups() == expectedSkipped,
+                reader.getNrSkippedRowGroups() + " instead of " + expectedSkipped);
+    }
+
+    /**
+     * @param g the row group
+     * @param from the lowest value of the range
+     * @param to the highest value of the range
+     * @return whether the minimum and maximum of the LONG values of the row group overlap the range
+     */
+    private boolean overlaps(final int g, final long from, final long to)
+    {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int r = g * ROW_GROUP_SIZE; r < Math.min(this.longs.size(), (g + 1) * ROW_GROUP_SIZE); r++)
+        {
+            long l = this.longs.get(r);
+            if (l != ColumnarWriter.NULL_LONG)
+            {
+                min = Math.min(min, l);
+                max = Math.max(max, l);
+            }
+        }
+        return min <= max && max >= from && min <= to;
+    }
+
+    /**
+     * Scan a range of an INT or DOUBLE column and compare the number of rows with a filter over the written values.
+     * @param reader the reader
+     * @param column the name of the column
+     * @param from the lowest value of the range
+     * @param to the highest value of the range
+     * @throws IOException on i/o error
+     */
+    private void testDoubleRange(final ColumnarReader reader, final String column, final double from, final double to)
+            throws IOException
+    {
+        int expected = 0;
+        for (int r = 0; r < this.longs.size(); r++)
+        {
+            double v = column.equals("d") ? this.doubles.get(r)
+                    : this.ints.get(r) == ColumnarWriter.NULL_INT ? Double.NaN : this.ints.get(r);
+            if (v >= from && v <= to)
+                expected++;
+        }
+        int[] found = {0};
+        reader.scan(new String[] {column}, column, from, to, row -> found[0]++);
+        check(column + " range [" + from + "," + to + "]", found[0] == expected, found[0] + " instead of " + expected);
+        if (reader.getNrSkippedRowGroups() == 0)
+            check(column + " range [" + from + "," + to + "] skipped", false, 0);
+    }
+
+    /**
+     * @param args none
+     * @throws IOException when the file cannot be written or read
+     */
+    public static void main(final String[] args) throws IOException
+    {
+        new ColumnarRoundTripTest();
+    }
+
+}
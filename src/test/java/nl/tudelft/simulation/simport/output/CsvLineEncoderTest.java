@@ -0,0 +1,240 @@
+package nl.tudelft.simulation.simport.output;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import org.djunits.unit.DurationUnit;
+import org.djunits.unit.TimeUnit;
+import org.djunits.value.vdouble.scalar.Duration;
+
+import nl.tudelft.simulation.dsol.simulators.clock.ClockTime;
+import nl.tudelft.simulation.simport.util.CheckedTest;
+
+/**
+ * CsvLineEncoderTest checks that the CsvLineEncoder produces the same text as the methods it replaces: Long.toString(),
+ * Double.toString(), String.format("%.nf"), ClockTime.ymdhm(), Duration.toString(), Enum.toString() and the UTF-8 encoding
+ * of a String, for random values and for the edge cases of the fast paths, such as the limits of the plain notation of
+ * Double.toString(), values halfway between two outputs of String.format, negative zero, and surrogate pairs.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class CsvLineEncoderTest extends CheckedTest
+{
+    /** an enum with a constant that overrides toString(). */
+    private enum Kind
+    {
+        /** the plain constant. */
+        PLAIN,
+
+        /** the constant with an own text. */
+        LABELED
+        {
+            @Override
+            public String toString()
+            {
+                return "labeled, \u00e9";
+            }
+        };
+    }
+
+    /** the number of random values per test. */
+    private static final int N = 200_000;
+
+    /** the encoder, which is reused for all values. */
+    private final CsvLineEncoder encoder = new CsvLineEncoder(16);
+
+    /**
+     * @throws IOException when writing to the StringWriter fails
+     */
+    public CsvLineEncoderTest() throws IOException
+    {
+        Random random = new Random(17L);
+        testLong(random);
+        testDouble(random);
+        testFixed(random);
+        testClockTime(random);
+        testDuration(random);
+        testText();
+        report();
+    }
+
+    /**
+     * @param random the random generator
+     */
+    private void testLong(final Random random)
+    {
+        long[] edges = {0L, 1L, -1L, 9L, 10L, 99L, 100L, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE,
+                Long.MIN_VALUE + 1, 999_999_999_999_999_999L, 1_000_000_000_000_000_000L};
+        for (long v : edges)
+            checkText("long", Long.toString(v), fresh().appendLong(v));
+        for (int i = 0; i < N; i++)
+        {
+            long v = random.nextLong() >> random.nextInt(64);
+            checkText("long", Long.toString(v), fresh().appendLong(v));
+        }
+    }
+
+    /**
+     * @param random the random generator
+     */
+    private void testDouble(final Random random)
+    {
+        double[] edges = {0.0, -0.0, 1.0, -1.0, 1E-3, Math.nextDown(1E-3), 1E7, Math.nextDown(1E7), 0.1, 0.2, 0.3, 1.0 / 3.0,
+                9_999_999.999999998, 123456.78901234567, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.MIN_VALUE, Double.MAX_VALUE, 4.35, 2.675, 1E-4, 0.001, 0.0015};
+        for (double v : edges)
+            checkText("double", Double.toString(v), fresh().appendDouble(v));
+        for (int i = 0; i < N; i++)
+        {
+            double v = randomDouble(random);
+            checkText("double", Double.toString(v), fresh().appendDouble(v));
+        }
+    }
+
+    /**
+     * @param random the random generator
+     */
+    private void testFixed(final Random random)
+    {
+        double[] edges = {0.0, -0.0, 0.5, 1.5, 2.5, -0.5, 0.125, 0.375, 1.005, 2.675, 1E14, 1E15, 1E16, -1E-9, Double.NaN,
+                Double.POSITIVE_INFINITY};
+        for (double v : edges)
+            for (int d = 0; d <= 8; d++)
+                checkText("fixed " + d, String.format(Locale.ROOT, "%." + d + "f", v), fresh().appendFixed(v, d));
+        for (int i = 0; i < N; i++)
+        {
+            double v = randomDouble(random);
+            int d = random.nextInt(9);
+            checkText("fixed " + d, String.format(Locale.ROOT, "%." + d + "f", v), fresh().appendFixed(v, d));
+        }
+    }
+
+    /**
+     * @param random the random generator
+     */
+    private void testClockTime(final Random random)
+    {
+        double[] edges = {0.0, -1.0, 59.5, 86399.5, 951_782_400.0, 4_107_542_400.0, -62_135_596_800.0, 253_402_300_799.0,
+                253_402_300_800.0};
+        for (double s : edges)
+        {
+            ClockTime t = new ClockTime(s, TimeUnit.EPOCH_SECOND);
+            checkText("clock time " + s, t.ymdhm(), fresh().appendClockTime(t));
+        }
+        for (int i = 0; i < N / 10; i++)
+        {
+            double s = 1.5E9 + 5E8 * random.nextDouble();
+            ClockTime t = new ClockTime(s, TimeUnit.EPOCH_SECOND);
+            checkText("clock time " + s, t.ymdhm(), fresh().appendClockTime(t));
+        }
+        checkText("clock time null", "null", fresh().appendClockTime(null));
+    }
+
+    /**
+     * @param random the random generator
+     */
+    private void testDuration(final Random random)
+    {
+        DurationUnit[] units = {DurationUnit.SECOND, DurationUnit.MINUTE, DurationUnit.HOUR, DurationUnit.DAY};
+        double[] edges = {0.0, -0.0, 1E-4, 9.99E-5, 1E8, 99_999_999.0, -1E7, -9_999_999.0, 3600.0, 0.5, Double.NaN};
+        for (DurationUnit unit : units)
+        {
+            for (double v : edges)
+            {
+                Duration duration = new Duration(v, unit);
+                checkText("duration " + v + " " + unit, duration.toString(), fresh().appendDuration(duration));
+            }
+        }
+        for (int i = 0; i < N / 10; i++)
+        {
+            DurationUnit unit = units[random.nextInt(units.length)];
+            Duration duration = new Duration(randomDouble(random), unit);
+            checkText("duration " + unit, duration.toString(), fresh().appendDuration(duration));
+        }
+    }
+
+    /**
+     * Test the text fields, the enums, the objects, and writeTo().
+     * @throws IOException when writing to the StringWriter fails
+     */
+    private void testText() throws IOException
+    {
+        String[] texts = {"", "abc", "a,b", "say \"hi\"", "line\nbreak", "cr\r", "café", "€ 5", "🚢 vessel",
+                "lone \ud83d surrogate"};
+        for (String s : texts)
+        {
+            String utf8 = new String(s.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+            checkText("text", utf8, fresh().appendText(s));
+            checkText("quoted", "\"" + utf8.replace("\"", "\"\"") + "\"", fresh().appendQuoted(s));
+            boolean quote = s.contains(",") || s.contains("\"") || s.contains("\n") || s.contains("\r");
+            checkText("field", quote ? "\"" + utf8.replace("\"", "\"\"") + "\"" : utf8, fresh().appendField(s));
+            StringWriter writer = new StringWriter();
+            fresh().appendField(s).writeTo(writer);
+            checkText("writeTo", this.encoder.toString(), writer.toString());
+        }
+        checkText("text null", "null", fresh().appendText(null));
+        checkText("quoted null", "\"null\"", fresh().appendQuoted(null));
+        checkText("field null", "", fresh().appendField(null));
+
+        for (Locale.Category category : Locale.Category.values())
+            checkText("enum", category.toString(), fresh().appendEnum(category));
+        for (Kind kind : Kind.values())
+            checkText("enum", kind.toString(), fresh().appendEnum(kind));
+        checkText("enum null", "null", fresh().appendEnum(null));
+
+        Object[] objects = {null, "text", 42, -7L, (short) 3, (byte) -1, 0.1, 2.5E-7, 1.0F, Locale.Category.DISPLAY,
+                new Duration(90.0, DurationUnit.MINUTE), new ClockTime(1.7E9, TimeUnit.EPOCH_SECOND), new StringBuilder("sb")};
+        for (Object o : objects)
+        {
+            String expected = o instanceof ClockTime t ? t.ymdhm() : String.valueOf(o);
+            checkText("object " + (o == null ? "null" : o.getClass().getSimpleName()), expected,
+                    fresh().appendObject(o));
+        }
+
+        this.encoder.reset();
+        this.encoder.appendLong(1).append(',').appendDouble(2.5).append(',').appendField("x").appendLineSeparator();
+        checkText("line", "1,2.5,x" + System.lineSeparator(), this.encoder);
+    }
+
+    /**
+     * @return the encoder after a reset
+     */
+    private CsvLineEncoder fresh()
+    {
+        this.encoder.reset();
+        return this.encoder;
+    }
+
+    /**
+     * Draw a random double with a random magnitude, sign and number of significant digits.
+     * @param random the random generator
+     * @return a random double
+     */
+    private static double randomDouble(final Random random)
+    {
+        double v = switch (random.nextInt(4))
+        {
+            case 0 -> random.nextDouble() * Math.pow(10.0, random.nextInt(24) - 8);
+            case 1 -> Math.round(random.nextDouble() * 1E6) / Math.pow(10.0, random.nextInt(8));
+            case 2 -> Double.longBitsToDouble(random.nextLong() & 0x7FEFFFFFFFFFFFFFL);
+            default -> random.nextInt(100_000) / 8.0;
+        };
+        return random.nextBoolean() ? -v : v;
+    }
+
+    /**
+     * @param args none
+     * @throws IOException when writing to the StringWriter fails
+     */
+    public static void main(final String[] args) throws IOException
+    {
+        new CsvLineEncoderTest();
+    }
+
+}
@@ -0,0 +1,135 @@
+package nl.tudelft.simulation.simport.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import nl.tudelft.simulation.simport.util.CheckedTest;
+import nl.tudelft.simulation.simport.util.SimPortRuntimeException;
+
+/**
+ * OutputPipelineTest writes records through a synchronous and an asynchronous OutputPipeline and checks that both write the
+ * same lines in the same order. It also lets the encoder throw an exception on the writer thread, and checks that the
+ * simulation thread gets an exception from claim(), publish() or close() instead of waiting forever for a free record in the
+ * full ring.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class OutputPipelineTest extends CheckedTest
+{
+    /** the number of records to write. */
+    private static final int N = 100_000;
+
+    /** the record number at which the failing encoder throws. */
+    private static final int FAIL_AT = 1000;
+
+    /** the maximum time to wait for the producer in milliseconds. */
+    private static final long TIMEOUT_MILLIS = 10_000L;
+
+    /** the encoder of a record with a number into a line. */
+    private static final OutputPipeline.RecordEncoder ENCODER =
+            (record, line) -> line.appendLong(record.getLong(0)).append(',').appendDouble(record.getDouble(0)).append('\n');
+
+    /**
+     * @throws InterruptedException when the test is interrupted
+     */
+    public OutputPipelineTest() throws InterruptedException
+    {
+        testSameOutput();
+        testEncoderFailure();
+        report();
+    }
+
+    /** Test that the synchronous and asynchronous pipelines write the same lines in the same order. */
+    private void testSameOutput()
+    {
+        String sync = writeAll(false);
+        String async = writeAll(true);
+        check("number of lines", sync.split("\n").length == N, sync.split("\n").length);
+        check("async equals sync", sync.equals(async), async.length() + " vs " + sync.length() + " characters");
+    }
+
+    /**
+     * Write N records through a pipeline with a small ring.
+     * @param async whether the pipeline is asynchronous
+     * @return the text that was written
+     */
+    private String writeAll(final boolean async)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OutputPipeline pipeline = new OutputPipeline(new OutputStream[] {out}, ENCODER, async, 64);
+        pipeline.writeDirect(0, "nr,value\n");
+        pipeline.start();
+        for (int i = 0; i < N; i++)
+            pipeline.publish(pipeline.claim(0, 0).addLong(i).addDouble(i / 8.0));
+        pipeline.close();
+        check("records written " + async, pipeline.getNrRecords() == N, pipeline.getNrRecords());
+        String text = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        check("header " + async, text.startsWith("nr,value\n"), text.substring(0, Math.min(20, text.length())));
+        return text.substring("nr,value\n".length());
+    }
+
+    /**
+     * Test that an exception in the encoder on the writer thread reaches the producer, and that the producer does not block.
+     * @throws InterruptedException when the test is interrupted
+     */
+    private void testEncoderFailure() throws InterruptedException
+    {
+        OutputPipeline.RecordEncoder failing = (record, line) ->
+        {
+            if (record.getLong(0) == FAIL_AT)
+                throw new IllegalStateException("encoder failure");
+            ENCODER.encode(record, line);
+        };
+        OutputPipeline pipeline = new OutputPipeline(new OutputStream[] {new ByteArrayOutputStream()}, failing, true, 16);
+        pipeline.start();
+        Throwable[] thrown = new Throwable[2];
+        int[] nrPublished = {0};
+        Thread producer = new Thread(() ->
+        {
+            try
+            {
+                for (int i = 0; i < N; i++)
+                {
+                    pipeline.publish(pipeline.claim(0, 0).addLong(i).addDouble(i));
+                    nrPublished[0]++;
+                }
+            }
+            catch (Throwable exception)
+            {
+                thrown[0] = exception;
+            }
+            try
+            {
+                pipeline.close();
+            }
+            catch (Throwable exception)
+            {
+                thrown[1] = exception;
+            }
+        }, "producer");
+        producer.setDaemon(true);
+        producer.start();
+        producer.join(TIMEOUT_MILLIS);
+        check("producer does not block", !producer.isAlive(), nrPublished[0] + " records published");
+        check("claim or publish throws", thrown[0] instanceof SimPortRuntimeException, thrown[0]);
+        check("cause is the encoder error", thrown[0] != null && thrown[0].getCause() instanceof IllegalStateException,
+                thrown[0] == null ? null : thrown[0].getCause());
+        check("stops soon after the failure", nrPublished[0] >= FAIL_AT && nrPublished[0] < N, nrPublished[0]);
+        check("close throws", thrown[1] instanceof SimPortRuntimeException, thrown[1]);
+        check("records written before the failure", pipeline.getNrRecords() == FAIL_AT, pipeline.getNrRecords());
+    }
+
+    /**
+     * @param args none
+     * @throws InterruptedException when the test is interrupted
+     */
+    public static void main(final String[] args) throws InterruptedException
+    {
+        new OutputPipelineTest();
+    }
+
+}
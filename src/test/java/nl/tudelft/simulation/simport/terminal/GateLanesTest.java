@@ -0,0 +1,229 @@
+package nl.tudelft.simulation.simport.terminal;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import nl.tudelft.simulation.simport.util.CheckedTest;
+
+/**
+ * GateLanesTest checks the lanes of a gate as parallel servers: a truck is admitted on the first free lane, a lane stays busy
+ * for the headway, changing the number of lanes keeps the busy times of the remaining lanes, and a saturated gate admits
+ * exactly its capacity per hour. It also drives the lanes as GateConstant does, with one event when the first lane becomes
+ * free, for terminals with Poisson truck arrivals, and checks that this admits as many trucks as a gate that polls its queue
+ * at the capacity rate, with fewer gate events and no longer waiting times.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class GateLanesTest extends CheckedTest
+{
+    /** number of terminals. */
+    private static final int NR_TERMINALS = 10;
+
+    /** number of simulated days. */
+    private static final int NR_DAYS = 7;
+
+    /** Run the tests. */
+    public GateLanesTest()
+    {
+        testSingleLane();
+        testParallelLanes();
+        testChangeLanes();
+        testCapacity();
+        testEventDriven();
+        report();
+    }
+
+    /** Test one lane with a headway. */
+    private void testSingleLane()
+    {
+        GateLanes lanes = new GateLanes();
+        check("default lanes", lanes.getNrLanes() == 1, lanes.getNrLanes());
+        check("free at start", lanes.getEarliestFreeTimeSI() == Double.NEGATIVE_INFINITY, lanes.getEarliestFreeTimeSI());
+        lanes.setHeadwaySI(10.0);
+        check("admit first", lanes.admit(0.0), false);
+        check("busy during headway", !lanes.admit(9.99), true);
+        check("earliest free", lanes.getEarliestFreeTimeSI() == 10.0, lanes.getEarliestFreeTimeSI());
+        check("admit at free time", lanes.admit(10.0), false);
+        check("busy again", lanes.getEarliestFreeTimeSI() == 20.0, lanes.getEarliestFreeTimeSI());
+
+        GateLanes noHeadway = new GateLanes();
+        check("no headway 1", noHeadway.admit(5.0), false);
+        check("no headway 2", noHeadway.admit(5.0), false);
+    }
+
+    /** Test that parallel lanes admit one truck each, and that the first lane that becomes free is used again. */
+    private void testParallelLanes()
+    {
+        GateLanes lanes = new GateLanes();
+        lanes.setNrLanes(3);
+        lanes.setHeadwaySI(30.0);
+        check("lane 1", lanes.admit(0.0), false);
+        check("lane 2", lanes.admit(5.0), false);
+        check("lane 3", lanes.admit(10.0), false);
+        check("all busy", !lanes.admit(10.0), true);
+        check("earliest of 3", lanes.getEarliestFreeTimeSI() == 30.0, lanes.getEarliestFreeTimeSI());
+        check("lane 1 free", lanes.admit(30.0), false);
+        check("next earliest", lanes.getEarliestFreeTimeSI() == 35.0, lanes.getEarliestFreeTimeSI());
+        check("lane 2 not free", !lanes.admit(34.0), true);
+    }
+
+    /** Test that the busy times of the remaining lanes are kept when the number of lanes changes. */
+    private void testChangeLanes()
+    {
+        GateLanes lanes = new GateLanes();
+        lanes.setNrLanes(2);
+        lanes.setHeadwaySI(60.0);
+        lanes.admit(0.0);
+        lanes.admit(0.0);
+        lanes.setNrLanes(4);
+        check("more lanes", lanes.getNrLanes() == 4, lanes.getNrLanes());
+        check("new lane 1", lanes.admit(1.0), false);
+        check("new lane 2", lanes.admit(1.0), false);
+        check("old lanes busy", !lanes.admit(59.0), true);
+        check("earliest after growing", lanes.getEarliestFreeTimeSI() == 60.0, lanes.getEarliestFreeTimeSI());
+        lanes.setNrLanes(1);
+        check("fewer lanes", lanes.getNrLanes() == 1, lanes.getNrLanes());
+        check("remaining lane busy", lanes.getEarliestFreeTimeSI() == 60.0, lanes.getEarliestFreeTimeSI());
+        lanes.setNrLanes(0);
+        check("at least 1 lane", lanes.getNrLanes() == 1, lanes.getNrLanes());
+    }
+
+    /** Test that a gate with an endless queue admits exactly its capacity per hour, for any number of lanes. */
+    private void testCapacity()
+    {
+        int capTotal = 120;
+        for (int nrLanes = 1; nrLanes <= 6; nrLanes++)
+        {
+            GateLanes lanes = new GateLanes();
+            lanes.setNrLanes(nrLanes);
+            lanes.setHeadwaySI(3600.0 * nrLanes / capTotal);
+            int admitted = 0;
+            for (double now = 0.0; now < 3600.0; now = lanes.getEarliestFreeTimeSI())
+            {
+                while (lanes.admit(now))
+                    admitted++;
+            }
+            check("capacity with " + nrLanes + " lanes", admitted == capTotal, admitted);
+        }
+    }
+
+    /**
+     * Compare the event-driven lanes with a polling gate for terminals with Poisson arrivals between 30% and 90% of the
+     * capacity.
+     */
+    private void testEventDriven()
+    {
+        Random random = new Random(42L);
+        double horizon = NR_DAYS * 86400.0;
+        for (int terminal = 0; terminal < NR_TERMINALS; terminal++)
+        {
+            int capTotal = 60 + 20 * terminal;
+            int nrLanes = 2 + terminal % 4;
+            double rate = capTotal * (0.3 + 0.6 * terminal / (NR_TERMINALS - 1.0)) / 3600.0;
+            double[] arrivals = new double[(int) (2 * rate * horizon) + 10];
+            int n = 0;
+            for (double t = -Math.log(1.0 - random.nextDouble()) / rate; t < horizon && n < arrivals.length; t +=
+                    -Math.log(1.0 - random.nextDouble()) / rate)
+                arrivals[n++] = t;
+            arrivals = Arrays.copyOf(arrivals, n);
+            double[] poll = polling(arrivals, capTotal, horizon);
+            double[] event = eventDriven(arrivals, capTotal, nrLanes, horizon);
+            String name = "terminal " + terminal;
+            // trucks that are still queued at the horizon are not admitted; at most a few hours of arrivals
+            check(name + " polling admits", poll[1] > n - 2.0 * 3600.0 * rate && poll[1] <= n, poll[1] + " of " + n);
+            check(name + " event-driven admits", event[1] > n - 2.0 * 3600.0 * rate && event[1] <= n,
+                    event[1] + " of " + n);
+            check(name + " fewer events", event[0] < poll[0], event[0] + " vs " + poll[0]);
+            check(name + " waiting", event[2] >= 0.0 && event[2] / event[1] <= poll[2] / poll[1] + 1E-9,
+                    event[2] / event[1] + " vs " + poll[2] / poll[1]);
+        }
+    }
+
+    /**
+     * Simulate one terminal with a gate that polls its queue every 60/capTotal minutes.
+     * @param arrivals the sorted arrival times in seconds
+     * @param capTotal the gate capacity per hour
+     * @param horizon the simulated time in seconds
+     * @return {nr of gate events, nr of trucks admitted, total waiting time in seconds}
+     */
+    private static double[] polling(final double[] arrivals, final int capTotal, final double horizon)
+    {
+        double interval = 3600.0 / capTotal;
+        int next = 0;
+        ArrayDeque<Double> queue = new ArrayDeque<>();
+        long events = 0;
+        long admitted = 0;
+        double waiting = 0.0;
+        for (double t = 0.0; t < horizon; t += interval)
+        {
+            events++;
+            while (next < arrivals.length && arrivals[next] <= t)
+                queue.addLast(arrivals[next++]);
+            if (!queue.isEmpty())
+            {
+                waiting += t - queue.pollFirst();
+                admitted++;
+            }
+        }
+        return new double[] {events, admitted, waiting};
+    }
+
+    /**
+     * Simulate one terminal with the lanes as GateConstant uses them: trucks are admitted on arrival when a lane is free, and
+     * one event is scheduled for the time the first lane becomes free while trucks are waiting.
+     * @param arrivals the sorted arrival times in seconds
+     * @param capTotal the gate capacity per hour
+     * @param nrLanes the number of lanes-in
+     * @param horizon the simulated time in seconds
+     * @return {nr of gate events, nr of trucks admitted, total waiting time in seconds}
+     */
+    private static double[] eventDriven(final double[] arrivals, final int capTotal, final int nrLanes, final double horizon)
+    {
+        GateLanes lanes = new GateLanes();
+        lanes.setNrLanes(nrLanes);
+        lanes.setHeadwaySI(3600.0 * nrLanes / capTotal);
+        ArrayDeque<Double> queue = new ArrayDeque<>();
+        PriorityQueue<Double> laneFreeEvents = new PriorityQueue<>();
+        long events = 0;
+        long admitted = 0;
+        double waiting = 0.0;
+        int next = 0;
+        while (true)
+        {
+            double tArrival = next < arrivals.length ? arrivals[next] : Double.POSITIVE_INFINITY;
+            double tFree = laneFreeEvents.isEmpty() ? Double.POSITIVE_INFINITY : laneFreeEvents.peek();
+            double now = Math.min(tArrival, tFree);
+            if (now >= horizon)
+                break;
+            if (tFree <= tArrival)
+                laneFreeEvents.poll();
+            else
+                queue.addLast(arrivals[next++]);
+            while (!queue.isEmpty() && lanes.admit(now))
+            {
+                waiting += now - queue.pollFirst();
+                admitted++;
+            }
+            if (!queue.isEmpty() && laneFreeEvents.isEmpty())
+            {
+                laneFreeEvents.add(lanes.getEarliestFreeTimeSI());
+                events++;
+            }
+        }
+        return new double[] {events, admitted, waiting};
+    }
+
+    /**
+     * @param args none
+     */
+    public static void main(final String[] args)
+    {
+        new GateLanesTest();
+    }
+
+}
@@ -0,0 +1,96 @@
+package nl.tudelft.simulation.simport.terminal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import gnu.trove.list.TIntList;
+
+import nl.tudelft.simulation.simport.Location;
+import nl.tudelft.simulation.simport.container.Container;
+import nl.tudelft.simulation.simport.util.CheckedTest;
+
+/**
+ * YardConstantTest stores and releases random containers in a YardConstant and in a LinkedHashMap, and checks that the yard
+ * returns its container numbers in the same order as the LinkedHashMap, also for containers that leave the yard and enter it
+ * again.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class YardConstantTest extends CheckedTest
+{
+    /** the number of containers. */
+    private static final int NR_CONTAINERS = 2000;
+
+    /** the number of random store and release operations. */
+    private static final int NR_OPERATIONS = 50_000;
+
+    /** Run the tests. */
+    public YardConstantTest()
+    {
+        testEntryOrder();
+        report();
+    }
+
+    /** Test the order of the container numbers against a LinkedHashMap. */
+    private void testEntryOrder()
+    {
+        Random random = new Random(15L);
+        List<Container> containers = new ArrayList<>();
+        for (int i = 0; i < NR_CONTAINERS; i++)
+            containers.add(new Container(1_000_000 - 7 * i, 20, false, false, Location.TERMINAL));
+        YardConstant yard = new YardConstant(null, "Y");
+        Map<Integer, Container> reference = new LinkedHashMap<>();
+        for (int op = 0; op < NR_OPERATIONS; op++)
+        {
+            Container container = containers.get(random.nextInt(NR_CONTAINERS));
+            if (random.nextDouble() < 0.55)
+            {
+                yard.storeContainer(container);
+                reference.putIfAbsent(container.getNr(), container);
+            }
+            else
+                check("release " + op, yard.releaseContainer(container) == (reference.remove(container.getNr()) != null),
+                        container.getNr());
+            if (op % 997 == 0)
+                checkOrder("order at " + op, yard.getContainerNrs(), reference);
+        }
+        checkOrder("final order", yard.getContainerNrs(), reference);
+        checkOrder("order read twice", yard.getContainerNrs(), reference);
+    }
+
+    /**
+     * Check that the container numbers are in the order of the reference map.
+     * @param name the name of the check
+     * @param nrs the container numbers of the yard
+     * @param reference the reference map in insertion order
+     */
+    private void checkOrder(final String name, final TIntList nrs, final Map<Integer, Container> reference)
+    {
+        check(name + " size", nrs.size() == reference.size(), nrs.size() + " vs " + reference.size());
+        int i = 0;
+        for (int nr : reference.keySet())
+        {
+            if (i >= nrs.size() || nrs.get(i) != nr)
+            {
+                fail(name + ": wrong number at position " + i);
+                return;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * @param args none
+     */
+    public static void main(final String[] args)
+    {
+        new YardConstantTest();
+    }
+
+}
@@ -0,0 +1,133 @@
+package nl.tudelft.simulation.simport.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import nl.tudelft.simulation.jstats.streams.MersenneTwister;
+import nl.tudelft.simulation.jstats.streams.StreamInterface;
+
+/**
+ * AliasTableTest checks with a chi-square test that the AliasTable draws values with the same distribution as the cumulative
+ * NavigableMap with ceilingEntry() that it replaces. Per weight set, the counts of both samplers are tested against the
+ * expected counts, and against each other (two-sample test). The weight sets contain zero weights, which should never be
+ * drawn.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public class AliasTableTest extends CheckedTest
+{
+    /** number of draws per sampler. */
+    private static final int N = 2_000_000;
+
+    /** the z-value for a significance level of 0.001. */
+    private static final double Z_999 = 3.090;
+
+    /** */
+    public AliasTableTest()
+    {
+        // the default hour weights of the trucking company
+        test("hours", new double[] {1, 1, 1, 1, 2, 4, 6, 8, 9, 9, 9, 8, 7, 8, 9, 9, 8, 6, 4, 3, 2, 2, 1, 1});
+        double[] zipf = new double[1000];
+        for (int i = 0; i < zipf.length; i++)
+            zipf[i] = i % 7 == 3 ? 0.0 : 1.0 / (i + 1);
+        test("zipf-1000", zipf);
+        double[] skewed = new double[50];
+        skewed[0] = 1000.0;
+        for (int i = 1; i < skewed.length; i++)
+            skewed[i] = i % 2 == 0 ? 0.0 : 0.5;
+        test("skewed-50", skewed);
+        report();
+    }
+
+    /**
+     * Test the alias table for one set of weights.
+     * @param name the name of the weight set
+     * @param weights the weights
+     */
+    private void test(final String name, final double[] weights)
+    {
+        int n = weights.length;
+        List<Integer> values = new ArrayList<>(n);
+        double total = 0.0;
+        for (int i = 0; i < n; i++)
+        {
+            values.add(i);
+            total += weights[i];
+        }
+        AliasTable<Integer> alias = new AliasTable<>(values, weights);
+
+        // the cumulative map as it was used for the draws, without the zero weights
+        NavigableMap<Double, Integer> map = new TreeMap<>();
+        double cumulative = 0.0;
+        for (int i = 0; i < n; i++)
+        {
+            if (weights[i] == 0.0)
+                continue;
+            cumulative += weights[i];
+            map.put(cumulative / total, i);
+        }
+
+        StreamInterface stream = new MersenneTwister(12L);
+        long[] countAlias = new long[n];
+        long[] countMap = new long[n];
+        for (int k = 0; k < N; k++)
+        {
+            countAlias[alias.sampleIndex(stream.nextDouble())]++;
+            countMap[map.ceilingEntry(stream.nextDouble()).getValue()]++;
+        }
+
+        double chiAlias = 0.0;
+        double chiMap = 0.0;
+        double chiTwo = 0.0;
+        int df = -1;
+        for (int i = 0; i < n; i++)
+        {
+            if (weights[i] == 0.0)
+            {
+                if (countAlias[i] > 0)
+                    fail(name + ": alias table drew value " + i + " with weight zero");
+                continue;
+            }
+            df++;
+            double expected = N * weights[i] / total;
+            chiAlias += (countAlias[i] - expected) * (countAlias[i] - expected) / expected;
+            chiMap += (countMap[i] - expected) * (countMap[i] - expected) / expected;
+            chiTwo += (double) (countAlias[i] - countMap[i]) * (countAlias[i] - countMap[i]) / (countAlias[i] + countMap[i]);
+        }
+        double critical = critical(df);
+        System.out.println(String.format("%-10s df=%4d  chi2(alias)=%8.1f  chi2(map)=%8.1f  chi2(alias-map)=%8.1f  critical=%8.1f",
+                name, df, chiAlias, chiMap, chiTwo, critical));
+        if (chiAlias > critical || chiTwo > critical)
+            fail(name + ": chi-square above the critical value");
+        for (int i = 0; i < n; i++)
+        {
+            check(name + " probability of " + i, Math.abs(alias.getProbability(i) - weights[i] / total) <= 1E-12,
+                    alias.getProbability(i));
+        }
+    }
+
+    /**
+     * Approximate the 0.999 quantile of the chi-square distribution with the Wilson-Hilferty transformation.
+     * @param df the degrees of freedom
+     * @return the critical value
+     */
+    private static double critical(final int df)
+    {
+        double a = 2.0 / (9.0 * df);
+        return df * Math.pow(1.0 - a + Z_999 * Math.sqrt(a), 3);
+    }
+
+    /**
+     * @param args none
+     */
+    public static void main(final String[] args)
+    {
+        new AliasTableTest();
+    }
+
+}
@@ -0,0 +1,78 @@
+package nl.tudelft.simulation.simport.util;
+
+/**
+ * CheckedTest is the base class of the tests that run as a main program. A test calls the check methods from its constructor,
+ * and report() at the end, which prints whether all checks passed and exits with status 1 when a check failed, so a build
+ * script can run the tests without a test framework.
+ * <p>
+ * Copyright (c) 2025-2025 Delft University of Technology, PO Box 5, 2600 AA, Delft, the Netherlands. All rights reserved. <br>
+ * BSD-style license.
+ * </p>
+ * @author <a href="https://www.tudelft.nl/averbraeck">Alexander Verbraeck</a>
+ */
+public abstract class CheckedTest
+{
+    /** the maximum number of failures that is printed; tests with many random values can fail many times. */
+    private static final int MAX_PRINTED = 20;
+
+    /** the number of failed checks. */
+    private int nrFailures = 0;
+
+    /**
+     * Check a condition, and print the name and the value when it does not hold.
+     * @param name the name of the check
+     * @param condition the condition that should hold
+     * @param value the value to print when the condition does not hold
+     */
+    protected void check(final String name, final boolean condition, final Object value)
+    {
+        if (!condition)
+            fail(name + ": wrong value " + (value instanceof char[] c ? new String(c) : value));
+    }
+
+    /**
+     * Check that the text of an object equals the expected text.
+     * @param name the name of the check
+     * @param expected the expected text
+     * @param actual the object of which the toString() is compared
+     */
+    protected void checkText(final String name, final String expected, final Object actual)
+    {
+        String text = String.valueOf(actual);
+        if (!expected.equals(text))
+            fail(name + ": expected [" + expected + "], got [" + text + "]");
+    }
+
+    /**
+     * Register a failed check.
+     * @param message the message to print
+     */
+    protected void fail(final String message)
+    {
+        if (this.nrFailures < MAX_PRINTED)
+            System.out.println(message);
+        this.nrFailures++;
+    }
+
+    /** @return whether all checks so far passed */
+    protected boolean isOk()
+    {
+        return this.nrFailures == 0;
+    }
+
+    /**
+     * Print whether all checks passed, and exit with status 1 when a check failed.
+     */
+    protected void report()
+    {
+        String name = getClass().getSimpleName();
+        if (isOk())
+            System.out.println(name + ": all tests passed");
+        else
+        {
+            System.out.println(name + ": FAILED, " + this.nrFailures + " failed checks");
+            System.exit(1);
+        }
+    }
+
+}